@@ -0,0 +1,394 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import jfxtras.icalendarfx.components.VAlarm;
+import jfxtras.icalendarfx.components.VLocatable;
+import jfxtras.icalendarfx.parameters.AlarmTriggerRelationship.AlarmTriggerRelationshipType;
+import jfxtras.icalendarfx.properties.component.alarm.Trigger;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities.DateTimeType;
+
+/**
+ * Finds the {@link VAlarm alarms} of a {@link VCalendar} that fire in a range, for applications that show reminders.
+ * 
+ * <p>The scheduler keeps a min-heap with the next trigger instant of every alarm of the calendar's
+ * {@link jfxtras.icalendarfx.components.VEvent VEVENT} and {@link jfxtras.icalendarfx.components.VTodo VTODO}
+ * components.  Relative triggers are resolved against the START or END of each recurrence.  When an instant
+ * is returned by {@link #poll(Temporal)}, the alarm's next repetition (see REPEAT and DURATION) and next recurrence
+ * are added, so the heap holds about one entry per alarm and finding what fires next takes O(log n) time.</p>
+ * 
+ * <p>The calendar tells its schedulers about added, removed and changed components; their alarms are scheduled
+ * again from the current position on the next call.  A component list changed directly, such as by replacing one of
+ * its components, is detected by its change count and all alarms are scheduled again.  Alarms that have already
+ * been returned aren't returned again.
+ * Floating date/times fire in the default time zone, matching {@link OccurrenceIndex}.</p>
+ * 
+ * <p>The calendar only keeps a weak reference to the scheduler.  Call {@link #close()} to stop updates
+ * before that.</p>
+ */
+public class AlarmScheduler implements AutoCloseable
+{
+    private static final long SEED_MARGIN_SECONDS = 24 * 60 * 60;
+    
+    private final VCalendar vCalendar;
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(
+            Comparator.comparingLong((Entry e) -> e.second).thenComparingLong(e -> e.sequence));
+    private final Map<VLocatable<?>, State> states = new IdentityHashMap<>();
+    private final Map<VLocatable<?>, Boolean> pending = new IdentityHashMap<>(); // component -> is in calendar
+    private long position; // triggers before position have been returned
+    private long sequence;
+    /* component lists the alarms were scheduled from, changed directly if they aren't current */
+    private ComponentListState vEventsState;
+    private ComponentListState vTodosState;
+    
+    /**
+     * Create a scheduler for the alarms of a calendar that fire at or after start
+     * 
+     * @param vCalendar  calendar with the alarms
+     * @param start  first instant of alarms to return
+     */
+    public AlarmScheduler(VCalendar vCalendar, Temporal start)
+    {
+        this.vCalendar = vCalendar;
+        position = OccurrenceIndex.epochSecond(start);
+        rebuild();
+        vCalendar.addAlarmScheduler(this);
+    }
+    
+    /**
+     * Returns the next alarm to fire without removing it, or null if no more alarms fire
+     * 
+     * @return  next alarm or null
+     */
+    public synchronized ScheduledAlarm peek()
+    {
+        update();
+        Entry entry = head();
+        return (entry == null) ? null : entry.toScheduledAlarm();
+    }
+    
+    /**
+     * Removes and returns the alarms that fire before end, in order of trigger time.  Later calls only return
+     * alarms that fire at or after end.
+     * 
+     * @param end  end of range, exclusive
+     * @return  alarms firing before end
+     */
+    public synchronized List<ScheduledAlarm> poll(Temporal end)
+    {
+        update();
+        long endSecond = OccurrenceIndex.epochSecond(end);
+        List<ScheduledAlarm> alarms = new ArrayList<>();
+        for (Entry entry = head(); (entry != null) && (entry.second < endSecond); entry = head())
+        {
+            queue.poll();
+            alarms.add(entry.toScheduledAlarm());
+            Cursor cursor = entry.cursor;
+            if (entry.repeat < cursor.repeatCount)
+            {
+                push(cursor, entry.recurrence, entry.repeat + 1, false);
+            }
+            if (entry.isFirst && (entry.recurrence != null))
+            {
+                schedule(cursor, cursor.nextRecurrence(entry.recurrence));
+            }
+        }
+        position = Math.max(position, endSecond);
+        return alarms;
+    }
+    
+    /** Stops following changes of the calendar */
+    @Override
+    public void close()
+    {
+        vCalendar.removeAlarmScheduler(this);
+    }
+    
+    /* Called by VCalendar when a component is added, removed or changed */
+    synchronized void changed(VLocatable<?> component, boolean isInCalendar)
+    {
+        pending.put(component, isInCalendar);
+    }
+    
+    /* True if the component lists haven't been changed directly since the alarms were scheduled from them */
+    synchronized boolean isCurrent()
+    {
+        return vEventsState.isCurrent(vCalendar.getVEvents()) && vTodosState.isCurrent(vCalendar.getVTodos());
+    }
+    
+    /* True if the component's alarms are scheduled or will be on the next call */
+    synchronized boolean contains(VLocatable<?> component)
+    {
+        Boolean isInCalendar = pending.get(component);
+        return (isInCalendar == null) ? states.containsKey(component) : isInCalendar;
+    }
+    
+    /* Mark the component lists current, after the lists and the scheduler were changed the same way */
+    synchronized void listsChanged()
+    {
+        vEventsState = new ComponentListState(vCalendar.getVEvents());
+        vTodosState = new ComponentListState(vCalendar.getVTodos());
+    }
+    
+    /* Reschedule changed components.  Their old entries are dropped when they reach the head. */
+    private void update()
+    {
+        for (Map.Entry<VLocatable<?>, Boolean> p : pending.entrySet())
+        {
+            State oldState = states.remove(p.getKey());
+            if (oldState != null)
+            {
+                oldState.isCurrent = false;
+            }
+            if (p.getValue())
+            {
+                add(p.getKey());
+            }
+        }
+        pending.clear();
+        if (! isCurrent())
+        { // component lists were changed directly
+            rebuild();
+        }
+    }
+    
+    private void rebuild()
+    {
+        states.values().forEach(s -> s.isCurrent = false);
+        states.clear();
+        queue.clear();
+        if (vCalendar.getVEvents() != null)
+        {
+            vCalendar.getVEvents().forEach(c -> add(c));
+        }
+        if (vCalendar.getVTodos() != null)
+        {
+            vCalendar.getVTodos().forEach(c -> add(c));
+        }
+        listsChanged();
+    }
+    
+    private void add(VLocatable<?> component)
+    {
+        State state = new State();
+        states.put(component, state);
+        if ((component.getVAlarms() == null) || (component.getDateTimeStart() == null))
+        {
+            return;
+        }
+        for (VAlarm vAlarm : component.getVAlarms())
+        {
+            if ((vAlarm.getTrigger() != null) && (vAlarm.getTrigger().getValue() != null))
+            {
+                seed(new Cursor(component, vAlarm, state));
+            }
+        }
+    }
+    
+    /* Schedule the first trigger at or after position */
+    private void seed(Cursor cursor)
+    {
+        if (cursor.absoluteTrigger != null)
+        {
+            schedule(cursor, null);
+            return;
+        }
+        Temporal dateTimeStart = cursor.component.getDateTimeStart().getValue();
+        long dateTimeStartSecond = OccurrenceIndex.epochSecond(dateTimeStart);
+        long lastRepeatOffset = cursor.triggerSecond(dateTimeStart, cursor.repeatCount) - dateTimeStartSecond;
+        long seedSecond = position - lastRepeatOffset - SEED_MARGIN_SECONDS;
+        Temporal seed = dateTimeStart;
+        if (seedSecond > dateTimeStartSecond)
+        {
+            ZoneId zone = (dateTimeStart instanceof ZonedDateTime) ? ((ZonedDateTime) dateTimeStart).getZone() : null;
+            seed = DateTimeType.of(dateTimeStart).from(ZonedDateTime.ofInstant(Instant.ofEpochSecond(seedSecond), ZoneOffset.UTC), zone);
+        }
+        Iterator<Temporal> iterator = cursor.component.streamRecurrences(seed).iterator();
+        while (iterator.hasNext())
+        {
+            Temporal recurrence = iterator.next();
+            if (cursor.triggerSecond(recurrence, cursor.repeatCount) >= position)
+            {
+                schedule(cursor, recurrence);
+                return;
+            }
+        }
+    }
+    
+    /* Push the first trigger at or after position of recurrence, or of a following recurrence if all are before position */
+    private void schedule(Cursor cursor, Temporal recurrence)
+    {
+        while ((recurrence != null) || (cursor.absoluteTrigger != null))
+        {
+            for (int repeat=0; repeat<=cursor.repeatCount; repeat++)
+            {
+                if (cursor.triggerSecond(recurrence, repeat) >= position)
+                {
+                    push(cursor, recurrence, repeat, true);
+                    return;
+                }
+            }
+            if (recurrence == null)
+            {
+                return; // absolute trigger is before position
+            }
+            recurrence = cursor.nextRecurrence(recurrence);
+        }
+    }
+    
+    private void push(Cursor cursor, Temporal recurrence, int repeat, boolean isFirst)
+    {
+        queue.add(new Entry(cursor, recurrence, repeat, cursor.triggerSecond(recurrence, repeat), isFirst, sequence++));
+    }
+    
+    /* Returns next current entry, removing entries of changed components */
+    private Entry head()
+    {
+        Entry entry = queue.peek();
+        while ((entry != null) && ! entry.cursor.state.isCurrent)
+        {
+            queue.poll();
+            entry = queue.peek();
+        }
+        return entry;
+    }
+    
+    /* Scheduling state of a component, replaced when the component changes */
+    private static final class State
+    {
+        boolean isCurrent = true;
+    }
+    
+    /* An alarm of a component */
+    private static final class Cursor
+    {
+        final VLocatable<?> component;
+        final VAlarm vAlarm;
+        final State state;
+        final ZonedDateTime absoluteTrigger;
+        final TemporalAmount offset;
+        final TemporalAmount duration; // component duration when trigger is related to END, otherwise null
+        final TemporalAmount repeatDuration;
+        final int repeatCount;
+        
+        Cursor(VLocatable<?> component, VAlarm vAlarm, State state)
+        {
+            this.component = component;
+            this.vAlarm = vAlarm;
+            this.state = state;
+            Trigger<?> trigger = vAlarm.getTrigger();
+            Object value = trigger.getValue();
+            absoluteTrigger = (value instanceof ZonedDateTime) ? (ZonedDateTime) value : null;
+            offset = (value instanceof TemporalAmount) ? (TemporalAmount) value : null;
+            boolean isRelatedToEnd = (trigger.getAlarmTrigger() != null)
+                    && (trigger.getAlarmTrigger().getValue() == AlarmTriggerRelationshipType.END);
+            duration = (isRelatedToEnd) ? component.getActualDuration() : null;
+            boolean isRepeating = (vAlarm.getRepeatCount() != null) && (vAlarm.getDuration() != null);
+            repeatDuration = (isRepeating) ? vAlarm.getDuration().getValue() : null;
+            repeatCount = (isRepeating) ? vAlarm.getRepeatCount().getValue() : 0;
+        }
+        
+        long triggerSecond(Temporal recurrence, int repeat)
+        {
+            Temporal trigger;
+            if (absoluteTrigger != null)
+            {
+                trigger = absoluteTrigger;
+            } else
+            {
+                trigger = (duration == null) ? recurrence : recurrence.plus(duration);
+                if (trigger instanceof LocalDate)
+                {
+                    trigger = ((LocalDate) trigger).atStartOfDay();
+                }
+                trigger = trigger.plus(offset);
+            }
+            for (int i=0; i<repeat; i++)
+            {
+                trigger = trigger.plus(repeatDuration);
+            }
+            return OccurrenceIndex.epochSecond(trigger);
+        }
+        
+        Temporal nextRecurrence(Temporal recurrence)
+        {
+            Iterator<Temporal> iterator = component.streamRecurrences(recurrence).iterator();
+            while (iterator.hasNext())
+            {
+                Temporal nextRecurrence = iterator.next();
+                if (DateTimeUtilities.isAfter(nextRecurrence, recurrence))
+                {
+                    return nextRecurrence;
+                }
+            }
+            return null;
+        }
+    }
+    
+    /* A trigger instant in the heap */
+    private static final class Entry
+    {
+        final Cursor cursor;
+        final Temporal recurrence;
+        final int repeat;
+        final long second;
+        final boolean isFirst; // first entry of the recurrence, the next recurrence is scheduled when it fires
+        final long sequence;
+        
+        Entry(Cursor cursor, Temporal recurrence, int repeat, long second, boolean isFirst, long sequence)
+        {
+            this.cursor = cursor;
+            this.recurrence = recurrence;
+            this.repeat = repeat;
+            this.second = second;
+            this.isFirst = isFirst;
+            this.sequence = sequence;
+        }
+        
+        ScheduledAlarm toScheduledAlarm()
+        {
+            ZonedDateTime triggerTime = ZonedDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneOffset.UTC);
+            return new ScheduledAlarm(cursor.vAlarm, cursor.component, recurrence, repeat, triggerTime);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.RandomAccess;
+
+/**
+ * List of a calendar's components that counts its changes.  Every change, including replacing an element
+ * with {@link #set(int, Object)}, is counted, so an index of the components can tell that the list was changed
+ * directly instead of through the calendar.  Iterators and sub-lists change the list through the counted methods.
+ * 
+ * @param <E>  component type
+ */
+final class ComponentList<E> extends AbstractList<E> implements RandomAccess
+{
+    private final ArrayList<E> elements = new ArrayList<>();
+    private int changeCount;
+    
+    /** Return the number of changes to the list */
+    int changeCount()
+    {
+        return changeCount;
+    }
+    
+    @Override
+    public E get(int index)
+    {
+        return elements.get(index);
+    }
+    
+    @Override
+    public int size()
+    {
+        return elements.size();
+    }
+    
+    @Override
+    public E set(int index, E element)
+    {
+        E previous = elements.set(index, element);
+        changeCount++;
+        return previous;
+    }
+    
+    @Override
+    public void add(int index, E element)
+    {
+        elements.add(index, element);
+        modCount++;
+        changeCount++;
+    }
+    
+    @Override
+    public E remove(int index)
+    {
+        E removed = elements.remove(index);
+        modCount++;
+        changeCount++;
+        return removed;
+    }
+    
+    @Override
+    public void clear()
+    {
+        elements.clear();
+        modCount++;
+        changeCount++;
+    }
+}
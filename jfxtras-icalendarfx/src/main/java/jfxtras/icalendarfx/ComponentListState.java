@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.util.List;
+
+/**
+ * A list of a calendar's components, and its state when it was read: the change count of a {@link ComponentList}
+ * or a copy of any other list.  Used by indexes of the components to tell if the list was changed since,
+ * such as by replacing one of its components, see {@link #isCurrent(List)}.
+ */
+final class ComponentListState
+{
+    private final List<?> list;
+    private final int changeCount;
+    private final Object[] elements;
+    
+    /** Remember list and its current state, list may be null */
+    ComponentListState(List<?> list)
+    {
+        this.list = list;
+        changeCount = (list instanceof ComponentList) ? ((ComponentList<?>) list).changeCount() : 0;
+        elements = ((list == null) || (list instanceof ComponentList)) ? null : list.toArray();
+    }
+    
+    /** True if list is the remembered list and it hasn't changed since */
+    boolean isCurrent(List<?> list)
+    {
+        if (list != this.list)
+        {
+            return false;
+        } else if (list == null)
+        {
+            return true;
+        } else if (list instanceof ComponentList)
+        {
+            return ((ComponentList<?>) list).changeCount() == changeCount;
+        }
+        if (list.size() != elements.length)
+        {
+            return false;
+        }
+        for (int i=0; i<elements.length; i++)
+        {
+            if (list.get(i) != elements[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
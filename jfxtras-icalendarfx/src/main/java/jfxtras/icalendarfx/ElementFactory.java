@@ -0,0 +1,341 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VComponentElement;
+import jfxtras.icalendarfx.parameters.VParameter;
+import jfxtras.icalendarfx.parameters.VParameterElement;
+import jfxtras.icalendarfx.properties.VProperty;
+import jfxtras.icalendarfx.properties.VPropertyElement;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRuleElement;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRulePart;
+
+/**
+ * Table of all calendar element names made from the calendar element enums.
+ * 
+ * Names are found directly from the characters of a content line, ignoring ASCII case, without making
+ * temporary strings.  Each name maps to a {@link Supplier} of a new empty element for each kind of element
+ * ({@link VComponent}, {@link VProperty}, {@link VParameter} and {@link RRulePart}) that uses the name.
+ * The suppliers are generated from the no-arg constructors, so making an element doesn't use reflection.
+ * Copies are made the same way from the copy constructors, see {@link #copy(VChild)}.
+ * 
+ * @see VElementBase#newEmptyVElement(Class, String)
+ * @see VElementBase#elementName(String)
+ */
+final class ElementFactory
+{
+    private static final int COMPONENT = 0;
+    private static final int PROPERTY = 1;
+    private static final int PARAMETER = 2;
+    private static final int RRULE_PART = 3;
+    private static final int KINDS = 4;
+    
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    
+    private static final Entry[] TABLE = makeTable();
+    private static final int MASK = TABLE.length - 1;
+    
+    private static class Entry
+    {
+        final String name;
+        final int hash;
+        // supplier of each kind of element, null if the kind doesn't use the name
+        final List<Supplier<? extends VChild>> suppliers = new ArrayList<>(Collections.nCopies(KINDS, null));
+        
+        Entry(String name)
+        {
+            this.name = name;
+            this.hash = hash(name, 0, name.length());
+        }
+    }
+    
+    private ElementFactory() { }
+    
+    /**
+     * Return the element name, in the same case as the enum, that matches the characters of content
+     * from start (inclusive) to end (exclusive), or null if there is no such element.
+     */
+    static String name(CharSequence content, int start, int end, boolean ignoreCase)
+    {
+        Entry entry = find(content, start, end, ignoreCase);
+        return (entry == null) ? null : entry.name;
+    }
+    
+    /**
+     * Return a new empty element of the kind superclass, which is {@link VComponent}, {@link VProperty},
+     * {@link VParameter} or {@link RRulePart}, with the name parameter.  Returns null if there is no
+     * such element.
+     */
+    static VChild newElement(Class<? extends VElement> superclass, String name)
+    {
+        int kind = kind(superclass);
+        if (kind < 0) return null;
+        Entry entry = find(name, 0, name.length(), false);
+        if (entry == null) return null;
+        Supplier<? extends VChild> supplier = entry.suppliers.get(kind);
+        return (supplier == null) ? null : supplier.get();
+    }
+    
+    /**
+     * Return a copy of the element made by the copy constructor of its class.  The function calling the
+     * copy constructor is generated the first time a class is copied, so later copies don't use reflection.
+     * 
+     * @throws IllegalStateException  if the class has no public copy constructor
+     * 
+     * @see VParentBase#copyChildrenInto(VParent)
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends VChild> T copy(T source)
+    {
+        return (T) COPIERS.get(source.getClass()).apply(source);
+    }
+    
+    private static final ClassValue<UnaryOperator<VChild>> COPIERS = new ClassValue<UnaryOperator<VChild>>()
+    {
+        @Override
+        protected UnaryOperator<VChild> computeValue(Class<?> elementClass)
+        {
+            return makeCopier(elementClass);
+        }
+    };
+    
+    private static int kind(Class<? extends VElement> superclass)
+    {
+        if (superclass == VProperty.class) return PROPERTY;
+        if (superclass == VParameter.class) return PARAMETER;
+        if (superclass == VComponent.class) return COMPONENT;
+        if (superclass == RRulePart.class) return RRULE_PART;
+        return -1;
+    }
+    
+    private static Entry find(CharSequence content, int start, int end, boolean ignoreCase)
+    {
+        int hash = hash(content, start, end);
+        int length = end - start;
+        for (int i = hash & MASK; TABLE[i] != null; i = (i + 1) & MASK)
+        {
+            Entry entry = TABLE[i];
+            if ((entry.hash == hash) && (entry.name.length() == length) && matches(entry.name, content, start, ignoreCase))
+            {
+                return entry;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean matches(String name, CharSequence content, int start, boolean ignoreCase)
+    {
+        for (int i = 0; i < name.length(); i++)
+        {
+            char c = content.charAt(start + i);
+            if (name.charAt(i) != ((ignoreCase) ? toUpperCase(c) : c)) return false;
+        }
+        return true;
+    }
+    
+    // hash ignores ASCII case so the same hash is found for lowercase content
+    private static int hash(CharSequence content, int start, int end)
+    {
+        int hash = 0;
+        for (int i = start; i < end; i++)
+        {
+            hash = 31 * hash + toUpperCase(content.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+    
+    private static char toUpperCase(char c)
+    {
+        return ((c >= 'a') && (c <= 'z')) ? (char) (c - ('a' - 'A')) : c;
+    }
+    
+    /*
+     * TABLE MAKER
+     */
+    private static Entry[] makeTable()
+    {
+        List<Entry> entries = new ArrayList<>();
+        for (VComponentElement v : VComponentElement.values())
+        {
+            addSupplier(entries, v.toString(), COMPONENT, v.elementClass());
+        }
+        for (VPropertyElement v : VPropertyElement.values())
+        {
+            addSupplier(entries, v.toString(), PROPERTY, v.elementClass());
+        }
+        for (VParameterElement v : VParameterElement.values())
+        {
+            addSupplier(entries, v.toString(), PARAMETER, v.elementClass());
+        }
+        for (RRuleElement v : RRuleElement.values())
+        {
+            addSupplier(entries, v.toString(), RRULE_PART, v.elementClass());
+        }
+        
+        int size = Integer.highestOneBit(entries.size() * 4);
+        Entry[] table = new Entry[size];
+        for (Entry entry : entries)
+        {
+            int i = entry.hash & (size - 1);
+            while (table[i] != null)
+            {
+                i = (i + 1) & (size - 1);
+            }
+            table[i] = entry;
+        }
+        return table;
+    }
+    
+    private static void addSupplier(List<Entry> entries, String name, int kind, Class<? extends VElement> elementClass)
+    {
+        Supplier<? extends VChild> supplier = makeSupplier(elementClass);
+        if (supplier == null) return;
+        Entry entry = entries.stream()
+                .filter(e -> e.name.equals(name))
+                .findAny()
+                .orElse(null);
+        if (entry == null)
+        {
+            entry = new Entry(name);
+            entries.add(entry);
+        }
+        entry.suppliers.set(kind, supplier);
+    }
+    
+    /*
+     * The supplier is generated with LambdaMetafactory from the no-arg constructor.  If that
+     * fails the constructor is invoked by reflection.  Every element class must have a public
+     * no-arg constructor.
+     */
+    @SuppressWarnings("unchecked")
+    private static Supplier<? extends VChild> makeSupplier(Class<? extends VElement> elementClass)
+    {
+        final Constructor<? extends VElement> constructor;
+        try
+        {
+            constructor = elementClass.getConstructor();
+        } catch (NoSuchMethodException | SecurityException e)
+        {
+            throw new IllegalStateException(elementClass.getSimpleName() + " has no public no-arg constructor", e);
+        }
+        try
+        {
+            MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP,
+                    "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    handle,
+                    handle.type());
+            return (Supplier<? extends VChild>) site.getTarget().invokeExact();
+        } catch (Throwable e)
+        {
+            return () ->
+            {
+                try
+                {
+                    return (VChild) constructor.newInstance();
+                } catch (InstantiationException | IllegalAccessException | IllegalArgumentException e2)
+                {
+                    throw new IllegalStateException("Can't make " + elementClass.getSimpleName(), e2);
+                } catch (InvocationTargetException e2)
+                {
+                    throw rethrow(e2);
+                }
+            };
+        }
+    }
+    
+    /* The exception thrown by a constructor invoked by reflection */
+    private static RuntimeException rethrow(InvocationTargetException e)
+    {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error)
+        {
+            throw (Error) cause;
+        }
+        return (cause instanceof RuntimeException) ? (RuntimeException) cause : new RuntimeException(cause);
+    }
+    
+    /*
+     * The copier is generated with LambdaMetafactory from the copy constructor.  If that
+     * fails the constructor is invoked by reflection.  Every element class must have a public
+     * copy constructor, so a child is never left out of a copy.
+     */
+    @SuppressWarnings("unchecked")
+    private static UnaryOperator<VChild> makeCopier(Class<?> elementClass)
+    {
+        final Constructor<?> constructor;
+        try
+        {
+            constructor = elementClass.getConstructor(elementClass);
+        } catch (NoSuchMethodException | SecurityException e)
+        {
+            throw new IllegalStateException(elementClass.getSimpleName() + " has no public copy constructor", e);
+        }
+        try
+        {
+            MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP,
+                    "apply",
+                    MethodType.methodType(UnaryOperator.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    handle.type());
+            return (UnaryOperator<VChild>) site.getTarget().invokeExact();
+        } catch (Throwable e)
+        {
+            return source ->
+            {
+                try
+                {
+                    return (VChild) constructor.newInstance(source);
+                } catch (InstantiationException | IllegalAccessException | IllegalArgumentException e2)
+                {
+                    throw new IllegalStateException("Can't copy " + elementClass.getSimpleName(), e2);
+                } catch (InvocationTargetException e2)
+                {
+                    throw rethrow(e2);
+                }
+            };
+        }
+    }
+}
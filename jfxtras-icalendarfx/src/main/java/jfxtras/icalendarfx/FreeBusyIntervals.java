@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.components.VFreeBusy;
+import jfxtras.icalendarfx.parameters.FreeBusyType.FreeBusyTypeEnum;
+import jfxtras.icalendarfx.properties.component.descriptive.Status.StatusType;
+import jfxtras.icalendarfx.properties.component.time.FreeBusyTime;
+import jfxtras.icalendarfx.utilities.Pair;
+
+/**
+ * Busy time as sorted, disjoint intervals of epoch seconds, each with a free/busy type.
+ * 
+ * Made from overlapping busy intervals of any type.  Where intervals of different types overlap, the
+ * interval is given the strongest type: {@link FreeBusyTypeEnum#BUSY_UNAVAILABLE BUSY-UNAVAILABLE}, then
+ * {@link FreeBusyTypeEnum#BUSY BUSY}, then {@link FreeBusyTypeEnum#BUSY_TENTATIVE BUSY-TENTATIVE}.  Adjacent
+ * intervals of the same type are joined.
+ * 
+ * @see VCalendar#computeFreeBusyIntervals(java.time.temporal.Temporal, java.time.temporal.Temporal, FreeBusyOptions)
+ */
+public final class FreeBusyIntervals
+{
+    /* Busy types, index is rank */
+    private static final FreeBusyTypeEnum[] TYPES = { null, FreeBusyTypeEnum.BUSY_TENTATIVE, FreeBusyTypeEnum.BUSY, FreeBusyTypeEnum.BUSY_UNAVAILABLE };
+    
+    private final long[] starts;
+    private final long[] ends;
+    private final byte[] ranks;
+    
+    private FreeBusyIntervals(long[] starts, long[] ends, byte[] ranks)
+    {
+        this.starts = starts;
+        this.ends = ends;
+        this.ranks = ranks;
+    }
+    
+    /**
+     * Returns intervals made from busy intervals that can overlap
+     * 
+     * @param starts  start of each interval, epoch second
+     * @param ends  end of each interval, epoch second, exclusive
+     * @param types  busy type of each interval, {@link FreeBusyTypeEnum#FREE FREE} and {@link FreeBusyTypeEnum#UNKNOWN UNKNOWN}
+     *      intervals are ignored
+     * @return  sorted, disjoint intervals
+     * @throws IllegalArgumentException  if the arrays don't have the same length
+     */
+    public static FreeBusyIntervals of(long[] starts, long[] ends, FreeBusyTypeEnum[] types)
+    {
+        if ((starts.length != types.length) || (ends.length != types.length))
+        {
+            throw new IllegalArgumentException("Starts, ends and types must have the same length: " +
+                    starts.length + ", " + ends.length + ", " + types.length);
+        }
+        byte[] ranks = new byte[types.length];
+        for (int i=0; i<types.length; i++)
+        {
+            ranks[i] = (byte) rank(types[i]);
+        }
+        return of(starts, ends, ranks, types.length);
+    }
+    
+    /* Busy intervals of a calendar's events and VFREEBUSY components in range */
+    static FreeBusyIntervals compute(VCalendar vCalendar, Temporal start, Temporal end, FreeBusyOptions options)
+    {
+        long rangeStart = OccurrenceIndex.epochSecond(start);
+        long rangeEnd = OccurrenceIndex.epochSecond(end);
+        // only components whose indexed span or rule summary can reach the range
+        List<VEvent> vEvents = vCalendar.occurrenceIndex().components(rangeStart, rangeEnd)
+                .stream()
+                .filter(v -> v instanceof VEvent)
+                .map(v -> (VEvent) v)
+                .collect(Collectors.toList());
+        List<long[]> eventIntervals = (options.isParallel() ? vEvents.parallelStream() : vEvents.stream())
+                .filter(v -> ScheduleConflictDetector.isBlocking(v))
+                .map(v ->
+                {
+                    List<Occurrence> occurrences = new ArrayList<>();
+                    OccurrenceIndex.addOccurrences(v, start, end, rangeStart, rangeEnd, occurrences);
+                    boolean isTentative = (v.getStatus() != null) && (v.getStatus().getValue() == StatusType.TENTATIVE);
+                    long rank = rank(isTentative ? FreeBusyTypeEnum.BUSY_TENTATIVE : FreeBusyTypeEnum.BUSY);
+                    long[] intervals = new long[occurrences.size() * 3];
+                    int i = 0;
+                    for (Occurrence occurrence : occurrences)
+                    {
+                        intervals[i++] = OccurrenceIndex.epochSecond(occurrence.getStart());
+                        intervals[i++] = OccurrenceIndex.epochSecond(occurrence.getEnd());
+                        intervals[i++] = rank;
+                    }
+                    return intervals;
+                })
+                .collect(Collectors.toList());
+        
+        if (options.isVFreeBusyIncluded() && (vCalendar.getVFreeBusies() != null))
+        {
+            for (VFreeBusy vFreeBusy : vCalendar.getVFreeBusies())
+            {
+                FreeBusyTime freeBusyTime = vFreeBusy.getFreeBusyTime();
+                if ((freeBusyTime != null) && (freeBusyTime.getValue() != null))
+                {
+                    FreeBusyTypeEnum type = (freeBusyTime.getFreeBusyType() == null) ? FreeBusyTypeEnum.BUSY : freeBusyTime.getFreeBusyType().getValue();
+                    long[] intervals = new long[freeBusyTime.getValue().size() * 3];
+                    int i = 0;
+                    for (Pair<ZonedDateTime, TemporalAmount> period : freeBusyTime.getValue())
+                    {
+                        intervals[i++] = period.getKey().toEpochSecond();
+                        intervals[i++] = period.getKey().plus(period.getValue()).toEpochSecond();
+                        intervals[i++] = rank(type);
+                    }
+                    eventIntervals.add(intervals);
+                }
+            }
+        }
+        
+        int size = eventIntervals.stream().mapToInt(a -> a.length / 3).sum();
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        byte[] ranks = new byte[size];
+        int index = 0;
+        for (long[] intervals : eventIntervals)
+        {
+            for (int i=0; i<intervals.length; i+=3)
+            { // clip to range
+                starts[index] = Math.max(intervals[i], rangeStart);
+                ends[index] = Math.min(intervals[i+1], rangeEnd);
+                ranks[index++] = (byte) intervals[i+2];
+            }
+        }
+        return of(starts, ends, ranks, size);
+    }
+    
+    /* Sweep over endpoints, keeping count of open intervals of each rank */
+    static FreeBusyIntervals of(long[] starts, long[] ends, byte[] ranks, int size)
+    {
+        // endpoint encoded as time, start flag and rank so a primitive sort orders them; ends sort before starts
+        long[] endpoints = new long[size * 2];
+        int count = 0;
+        for (int i=0; i<size; i++)
+        {
+            if ((ranks[i] > 0) && (starts[i] < ends[i]))
+            {
+                endpoints[count++] = (starts[i] << 3) | 4 | ranks[i];
+                endpoints[count++] = (ends[i] << 3) | ranks[i];
+            }
+        }
+        Arrays.sort(endpoints, 0, count);
+        
+        long[] newStarts = new long[count / 2];
+        long[] newEnds = new long[count / 2];
+        byte[] newRanks = new byte[count / 2];
+        int newSize = 0;
+        int[] open = new int[TYPES.length];
+        int currentRank = 0;
+        long currentStart = 0;
+        for (int i=0; i<count; )
+        {
+            long time = endpoints[i] >> 3;
+            for (; (i < count) && ((endpoints[i] >> 3) == time); i++)
+            {
+                open[(int) (endpoints[i] & 3)] += ((endpoints[i] & 4) != 0) ? 1 : -1;
+            }
+            int rank = TYPES.length - 1;
+            while ((rank > 0) && (open[rank] == 0))
+            {
+                rank--;
+            }
+            if (rank != currentRank)
+            {
+                if (currentRank > 0)
+                {
+                    newStarts[newSize] = currentStart;
+                    newEnds[newSize] = time;
+                    newRanks[newSize++] = (byte) currentRank;
+                }
+                currentRank = rank;
+                currentStart = time;
+            }
+        }
+        return new FreeBusyIntervals(Arrays.copyOf(newStarts, newSize), Arrays.copyOf(newEnds, newSize), Arrays.copyOf(newRanks, newSize));
+    }
+    
+    private static int rank(FreeBusyTypeEnum type)
+    {
+        for (int rank=1; rank<TYPES.length; rank++)
+        {
+            if (TYPES[rank] == type)
+            {
+                return rank;
+            }
+        }
+        return 0;
+    }
+    
+    /** Number of intervals */
+    public int size()
+    {
+        return starts.length;
+    }
+    
+    /** Start of interval, epoch second */
+    public long getStart(int index)
+    {
+        return starts[index];
+    }
+
+    /** End of interval, epoch second, exclusive */
+    public long getEnd(int index)
+    {
+        return ends[index];
+    }
+    
+    /** Busy type of interval */
+    public FreeBusyTypeEnum getType(int index)
+    {
+        return TYPES[ranks[index]];
+    }
+    
+    /**
+     * Returns the intervals as pairs of epoch seconds, start then end of each interval
+     * 
+     * @param type  type of intervals to return, null for all busy time with adjacent intervals joined
+     * @return  start and end of each interval
+     */
+    public long[] toArray(FreeBusyTypeEnum type)
+    {
+        long[] array = new long[starts.length * 2];
+        int length = 0;
+        int rank = rank(type);
+        for (int i=0; i<starts.length; i++)
+        {
+            if (type == null)
+            {
+                if ((length > 0) && (array[length-1] == starts[i]))
+                {
+                    array[length-1] = ends[i];
+                    continue;
+                }
+            } else if (ranks[i] != rank)
+            {
+                continue;
+            }
+            array[length++] = starts[i];
+            array[length++] = ends[i];
+        }
+        return Arrays.copyOf(array, length);
+    }
+    
+    /**
+     * Returns the intervals as FREEBUSY property periods of a UTC start and a duration
+     * 
+     * @param type  type of intervals to return, null for all busy time with adjacent intervals joined
+     * @return  periods
+     */
+    public List<Pair<ZonedDateTime, TemporalAmount>> toPeriods(FreeBusyTypeEnum type)
+    {
+        long[] array = toArray(type);
+        List<Pair<ZonedDateTime, TemporalAmount>> periods = new ArrayList<>(array.length / 2);
+        for (int i=0; i<array.length; i+=2)
+        {
+            ZonedDateTime start = ZonedDateTime.ofInstant(Instant.ofEpochSecond(array[i]), ZoneOffset.UTC);
+            periods.add(new Pair<>(start, Duration.ofSeconds(array[i+1] - array[i])));
+        }
+        return periods;
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import jfxtras.icalendarfx.parameters.FreeBusyType.FreeBusyTypeEnum;
+
+/**
+ * Options for computing free/busy time with {@link VCalendar#computeFreeBusy(java.time.temporal.Temporal, java.time.temporal.Temporal, FreeBusyOptions)}
+ */
+public final class FreeBusyOptions
+{
+    /**
+     * Free/busy type of the busy time to include.  When null, the default, all busy time is included
+     * and written as {@link FreeBusyTypeEnum#BUSY BUSY} in the FREEBUSY property.
+     */
+    public FreeBusyTypeEnum getFreeBusyType() { return freeBusyType; }
+    private FreeBusyTypeEnum freeBusyType;
+    public void setFreeBusyType(FreeBusyTypeEnum freeBusyType) { this.freeBusyType = freeBusyType; }
+    public FreeBusyOptions withFreeBusyType(FreeBusyTypeEnum freeBusyType) { setFreeBusyType(freeBusyType); return this; }
+    
+    /** Expand the components in parallel, true by default */
+    public boolean isParallel() { return isParallel; }
+    private boolean isParallel = true;
+    public void setParallel(boolean isParallel) { this.isParallel = isParallel; }
+    public FreeBusyOptions withParallel(boolean isParallel) { setParallel(isParallel); return this; }
+    
+    /** Include the FREEBUSY properties of the calendar's VFREEBUSY components, true by default */
+    public boolean isVFreeBusyIncluded() { return isVFreeBusyIncluded; }
+    private boolean isVFreeBusyIncluded = true;
+    public void setVFreeBusyIncluded(boolean isVFreeBusyIncluded) { this.isVFreeBusyIncluded = isVFreeBusyIncluded; }
+    public FreeBusyOptions withVFreeBusyIncluded(boolean isVFreeBusyIncluded) { setVFreeBusyIncluded(isVFreeBusyIncluded); return this; }
+}
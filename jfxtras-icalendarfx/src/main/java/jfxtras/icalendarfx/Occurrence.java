@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.time.temporal.Temporal;
+import java.util.Objects;
+
+import jfxtras.icalendarfx.components.VDisplayable;
+
+/**
+ * One occurrence of a calendar component: the component with the start and end of one
+ * member of its recurrence set.
+ * 
+ * @see VCalendar#occurrences(Temporal, Temporal)
+ */
+public final class Occurrence
+{
+    private final VDisplayable<?> component;
+    private final Temporal start;
+    private final Temporal end;
+    
+    public Occurrence(VDisplayable<?> component, Temporal start, Temporal end)
+    {
+        this.component = component;
+        this.start = start;
+        this.end = end;
+    }
+    
+    /** Component the occurrence belongs to */
+    public VDisplayable<?> getComponent() { return component; }
+    /** Start of the occurrence, same type as the component's DTSTART */
+    public Temporal getStart() { return start; }
+    /** End of the occurrence, equals start when the component has no duration */
+    public Temporal getEnd() { return end; }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(System.identityHashCode(component), start, end);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (! (obj instanceof Occurrence)) return false;
+        Occurrence other = (Occurrence) obj;
+        return (component == other.component) && start.equals(other.start) && end.equals(other.end);
+    }
+
+    @Override
+    public String toString()
+    {
+        String uid = (component.getUniqueIdentifier() == null) ? null : component.getUniqueIdentifier().getValue();
+        return component.name() + " [UID=" + uid + ", start=" + start + ", end=" + end + "]";
+    }
+}
@@ -0,0 +1,698 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jfxtras.icalendarfx.components.VDisplayable;
+import jfxtras.icalendarfx.components.VLocatable;
+import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceDates;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.FrequencyType;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.Interval;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.WeekStart;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay.ByDayPair;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByHour;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMinute;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonth;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonthDay;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByRule;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.BySecond;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByWeekNumber;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByYearDay;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities.DateTimeType;
+
+/**
+ * Timeline of the spans of a calendar's {@link VDisplayable} components, used to find the components that can
+ * have occurrences in a range without streaming the recurrences of every component.
+ * 
+ * The span of a component reaches from its first start to the end of its last occurrence.  Spans are kept
+ * in one week buckets.  Spans longer than {@link #MAX_BUCKETS} weeks, including all infinite recurrence sets,
+ * have a {@link Summary} of their recurrence rule instead: its first occurrence, the period the rule repeats with
+ * and the days of that period on which an occurrence can be in progress.  Summaries are kept in cycles of days or
+ * months indexed by those days, so a query only visits the recurring components that can have an occurrence in
+ * its range, and their occurrences are streamed from the range start.  Long spans without a summary, such as an
+ * RRULE combined with RDATE, are kept in one list that is checked on every query.
+ * 
+ * Floating date/times are placed on the timeline in the default time zone, matching {@link DateTimeType}
+ * conversions.  Changed components are marked and their spans recalculated on the next query.
+ */
+final class OccurrenceIndex
+{
+    private static final long BUCKET_SECONDS = 7 * 24 * 60 * 60;
+    private static final int MAX_BUCKETS = 64;
+    private static final long DAY_SECONDS = 24 * 60 * 60;
+    // local date/times are at most this far from UTC
+    private static final long MAX_OFFSET_SECONDS = 18 * 60 * 60;
+    // change of offset an occurrence in a time zone can cross, added to its duration
+    private static final long MAX_SHIFT_SECONDS = 2 * 60 * 60;
+    private static final int DAYS_PER_MONTH_SLOT = 31;
+    
+    private final Map<VDisplayable<?>, Span> spans = new IdentityHashMap<>();
+    private final Set<VDisplayable<?>> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Long, List<Span>> buckets = new HashMap<>();
+    private final List<Span> longSpans = new ArrayList<>();
+    private final Map<List<Integer>, Cycle> cycles = new HashMap<>();
+    
+    /** Add component, or mark it changed if it is already indexed */
+    synchronized void add(VDisplayable<?> component)
+    {
+        changed.add(component);
+    }
+    
+    /** Remove component from index */
+    synchronized void remove(VDisplayable<?> component)
+    {
+        changed.remove(component);
+        Span span = spans.remove(component);
+        if (span != null)
+        {
+            unplace(span);
+        }
+    }
+    
+    /** Mark indexed component as changed */
+    synchronized void changed(VDisplayable<?> component)
+    {
+        if (spans.containsKey(component))
+        {
+            changed.add(component);
+        }
+    }
+    
+    /** Number of indexed components */
+    synchronized int size()
+    {
+        update();
+        return spans.size();
+    }
+    
+    /**
+     * Returns occurrences that overlap the range from start (inclusive) to end (exclusive), sorted by start.
+     * An occurrence without duration overlaps when its start is in the range.
+     */
+    synchronized List<Occurrence> occurrences(Temporal start, Temporal end)
+    {
+        long rangeStart = epochSecond(start);
+        long rangeEnd = epochSecond(end);
+        List<Occurrence> occurrences = new ArrayList<>();
+        for (VDisplayable<?> component : components(rangeStart, rangeEnd))
+        {
+            addOccurrences(component, start, end, rangeStart, rangeEnd, occurrences);
+        }
+        occurrences.sort(Comparator.comparingLong((Occurrence o) -> epochSecond(o.getStart())));
+        return occurrences;
+    }
+    
+    /**
+     * Returns the components that can have occurrences overlapping the range from rangeStart (inclusive) to
+     * rangeEnd (exclusive), epoch seconds.  Their occurrences are found with
+     * {@link #addOccurrences(VDisplayable, Temporal, Temporal, long, long, List)}.
+     */
+    synchronized List<VDisplayable<?>> components(long rangeStart, long rangeEnd)
+    {
+        update();
+        List<VDisplayable<?>> components = new ArrayList<>();
+        if (rangeEnd <= rangeStart)
+        {
+            return components;
+        }
+        Set<Span> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (long bucket = Math.floorDiv(rangeStart, BUCKET_SECONDS); bucket <= Math.floorDiv(rangeEnd - 1, BUCKET_SECONDS); bucket++)
+        {
+            List<Span> bucketSpans = buckets.get(bucket);
+            if (bucketSpans != null)
+            {
+                candidates.addAll(bucketSpans);
+            }
+        }
+        for (Span span : longSpans)
+        {
+            candidates.add(span);
+        }
+        for (Cycle cycle : cycles.values())
+        {
+            cycle.addCandidates(rangeStart, rangeEnd, candidates);
+        }
+        for (Span span : candidates)
+        {
+            if ((span.start < rangeEnd) && ((span.end > rangeStart) || (span.start >= rangeStart)))
+            {
+                components.add(span.component);
+            }
+        }
+        return components;
+    }
+    
+    /* Adds occurrences of component in range */
+    static void addOccurrences(VDisplayable<?> component, Temporal start, Temporal end, long rangeStart, long rangeEnd,
+            List<Occurrence> occurrences)
+    {
+        Temporal dateTimeStart = component.getDateTimeStart().getValue();
+        TemporalAmount duration = duration(component);
+        // same instants in the type of DTSTART, starting early enough for an occurrence in progress at the range start
+        Temporal componentStart = atEpochSecond(rangeStart, dateTimeStart).minus(duration);
+        Temporal componentEnd = atEpochSecond(rangeEnd, dateTimeStart);
+        if (epochSecond(componentEnd) < rangeEnd)
+        { // whole dates are truncated
+            componentEnd = componentEnd.plus(Period.ofDays(1));
+        }
+        Iterator<Temporal> iterator = component.streamRecurrences(componentStart, componentEnd).iterator();
+        while (iterator.hasNext())
+        {
+            Temporal occurrenceStart = iterator.next();
+            Temporal occurrenceEnd = occurrenceStart.plus(duration);
+            long occurrenceStartSecond = epochSecond(occurrenceStart);
+            long occurrenceEndSecond = epochSecond(occurrenceEnd);
+            boolean isOverlapping = (occurrenceStartSecond < rangeEnd) &&
+                    ((occurrenceEndSecond > rangeStart) || ((occurrenceEndSecond == occurrenceStartSecond) && (occurrenceStartSecond >= rangeStart)));
+            if (isOverlapping)
+            {
+                occurrences.add(new Occurrence(component, occurrenceStart, occurrenceEnd));
+            }
+        }
+    }
+    
+    /* Date or date/time of the same type as dateTimeStart at the epoch second, whole dates are truncated */
+    private static Temporal atEpochSecond(long epochSecond, Temporal dateTimeStart)
+    {
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        if (dateTimeStart instanceof ZonedDateTime)
+        {
+            return ZonedDateTime.ofInstant(instant, ((ZonedDateTime) dateTimeStart).getZone());
+        }
+        LocalDateTime localDateTime = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        return (dateTimeStart instanceof LocalDate) ? localDateTime.toLocalDate() : localDateTime;
+    }
+    
+    /* Recalculate spans of changed components */
+    private void update()
+    {
+        for (VDisplayable<?> component : changed)
+        {
+            Span oldSpan = spans.remove(component);
+            if (oldSpan != null)
+            {
+                unplace(oldSpan);
+            }
+            Span span = span(component);
+            if (span != null)
+            {
+                spans.put(component, span);
+                place(span);
+            }
+        }
+        changed.clear();
+    }
+    
+    private void place(Span span)
+    {
+        if (span.isLong() && (span.summary != null))
+        {
+            cycles.computeIfAbsent(span.summary.key(), k -> new Cycle(span.summary)).add(span);
+        } else if (span.isLong())
+        {
+            longSpans.add(span);
+        } else
+        {
+            for (long bucket = span.firstBucket(); bucket <= span.lastBucket(); bucket++)
+            {
+                buckets.computeIfAbsent(bucket, b -> new ArrayList<>()).add(span);
+            }
+        }
+    }
+    
+    private void unplace(Span span)
+    {
+        if (span.isLong() && (span.summary != null))
+        {
+            List<Integer> key = span.summary.key();
+            Cycle cycle = cycles.get(key);
+            cycle.remove(span);
+            if (cycle.isEmpty())
+            {
+                cycles.remove(key);
+            }
+        } else if (span.isLong())
+        {
+            longSpans.remove(span);
+        } else
+        {
+            for (long bucket = span.firstBucket(); bucket <= span.lastBucket(); bucket++)
+            {
+                List<Span> bucketSpans = buckets.get(bucket);
+                bucketSpans.remove(span);
+                if (bucketSpans.isEmpty())
+                {
+                    buckets.remove(bucket);
+                }
+            }
+        }
+    }
+    
+    /* Span of component's recurrence set, null if it has no DTSTART */
+    private static Span span(VDisplayable<?> component)
+    {
+        if ((component.getDateTimeStart() == null) || (component.getDateTimeStart().getValue() == null))
+        {
+            return null;
+        }
+        Temporal dateTimeStart = component.getDateTimeStart().getValue();
+        long start = epochSecond(dateTimeStart);
+        Temporal lastStart = dateTimeStart;
+        boolean isInfinite = false;
+        Summary summary = null;
+        if (component.getRecurrenceRule() != null)
+        {
+            RecurrenceRuleValue rrule = component.getRecurrenceRule().getValue();
+            if (component.getRecurrenceDates() == null)
+            {
+                summary = Summary.of(dateTimeStart, rrule, duration(component));
+            }
+            if (rrule.isInfinite())
+            {
+                isInfinite = true;
+            } else if (rrule.getUntil() != null)
+            { // UNTIL bounds the last start without streaming the recurrences
+                ZoneId zone = (dateTimeStart instanceof ZonedDateTime) ? ((ZonedDateTime) dateTimeStart).getZone() : null;
+                Temporal until = DateTimeType.of(dateTimeStart).from(rrule.getUntil().getValue(), zone);
+                lastStart = DateTimeUtilities.isAfter(until, lastStart) ? until : lastStart;
+            } else
+            {
+                Iterator<Temporal> iterator = rrule.streamRecurrences(dateTimeStart).iterator();
+                while (iterator.hasNext())
+                {
+                    lastStart = iterator.next();
+                }
+            }
+        }
+        if (component.getRecurrenceDates() != null)
+        {
+            for (RecurrenceDates recurrenceDates : component.getRecurrenceDates())
+            {
+                for (Temporal t : recurrenceDates.getValue())
+                {
+                    start = Math.min(start, epochSecond(t));
+                    lastStart = DateTimeUtilities.isAfter(t, lastStart) ? t : lastStart;
+                }
+            }
+        }
+        long end = isInfinite ? Long.MAX_VALUE : epochSecond(lastStart.plus(duration(component)));
+        return new Span(component, start, Math.max(start, end), summary);
+    }
+    
+    private static TemporalAmount duration(VDisplayable<?> component)
+    {
+        return (component instanceof VLocatable) ? ((VLocatable<?>) component).getActualDuration() : Duration.ZERO;
+    }
+    
+    /* Position of a date or date/time on the timeline, floating values use the default time zone */
+    static long epochSecond(Temporal temporal)
+    {
+        if (temporal instanceof ZonedDateTime)
+        {
+            return ((ZonedDateTime) temporal).toEpochSecond();
+        } else if (temporal instanceof LocalDateTime)
+        {
+            return ((LocalDateTime) temporal).atZone(ZoneId.systemDefault()).toEpochSecond();
+        } else if (temporal instanceof LocalDate)
+        {
+            return ((LocalDate) temporal).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+        }
+        return ZonedDateTime.from(temporal).toEpochSecond();
+    }
+    
+    /* Component's place on the timeline, identity equality */
+    private static final class Span
+    {
+        private final VDisplayable<?> component;
+        private final long start;
+        private final long end; // end of last occurrence, Long.MAX_VALUE when infinite
+        private final Summary summary; // null if not recurring or not summarized
+        
+        Span(VDisplayable<?> component, long start, long end, Summary summary)
+        {
+            this.component = component;
+            this.start = start;
+            this.end = end;
+            this.summary = summary;
+        }
+        
+        long firstBucket()
+        {
+            return Math.floorDiv(start, BUCKET_SECONDS);
+        }
+        
+        long lastBucket()
+        {
+            return Math.floorDiv(end, BUCKET_SECONDS);
+        }
+        
+        boolean isLong()
+        {
+            return (end == Long.MAX_VALUE) || (lastBucket() - firstBucket() >= MAX_BUCKETS);
+        }
+    }
+    
+    /*
+     * Summary of a recurrence rule: the period it repeats with, as a cycle of local days or months, and the
+     * slots of the cycle on which an occurrence can start.  Slots are epoch days modulo the cycle length for a cycle
+     * of days, and the month index modulo the cycle length times 31 plus the day of month for a cycle of months.
+     * BYxxx rules that only limit the recurrences are ignored, so the slots can include days without occurrences.
+     */
+    private static final class Summary
+    {
+        private final boolean isMonthCycle;
+        private final int cycleLength; // days or months
+        private final int extraDays; // days after its start day an occurrence can still be in progress
+        private final Set<Integer> slots; // null for all slots
+        
+        private Summary(boolean isMonthCycle, int cycleLength, int extraDays, Set<Integer> slots)
+        {
+            this.isMonthCycle = isMonthCycle;
+            this.cycleLength = cycleLength;
+            this.extraDays = extraDays;
+            this.slots = slots;
+        }
+        
+        /* Summary of rrule, null if DTSTART isn't a supported type */
+        static Summary of(Temporal dateTimeStart, RecurrenceRuleValue rrule, TemporalAmount duration)
+        {
+            LocalDateTime localStart = localDateTime(dateTimeStart);
+            if ((localStart == null) || (rrule.getFrequency() == null))
+            {
+                return null;
+            }
+            LocalDate startDate = localStart.toLocalDate();
+            int interval = (rrule.getInterval() == null) ? Interval.DEFAULT_INTERVAL : rrule.getInterval().getValue();
+            FrequencyType frequency = rrule.getFrequency().getValue();
+            ByDay byDay = null;
+            ByMonth byMonth = null;
+            ByMonthDay byMonthDay = null;
+            boolean isTimeExpanded = (frequency == FrequencyType.HOURLY) || (frequency == FrequencyType.MINUTELY)
+                    || (frequency == FrequencyType.SECONDLY);
+            boolean isYearExpanded = false;
+            List<ByRule<?>> byRules = (rrule.getByRules() == null) ? Collections.emptyList() : rrule.getByRules();
+            for (ByRule<?> byRule : byRules)
+            {
+                if (byRule instanceof ByDay)
+                {
+                    byDay = (ByDay) byRule;
+                } else if (byRule instanceof ByMonth)
+                {
+                    byMonth = (ByMonth) byRule;
+                } else if (byRule instanceof ByMonthDay)
+                {
+                    byMonthDay = (ByMonthDay) byRule;
+                } else if ((byRule instanceof ByHour) || (byRule instanceof ByMinute) || (byRule instanceof BySecond))
+                {
+                    isTimeExpanded = true;
+                } else if ((byRule instanceof ByWeekNumber) || (byRule instanceof ByYearDay))
+                {
+                    isYearExpanded = true;
+                }
+            }
+            
+            // days after the start day an occurrence can last into
+            Temporal end = dateTimeStart.plus(duration);
+            long durationSeconds = localDateTime(end).toEpochSecond(ZoneOffset.UTC) - localStart.toEpochSecond(ZoneOffset.UTC);
+            if (dateTimeStart instanceof ZonedDateTime)
+            {
+                durationSeconds += MAX_SHIFT_SECONDS;
+            }
+            long secondOfDay = isTimeExpanded ? DAY_SECONDS - 1 : localStart.toLocalTime().toSecondOfDay();
+            int extraDays = (durationSeconds <= 0) ? 0 : (int) Math.min(Integer.MAX_VALUE, Math.floorDiv(secondOfDay + durationSeconds - 1, DAY_SECONDS));
+            
+            Set<Integer> slots = new HashSet<>();
+            switch (frequency)
+            {
+            case SECONDLY:
+            case MINUTELY:
+            case HOURLY:
+                return new Summary(false, 1, extraDays, null);
+            case DAILY:
+                slots.add((int) Math.floorMod(startDate.toEpochDay(), (long) interval));
+                return new Summary(false, interval, extraDays, slots);
+            case WEEKLY:
+                int weekLength = 7 * interval;
+                if (byDay == null)
+                {
+                    slots.add((int) Math.floorMod(startDate.toEpochDay(), (long) weekLength));
+                } else
+                {
+                    DayOfWeek weekStart = (rrule.getWeekStart() == null) ? WeekStart.DEFAULT_WEEK_START : rrule.getWeekStart().getValue();
+                    LocalDate firstDayOfWeek = startDate.with(TemporalAdjusters.previousOrSame(weekStart));
+                    for (ByDayPair byDayPair : byDay.getValue())
+                    {
+                        long day = firstDayOfWeek.toEpochDay() + Math.floorMod(byDayPair.getDayOfWeek().getValue() - weekStart.getValue(), 7);
+                        slots.add((int) Math.floorMod(day, (long) weekLength));
+                    }
+                }
+                return new Summary(false, weekLength, extraDays, slots);
+            case MONTHLY:
+            case YEARLY:
+                if (isYearExpanded)
+                {
+                    return new Summary(true, (frequency == FrequencyType.YEARLY) ? 12 * interval : interval, extraDays, null);
+                }
+                int monthLength = (frequency == FrequencyType.YEARLY) ? 12 * interval : interval;
+                long startMonth = monthIndex(startDate);
+                List<Long> months = new ArrayList<>();
+                if (frequency == FrequencyType.MONTHLY)
+                {
+                    months.add(startMonth);
+                } else if (byMonth != null)
+                {
+                    byMonth.getValue().forEach(m -> months.add(startDate.getYear() * 12L + m.getValue() - 1));
+                } else if ((byMonthDay != null) || (byDay != null))
+                {
+                    for (int m=0; m<12; m++)
+                    {
+                        months.add(startDate.getYear() * 12L + m);
+                    }
+                } else
+                {
+                    months.add(startMonth);
+                }
+                List<Integer> days = new ArrayList<>();
+                if (byDay != null)
+                {
+                    for (int d=1; d<=DAYS_PER_MONTH_SLOT; d++)
+                    {
+                        days.add(d);
+                    }
+                } else if (byMonthDay != null)
+                {
+                    for (int dayOfMonth : byMonthDay.getValue())
+                    {
+                        if (dayOfMonth > 0)
+                        {
+                            addDayOfMonth(days, dayOfMonth);
+                        } else
+                        { // counted from the end of a month of 28 to 31 days
+                            for (int lastDay=28; lastDay<=31; lastDay++)
+                            {
+                                int d = lastDay + 1 + dayOfMonth;
+                                if (d > 0)
+                                {
+                                    days.add(d);
+                                }
+                            }
+                        }
+                    }
+                } else
+                {
+                    addDayOfMonth(days, startDate.getDayOfMonth());
+                }
+                for (long month : months)
+                {
+                    for (int day : days)
+                    {
+                        slots.add(monthSlot(month, day, monthLength));
+                    }
+                }
+                return new Summary(true, monthLength, extraDays, slots);
+            default:
+                return null;
+            }
+        }
+        
+        /* A day after the 28th can be moved back to the last day of a shorter month */
+        private static void addDayOfMonth(List<Integer> days, int dayOfMonth)
+        {
+            for (int d = Math.min(dayOfMonth, 28); d <= dayOfMonth; d++)
+            {
+                days.add(d);
+            }
+        }
+        
+        /* Summaries with equal key share a Cycle */
+        List<Integer> key()
+        {
+            return Arrays.asList(isMonthCycle ? 1 : 0, cycleLength, extraDays);
+        }
+        
+        private static LocalDateTime localDateTime(Temporal temporal)
+        {
+            if (temporal instanceof ZonedDateTime)
+            {
+                return ((ZonedDateTime) temporal).toLocalDateTime();
+            } else if (temporal instanceof LocalDateTime)
+            {
+                return (LocalDateTime) temporal;
+            } else if (temporal instanceof LocalDate)
+            {
+                return ((LocalDate) temporal).atStartOfDay();
+            }
+            return null;
+        }
+    }
+    
+    private static long monthIndex(LocalDate date)
+    {
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+    
+    private static int monthSlot(long monthIndex, int dayOfMonth, int cycleLength)
+    {
+        return (int) Math.floorMod(monthIndex, (long) cycleLength) * DAYS_PER_MONTH_SLOT + dayOfMonth - 1;
+    }
+    
+    /* Long spans whose summaries have the same cycle and extra days, indexed by slot */
+    private static final class Cycle
+    {
+        private final boolean isMonthCycle;
+        private final int cycleLength;
+        private final int extraDays;
+        private final Map<Integer, List<Span>> slots = new HashMap<>();
+        private final List<Span> allSlots = new ArrayList<>();
+        private int size;
+        
+        Cycle(Summary summary)
+        {
+            isMonthCycle = summary.isMonthCycle;
+            cycleLength = summary.cycleLength;
+            extraDays = summary.extraDays;
+        }
+        
+        void add(Span span)
+        {
+            if (span.summary.slots == null)
+            {
+                allSlots.add(span);
+            } else
+            {
+                span.summary.slots.forEach(s -> slots.computeIfAbsent(s, k -> new ArrayList<>()).add(span));
+            }
+            size++;
+        }
+        
+        void remove(Span span)
+        {
+            if (span.summary.slots == null)
+            {
+                allSlots.remove(span);
+            } else
+            {
+                for (Integer slot : span.summary.slots)
+                {
+                    List<Span> slotSpans = slots.get(slot);
+                    slotSpans.remove(span);
+                    if (slotSpans.isEmpty())
+                    {
+                        slots.remove(slot);
+                    }
+                }
+            }
+            size--;
+        }
+        
+        boolean isEmpty()
+        {
+            return size == 0;
+        }
+        
+        /* Adds spans that can have an occurrence in progress on a local day of the range, in any time zone */
+        void addCandidates(long rangeStart, long rangeEnd, Set<Span> candidates)
+        {
+            candidates.addAll(allSlots);
+            if (slots.isEmpty())
+            {
+                return;
+            }
+            long firstDay = Math.floorDiv(rangeStart - MAX_OFFSET_SECONDS, DAY_SECONDS) - extraDays;
+            long lastDay = Math.floorDiv(rangeEnd - 1 + MAX_OFFSET_SECONDS, DAY_SECONDS);
+            long slotDays = isMonthCycle ? (long) cycleLength * DAYS_PER_MONTH_SLOT : cycleLength;
+            if (lastDay - firstDay + 1 >= slotDays)
+            {
+                slots.values().forEach(candidates::addAll);
+                return;
+            }
+            for (long day = firstDay; day <= lastDay; day++)
+            {
+                int slot;
+                if (isMonthCycle)
+                {
+                    LocalDate date = LocalDate.ofEpochDay(day);
+                    slot = monthSlot(monthIndex(date), date.getDayOfMonth(), cycleLength);
+                } else
+                {
+                    slot = (int) Math.floorMod(day, (long) cycleLength);
+                }
+                List<Span> slotSpans = slots.get(slot);
+                if (slotSpans != null)
+                {
+                    candidates.addAll(slotSpans);
+                }
+            }
+        }
+    }
+}
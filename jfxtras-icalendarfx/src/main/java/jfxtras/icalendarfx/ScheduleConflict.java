@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.util.Objects;
+
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
+
+/**
+ * Schedule conflict between an occurrence of a candidate event and an occurrence of an existing event
+ * 
+ * @see ScheduleConflictDetector
+ */
+public final class ScheduleConflict
+{
+    private final Occurrence candidate;
+    private final Occurrence existing;
+    
+    public ScheduleConflict(Occurrence candidate, Occurrence existing)
+    {
+        this.candidate = candidate;
+        this.existing = existing;
+    }
+    
+    /** Occurrence of the event being checked */
+    public Occurrence getCandidate() { return candidate; }
+    /** Occurrence of the existing event it conflicts with */
+    public Occurrence getExisting() { return existing; }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(candidate, existing);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (! (obj instanceof ScheduleConflict)) return false;
+        ScheduleConflict other = (ScheduleConflict) obj;
+        return candidate.equals(other.candidate) && existing.equals(other.existing);
+    }
+
+    /** UID and start of the existing occurrence, such as "20150110T080000-0@jfxtras.org, 20151109T100000" */
+    @Override
+    public String toString()
+    {
+        String uid = (existing.getComponent().getUniqueIdentifier() != null) ? existing.getComponent().getUniqueIdentifier().getValue() + ", " : "";
+        return uid + DateTimeUtilities.temporalToString(existing.getStart());
+    }
+}
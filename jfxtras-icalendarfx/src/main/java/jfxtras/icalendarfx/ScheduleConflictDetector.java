@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.properties.component.descriptive.Status.StatusType;
+import jfxtras.icalendarfx.properties.component.time.TimeTransparency.TimeTransparencyType;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities.DateTimeType;
+
+/**
+ * Finds schedule conflicts between a candidate {@link VEvent} and existing events.
+ * 
+ * The occurrences of the existing events are merged into one time-ordered sequence, which is swept along
+ * with the occurrences of the candidate.  Existing occurrences are kept only while they can overlap later
+ * candidate occurrences, so each occurrence is calculated and compared a small number of times.  The candidate
+ * occurrences that start before the end of a time window are checked, so long recurrence sets are checked as far
+ * as the window reaches, regardless of their frequency.
+ * 
+ * Only {@link TimeTransparencyType#OPAQUE OPAQUE} events that aren't {@link StatusType#CANCELLED CANCELLED}
+ * can conflict.  Two occurrences conflict when each starts before the other ends.  An occurrence without
+ * duration conflicts with an occurrence that starts before it and ends after it.
+ */
+public final class ScheduleConflictDetector
+{
+    /** Time window, from the candidate's DTSTART, checked when no window end is given */
+    public static final TemporalAmount DEFAULT_WINDOW = Period.ofYears(2);
+    
+    private ScheduleConflictDetector() { }
+    
+    /**
+     * Returns conflicts of candidate occurrences starting in the {@link #DEFAULT_WINDOW}
+     * 
+     * @param candidate  event to check
+     * @param vEvents  existing events, candidate is skipped if present
+     * @param isFirstOnly  true to stop at the first conflict
+     * @return  conflicts in order of candidate start then existing start, empty if none
+     */
+    public static List<ScheduleConflict> find(VEvent candidate, Collection<? extends VEvent> vEvents, boolean isFirstOnly)
+    {
+        if (candidate.getDateTimeStart() == null)
+        {
+            return new ArrayList<>();
+        }
+        Temporal windowEnd = candidate.getDateTimeStart().getValue().plus(DEFAULT_WINDOW);
+        return find(candidate, vEvents, windowEnd, isFirstOnly);
+    }
+    
+    /**
+     * Returns conflicts of candidate occurrences starting before windowEnd
+     * 
+     * @param candidate  event to check
+     * @param vEvents  existing events, candidate is skipped if present
+     * @param windowEnd  end of time window, exclusive, any date or date/time type
+     * @param isFirstOnly  true to stop at the first conflict
+     * @return  conflicts in order of candidate start then existing start, empty if none
+     */
+    public static List<ScheduleConflict> find(VEvent candidate, Collection<? extends VEvent> vEvents, Temporal windowEnd,
+            boolean isFirstOnly)
+    {
+        if (candidate.getDateTimeStart() == null)
+        {
+            return new ArrayList<>();
+        }
+        return find(candidate, candidate.streamRecurrences().iterator(), OccurrenceIndex.epochSecond(windowEnd), vEvents, isFirstOnly);
+    }
+    
+    /**
+     * Returns conflicts of the candidate occurrences starting at candidateStarts, which must be sorted
+     * 
+     * @param candidate  event to check
+     * @param candidateStarts  start of each candidate occurrence to check, in order
+     * @param windowEnd  epoch second candidate occurrences must start before
+     * @param vEvents  existing events, candidate is skipped if present
+     * @param isFirstOnly  true to stop at the first conflict
+     * @return  conflicts in order of candidate start then existing start, empty if none
+     */
+    static List<ScheduleConflict> find(VEvent candidate, Iterator<Temporal> candidateStarts, long windowEnd,
+            Collection<? extends VEvent> vEvents, boolean isFirstOnly)
+    {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        if (! isBlocking(candidate))
+        {
+            return conflicts;
+        }
+        Temporal dateTimeStart = candidate.getDateTimeStart().getValue();
+        PriorityQueue<Existing> queue = new PriorityQueue<>(Comparator.comparingLong((Existing e) -> e.start));
+        for (VEvent vEvent : vEvents)
+        {
+            if ((vEvent != candidate) && isBlocking(vEvent))
+            {
+                Existing existing = new Existing(vEvent, dateTimeStart);
+                if (existing.advance())
+                {
+                    queue.add(existing);
+                }
+            }
+        }
+        
+        TemporalAmount duration = candidate.getActualDuration();
+        List<Interval> active = new ArrayList<>();
+        while (candidateStarts.hasNext())
+        {
+            Temporal start = candidateStarts.next();
+            long startSecond = OccurrenceIndex.epochSecond(start);
+            if (startSecond >= windowEnd)
+            {
+                break;
+            }
+            Temporal end = start.plus(duration);
+            long endSecond = OccurrenceIndex.epochSecond(end);
+            
+            // existing occurrences starting before candidate ends become active
+            while (! queue.isEmpty() && (queue.peek().start < endSecond))
+            {
+                Existing existing = queue.poll();
+                active.add(existing.interval());
+                if (existing.advance())
+                {
+                    queue.add(existing);
+                }
+            }
+            // existing occurrences ending at or before candidate starts can't conflict with later occurrences
+            active.removeIf(i -> i.end <= startSecond);
+            
+            Occurrence occurrence = null;
+            for (Interval interval : active)
+            {
+                if ((interval.start < endSecond) && (startSecond < interval.end))
+                {
+                    if (occurrence == null)
+                    {
+                        occurrence = new Occurrence(candidate, start, end);
+                    }
+                    conflicts.add(new ScheduleConflict(occurrence, interval.occurrence));
+                    if (isFirstOnly)
+                    {
+                        return conflicts;
+                    }
+                }
+            }
+        }
+        return conflicts;
+    }
+    
+    /* Only opaque events that aren't cancelled can conflict */
+    static boolean isBlocking(VEvent vEvent)
+    {
+        if (vEvent.getDateTimeStart() == null)
+        {
+            return false;
+        }
+        boolean isTransparent = (vEvent.getTimeTransparency() != null) &&
+                (vEvent.getTimeTransparency().getValue() == TimeTransparencyType.TRANSPARENT);
+        boolean isCancelled = (vEvent.getStatus() != null) &&
+                (vEvent.getStatus().getValue() == StatusType.CANCELLED);
+        return ! isTransparent && ! isCancelled;
+    }
+    
+    /* Occurrence with its place on the timeline */
+    private static final class Interval
+    {
+        private final Occurrence occurrence;
+        private final long start;
+        private final long end;
+        
+        private Interval(Occurrence occurrence, long start, long end)
+        {
+            this.occurrence = occurrence;
+            this.start = start;
+            this.end = end;
+        }
+    }
+    
+    /* Cursor on the occurrences of an existing event, from those overlapping the candidate's DTSTART */
+    private static final class Existing
+    {
+        private final VEvent vEvent;
+        private final TemporalAmount duration;
+        private final Iterator<Temporal> iterator;
+        private Temporal next;
+        private long start;
+        
+        private Existing(VEvent vEvent, Temporal candidateStart)
+        {
+            this.vEvent = vEvent;
+            duration = vEvent.getActualDuration();
+            Temporal dateTimeStart = vEvent.getDateTimeStart().getValue();
+            ZoneId zone = (dateTimeStart instanceof ZonedDateTime) ? ((ZonedDateTime) dateTimeStart).getZone() : null;
+            // VEvent streams include occurrences that end after their start parameter
+            iterator = vEvent.streamRecurrences(DateTimeType.of(dateTimeStart).from(candidateStart, zone)).iterator();
+        }
+        
+        private boolean advance()
+        {
+            if (iterator.hasNext())
+            {
+                next = iterator.next();
+                start = OccurrenceIndex.epochSecond(next);
+                return true;
+            }
+            return false;
+        }
+        
+        private Interval interval()
+        {
+            Temporal end = next.plus(duration);
+            return new Interval(new Occurrence(vEvent, next, end), start, OccurrenceIndex.epochSecond(end));
+        }
+    }
+}
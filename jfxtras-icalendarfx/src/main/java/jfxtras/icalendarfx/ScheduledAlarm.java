@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.util.Objects;
+
+import jfxtras.icalendarfx.components.VAlarm;
+import jfxtras.icalendarfx.components.VLocatable;
+
+/**
+ * One time a {@link VAlarm} triggers: the alarm, the component that contains it, the recurrence it
+ * belongs to and the instant it fires.
+ * 
+ * @see AlarmScheduler
+ */
+public final class ScheduledAlarm
+{
+    private final VAlarm vAlarm;
+    private final VLocatable<?> component;
+    private final Temporal recurrence;
+    private final int repeat;
+    private final ZonedDateTime triggerTime;
+    
+    public ScheduledAlarm(VAlarm vAlarm, VLocatable<?> component, Temporal recurrence, int repeat, ZonedDateTime triggerTime)
+    {
+        this.vAlarm = vAlarm;
+        this.component = component;
+        this.recurrence = recurrence;
+        this.repeat = repeat;
+        this.triggerTime = triggerTime;
+    }
+    
+    /** Alarm that fires */
+    public VAlarm getVAlarm() { return vAlarm; }
+    /** Component that contains the alarm */
+    public VLocatable<?> getComponent() { return component; }
+    /** Start of the recurrence the alarm fires for, null if the trigger is an absolute date-time */
+    public Temporal getRecurrence() { return recurrence; }
+    /** 0 for the trigger, 1 to REPEAT for the repetitions that follow it */
+    public int getRepeat() { return repeat; }
+    /** Instant the alarm fires, in UTC */
+    public ZonedDateTime getTriggerTime() { return triggerTime; }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(System.identityHashCode(vAlarm), recurrence, repeat, triggerTime);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (! (obj instanceof ScheduledAlarm)) return false;
+        ScheduledAlarm other = (ScheduledAlarm) obj;
+        return (vAlarm == other.vAlarm) && (component == other.component) && Objects.equals(recurrence, other.recurrence)
+                && (repeat == other.repeat) && triggerTime.equals(other.triggerTime);
+    }
+
+    @Override
+    public String toString()
+    {
+        String uid = (component.getUniqueIdentifier() == null) ? null : component.getUniqueIdentifier().getValue();
+        return component.name() + " [UID=" + uid + ", recurrence=" + recurrence + ", repeat=" + repeat + ", trigger=" + triggerTime + "]";
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import jfxtras.icalendarfx.components.VDisplayable;
+
+/**
+ * Index of a calendar's {@link VDisplayable} components by component name, UID and RECURRENCE-ID, used to find
+ * recurrence parents and children without scanning the calendar's component lists.
+ * 
+ * Components are kept in the order they were added.  The keys a component was indexed with are remembered, so a
+ * component marked changed can be moved to its new entry on the next lookup.  Components without a UID are
+ * indexed but can't be found.
+ * 
+ * The list the components of each name were indexed from is remembered with its state, the change count of a
+ * {@link ComponentList} or a copy of any other list.  A list changed in any way since, such as by replacing one of
+ * its components, is not current (see {@link #isCurrent(String, List)}) and must be indexed again.
+ */
+final class UniqueIdentifierIndex
+{
+    /* Components sharing a component name and UID */
+    private static final class Entry
+    {
+        private final List<VDisplayable<?>> components = new ArrayList<>(2);
+        /* null key is the recurrence parent */
+        private final Map<Temporal, VDisplayable<?>> recurrences = new HashMap<>();
+    }
+    
+    /* Keys a component is indexed with */
+    private static final class Key
+    {
+        private final String name;
+        private final String uid;
+        private final Temporal recurrenceId;
+        
+        private Key(VDisplayable<?> component)
+        {
+            name = component.name();
+            uid = (component.getUniqueIdentifier() == null) ? null : component.getUniqueIdentifier().getValue();
+            recurrenceId = (component.getRecurrenceId() == null) ? null : component.getRecurrenceId().getValue();
+        }
+        
+        private boolean isSame(Key other)
+        {
+            return name.equals(other.name) && Objects.equals(uid, other.uid) && Objects.equals(recurrenceId, other.recurrenceId);
+        }
+    }
+    
+    private final Map<String, Map<String, Entry>> entries = new HashMap<>();
+    private final Map<VDisplayable<?>, Key> keys = new IdentityHashMap<>();
+    private final Map<String, ComponentListState> sources = new HashMap<>(); // list the components of a name were indexed from
+    private final Set<VDisplayable<?>> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    /**
+     * Add component, ignored if it is already indexed.  Its list is no longer current, unless it is
+     * marked current again with {@link #indexed(String, List)}.
+     */
+    synchronized void add(VDisplayable<?> component)
+    {
+        if (! keys.containsKey(component))
+        {
+            Key key = new Key(component);
+            keys.put(component, key);
+            sources.remove(key.name);
+            put(component, key);
+        }
+    }
+    
+    /**
+     * Remove component.  Its list is no longer current, unless it is marked current again with
+     * {@link #indexed(String, List)}.
+     */
+    synchronized void remove(VDisplayable<?> component)
+    {
+        changed.remove(component);
+        Key key = keys.remove(component);
+        if (key != null)
+        {
+            sources.remove(key.name);
+            take(component, key);
+        }
+    }
+    
+    /** Mark component changed, if it is indexed.  It is moved to its new entry on the next lookup. */
+    synchronized void changed(VDisplayable<?> component)
+    {
+        if (keys.containsKey(component))
+        {
+            changed.add(component);
+        }
+    }
+    
+    /** True if component is indexed */
+    synchronized boolean contains(VDisplayable<?> component)
+    {
+        return keys.containsKey(component);
+    }
+    
+    /** True if the components with name were indexed from list, and list hasn't changed since */
+    synchronized boolean isCurrent(String name, List<? extends VDisplayable<?>> list)
+    {
+        ComponentListState source = sources.get(name);
+        return (source != null) && source.isCurrent(list);
+    }
+    
+    /** Mark the components with name indexed from list, after the index and list were changed the same way */
+    synchronized void indexed(String name, List<? extends VDisplayable<?>> list)
+    {
+        sources.put(name, new ComponentListState(list));
+    }
+    
+    /** Replace indexed components having name with the components in list, which may be null */
+    synchronized void reindex(String name, List<? extends VDisplayable<?>> list)
+    {
+        keys.keySet().removeIf(c -> c.name().equals(name));
+        changed.removeIf(c -> c.name().equals(name));
+        entries.remove(name);
+        if (list != null)
+        {
+            list.forEach(c -> add(c));
+        }
+        indexed(name, list);
+    }
+    
+    /** Components with name and UID, in the order they were added */
+    synchronized List<VDisplayable<?>> get(String name, String uid)
+    {
+        update();
+        Entry entry = entry(name, uid);
+        return (entry == null) ? Collections.emptyList() : new ArrayList<>(entry.components);
+    }
+
+    /** Component with name, UID and RECURRENCE-ID, or the recurrence parent if recurrenceId is null */
+    synchronized VDisplayable<?> get(String name, String uid, Temporal recurrenceId)
+    {
+        update();
+        Entry entry = entry(name, uid);
+        return (entry == null) ? null : entry.recurrences.get(recurrenceId);
+    }
+    
+    /* Move changed components whose UID or RECURRENCE-ID changed */
+    private void update()
+    {
+        for (VDisplayable<?> component : changed)
+        {
+            Key oldKey = keys.get(component);
+            Key key = new Key(component);
+            if (! key.isSame(oldKey))
+            {
+                take(component, oldKey);
+                keys.put(component, key);
+                put(component, key);
+            }
+        }
+        changed.clear();
+    }
+    
+    private Entry entry(String name, String uid)
+    {
+        Map<String, Entry> uidEntries = entries.get(name);
+        return (uidEntries == null) ? null : uidEntries.get(uid);
+    }
+    
+    private void put(VDisplayable<?> component, Key key)
+    {
+        if (key.uid != null)
+        {
+            Entry entry = entries
+                    .computeIfAbsent(key.name, n -> new HashMap<>())
+                    .computeIfAbsent(key.uid, u -> new Entry());
+            entry.components.add(component);
+            entry.recurrences.putIfAbsent(key.recurrenceId, component);
+        }
+    }
+    
+    private void take(VDisplayable<?> component, Key key)
+    {
+        Entry entry = entry(key.name, key.uid);
+        if (entry != null)
+        {
+            entry.components.removeIf(c -> c == component);
+            if (entry.components.isEmpty())
+            {
+                entries.get(key.name).remove(key.uid);
+            } else if (entry.recurrences.get(key.recurrenceId) == component)
+            { // promote duplicate with same RECURRENCE-ID, if any
+                entry.recurrences.remove(key.recurrenceId);
+                for (VDisplayable<?> c : entry.components)
+                {
+                    if (Objects.equals(keys.get(c).recurrenceId, key.recurrenceId))
+                    {
+                        entry.recurrences.put(key.recurrenceId, c);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -29,30 +29,52 @@ package jfxtras.icalendarfx;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
 import jfxtras.icalendarfx.VCalendar;
 import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VComponentElement;
+import jfxtras.icalendarfx.components.VDisplayable;
 import jfxtras.icalendarfx.components.VEvent;
 import jfxtras.icalendarfx.components.VFreeBusy;
 import jfxtras.icalendarfx.components.VJournal;
+import jfxtras.icalendarfx.components.VLocatable;
 import jfxtras.icalendarfx.components.VPersonal;
 import jfxtras.icalendarfx.components.VTimeZone;
 import jfxtras.icalendarfx.components.VTodo;
+import jfxtras.icalendarfx.content.ChildAccessor;
+import jfxtras.icalendarfx.content.MappedUnfoldingReader;
 import jfxtras.icalendarfx.content.MultiLineContent;
 import jfxtras.icalendarfx.content.OrdererBase;
 import jfxtras.icalendarfx.content.UnfoldingStringIterator;
 import jfxtras.icalendarfx.itip.AbstractITIPFactory;
 import jfxtras.icalendarfx.itip.DefaultITIPFactory;
+import jfxtras.icalendarfx.itip.ITIPBatchProcessor;
+import jfxtras.icalendarfx.itip.ITIPMessageResult;
 import jfxtras.icalendarfx.itip.Processable;
+import jfxtras.icalendarfx.parameters.FreeBusyType.FreeBusyTypeEnum;
 import jfxtras.icalendarfx.properties.calendar.CalendarScale;
 import jfxtras.icalendarfx.properties.calendar.Method;
 import jfxtras.icalendarfx.properties.calendar.ProductIdentifier;
@@ -60,7 +82,11 @@ import jfxtras.icalendarfx.properties.calendar.Version;
 import jfxtras.icalendarfx.properties.calendar.Method.MethodType;
 import jfxtras.icalendarfx.properties.component.misc.NonStandardProperty;
 import jfxtras.icalendarfx.properties.component.misc.RequestStatus;
+import jfxtras.icalendarfx.properties.component.time.FreeBusyTime;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
+import jfxtras.icalendarfx.utilities.InterningPool;
+import jfxtras.icalendarfx.utilities.Pair;
+import jfxtras.icalendarfx.utilities.ZoneRulesResolver;
 
 /**
  * iCalendar Object
@@ -303,7 +329,7 @@ public class VCalendar extends VParentBase<VCalendar>
     {
     	if (getVEvents() == null)
     	{
-    		setVEvents(new ArrayList<>());
+    		setVEvents(new ComponentList<>());
     	}
     	getVEvents().addAll(vEvents);
     	if (vEvents != null)
@@ -348,7 +374,7 @@ public class VCalendar extends VParentBase<VCalendar>
     {
     	if (getVTodos() == null)
     	{
-    		setVTodos(new ArrayList<>());
+    		setVTodos(new ComponentList<>());
     	}
     	getVTodos().addAll(vTodos);
     	if (vTodos != null)
@@ -395,7 +421,7 @@ public class VCalendar extends VParentBase<VCalendar>
     {
     	if (getVJournals() == null)
     	{
-    		setVJournals(new ArrayList<>());
+    		setVJournals(new ComponentList<>());
     	}
     	getVJournals().addAll(vJournals);
     	if (vJournals != null)
@@ -439,7 +465,7 @@ public class VCalendar extends VParentBase<VCalendar>
     {
     	if (getVFreeBusies() == null)
     	{
-    		setVFreeBusys(new ArrayList<>());
+    		setVFreeBusys(new ComponentList<>());
     	}
     	getVFreeBusies().addAll(vFreeBusys);
     	if (vFreeBusys != null)
@@ -483,7 +509,7 @@ public class VCalendar extends VParentBase<VCalendar>
     {
     	if (getVTimeZones() == null)
     	{
-    		setVTimeZones(new ArrayList<>());
+    		setVTimeZones(new ComponentList<>());
     	}
     	getVTimeZones().addAll(vTimeZones);
     	if (vTimeZones != null)
@@ -591,6 +617,413 @@ public class VCalendar extends VParentBase<VCalendar>
     }
     
     
+    /**
+     * Returns the components in the same list as the {@link VComponent} parameter that have the UID,
+     * in the order they were added.  Includes the recurrence parent and its recurrence children.
+     * 
+     * The first call builds an index of components by UID and RECURRENCE-ID.  It is kept up to date like the
+     * index used by {@link #occurrences(Temporal, Temporal)}, and as UID and RECURRENCE-ID properties change.
+     * A list changed in any other way, such as by replacing or removing one of its components directly, is indexed
+     * again.  Changes to the lists made by the calendar are counted, which makes that check cheap.  A list set with
+     * a setter, such as {@link #setVEvents(List)}, is compared with a copy instead.
+     * 
+     * @param vComponent - VComponent whose list is searched
+     * @param uid - UID value
+     * @return  components with the UID, empty if none
+     */
+    public List<VDisplayable<?>> getVComponents(VComponent vComponent, String uid)
+    {
+        UniqueIdentifierIndex index = uniqueIdentifierIndex(vComponent);
+        return ((index == null) || (uid == null)) ? Collections.emptyList() : index.get(vComponent.name(), uid);
+    }
+    
+    /**
+     * Returns the component in the same list as the {@link VComponent} parameter that has the UID
+     * and RECURRENCE-ID value.  If recurrenceId is null the recurrence parent is returned.
+     * 
+     * @param vComponent - VComponent whose list is searched
+     * @param uid - UID value
+     * @param recurrenceId - RECURRENCE-ID value, null for the recurrence parent
+     * @return  matching component, null if none
+     */
+    public VDisplayable<?> getVComponent(VComponent vComponent, String uid, Temporal recurrenceId)
+    {
+        UniqueIdentifierIndex index = uniqueIdentifierIndex(vComponent);
+        return ((index == null) || (uid == null)) ? null : index.get(vComponent.name(), uid, recurrenceId);
+    }
+    
+    /* Index of components by UID, built on first use, null for components that aren't VDisplayable */
+    private UniqueIdentifierIndex uniqueIdentifierIndex(VComponent vComponent)
+    {
+        if (! (vComponent instanceof VDisplayable))
+        {
+            return null;
+        }
+        UniqueIdentifierIndex index = uniqueIdentifierIndex;
+        if (index == null)
+        {
+            synchronized (this)
+            {
+                index = uniqueIdentifierIndex;
+                if (index == null)
+                {
+                    index = new UniqueIdentifierIndex();
+                    uniqueIdentifierIndex = index;
+                }
+            }
+        }
+        List<? extends VDisplayable<?>> list = displayables(vComponent);
+        if (! index.isCurrent(vComponent.name(), list))
+        {
+            index.reindex(vComponent.name(), list);
+        }
+        return index;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<? extends VDisplayable<?>> displayables(VComponent vComponent)
+    {
+        return (List<? extends VDisplayable<?>>) getVComponents(vComponent);
+    }
+    private volatile UniqueIdentifierIndex uniqueIdentifierIndex;
+    
+    /**
+     * Returns the occurrences of {@link VEvent VEVENT}, {@link VTodo VTODO} and {@link VJournal VJOURNAL} components
+     * that overlap the range from start (inclusive) to end (exclusive), sorted by start.  An occurrence without
+     * duration is included when its start is in the range.
+     * 
+     * The first call builds an index of the time spans of the components.  It is kept up to date as components are
+     * added, removed or replaced through {@link #addChild(VChild)}, {@link #removeChild(VChild)} and the
+     * {@link #orderChild(VChild)} methods, and as their properties change, so later calls only look at components
+     * that can overlap the range.  Components added to or removed from the lists returned by {@link #getVEvents()},
+     * {@link #getVTodos()} and {@link #getVJournals()} without ordering them aren't seen by the index.
+     * 
+     * @param start  start of range, any date or date/time type
+     * @param end  end of range, any date or date/time type
+     * @return  overlapping occurrences
+     */
+    public List<Occurrence> occurrences(Temporal start, Temporal end)
+    {
+        return occurrenceIndex().occurrences(start, end);
+    }
+    
+    /**
+     * Computes busy time in the range from start (inclusive) to end (exclusive) and returns it as a
+     * {@link VFreeBusy VFREEBUSY} component with DTSTART, DTEND and a FREEBUSY property in UTC.
+     * 
+     * Occurrences of {@link VEvent VEVENT} components that aren't TRANSPARENT or CANCELLED are busy time,
+     * TENTATIVE events are BUSY-TENTATIVE.  The FREEBUSY properties of the calendar's VFREEBUSY components are
+     * included.  Overlapping busy time is merged, see {@link FreeBusyIntervals}.
+     * 
+     * A VFREEBUSY component has one FREEBUSY property, so it holds the busy time of the type set in the options.
+     * Without a type all busy time is written as BUSY.  Use {@link #computeFreeBusyIntervals(Temporal, Temporal, FreeBusyOptions)}
+     * to get all types at once.
+     * 
+     * @param start  start of range, any date or date/time type
+     * @param end  end of range, any date or date/time type
+     * @param options  free/busy options, null for defaults
+     * @return  VFREEBUSY component, without FREEBUSY property if there is no busy time
+     */
+    public VFreeBusy computeFreeBusy(Temporal start, Temporal end, FreeBusyOptions options)
+    {
+        FreeBusyOptions myOptions = (options == null) ? new FreeBusyOptions() : options;
+        FreeBusyIntervals intervals = computeFreeBusyIntervals(start, end, myOptions);
+        VFreeBusy vFreeBusy = new VFreeBusy()
+                .withDateTimeStamp(ZonedDateTime.now(ZoneOffset.UTC))
+                .withDateTimeStart(ZonedDateTime.ofInstant(Instant.ofEpochSecond(OccurrenceIndex.epochSecond(start)), ZoneOffset.UTC))
+                .withDateTimeEnd(ZonedDateTime.ofInstant(Instant.ofEpochSecond(OccurrenceIndex.epochSecond(end)), ZoneOffset.UTC));
+        List<Pair<ZonedDateTime, TemporalAmount>> periods = intervals.toPeriods(myOptions.getFreeBusyType());
+        if (! periods.isEmpty())
+        {
+            FreeBusyTypeEnum type = (myOptions.getFreeBusyType() == null) ? FreeBusyTypeEnum.BUSY : myOptions.getFreeBusyType();
+            vFreeBusy.setFreeBusyTime(new FreeBusyTime(periods).withFreeBusyType(type));
+        }
+        return vFreeBusy;
+    }
+    
+    /**
+     * Computes busy time in the range from start (inclusive) to end (exclusive) as sorted intervals of epoch seconds,
+     * for callers that don't need a {@link VFreeBusy VFREEBUSY} component.
+     * 
+     * @param start  start of range, any date or date/time type
+     * @param end  end of range, any date or date/time type
+     * @param options  free/busy options, null for defaults
+     * @return  busy intervals of all types
+     * @see #occurrences(Temporal, Temporal)
+     * @see #computeFreeBusy(Temporal, Temporal, FreeBusyOptions)
+     */
+    public FreeBusyIntervals computeFreeBusyIntervals(Temporal start, Temporal end, FreeBusyOptions options)
+    {
+        return FreeBusyIntervals.compute(this, start, end, (options == null) ? new FreeBusyOptions() : options);
+    }
+    
+    /* Index of component spans, built on first use */
+    OccurrenceIndex occurrenceIndex()
+    {
+        OccurrenceIndex index = occurrenceIndex;
+        if (index == null)
+        {
+            synchronized (this)
+            {
+                index = occurrenceIndex;
+                if (index == null)
+                {
+                    index = new OccurrenceIndex();
+                    for (VChild child : childrenUnmodifiable())
+                    {
+                        if (child instanceof VDisplayable)
+                        {
+                            index.add((VDisplayable<?>) child);
+                        }
+                    }
+                    occurrenceIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+    private volatile OccurrenceIndex occurrenceIndex;
+    
+    private void indexAdd(VChild child)
+    {
+        if (child instanceof VDisplayable)
+        {
+            OccurrenceIndex index = occurrenceIndex;
+            if (index != null)
+            {
+                index.add((VDisplayable<?>) child);
+            }
+            UniqueIdentifierIndex uidIndex = uniqueIdentifierIndex;
+            if (uidIndex != null)
+            {
+                uidIndex.add((VDisplayable<?>) child);
+            }
+        } else if (child instanceof VTimeZone)
+        {
+            registerTimeZone((VTimeZone) child);
+        }
+        alarmSchedulersChanged(child, true);
+    }
+    
+    /* Makes a TZID defined by the VTIMEZONE known to date-time values parsed after it, see ZoneRulesResolver */
+    void registerTimeZone(VTimeZone vTimeZone)
+    {
+        if ((vTimeZone.getTimeZoneIdentifier() != null) && (vTimeZone.getTimeZoneIdentifier().getIdentifier() != null))
+        {
+            zoneRulesResolver.register(vTimeZone);
+        }
+    }
+    
+    /* Forgets the TZID of a removed VTIMEZONE, unless another VTIMEZONE still defines it */
+    private void unregisterTimeZone(VTimeZone vTimeZone)
+    {
+        String identifier = (vTimeZone.getTimeZoneIdentifier() == null) ? null : vTimeZone.getTimeZoneIdentifier().getIdentifier();
+        if (identifier == null)
+        {
+            return;
+        }
+        zoneRulesResolver.unregister(identifier);
+        if (getVTimeZones() != null)
+        {
+            getVTimeZones().stream()
+                    .filter(v -> (v.getTimeZoneIdentifier() != null) && identifier.equals(v.getTimeZoneIdentifier().getIdentifier()))
+                    .forEach(v -> registerTimeZone(v));
+        }
+    }
+    
+    /* TZIDs of this calendar's VTIMEZONE components */
+    private final ZoneRulesResolver zoneRulesResolver = new ZoneRulesResolver();
+    
+    ZoneRulesResolver zoneRulesResolver()
+    {
+        return zoneRulesResolver;
+    }
+    
+    private void indexRemove(VChild child)
+    {
+        if (child instanceof VDisplayable)
+        {
+            OccurrenceIndex index = occurrenceIndex;
+            if (index != null)
+            {
+                index.remove((VDisplayable<?>) child);
+            }
+            UniqueIdentifierIndex uidIndex = uniqueIdentifierIndex;
+            if (uidIndex != null)
+            {
+                uidIndex.remove((VDisplayable<?>) child);
+            }
+        } else if (child instanceof VTimeZone)
+        {
+            unregisterTimeZone((VTimeZone) child);
+        }
+        alarmSchedulersChanged(child, false);
+    }
+    
+    @Override
+    public void orderChild(VChild addedChild)
+    {
+        super.orderChild(addedChild);
+        indexAdd(addedChild);
+    }
+    
+    @Override
+    public void orderChild(VChild oldChild, VChild newChild)
+    {
+        super.orderChild(oldChild, newChild);
+        indexRemove(oldChild);
+        indexAdd(newChild);
+    }
+    
+    @Override
+    public void orderChild(int index, VChild addedChild)
+    {
+        super.orderChild(index, addedChild);
+        indexAdd(addedChild);
+    }
+    
+    /* The calendar's lists count their changes, see getVComponents(VComponent, String) */
+    @Override
+    protected Collection<VChild> newCollection(ChildAccessor accessor)
+    {
+        return (accessor.getterMethod().getReturnType() == List.class) ? new ComponentList<>() : super.newCollection(accessor);
+    }
+    
+    @Override
+    public void addChild(VChild child)
+    {
+        List<AlarmScheduler> currentSchedulers = currentAlarmSchedulers(child, true);
+        UniqueIdentifierIndex index = uniqueIdentifierIndex;
+        if ((index == null) || ! (child instanceof VDisplayable))
+        {
+            super.addChild(child);
+        } else
+        {
+            String name = ((VDisplayable<?>) child).name();
+            boolean isCurrent = index.isCurrent(name, displayables((VDisplayable<?>) child)) && ! index.contains((VDisplayable<?>) child);
+            super.addChild(child);
+            if (isCurrent)
+            { // the child was added to both the list and the index
+                index.indexed(name, displayables((VDisplayable<?>) child));
+            }
+        }
+        currentSchedulers.forEach(s -> s.listsChanged());
+    }
+    
+    @Override
+    public boolean removeChild(VChild child)
+    {
+        List<AlarmScheduler> currentSchedulers = currentAlarmSchedulers(child, false);
+        UniqueIdentifierIndex index = uniqueIdentifierIndex;
+        final boolean isRemoved;
+        if ((index == null) || ! (child instanceof VDisplayable))
+        {
+            isRemoved = super.removeChild(child);
+        } else
+        {
+            String name = ((VDisplayable<?>) child).name();
+            boolean isCurrent = index.isCurrent(name, displayables((VDisplayable<?>) child));
+            isRemoved = super.removeChild(child);
+            if (isCurrent && ! containsSame(displayables((VDisplayable<?>) child), child))
+            { // the child was removed from both the list and the index, the list removes an equal component
+                index.indexed(name, displayables((VDisplayable<?>) child));
+            }
+        }
+        if (! currentSchedulers.isEmpty() && ! containsSame(getVComponents((VComponent) child), child))
+        { // the child was removed from both the list and the schedulers
+            currentSchedulers.forEach(s -> s.listsChanged());
+        }
+        return isRemoved;
+    }
+    
+    private static boolean containsSame(List<?> list, Object element)
+    {
+        return (list != null) && list.stream().anyMatch(e -> e == element);
+    }
+    
+    @Override
+    public boolean replaceChild(VChild oldChild, VChild newChild)
+    {
+        boolean isReplaced = super.replaceChild(oldChild, newChild);
+        indexRemove(oldChild);
+        indexAdd(newChild);
+        return isReplaced;
+    }
+    
+    @Override
+    protected void descendantChanged(VChild child)
+    {
+        if (child instanceof VDisplayable)
+        {
+            OccurrenceIndex index = occurrenceIndex;
+            if (index != null)
+            {
+                index.changed((VDisplayable<?>) child);
+            }
+            UniqueIdentifierIndex uidIndex = uniqueIdentifierIndex;
+            if (uidIndex != null)
+            {
+                uidIndex.changed((VDisplayable<?>) child);
+            }
+        } else if (child instanceof VTimeZone)
+        { // an edited definition gets a new ZoneId, values parsed before keep theirs
+            registerTimeZone((VTimeZone) child);
+        }
+        alarmSchedulersChanged(child, true);
+    }
+    
+    /* Schedulers following this calendar's alarms, see AlarmScheduler */
+    private final List<WeakReference<AlarmScheduler>> alarmSchedulers = new CopyOnWriteArrayList<>();
+    
+    void addAlarmScheduler(AlarmScheduler alarmScheduler)
+    {
+        alarmSchedulers.add(new WeakReference<>(alarmScheduler));
+    }
+    
+    void removeAlarmScheduler(AlarmScheduler alarmScheduler)
+    {
+        alarmSchedulers.removeIf(r -> (r.get() == null) || (r.get() == alarmScheduler));
+    }
+    
+    /* Schedulers whose component lists are current, so they can follow adding or removing child through the
+     * calendar instead of scheduling all alarms again.  An added child must not be scheduled already. */
+    private List<AlarmScheduler> currentAlarmSchedulers(VChild child, boolean isAdding)
+    {
+        if (! (child instanceof VLocatable) || alarmSchedulers.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        List<AlarmScheduler> currentSchedulers = new ArrayList<>();
+        for (WeakReference<AlarmScheduler> reference : alarmSchedulers)
+        {
+            AlarmScheduler alarmScheduler = reference.get();
+            if ((alarmScheduler != null) && alarmScheduler.isCurrent()
+                    && ! (isAdding && alarmScheduler.contains((VLocatable<?>) child)))
+            {
+                currentSchedulers.add(alarmScheduler);
+            }
+        }
+        return currentSchedulers;
+    }
+    
+    private void alarmSchedulersChanged(VChild child, boolean isInCalendar)
+    {
+        if ((child instanceof VLocatable) && ! alarmSchedulers.isEmpty())
+        {
+            for (WeakReference<AlarmScheduler> reference : alarmSchedulers)
+            {
+                AlarmScheduler alarmScheduler = reference.get();
+                if (alarmScheduler == null)
+                {
+                    alarmSchedulers.remove(reference);
+                } else
+                {
+                    alarmScheduler.changed((VLocatable<?>) child, isInCalendar);
+                }
+            }
+        }
+    }
+    
     /** set AbstractITIPFactory to handle processing input VCalendar based on {@link Method} */
     public void setMethodProcessFactory(AbstractITIPFactory iTIPFactory)
     {
@@ -677,6 +1110,31 @@ public class VCalendar extends VParentBase<VCalendar>
         return log;
     }
     
+    /**
+     * Process a batch of iTIP messages with an {@link ITIPBatchProcessor}.  Messages are grouped by UID,
+     * messages replaced by a later message with a higher SEQUENCE are skipped, and a failing message
+     * doesn't stop the others.
+     * 
+     * @param iTIPMessages  iTIP VCalendars to process with {@link Method} populated
+     * @return - result of each message, in the order of iTIPMessages
+     */
+    public List<ITIPMessageResult> processITIPMessageBatch(Collection<VCalendar> iTIPMessages)
+    {
+        return new ITIPBatchProcessor(this).process(new ArrayList<>(iTIPMessages));
+    }
+    
+    /**
+     * Process a batch of iTIP messages with an {@link ITIPBatchProcessor}.
+     * Input string can contain multiple iTIP VCALENDAR messages, which are parsed in parallel.
+     * 
+     * @param iTIPMessages  iTIP VCalendar Message strings
+     * @return - result of each message, in the order of iTIPMessages
+     */
+    public List<ITIPMessageResult> processITIPMessageBatch(String iTIPMessages)
+    {
+        return new ITIPBatchProcessor(this).process(iTIPMessages);
+    }
+    
     /**
      * Parse component text to new VComponent with {@link RequestStatus REQUEST-STATUS} properties containing 
      * the result of the process, such as success message or error report.
@@ -777,7 +1235,7 @@ public class VCalendar extends VParentBase<VCalendar>
     {
         setMethodProcessFactory(new DefaultITIPFactory());
 //    	List<java.lang.reflect.Method> getters = ICalendarUtilities.collectGetters(getClass());
-        orderer = new OrdererBase(this, getGetters());
+        orderer = new OrdererBase(this);
         contentLineGenerator = new MultiLineContent(
                 orderer,
                 FIRST_CONTENT_LINE,
@@ -898,90 +1356,249 @@ public class VCalendar extends VParentBase<VCalendar>
 //        return messages;
 //    }
 
-//    // multi threaded
-//    /** Parse content lines into calendar object */
-//    // TODO - TEST THIS - MAY NOT MAINTAIN ORDER
-//    // TODO - FIX THIS - DOESN'T WORK, DOESN'T GET CALENDARY PROPERTIES
-//    public void parseContentMulti(Iterator<String> lineIterator)
-//    {
-//        // Callables to generate components
-//        ExecutorService service = Executors.newWorkStealingPool();
-////        Map<Integer, Callable<Object>> taskMap = new LinkedHashMap<>();
-//        Integer order = 0;
-//        List<Callable<Object>> tasks = new ArrayList<>();
-//        
-//        String firstLine = lineIterator.next();
-//        if (! firstLine.equals("BEGIN:VCALENDAR"))
-//        {
-//            throw new IllegalArgumentException("Content lines must begin with BEGIN:VCALENDAR");
-//        }
-//        while (lineIterator.hasNext())
-//        {
-//            String line = lineIterator.next();
-//            int nameEndIndex = ICalendarUtilities.getPropertyNameIndex(line);
-//            String propertyName = line.substring(0, nameEndIndex);
-//            
-//            // Parse component
-//            if (propertyName.equals("BEGIN"))
-//            {
-//                String componentName = line.substring(nameEndIndex+1);
-//                List<String> myLines = new ArrayList<>(20);
-//                myLines.add(line);
-//                final String endLine = "END:" + componentName;
-//                while (lineIterator.hasNext())
-//                {
-//                    String myLine = lineIterator.next();
-//                    myLines.add(myLine);
-//                    if (myLine.equals(endLine))
-//                    {
-//                        Integer myOrder = order;
-//                        order += 100;
-//                        Runnable vComponentRunnable = () -> 
-//                        {
-//                            CalendarComponent elementType = CalendarComponent.valueOf(componentName);
-//                            VElement component = elementType.parse(this, myLines);
-////                            orderer().elementSortOrderMap().put((VChild) component, myOrder);
-//                        };
-////                        taskMap.put(order, Executors.callable(vComponentRunnable));
-//                        tasks.add(Executors.callable(vComponentRunnable));
-//                        break;
-//                    }
-//                }
-//                
-//            // parse calendar properties (ignores unknown properties)
-//            } else
-//            {
-//                CalendarComponent elementType = CalendarComponent.enumFromName(propertyName);
-//                if (elementType != null)
-//                {
-//                    VElement property = elementType.parse(this, Arrays.asList(line));
-////                    orderer().elementSortOrderMap().put((VChild) property, order);
-////                    order += 100;
-//                }
-//            }
-//        }
-//        
-//        try
-//        {
-////            List<Callable<Object>> tasks = taskMap.entrySet().stream().map(e -> e.getValue()).collect(Collectors.toList());
-//            service.invokeAll(tasks);
-//        } catch (InterruptedException e)
-//        {
-//            e.printStackTrace();
-//        }
-//    }
+    /*
+     * PARALLEL PARSING
+     */
+    // number of top-level components parsed by one fork/join task
+    private static final int PARALLEL_BATCH_SIZE = 64;
     
+    /**
+     * Parse unfolded content lines into calendar object.  TZID values defined by the calendar's
+     * VTIMEZONE components are resolved by this calendar's own {@link ZoneRulesResolver}.
+     */
+    @Override
+    protected List<Message> parseContent(Iterator<String> unfoldedLineIterator)
+    {
+        ZoneRulesResolver previousResolver = ZoneRulesResolver.setCurrent(zoneRulesResolver);
+        try
+        {
+            return super.parseContent(unfoldedLineIterator);
+        } finally
+        {
+            ZoneRulesResolver.setCurrent(previousResolver);
+        }
+    }
+    
+    /**
+     * Parse unfolded content lines into calendar object, parsing the top-level components in parallel.
+     * 
+     * The lines are split at top-level BEGIN lines, such as BEGIN:VEVENT or BEGIN:VTIMEZONE.  Each
+     * component block is parsed on the pool while the calendar properties are parsed on the calling
+     * thread.  The results are added in their original order, so the children and messages are
+     * the same as produced by {@link #parseContent(Iterator)}.  The current {@link InterningPool},
+     * if any, is also used by the pool threads.
+     * 
+     * @param unfoldedLineIterator  unfolded content lines
+     * @param pool  pool that parses the component blocks
+     * @return  log of information and error messages
+     */
+    protected List<Message> parseContent(Iterator<String> unfoldedLineIterator, ForkJoinPool pool)
+    {
+        ZoneRulesResolver previousResolver = ZoneRulesResolver.setCurrent(zoneRulesResolver);
+        try
+        {
+            return parseContentInParallel(unfoldedLineIterator, pool);
+        } finally
+        {
+            ZoneRulesResolver.setCurrent(previousResolver);
+        }
+    }
+    
+    private List<Message> parseContentInParallel(Iterator<String> unfoldedLineIterator, ForkJoinPool pool)
+    {
+        InterningPool interningPool = InterningPool.current();
+        List<ContentBlock> blocks = new ArrayList<>();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        List<ContentBlock> batch = new ArrayList<>(PARALLEL_BATCH_SIZE);
+        ContentBlock calendarLines = null;
+        while (unfoldedLineIterator.hasNext())
+        {
+            String unfoldedLine = unfoldedLineIterator.next();
+            if (unfoldedLine.startsWith(END)) break; // exit when end found
+            String childName = (unfoldedLine.startsWith(BEGIN)) ? componentName(unfoldedLine) : null;
+            boolean isComponent = (childName != null) && ! name().equals(childName);
+            if (isComponent)
+            {
+                calendarLines = null;
+                ContentBlock block = new ContentBlock(unfoldedLine, childName, componentLines(childName, unfoldedLineIterator));
+                blocks.add(block);
+                if (childName.equals(VComponentElement.VTIMEZONE.toString()))
+                { // parsed now, so its TZID is known to the components that follow
+                    block.parse();
+                    registerTimeZone((VTimeZone) block.child);
+                    continue;
+                }
+                batch.add(block);
+                if (batch.size() == PARALLEL_BATCH_SIZE)
+                {
+                    tasks.add(pool.submit(parseTask(batch, interningPool, zoneRulesResolver)));
+                    batch = new ArrayList<>(PARALLEL_BATCH_SIZE);
+                }
+            } else
+            { // consecutive calendar property lines are parsed together on this thread
+                if (calendarLines == null)
+                {
+                    calendarLines = new ContentBlock(null, null, new ArrayList<>());
+                    blocks.add(calendarLines);
+                }
+                calendarLines.lines.add(unfoldedLine);
+            }
+        }
+        if (! batch.isEmpty())
+        {
+            tasks.add(pool.submit(parseTask(batch, interningPool, zoneRulesResolver)));
+        }
+        tasks.forEach(t -> t.join());
+        
+        // add children in original order
+        List<Message> messages = new ArrayList<>();
+        for (ContentBlock block : blocks)
+        {
+            if (block.childName == null)
+            {
+                messages.addAll(parseContent(block.lines.iterator()));
+            } else
+            {
+                messages.addAll(block.messages);
+                addChildInternal(messages, block.beginLine, block.childName, block.child);
+            }
+        }
+        return messages;
+    }
+    
+    static String componentName(String beginLine)
+    {
+        String name = elementName(beginLine);
+        return (name.startsWith("X-")) ? "X-" : name;
+    }
+    
+    /* Collect the lines of one component up to and including its END line.
+     * Nesting follows VParentBase#parseContent: every END line closes the innermost
+     * component and a BEGIN line with the name of its own parent is ignored. */
+    static List<String> componentLines(String componentName, Iterator<String> unfoldedLineIterator)
+    {
+        List<String> lines = new ArrayList<>();
+        Deque<String> openComponents = new ArrayDeque<>();
+        openComponents.push(componentName);
+        while (unfoldedLineIterator.hasNext())
+        {
+            String unfoldedLine = unfoldedLineIterator.next();
+            lines.add(unfoldedLine);
+            if (isLastComponentLine(openComponents, unfoldedLine)) break;
+        }
+        return lines;
+    }
+    
+    /* Follow the nesting of a component's lines, as componentLines does.  openComponents starts with the
+     * component's name, returns true for the component's own END line. */
+    static boolean isLastComponentLine(Deque<String> openComponents, CharSequence unfoldedLine)
+    {
+        if (startsWith(unfoldedLine, END))
+        {
+            openComponents.pop();
+            return openComponents.isEmpty();
+        } else if (startsWith(unfoldedLine, BEGIN))
+        {
+            String childName = componentName(unfoldedLine.toString());
+            if (! childName.equals(openComponents.peek()))
+            {
+                openComponents.push(childName);
+            }
+        }
+        return false;
+    }
+    
+    static boolean startsWith(CharSequence line, String prefix)
+    {
+        if (line.length() < prefix.length()) return false;
+        for (int i=0; i<prefix.length(); i++)
+        {
+            if (line.charAt(i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+    
+    private static Runnable parseTask(List<ContentBlock> batch, InterningPool interningPool, ZoneRulesResolver zoneRulesResolver)
+    {
+        return () ->
+        {
+            InterningPool previousPool = InterningPool.setCurrent(interningPool);
+            ZoneRulesResolver previousResolver = ZoneRulesResolver.setCurrent(zoneRulesResolver);
+            try
+            {
+                batch.forEach(b -> b.parse());
+            } finally
+            {
+                ZoneRulesResolver.setCurrent(previousResolver);
+                InterningPool.setCurrent(previousPool);
+            }
+        };
+    }
+    
+    /* Content lines of a top-level component, or a run of calendar property lines if childName is null */
+    private static class ContentBlock
+    {
+        final String beginLine;
+        final String childName;
+        List<String> lines;
+        VChild child;
+        List<Message> messages;
+        
+        ContentBlock(String beginLine, String childName, List<String> lines)
+        {
+            this.beginLine = beginLine;
+            this.childName = childName;
+            this.lines = lines;
+        }
+        
+        void parse()
+        {
+            child = VElementBase.newEmptyVElement(VComponent.class, childName);
+            messages = ((VParentBase<?>) child).parseContent(lines.iterator());
+            lines = null; // release content lines
+        }
+    }
+    
+    /**
+     * Creates a new VCalendar from a reader.  The complete calendar is built in memory.
+     * To process large content one component at a time use {@link VCalendarStreamParser}.
+     * 
+     * @param reader  source of iCalendar content
+     * @return  Created VCalendar
+     * @throws IOException
+     */
     public static VCalendar parse(Reader reader) throws IOException
     {
-        BufferedReader br = new BufferedReader(reader);
-        Iterator<String> unfoldedLineIterator = new UnfoldingStringIterator(br.lines().iterator());
-//        Iterator<String> unfoldedLineIterator = br.lines().iterator();
-//        UnfoldingBufferedReader unfoldingReader = new UnfoldingBufferedReader(reader);
-//        Iterator<String> unfoldedLineIterator = unfoldingReader.lines().iterator();
-        VCalendar vCalendar = new VCalendar();
-        vCalendar.parseContent(unfoldedLineIterator);
-//        unfoldingReader.close();
-        return vCalendar;
+        return parse(reader, null);
+    }
+    
+    /**
+     * Creates a new VCalendar from a reader.  Repeated property and parameter values are deduplicated
+     * by the pool parameter, which also reports the pool statistics.
+     * 
+     * @param reader  source of iCalendar content
+     * @param interningPool  pool for repeated values, or null for no pooling
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parse(Reader reader, InterningPool interningPool) throws IOException
+    {
+        InterningPool previousPool = InterningPool.setCurrent(interningPool);
+        try
+        {
+            BufferedReader br = new BufferedReader(reader);
+            Iterator<String> unfoldedLineIterator = new UnfoldingStringIterator(br.lines().iterator());
+//            Iterator<String> unfoldedLineIterator = br.lines().iterator();
+//            UnfoldingBufferedReader unfoldingReader = new UnfoldingBufferedReader(reader);
+//            Iterator<String> unfoldedLineIterator = unfoldingReader.lines().iterator();
+            VCalendar vCalendar = new VCalendar();
+            vCalendar.parseContent(unfoldedLineIterator);
+//            unfoldingReader.close();
+            return vCalendar;
+        } finally
+        {
+            InterningPool.setCurrent(previousPool);
+        }
     }
     
     /**
@@ -996,6 +1613,138 @@ public class VCalendar extends VParentBase<VCalendar>
         return parse(Files.newBufferedReader(icsFilePath));
     }
     
+    /**
+     * Creates a new VCalendar from a UTF-8 ics file
+     * 
+     * @param icsFilePath  path of ics file to parse
+     * @param useMemoryMapping  true to read the file with a {@link MappedUnfoldingReader}, which is faster for large files,
+     * false to read the file like {@link #parse(Path)}
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parse(Path icsFilePath, boolean useMemoryMapping) throws IOException
+    {
+        return parse(icsFilePath, StandardCharsets.UTF_8, useMemoryMapping);
+    }
+    
+    /**
+     * Creates a new VCalendar from an ics file
+     * 
+     * @param icsFilePath  path of ics file to parse
+     * @param charset  charset of ics file
+     * @param useMemoryMapping  true to read the file with a {@link MappedUnfoldingReader}, which is faster for large files,
+     * false to read the file with a {@link BufferedReader}
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parse(Path icsFilePath, Charset charset, boolean useMemoryMapping) throws IOException
+    {
+        return parse(icsFilePath, charset, useMemoryMapping, null);
+    }
+    
+    /**
+     * Creates a new VCalendar from an ics file.  Repeated property and parameter values are deduplicated
+     * by the pool parameter, which also reports the pool statistics.
+     * 
+     * @param icsFilePath  path of ics file to parse
+     * @param charset  charset of ics file
+     * @param useMemoryMapping  true to read the file with a {@link MappedUnfoldingReader}, which is faster for large files,
+     * false to read the file with a {@link BufferedReader}
+     * @param interningPool  pool for repeated values, or null for no pooling
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parse(Path icsFilePath, Charset charset, boolean useMemoryMapping, InterningPool interningPool) throws IOException
+    {
+        if (useMemoryMapping)
+        {
+            InterningPool previousPool = InterningPool.setCurrent(interningPool);
+            try (MappedUnfoldingReader unfoldedLineIterator = new MappedUnfoldingReader(icsFilePath, charset))
+            {
+                VCalendar vCalendar = new VCalendar();
+                vCalendar.parseContent(unfoldedLineIterator);
+                return vCalendar;
+            } finally
+            {
+                InterningPool.setCurrent(previousPool);
+            }
+        }
+        try (BufferedReader br = Files.newBufferedReader(icsFilePath, charset))
+        {
+            return parse(br, interningPool);
+        }
+    }
+    
+    /**
+     * Creates a new VCalendar from a reader.  The top-level components are parsed in parallel on the
+     * common {@link ForkJoinPool}.  The result is the same as {@link #parse(Reader)}.
+     * 
+     * @param reader  source of iCalendar content
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parseParallel(Reader reader) throws IOException
+    {
+        return parseParallel(reader, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Creates a new VCalendar from a reader.  The top-level components are parsed in parallel on
+     * the pool parameter.  The result is the same as {@link #parse(Reader)}.
+     * 
+     * @param reader  source of iCalendar content
+     * @param pool  pool that parses the top-level components
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parseParallel(Reader reader, ForkJoinPool pool) throws IOException
+    {
+        return parseParallel(reader, pool, null);
+    }
+    
+    /**
+     * Creates a new VCalendar from a reader.  The top-level components are parsed in parallel on
+     * the pool parameter.  Repeated property and parameter values are deduplicated by the interning pool.
+     * The result is the same as {@link #parse(Reader)}.
+     * 
+     * @param reader  source of iCalendar content
+     * @param pool  pool that parses the top-level components
+     * @param interningPool  pool for repeated values, or null for no pooling
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parseParallel(Reader reader, ForkJoinPool pool, InterningPool interningPool) throws IOException
+    {
+        InterningPool previousPool = InterningPool.setCurrent(interningPool);
+        try
+        {
+            BufferedReader br = new BufferedReader(reader);
+            Iterator<String> unfoldedLineIterator = new UnfoldingStringIterator(br.lines().iterator());
+            VCalendar vCalendar = new VCalendar();
+            vCalendar.parseContent(unfoldedLineIterator, pool);
+            return vCalendar;
+        } finally
+        {
+            InterningPool.setCurrent(previousPool);
+        }
+    }
+    
+    /**
+     * Creates a new VCalendar from an ics file.  The top-level components are parsed in parallel on the
+     * common {@link ForkJoinPool}.  The result is the same as {@link #parse(Path)}.
+     * 
+     * @param icsFilePath  path of ics file to parse
+     * @return  Created VCalendar
+     * @throws IOException
+     */
+    public static VCalendar parseParallel(Path icsFilePath) throws IOException
+    {
+        try (BufferedReader br = Files.newBufferedReader(icsFilePath))
+        {
+            return parseParallel(br);
+        }
+    }
+    
     /**
      * Creates a new VCalendar from an ics file
      * 
@@ -1007,11 +1756,10 @@ public class VCalendar extends VParentBase<VCalendar>
     public static VCalendar parseICalendarFile(Path icsFilePath, boolean useResourceStatus) throws IOException
     {
         BufferedReader br = Files.newBufferedReader(icsFilePath);
-        List<String> lines = br.lines().collect(Collectors.toList());
 //        Iterator<String> unfoldedLines = ICalendarUtilities.unfoldLines(lines).iterator();
         VCalendar vCalendar = new VCalendar();
 //        vCalendar.parseContent(lines.iterator(), useResourceStatus);
-        vCalendar.parseContent(lines.iterator());
+        vCalendar.parseContent(br.lines().iterator());
         return vCalendar;
     }
     
@@ -1026,10 +1774,9 @@ public class VCalendar extends VParentBase<VCalendar>
     public static VCalendar parseICalendarFile(Path icsFilePath) throws IOException
     {
         BufferedReader br = Files.newBufferedReader(icsFilePath);
-        List<String> lines = br.lines().collect(Collectors.toList());
 //        Iterator<String> unfoldedLines = ICalendarUtilities.unfoldLines(lines).iterator();
         VCalendar vCalendar = new VCalendar();
-        vCalendar.parseContent(lines.iterator());
+        vCalendar.parseContent(br.lines().iterator());
         return vCalendar;
     }
     
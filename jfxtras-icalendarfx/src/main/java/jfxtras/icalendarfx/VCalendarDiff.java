@@ -0,0 +1,367 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VDisplayable;
+import jfxtras.icalendarfx.components.VTimeZone;
+import jfxtras.icalendarfx.properties.calendar.Method.MethodType;
+import jfxtras.icalendarfx.properties.calendar.Version;
+import jfxtras.icalendarfx.properties.component.change.Sequence;
+
+/**
+ * Differences between the {@link VDisplayable} components, such as {@link jfxtras.icalendarfx.components.VEvent VEVENT},
+ * of an old and a new version of a calendar, for syncing a local calendar with a server copy without replacing it.
+ * 
+ * <p>Components are matched by component name, UID and RECURRENCE-ID.  A matched component is unchanged when
+ * its SEQUENCE, DTSTAMP and LAST-MODIFIED are the same and it has the same cached
+ * {@link VElementBase#fingerprint() fingerprint}.  Components aren't compared in full, so a value changed in place
+ * must be notified with {@link VParentBase#elementChanged(VElement)} to be seen as a change.  Components without a UID,
+ * and components with a duplicate UID and RECURRENCE-ID, are matched by fingerprint only.</p>
+ * 
+ * <p>{@link #toITIPMessages()} renders the differences as iTIP messages that change the old calendar into the new
+ * one with {@link VCalendar#processITIPMessage(java.util.Collection)}.</p>
+ */
+public final class VCalendarDiff
+{
+    /** A component in both calendars with different content */
+    public static final class Change
+    {
+        private final VDisplayable<?> oldComponent;
+        private final VDisplayable<?> newComponent;
+        
+        private Change(VDisplayable<?> oldComponent, VDisplayable<?> newComponent)
+        {
+            this.oldComponent = oldComponent;
+            this.newComponent = newComponent;
+        }
+        
+        /** Component in the old calendar */
+        public VDisplayable<?> getOldComponent() { return oldComponent; }
+        /** Component in the new calendar */
+        public VDisplayable<?> getNewComponent() { return newComponent; }
+        
+        @Override
+        public String toString()
+        {
+            return "Change [" + key(newComponent) + "]";
+        }
+    }
+    
+    private final VCalendar oldVCalendar;
+    private final VCalendar newVCalendar;
+    private final List<VDisplayable<?>> added = new ArrayList<>();
+    private final List<Change> changed = new ArrayList<>();
+    private final List<VDisplayable<?>> removed = new ArrayList<>();
+    
+    private VCalendarDiff(VCalendar oldVCalendar, VCalendar newVCalendar)
+    {
+        this.oldVCalendar = oldVCalendar;
+        this.newVCalendar = newVCalendar;
+    }
+    
+    /** Components only in the new calendar */
+    public List<VDisplayable<?>> getAdded() { return Collections.unmodifiableList(added); }
+    /** Components in both calendars with different content */
+    public List<Change> getChanged() { return Collections.unmodifiableList(changed); }
+    /** Components only in the old calendar */
+    public List<VDisplayable<?>> getRemoved() { return Collections.unmodifiableList(removed); }
+    /** Returns true if the calendars have the same components */
+    public boolean isEmpty() { return added.isEmpty() && changed.isEmpty() && removed.isEmpty(); }
+    
+    /**
+     * Compute the differences between the components of two calendars
+     * 
+     * @param oldVCalendar  calendar to be changed, such as a local copy
+     * @param newVCalendar  calendar with the wanted components, such as a server copy
+     * @return  added, changed and removed components
+     */
+    public static VCalendarDiff compute(VCalendar oldVCalendar, VCalendar newVCalendar)
+    {
+        VCalendarDiff diff = new VCalendarDiff(oldVCalendar, newVCalendar);
+        Map<Key, VDisplayable<?>> oldComponents = new HashMap<>();
+        Map<Long, List<VDisplayable<?>>> oldUnkeyed = new HashMap<>();
+        for (VDisplayable<?> component : displayables(oldVCalendar))
+        {
+            Key key = key(component);
+            if ((key == null) || (oldComponents.putIfAbsent(key, component) != null))
+            {
+                oldUnkeyed.computeIfAbsent(component.fingerprint(), f -> new ArrayList<>(1)).add(component);
+            }
+        }
+        
+        List<VDisplayable<?>> newUnkeyed = new ArrayList<>();
+        Set<Key> newKeys = new HashSet<>();
+        for (VDisplayable<?> component : displayables(newVCalendar))
+        {
+            Key key = key(component);
+            if ((key == null) || ! newKeys.add(key))
+            {
+                newUnkeyed.add(component);
+                continue;
+            }
+            VDisplayable<?> oldComponent = oldComponents.remove(key);
+            if (oldComponent == null)
+            {
+                diff.added.add(component);
+            } else if (! isUnchanged(oldComponent, component))
+            {
+                diff.changed.add(new Change(oldComponent, component));
+            }
+        }
+        diff.removed.addAll(oldComponents.values());
+        
+        // match the rest by content
+        for (VDisplayable<?> component : newUnkeyed)
+        {
+            List<VDisplayable<?>> matches = oldUnkeyed.get(component.fingerprint());
+            if ((matches == null) || matches.isEmpty())
+            {
+                diff.added.add(component);
+            } else
+            {
+                matches.remove(0);
+            }
+        }
+        oldUnkeyed.values().forEach(diff.removed::addAll);
+        return diff;
+    }
+    
+    private static boolean isUnchanged(VDisplayable<?> oldComponent, VDisplayable<?> newComponent)
+    {
+        return (sequence(oldComponent) == sequence(newComponent))
+                && Objects.equals(oldComponent.getDateTimeStamp(), newComponent.getDateTimeStamp())
+                && Objects.equals(oldComponent.getDateTimeLastModified(), newComponent.getDateTimeLastModified())
+                && (oldComponent.fingerprint() == newComponent.fingerprint());
+    }
+    
+    /**
+     * Render the differences as iTIP messages.  Removed components are canceled by a CANCEL message, and added and
+     * changed components are published by a PUBLISH message, with the VTIMEZONEs the old calendar doesn't have.
+     * A changed component that PUBLISH can't replace, because its SEQUENCE isn't higher, is canceled and published again.
+     * Canceling a recurrence parent cancels its recurrences too, so the new calendar's components with its UID are published
+     * again.  Components without a UID can't be addressed by iTIP and are left out.
+     * 
+     * @return  CANCEL and PUBLISH messages, in the order to process them, or an empty list if there are no differences
+     */
+    public List<VCalendar> toITIPMessages()
+    {
+        List<VDisplayable<?>> cancels = new ArrayList<>();
+        Set<VDisplayable<?>> published = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<VDisplayable<?>> publishOrder = new ArrayList<>();
+        Set<Key> canceledParents = new HashSet<>();
+        for (VDisplayable<?> component : removed)
+        {
+            cancel(component, cancels, canceledParents);
+        }
+        for (Change change : changed)
+        {
+            int oldSequence = sequence(change.oldComponent);
+            int newSequence = sequence(change.newComponent);
+            boolean isPublishable = (newSequence > oldSequence) || ((newSequence == 0) && (oldSequence == 0));
+            if (! isPublishable)
+            {
+                cancel(change.oldComponent, cancels, canceledParents);
+            }
+            publish(change.newComponent, published, publishOrder);
+        }
+        for (VDisplayable<?> component : added)
+        {
+            publish(component, published, publishOrder);
+        }
+        if (! canceledParents.isEmpty())
+        {
+            for (VDisplayable<?> component : displayables(newVCalendar))
+            {
+                if ((component.getUniqueIdentifier() != null) && canceledParents.contains(parentKey(component)))
+                {
+                    publish(component, published, publishOrder);
+                }
+            }
+        }
+        
+        List<VCalendar> messages = new ArrayList<>(2);
+        if (! cancels.isEmpty())
+        {
+            VCalendar message = emptyMessage(MethodType.CANCEL);
+            cancels.forEach(c -> message.addChild(c));
+            messages.add(message);
+        }
+        if (! publishOrder.isEmpty())
+        {
+            VCalendar message = emptyMessage(MethodType.PUBLISH);
+            newVTimeZones().forEach(v -> message.addChild(ElementFactory.copy(v)));
+            // recurrence parents before their recurrences
+            publishOrder.sort(Comparator.comparing(c -> c.getRecurrenceId() != null));
+            publishOrder.forEach(c -> message.addChild(ElementFactory.copy(c)));
+            messages.add(message);
+        }
+        return messages;
+    }
+    
+    private static VCalendar emptyMessage(MethodType method)
+    {
+        return new VCalendar()
+                .withMethod(method)
+                .withVersion(new Version());
+    }
+    
+    /* Add a CANCEL component with the UID, RECURRENCE-ID and SEQUENCE of the component */
+    private static void cancel(VDisplayable<?> component, List<VDisplayable<?>> cancels, Set<Key> canceledParents)
+    {
+        if (component.getUniqueIdentifier() == null) return;
+        VDisplayable<?> cancel = (VDisplayable<?>) VElementBase.newEmptyVElement(VComponent.class, component.name());
+        cancel.setUniqueIdentifier(ElementFactory.copy(component.getUniqueIdentifier()));
+        if (component.getRecurrenceId() != null)
+        {
+            cancel.setRecurrenceId(ElementFactory.copy(component.getRecurrenceId()));
+        } else
+        {
+            canceledParents.add(parentKey(component));
+        }
+        cancel.setSequence(new Sequence(sequence(component)));
+        if (component.getDateTimeStamp() != null)
+        {
+            cancel.setDateTimeStamp(ElementFactory.copy(component.getDateTimeStamp()));
+        }
+        cancels.add(cancel);
+    }
+    
+    private static void publish(VDisplayable<?> component, Set<VDisplayable<?>> published, List<VDisplayable<?>> publishOrder)
+    {
+        if ((component.getUniqueIdentifier() != null) && published.add(component))
+        {
+            publishOrder.add(component);
+        }
+    }
+    
+    /* VTIMEZONEs of the new calendar with a TZID the old calendar doesn't have */
+    private List<VTimeZone> newVTimeZones()
+    {
+        if (newVCalendar.getVTimeZones() == null) return Collections.emptyList();
+        Set<String> oldIdentifiers = new HashSet<>();
+        if (oldVCalendar.getVTimeZones() != null)
+        {
+            oldVCalendar.getVTimeZones().forEach(v -> oldIdentifiers.add(timeZoneIdentifier(v)));
+        }
+        List<VTimeZone> vTimeZones = new ArrayList<>();
+        for (VTimeZone vTimeZone : newVCalendar.getVTimeZones())
+        {
+            if (! oldIdentifiers.contains(timeZoneIdentifier(vTimeZone)))
+            {
+                vTimeZones.add(vTimeZone);
+            }
+        }
+        return vTimeZones;
+    }
+    
+    private static String timeZoneIdentifier(VTimeZone vTimeZone)
+    {
+        return (vTimeZone.getTimeZoneIdentifier() == null) ? null : vTimeZone.getTimeZoneIdentifier().getIdentifier();
+    }
+    
+    private static List<VDisplayable<?>> displayables(VCalendar vCalendar)
+    {
+        List<VDisplayable<?>> displayables = new ArrayList<>();
+        for (VChild child : vCalendar.childrenUnmodifiable())
+        {
+            if (child instanceof VDisplayable)
+            {
+                displayables.add((VDisplayable<?>) child);
+            }
+        }
+        return displayables;
+    }
+    
+    private static int sequence(VDisplayable<?> component)
+    {
+        return (component.getSequence() == null) ? 0 : component.getSequence().getValue();
+    }
+    
+    /*
+     * KEY
+     */
+    /* Component name, UID and RECURRENCE-ID, or null if the component doesn't have a UID */
+    private static Key key(VDisplayable<?> component)
+    {
+        if (component.getUniqueIdentifier() == null) return null;
+        Temporal recurrenceId = (component.getRecurrenceId() == null) ? null : component.getRecurrenceId().getValue();
+        return new Key(component.name(), component.getUniqueIdentifier().getValue(), recurrenceId);
+    }
+    
+    private static Key parentKey(VDisplayable<?> component)
+    {
+        return new Key(component.name(), component.getUniqueIdentifier().getValue(), null);
+    }
+    
+    private static final class Key
+    {
+        private final String name;
+        private final String uid;
+        private final Temporal recurrenceId;
+        
+        private Key(String name, String uid, Temporal recurrenceId)
+        {
+            this.name = name;
+            this.uid = uid;
+            this.recurrenceId = recurrenceId;
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(name, uid, recurrenceId);
+        }
+        
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) return true;
+            if (! (obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return name.equals(other.name) && Objects.equals(uid, other.uid) && Objects.equals(recurrenceId, other.recurrenceId);
+        }
+        
+        @Override
+        public String toString()
+        {
+            return name + " " + uid + ((recurrenceId == null) ? "" : " " + recurrenceId);
+        }
+    }
+}
@@ -0,0 +1,501 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.temporal.Temporal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VComponentElement;
+import jfxtras.icalendarfx.components.VDisplayable;
+import jfxtras.icalendarfx.components.VTimeZone;
+import jfxtras.icalendarfx.content.MappedUnfoldingReader;
+import jfxtras.icalendarfx.properties.VProperty;
+import jfxtras.icalendarfx.utilities.ZoneRulesResolver;
+
+/**
+ * Keeps a {@link VCalendar} in sync with an ics file that changes, such as a polled server export, without
+ * parsing the whole file again.
+ * 
+ * <p>The unfolded content is split into top-level component blocks, such as a VEVENT or VTIMEZONE, and a
+ * 64-bit hash of the text of each block is kept with the component parsed from it.  When the content is imported
+ * again only blocks with a new hash are parsed.  The components of unchanged blocks stay in the calendar as they
+ * are, so their recurrence caches and indexes are kept.  A parsed component replaces the component with the same
+ * component name, UID and RECURRENCE-ID (or TZID) that is no longer in the content, and other parsed components are
+ * added.  Components of blocks that are no longer in the content are removed.  The calendar properties are
+ * replaced when their lines change.</p>
+ * 
+ * <p>Components that weren't imported by the importer are left alone.  A component changed in the calendar after it
+ * was imported is kept while its block is unchanged.</p>
+ * 
+ * <p>Problems found while parsing the changed components, and their validation errors, are reported by
+ * {@link #getMessages()}.  Updates are serialized, so the importer can be shared by threads.</p>
+ * 
+ * Example:
+ * <pre>
+ * VCalendarImporter importer = new VCalendarImporter(new VCalendar());
+ * importer.update(icsFilePath); // parses every component
+ * ...
+ * importer.update(icsFilePath); // parses only changed components
+ * </pre>
+ * 
+ * @see VCalendar#parse(Path)
+ */
+public class VCalendarImporter
+{
+    // number of parsed blocks above which they are parsed in parallel
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    private final VCalendar vCalendar;
+    /* hash of block text -> components imported from blocks with that hash, only used while updating.  Components
+     * of unchanged blocks are taken from it while the content is scanned, the components left are removed. */
+    private Map<Long, List<VComponent>> importedComponents = new HashMap<>();
+    private long calendarPropertiesHash;
+    private volatile int unchangedCount;
+    private volatile int parsedCount;
+    private volatile int removedCount;
+    private volatile List<String> messages = Collections.emptyList();
+    
+    /**
+     * Create an importer that keeps vCalendar in sync with the imported content
+     * 
+     * @param vCalendar  calendar to update, usually empty before the first import
+     */
+    public VCalendarImporter(VCalendar vCalendar)
+    {
+        this.vCalendar = vCalendar;
+    }
+    
+    /** Calendar updated by the importer */
+    public VCalendar getVCalendar() { return vCalendar; }
+    /** Number of components kept unchanged by the last import */
+    public int getUnchangedCount() { return unchangedCount; }
+    /** Number of components parsed by the last import */
+    public int getParsedCount() { return parsedCount; }
+    /** Number of components removed by the last import, not counting replaced components */
+    public int getRemovedCount() { return removedCount; }
+    /**
+     * Messages of the last import, in content order.  They are the problems found while parsing the changed
+     * components, followed by the validation errors of each parsed component (see {@link VComponent#errors()}).
+     * Each message starts with the name of its element.
+     */
+    public List<String> getMessages() { return messages; }
+    
+    /**
+     * Import a UTF-8 ics file.  The file is read with a {@link MappedUnfoldingReader}.
+     * 
+     * @param icsFilePath  path of ics file
+     * @return  true if the calendar changed
+     * @throws IOException
+     */
+    public boolean update(Path icsFilePath) throws IOException
+    {
+        return update(icsFilePath, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Import an ics file.  The file is read with a {@link MappedUnfoldingReader}.  Each block is hashed
+     * from the reader's buffer, so no Strings are made for the lines of unchanged blocks.  If blocks changed,
+     * the file is read again and only the lines of the changed blocks, found by their offsets, are made into Strings.
+     * 
+     * @param icsFilePath  path of ics file
+     * @param charset  charset of ics file
+     * @return  true if the calendar changed
+     * @throws IOException  if the file can't be read, or if it changed between the two reads
+     */
+    public synchronized boolean update(Path icsFilePath, Charset charset) throws IOException
+    {
+        Scan scan = new Scan();
+        try
+        {
+            try (MappedUnfoldingReader reader = new MappedUnfoldingReader(icsFilePath, charset))
+            {
+                Lines lines = new Lines()
+                {
+                    @Override public boolean hasNext() { return reader.hasNext(); }
+                    @Override public CharSequence next() { return reader.nextSequence(); }
+                    @Override public long offset() { return reader.lineOffset(); }
+                };
+                scan(lines, false, scan);
+            }
+            if (! scan.changedBlocks.isEmpty())
+            {
+                try (MappedUnfoldingReader reader = new MappedUnfoldingReader(icsFilePath, charset))
+                {
+                    readLines(reader, scan.changedBlocks);
+                }
+            }
+            parse(scan.changedBlocks);
+        } catch (IOException | RuntimeException e)
+        {
+            scan.restore(importedComponents);
+            throw e;
+        }
+        return apply(scan);
+    }
+    
+    /**
+     * Import unfolded content lines
+     * 
+     * @param unfoldedLineIterator  unfolded content lines, starting with BEGIN:VCALENDAR
+     * @return  true if the calendar changed
+     */
+    public synchronized boolean update(Iterator<String> unfoldedLineIterator)
+    {
+        Scan scan = new Scan();
+        try
+        {
+            Lines lines = new Lines()
+            {
+                @Override public boolean hasNext() { return unfoldedLineIterator.hasNext(); }
+                @Override public CharSequence next() { return unfoldedLineIterator.next(); }
+                @Override public long offset() { return -1; }
+            };
+            scan(lines, true, scan);
+            parse(scan.changedBlocks);
+        } catch (RuntimeException e)
+        {
+            scan.restore(importedComponents);
+            throw e;
+        }
+        return apply(scan);
+    }
+    
+    /* Split the content into calendar property lines and component blocks.  A block with the hash of a previously
+     * imported block is unchanged and takes its component from the imported components, the other blocks are changed.
+     * The lines of changed blocks are kept if isKeepingLines is true. */
+    private void scan(Lines lines, boolean isKeepingLines, Scan scan)
+    {
+        while (lines.hasNext())
+        {
+            CharSequence line = lines.next();
+            if (VCalendar.startsWith(line, VElementBase.END)) break;
+            if (! VCalendar.startsWith(line, VElementBase.BEGIN))
+            {
+                String propertyLine = line.toString();
+                scan.calendarPropertyLines.add(propertyLine);
+                scan.propertiesHash = hash(scan.propertiesHash, propertyLine);
+                continue;
+            }
+            String beginLine = line.toString();
+            String childName = VCalendar.componentName(beginLine);
+            if (vCalendar.name().equals(childName)) continue;
+            long offset = lines.offset();
+            long hash = hash(FNV_OFFSET_BASIS, beginLine);
+            List<String> blockLines = (isKeepingLines) ? new ArrayList<>() : null;
+            Deque<String> openComponents = new ArrayDeque<>();
+            openComponents.push(childName);
+            while (lines.hasNext())
+            {
+                CharSequence blockLine = lines.next();
+                hash = hash(hash, blockLine);
+                if (blockLines != null)
+                {
+                    blockLines.add(blockLine.toString());
+                }
+                if (VCalendar.isLastComponentLine(openComponents, blockLine)) break;
+            }
+            VComponent component = take(importedComponents, hash);
+            if (component != null)
+            {
+                add(scan.nextComponents, hash, component);
+                scan.unchangedCount++;
+            } else
+            {
+                scan.changedBlocks.add(new Block(childName, offset, hash, blockLines));
+            }
+        }
+    }
+    
+    /* Read the lines of the changed blocks again, each found by the offset of its BEGIN line */
+    private static void readLines(MappedUnfoldingReader reader, List<Block> changedBlocks) throws IOException
+    {
+        Iterator<Block> blockIterator = changedBlocks.iterator();
+        Block block = blockIterator.next();
+        while ((block != null) && reader.hasNext())
+        {
+            CharSequence line = reader.nextSequence();
+            if (reader.lineOffset() == block.offset)
+            {
+                long hash = hash(FNV_OFFSET_BASIS, line);
+                block.lines = VCalendar.componentLines(block.childName, reader);
+                if (hash(hash, block.lines) != block.hash)
+                {
+                    break;
+                }
+                block = (blockIterator.hasNext()) ? blockIterator.next() : null;
+            }
+        }
+        if (block != null)
+        {
+            throw new IOException("Content changed while it was imported");
+        }
+    }
+    
+    /* Parse the changed blocks */
+    private void parse(List<Block> parsedBlocks)
+    {
+        ZoneRulesResolver zoneRulesResolver = vCalendar.zoneRulesResolver();
+        // time zones first, so their TZIDs are known to the components that use them
+        for (Block block : parsedBlocks)
+        {
+            if (block.childName.equals(VComponentElement.VTIMEZONE.toString()))
+            {
+                block.parse(zoneRulesResolver);
+                vCalendar.registerTimeZone((VTimeZone) block.component);
+            }
+        }
+        if (parsedBlocks.size() > PARALLEL_THRESHOLD)
+        {
+            parsedBlocks.parallelStream().forEach(b -> b.parse(zoneRulesResolver));
+        } else
+        {
+            parsedBlocks.forEach(b -> b.parse(zoneRulesResolver));
+        }
+    }
+    
+    /* Update the calendar with the parsed blocks.  The imported components left are no longer in the content. */
+    private boolean apply(Scan scan)
+    {
+        List<Block> parsedBlocks = scan.changedBlocks;
+        List<String> parseMessages = new ArrayList<>();
+        parsedBlocks.forEach(b -> parseMessages.addAll(b.messages));
+        Map<Long, List<VComponent>> nextComponents = scan.nextComponents;
+        synchronized (vCalendar)
+        {
+            // components of blocks no longer in the content, by identity
+            Set<VComponent> oldComponents = Collections.newSetFromMap(new IdentityHashMap<>());
+            Map<List<Object>, VComponent> oldComponentsByKey = new HashMap<>();
+            for (List<VComponent> components : importedComponents.values())
+            {
+                for (VComponent component : components)
+                {
+                    if (component.getParent() == vCalendar)
+                    {
+                        oldComponents.add(component);
+                        List<Object> key = key(component);
+                        if (key != null)
+                        {
+                            oldComponentsByKey.putIfAbsent(key, component);
+                        }
+                    }
+                }
+            }
+            
+            for (Block block : parsedBlocks)
+            {
+                List<Object> key = key(block.component);
+                VComponent oldComponent = (key == null) ? null : oldComponentsByKey.remove(key);
+                if (oldComponent != null)
+                {
+                    oldComponents.remove(oldComponent);
+                    vCalendar.replaceChild(indexOfSame(vCalendar.childrenUnmodifiable(), oldComponent), block.component);
+                } else
+                {
+                    vCalendar.addChild(block.component);
+                }
+                add(nextComponents, block.hash, block.component);
+            }
+            oldComponents.forEach(c -> vCalendar.removeChild(c));
+            
+            boolean isPropertiesChanged = scan.propertiesHash != calendarPropertiesHash;
+            if (isPropertiesChanged)
+            {
+                replaceCalendarProperties(scan.calendarPropertyLines);
+                calendarPropertiesHash = scan.propertiesHash;
+            }
+            importedComponents = nextComponents;
+            unchangedCount = scan.unchangedCount;
+            parsedCount = parsedBlocks.size();
+            removedCount = oldComponents.size();
+            messages = Collections.unmodifiableList(parseMessages);
+            return isPropertiesChanged || (parsedCount > 0) || (removedCount > 0);
+        }
+    }
+    
+    private void replaceCalendarProperties(List<String> calendarPropertyLines)
+    {
+        VCalendar properties = new VCalendar();
+        properties.parseContent(calendarPropertyLines.iterator());
+        vCalendar.childrenUnmodifiable()
+                .stream()
+                .filter(c -> c instanceof VProperty)
+                .collect(Collectors.toList())
+                .forEach(c -> vCalendar.removeChild(c));
+        new ArrayList<>(properties.childrenUnmodifiable())
+                .forEach(c -> vCalendar.addChild(c));
+    }
+    
+    /* Index of the component itself, an equal component added by the user isn't replaced */
+    private static int indexOfSame(List<VChild> children, VComponent component)
+    {
+        for (int i=0; i<children.size(); i++)
+        {
+            if (children.get(i) == component)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /* Component name and UID with RECURRENCE-ID or TZID, or null if the component can't be matched */
+    private static List<Object> key(VComponent component)
+    {
+        if (component instanceof VDisplayable)
+        {
+            VDisplayable<?> displayable = (VDisplayable<?>) component;
+            if (displayable.getUniqueIdentifier() == null) return null;
+            Temporal recurrenceId = (displayable.getRecurrenceId() == null) ? null : displayable.getRecurrenceId().getValue();
+            return Arrays.asList(component.name(), displayable.getUniqueIdentifier().getValue(), recurrenceId);
+        } else if (component instanceof VTimeZone)
+        {
+            VTimeZone vTimeZone = (VTimeZone) component;
+            if (vTimeZone.getTimeZoneIdentifier() == null) return null;
+            return Arrays.asList(component.name(), vTimeZone.getTimeZoneIdentifier().getIdentifier());
+        }
+        return null;
+    }
+    
+    /* Remove a component with the hash, the entry is removed with its last component */
+    private static VComponent take(Map<Long, List<VComponent>> components, long hash)
+    {
+        List<VComponent> list = components.get(hash);
+        if (list == null) return null;
+        if (list.size() == 1)
+        {
+            components.remove(hash);
+        }
+        return list.remove(list.size()-1);
+    }
+    
+    private static void add(Map<Long, List<VComponent>> components, long hash, VComponent component)
+    {
+        components.computeIfAbsent(hash, h -> new ArrayList<>(1)).add(component);
+    }
+    
+    /*
+     * HASHING
+     */
+    // 64-bit FNV-1a of the characters of each line, followed by a line separator
+    private static long hash(long hash, CharSequence line)
+    {
+        for (int i=0; i<line.length(); i++)
+        {
+            hash = (hash ^ line.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ '\n') * FNV_PRIME;
+    }
+    
+    private static long hash(long hash, List<String> lines)
+    {
+        for (String line : lines)
+        {
+            hash = hash(hash, line);
+        }
+        return hash;
+    }
+    
+    /* Unfolded content lines, and the offset of the line read last */
+    private interface Lines
+    {
+        boolean hasNext();
+        CharSequence next();
+        long offset();
+    }
+    
+    /* Calendar property lines and component blocks of the content */
+    private static class Scan
+    {
+        final List<String> calendarPropertyLines = new ArrayList<>();
+        long propertiesHash = FNV_OFFSET_BASIS;
+        final Map<Long, List<VComponent>> nextComponents = new HashMap<>();
+        int unchangedCount;
+        final List<Block> changedBlocks = new ArrayList<>();
+        
+        /* Return the components taken for unchanged blocks, when the update fails */
+        void restore(Map<Long, List<VComponent>> importedComponents)
+        {
+            nextComponents.forEach((hash, list) -> list.forEach(c -> add(importedComponents, hash, c)));
+        }
+    }
+    
+    /* Content lines of a changed top-level component */
+    private static class Block
+    {
+        final String childName;
+        // offset of the BEGIN line
+        final long offset;
+        final long hash;
+        List<String> lines;
+        VComponent component;
+        List<String> messages;
+        
+        Block(String childName, long offset, long hash, List<String> lines)
+        {
+            this.childName = childName;
+            this.offset = offset;
+            this.hash = hash;
+            this.lines = lines;
+        }
+        
+        void parse(ZoneRulesResolver zoneRulesResolver)
+        {
+            if (component != null) return;
+            ZoneRulesResolver previousResolver = ZoneRulesResolver.setCurrent(zoneRulesResolver);
+            try
+            {
+                component = (VComponent) VElementBase.newEmptyVElement(VComponent.class, childName);
+                List<VElementBase.Message> parseMessages = ((VParentBase<?>) component).parseContent(lines.iterator());
+                messages = new ArrayList<>();
+                parseMessages.forEach(m -> messages.add(m.element.name() + ":" + m.message));
+                component.errors().forEach(e -> messages.add(component.name() + ":" + e));
+            } finally
+            {
+                ZoneRulesResolver.setCurrent(previousResolver);
+            }
+            lines = null; // release content lines
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.components.VJournal;
+import jfxtras.icalendarfx.components.VTimeZone;
+import jfxtras.icalendarfx.components.VTodo;
+import jfxtras.icalendarfx.content.UnfoldingStringIterator;
+
+/**
+ * Push-style parser for iCalendar content.
+ * 
+ * Unlike {@link VCalendar#parse(Reader)}, which builds the complete component tree, this parser
+ * hands each top-level {@link VComponent}, such as {@link VEvent}, {@link VTodo}, {@link VJournal}
+ * or {@link VTimeZone}, to the handler as soon as its END line has been read.  The component is
+ * not added to a {@link VCalendar}, so heap use depends on the largest component, not on the
+ * size of the parsed content.
+ * 
+ * Calendar properties, such as VERSION and PRODID, are collected into the {@link VCalendar}
+ * returned by the parse methods.  That calendar contains no components.
+ * 
+ * Example:
+ * <pre>
+ * VCalendarStreamParser parser = new VCalendarStreamParser(c -&gt; store.save(c));
+ * VCalendar header = parser.parse(icsFilePath);
+ * </pre>
+ * 
+ * @see VCalendar#parse(Reader)
+ */
+public class VCalendarStreamParser
+{
+    private final Consumer<? super VComponent> handler;
+
+    /**
+     * Create a parser that passes each parsed top-level component to handler
+     * 
+     * @param handler  receives each completed top-level component, in content order
+     */
+    public VCalendarStreamParser(Consumer<? super VComponent> handler)
+    {
+        if (handler == null) throw new NullPointerException("handler must not be null");
+        this.handler = handler;
+    }
+
+    /**
+     * Parse iCalendar content lines.  The lines are unfolded while they are read.
+     * 
+     * @param lineIterator  folded content lines, starting with BEGIN:VCALENDAR
+     * @return  VCalendar containing only the calendar properties
+     */
+    public VCalendar parse(Iterator<String> lineIterator)
+    {
+        StreamingVCalendar streamingCalendar = new StreamingVCalendar(handler);
+        streamingCalendar.parseContent(new UnfoldingStringIterator(lineIterator));
+        VCalendar vCalendar = new VCalendar();
+        streamingCalendar.copyChildrenInto(vCalendar);
+        return vCalendar;
+    }
+
+    /**
+     * Parse iCalendar content from a reader
+     * 
+     * @param reader  source of iCalendar content
+     * @return  VCalendar containing only the calendar properties
+     * @throws IOException
+     */
+    public VCalendar parse(Reader reader) throws IOException
+    {
+        BufferedReader br = new BufferedReader(reader);
+        return parse(br.lines().iterator());
+    }
+
+    /**
+     * Parse an ics file
+     * 
+     * @param icsFilePath  path of ics file to parse
+     * @return  VCalendar containing only the calendar properties
+     * @throws IOException
+     */
+    public VCalendar parse(Path icsFilePath) throws IOException
+    {
+        try (BufferedReader br = Files.newBufferedReader(icsFilePath))
+        {
+            return parse(br);
+        }
+    }
+
+    /*
+     * VCalendar that runs the normal parse, but hands top-level components to
+     * the handler instead of keeping them as children.
+     */
+    private static class StreamingVCalendar extends VCalendar
+    {
+        private final Consumer<? super VComponent> handler;
+
+        StreamingVCalendar(Consumer<? super VComponent> handler)
+        {
+            super();
+            this.handler = handler;
+        }
+
+        @Override
+        protected void addChildInternal(List<Message> messages, String content, String elementName, VChild newChild)
+        {
+            if (newChild instanceof VComponent)
+            {
+                boolean isOK = checkChild(messages, content, elementName, newChild);
+                if (isOK)
+                {
+                    if (newChild instanceof VTimeZone)
+                    {
+                        registerTimeZone((VTimeZone) newChild);
+                    }
+                    handler.accept((VComponent) newChild);
+                }
+            } else
+            {
+                super.addChildInternal(messages, content, elementName, newChild);
+            }
+        }
+    }
+}
@@ -26,6 +26,12 @@
  */
 package jfxtras.icalendarfx;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -74,4 +80,51 @@ public interface VElement
      * @return - list of error messages
      */
     List<String> errors();
+    
+    /**
+     * Writes the calendar content of this element to an {@link Appendable}.  The output is identical to
+     * {@link #toString()}, but parents stream their children one content line at a time and lines are
+     * folded as they are written, so the full text is never held in memory.
+     * 
+     * @param out  sink for calendar content
+     * @throws IOException  if the sink throws
+     */
+    default void write(Appendable out) throws IOException
+    {
+        out.append(toString());
+    }
+    
+    /**
+     * Writes the calendar content of this element to a {@link Writer} and flushes it.
+     * 
+     * @see #write(Appendable)
+     */
+    default void write(Writer out) throws IOException
+    {
+        write((Appendable) out);
+        out.flush();
+    }
+    
+    /**
+     * Writes the calendar content of this element to a channel encoded in UTF-8, the default
+     * charset for iCalendar (RFC 5545, 3.1.4).  The channel is not closed.
+     * 
+     * @see #write(Appendable)
+     */
+    default void write(WritableByteChannel channel) throws IOException
+    {
+        write(channel, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Writes the calendar content of this element to a channel encoded with the given charset.
+     * The channel is not closed.
+     * 
+     * @see #write(Appendable)
+     */
+    default void write(WritableByteChannel channel, Charset charset) throws IOException
+    {
+        // Channels.newWriter closes the channel on close, so only flush it
+        write(Channels.newWriter(channel, charset.newEncoder(), -1));
+    }
 }
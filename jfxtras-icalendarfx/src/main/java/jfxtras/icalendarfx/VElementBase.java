@@ -26,32 +26,21 @@
  */
 package jfxtras.icalendarfx;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import jfxtras.icalendarfx.VChild;
 import jfxtras.icalendarfx.VElement;
 import jfxtras.icalendarfx.VElementBase;
 import jfxtras.icalendarfx.components.VComponent;
-import jfxtras.icalendarfx.components.VComponentElement;
 import jfxtras.icalendarfx.parameters.VParameter;
-import jfxtras.icalendarfx.parameters.VParameterElement;
 import jfxtras.icalendarfx.properties.VProperty;
-import jfxtras.icalendarfx.properties.VPropertyElement;
-import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRuleElement;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRulePart;
-import jfxtras.icalendarfx.utilities.Pair;
 
 /**
  * Base class for all VCalendar elements. 
  * 
- * Contains a map of all no-arg constructors and related methods to support all calendar elements.
+ * Contains the factory of new empty elements and related methods to support all calendar elements.
  * 
  * @author David Bal
  *
@@ -70,6 +59,20 @@ public abstract class VElementBase implements VElement
      */
 	abstract protected List<Message> parseContent(String content);
 	
+	/**
+	 * Parse an in-line element, such as a parameter or a recurrence rule part, whose name was found by the parent's
+	 * {@link jfxtras.icalendarfx.content.ContentLineTokenizer}.  Elements that can use the value alone override it,
+	 * by default NAME=value is parsed.
+	 * 
+	 * @param name  element name
+	 * @param value  element value
+	 * @return  log of information and error messages
+	 */
+	protected List<Message> parseContent(String name, String value)
+	{
+		return parseContent(name + "=" + value);
+	}
+	
 	protected static void throwMessageExceptions(List<Message> messages, VElement element) throws IllegalArgumentException
 	{
 		// keep messages that are labeled as exceptions or produced by parsing itself (not children)
@@ -86,89 +89,18 @@ public abstract class VElementBase implements VElement
         }
 	}
 	
-	// All no-arg constructors made from calendar element enums
-	private static final  Map<Pair<Class<? extends VElement>, String>, Constructor<? extends VElement>> NO_ARG_CONSTRUCTORS = makeNoArgConstructorMap();
-    private static Map<Pair<Class<? extends VElement>, String>, Constructor<? extends VElement>> makeNoArgConstructorMap()
-    {
-    	Map<Pair<Class<? extends VElement>, String>, Constructor<? extends VElement>> map = new HashMap<>();
-
-    	// Add VComponent elements
-    	VComponentElement[] values0 = VComponentElement.values();
-    	Arrays.stream(values0)
-    		.forEach(v ->
-	    	{
-	    		Pair<Class<? extends VElement>, String> key = new Pair<>(VComponent.class, v.toString());
-				try {
-					Constructor<? extends VElement> constructor = v.elementClass().getConstructor();
-					map.put(key, constructor);
-				} catch (NoSuchMethodException | SecurityException e) {
-					e.printStackTrace();
-				}
-	    	});
-    	
-    	// Add VProperty elements
-    	VPropertyElement[] values1 = VPropertyElement.values();
-    	Arrays.stream(values1)
-    		.forEach(v ->
-	    	{
-	    		Pair<Class<? extends VElement>, String> key = new Pair<>(VProperty.class, v.toString());
-				try {
-					Constructor<? extends VElement> constructor = v.elementClass().getConstructor();
-					map.put(key, constructor);
-				} catch (NoSuchMethodException | SecurityException e) {
-					e.printStackTrace();
-				}
-	    	});
-    	
-    	// Add VParameter elements
-    	VParameterElement[] values2 = VParameterElement.values();
-    	Arrays.stream(values2)
-    		.forEach(v ->
-	    	{
-	    		Pair<Class<? extends VElement>, String> key = new Pair<>(VParameter.class, v.toString());
-				try {
-					Constructor<? extends VElement> constructor = v.elementClass().getConstructor();
-					map.put(key, constructor);
-				} catch (NoSuchMethodException | SecurityException e) {
-					e.printStackTrace();
-				}
-	    	});
-    	
-    	// Add RRULE parts
-    	RRuleElement[] values3 = RRuleElement.values();
-    	Arrays.stream(values3)
-    		.forEach(v ->
-	    	{
-	    		Pair<Class<? extends VElement>, String> key = new Pair<>(RRulePart.class, v.toString());
-				try {
-					Constructor<? extends VElement> constructor = v.elementClass().getConstructor();
-					map.put(key, constructor);
-				} catch (NoSuchMethodException | SecurityException e) {
-					e.printStackTrace();
-				}
-	    	});
-
-        return map;
-    }
-    private static final Set<String> NAMES = NO_ARG_CONSTRUCTORS
-    		.entrySet()
-    		.stream()
-    		.map(e -> e.getKey().getValue())
-    		.collect(Collectors.toSet());
-
+	/**
+	 * Return a new empty calendar element.
+	 * 
+	 * @param superclass  kind of element - {@link VComponent}, {@link VProperty}, {@link VParameter} or {@link RRulePart}
+	 * @param name  element name, such as VEVENT or SUMMARY.  Names starting with X- make a non-standard element.
+	 * @return  new element, or null if there isn't an element for the name
+	 */
 	public static VChild newEmptyVElement(Class<? extends VElement> superclass, String name)
 	{
-		try {
-			if (name == null) return null;
-			String name2 = (name.startsWith("X-")) ? "X-" : name;
-			Constructor<? extends VElement> constructor = NO_ARG_CONSTRUCTORS.get(new Pair<>(superclass, name2));
-			if (constructor == null) return null;
-			return (VChild) constructor.newInstance();
-		} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-				| InvocationTargetException e) {
-			e.printStackTrace();
-		}
-		return null;
+		if (name == null) return null;
+		String name2 = (name.startsWith("X-")) ? "X-" : name;
+		return ElementFactory.newElement(superclass, name2);
 	}
 	
     /**
@@ -218,8 +150,10 @@ public abstract class VElementBase implements VElement
 		if (isMultiline)
 		{
 			int indexOfLineSeparator = content.indexOf(System.lineSeparator());
-			if (indexOfLineSeparator == -1) return content.substring(indexOfBegin + BEGIN.length()); // if no line separator assume content is just one line and return all text after begin to end
-			return content.substring(indexOfBegin + BEGIN.length(), indexOfLineSeparator);
+			int start = indexOfBegin + BEGIN.length();
+			int end = (indexOfLineSeparator == -1) ? content.length() : indexOfLineSeparator; // if no line separator assume content is just one line and return all text after begin to end
+			String name = ElementFactory.name(content, start, end, false);
+			return (name != null) ? name : content.substring(start, end);
 		} else
 		{
 	        int i1 = content.indexOf(':');
@@ -231,15 +165,141 @@ public abstract class VElementBase implements VElement
 	        {
 	        	return null;
 	        }
-	        String possibleName = content.substring(0, i).toUpperCase();
-	        boolean isNonStandard = (possibleName.startsWith("X-"));
-	        if (isNonStandard) return possibleName;
-	        boolean isStandard = NAMES.contains(possibleName);
-	        if (isStandard) return possibleName;
-	        return null;
+	        boolean isNonStandard = (i >= 2) && (Character.toUpperCase(content.charAt(0)) == 'X') && (content.charAt(1) == '-');
+	        if (isNonStandard) return content.substring(0, i).toUpperCase();
+	        return ElementFactory.name(content, 0, i, true); // null if not a standard name
 		}
 	}
 	
+    /*
+     * FINGERPRINT
+     */
+    /* Cached fingerprint, 0 when it must be computed */
+    private volatile long fingerprint;
+    /* Incremented when the element or one of its descendants changes */
+    private volatile int modificationCount;
+    
+    /**
+     * Return a 64-bit fingerprint of the element's class, value and children.  Equal elements have the
+     * same fingerprint, so elements with different fingerprints aren't equal.  The fingerprint is kept until
+     * the element or one of its descendants changes, which makes it usable as a cache key.
+     * 
+     * <p>The fingerprint is discarded by {@link VParentBase#elementChanged(VElement)}, the same notification that
+     * discards cached content (see {@link jfxtras.icalendarfx.content.ContentCache}).  Setters and ordering children
+     * call it.  After changing a value in place, such as adding a date to the value of an EXDATE, or after adding a child
+     * directly to a list of children without ordering it, call it for the changed element.</p>
+     * 
+     * <p>Only code that makes sure changes are notified should rely on the fingerprint.  {@link #equals(Object)} and
+     * {@link #hashCode()} don't use it, they read the current values and children.</p>
+     * 
+     * @return  fingerprint, never 0
+     */
+    public long fingerprint()
+    {
+        long cached = fingerprint;
+        if (cached != 0) return cached;
+        Fingerprint builder = new Fingerprint(getClass(), true);
+        addToFingerprint(builder);
+        long value = builder.value();
+        fingerprint = value;
+        return value;
+    }
+    
+    /**
+     * Return a hash code computed from the current values and children, like {@link #fingerprint()} but without
+     * using cached fingerprints.  Equal elements have the same hash code, even after a value is changed in place
+     * without notification.
+     * 
+     * @return  hash code consistent with equals
+     */
+    protected int computeHashCode()
+    {
+        Fingerprint builder = new Fingerprint(getClass(), false);
+        addToFingerprint(builder);
+        return Long.hashCode(builder.value());
+    }
+    
+    /** Add the value and children compared by equals to the fingerprint.  Does nothing by default. */
+    protected void addToFingerprint(Fingerprint fingerprint) { }
+    
+    /**
+     * Return the number of changes to the element and its descendants reported by
+     * {@link VParentBase#elementChanged(VElement)}.  A different count means the element changed, which makes it a cheap
+     * way to check if values computed from the element are still valid.
+     * 
+     * @return  modification count
+     */
+    public int modificationCount()
+    {
+        return modificationCount;
+    }
+    
+    /* Discard the cached fingerprint and count the change, called when the element or one of its descendants changes */
+    void clearFingerprint()
+    {
+        if (fingerprint != 0)
+        {
+            fingerprint = 0;
+        }
+        modificationCount++;
+    }
+    
+    /** Combines the class, values and children of an element into its fingerprint, see {@link VElementBase#fingerprint()} */
+    protected static final class Fingerprint
+    {
+        private long hash;
+        private long childSum;
+        /* true to use the cached fingerprints of elements, false to use their hash codes */
+        private final boolean isCached;
+        
+        private Fingerprint(Class<?> elementClass, boolean isCached)
+        {
+            hash = mix(elementClass.getName().hashCode());
+            this.isCached = isCached;
+        }
+        
+        /** Add a value.  The order of values matters. */
+        public void addValue(Object value)
+        {
+            hash = mix(hash * 31 + valueHash(value));
+        }
+        
+        /** Add a child.  The order of children doesn't matter. */
+        public void addChild(VChild child)
+        {
+            childSum += mix(valueHash(child));
+        }
+        
+        private long valueHash(Object value)
+        {
+            if (value == null)
+            {
+                return 0;
+            } else if (isCached && (value instanceof VElementBase))
+            {
+                return ((VElementBase) value).fingerprint();
+            }
+            return value.hashCode();
+        }
+        
+        private long value()
+        {
+            long value = mix(hash ^ mix(childSum));
+            return (value == 0) ? 1 : value;
+        }
+        
+        // 64-bit finalizer of MurmurHash3
+        private static long mix(long h)
+        {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+    
 	protected static class Message
 	{
 		public Message(VElement element, String message, MessageEffect effect) {
@@ -26,7 +26,7 @@
  */
 package jfxtras.icalendarfx;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
@@ -36,15 +36,16 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.content.ChildAccessor;
+import jfxtras.icalendarfx.content.ContentCache;
 import jfxtras.icalendarfx.content.ContentLineStrategy;
+import jfxtras.icalendarfx.content.ContentLineTokenizer;
 import jfxtras.icalendarfx.content.Orderer;
 import jfxtras.icalendarfx.content.OrdererBase;
 import jfxtras.icalendarfx.content.UnfoldingStringIterator;
@@ -52,6 +53,7 @@ import jfxtras.icalendarfx.parameters.VParameter;
 import jfxtras.icalendarfx.properties.VProperty;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRulePart;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
+import jfxtras.icalendarfx.utilities.ICalendarUtilities;
 
 /**
  * <p>Base class for parent calendar components.</p>
@@ -67,16 +69,34 @@ import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleV
 public abstract class VParentBase<T> extends VElementBase implements VParent
 {
 	/* Setter, getter maps
-	 * The first key is the VParent class
-	 * The second key is the VChild of that VParent
+	 * The key is the VChild of the VParent class
+	 * 
+	 * Children are got and set with the generated ChildAccessor, these maps of Methods
+	 * are kept for subclasses that need the reflected methods
 	 */
-	private static final  Map<Class<? extends VParent>, Map<Class<? extends VChild>, Method>> SETTERS = new HashMap<>();
-	private static final  Map<Class<? extends VParent>, Map<Class<? extends VChild>, Method>> GETTERS = new HashMap<>();
+	private static final ClassValue<Map<Class<? extends VChild>, Method>> SETTERS = new ClassValue<Map<Class<? extends VChild>, Method>>()
+	{
+		@Override
+		protected Map<Class<? extends VChild>, Method> computeValue(Class<?> type)
+		{
+			return collectSetterMap(type);
+		}
+	};
+	private static final ClassValue<Map<Class<? extends VChild>, Method>> GETTERS = new ClassValue<Map<Class<? extends VChild>, Method>>()
+	{
+		@Override
+		protected Map<Class<? extends VChild>, Method> computeValue(Class<?> type)
+		{
+			return collectGetterMap(type);
+		}
+	};
 
     /*
      * HANDLE SORT ORDER FOR CHILD ELEMENTS
      */
     protected Orderer orderer;
+    /* True while copyChildrenInto adds copies, which are reported by one change notification at the end */
+    private boolean isCopying;
     /** Return the {@link Orderer} for this {@link VParent} */
     
 	@Override
@@ -100,32 +120,30 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 	@Override
     public void addChild(VChild child)
     {
-		Method setter = getSetter(child);
-		boolean isList = Collection.class.isAssignableFrom(setter.getParameters()[0].getType());
-		try {
-			if (isList)
+		ChildAccessor accessor = childAccessor(child);
+		if (accessor.isCollection())
+		{
+			Collection<VChild> list = accessor.getCollection(this);
+			if (list == null)
 			{
-				Method getter = getGetter(child);
-				Collection<VChild> list = (Collection<VChild>) getter.invoke(this);
-				if (list == null)
-				{
-					list = (getter.getReturnType() == List.class) ? new ArrayList<>() :
-						   (getter.getReturnType() == Set.class) ? new LinkedHashSet<>() : new ArrayList<>();
-					list.add(child);
-					setter.invoke(this, list);
-				} else
-				{
-					list.add(child);
-					orderChild(child);
-				}
+				list = newCollection(accessor);
+				list.add(child);
+				accessor.set(this, list);
 			} else
 			{
-				setter.invoke(this, child);
+				list.add(child);
+				orderChild(child);
 			}
-		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			e.printStackTrace();
+		} else
+		{
+			accessor.set(this, child);
 		}
     }
+	/** Return a new empty collection for children got with the accessor, made when the first such child is added */
+	protected Collection<VChild> newCollection(ChildAccessor accessor)
+	{
+		return accessor.newCollection();
+	}
 	@Override
     public void addChild(int index, VChild child)
     {
@@ -137,41 +155,54 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 	{
 		parseContent(childContent); // TODO - Do I want this?
 	}
+	/**
+	 * Remove the child.  A child held in a collection, a List or a Set, is removed from the collection,
+	 * other children are unset.  The child itself is removed when it's in the collection, otherwise an equal child.
+	 */
 	@Override
 	public boolean removeChild(VChild child)
 	{
-		Method setter = getSetter(child);
-		boolean isList = List.class.isAssignableFrom(setter.getParameters()[0].getType());
-		try {
-			if (isList)
+		ChildAccessor accessor = childAccessor(child);
+		if (accessor.isCollection())
+		{
+			Collection<VChild> list = accessor.getCollection(this);
+			if (list == null)
 			{
-				Method getter = getGetter(child);
-				List<VChild> list = (List<VChild>) getter.invoke(this);
-				if (list == null)
-				{
-					return false;
-				} else
-				{
-					boolean result = list.remove(child);
-					orderChild(child, null);
-					// Should I leave empty lists? - below code removes empty lists
-//					if (list.isEmpty())
-//					{
-//						setter.invoke(this, (Object) null);
-//					}
-					return result;
-				}
+				return false;
 			} else
 			{
-				setter.invoke(this, (Object) null);
+				boolean result = removeSame(list, child) || list.remove(child);
 				orderChild(child, null);
+				// Should I leave empty lists? - below code removes empty lists
+//				if (list.isEmpty())
+//				{
+//					accessor.set(this, null);
+//				}
+				return result;
+			}
+		} else
+		{
+			accessor.set(this, null);
+			orderChild(child, null);
+			return true;
+		}
+	}
+	
+	/* Remove the element itself, not an equal one, return true if it was in the collection */
+	private static boolean removeSame(Collection<?> collection, Object element)
+	{
+		Iterator<?> iterator = collection.iterator();
+		while (iterator.hasNext())
+		{
+			if (iterator.next() == element)
+			{
+				iterator.remove();
 				return true;
 			}
-		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			e.printStackTrace();
 		}
 		return false;
 	}
+	
 	@Override
 	public boolean removeChild(int index)
 	{
@@ -197,32 +228,37 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 	
     protected Map<Class<? extends VChild>, Method> getSetters()
     {
-    	if (SETTERS.get(getClass()) == null)
-    	{
-    		Map<Class<? extends VChild>, Method> setterMap = collectSetterMap(getClass());
-			SETTERS.put(getClass(), setterMap);
-			return setterMap;
-    	}
     	return SETTERS.get(getClass());
     }
     
     protected Map<Class<? extends VChild>, Method> getGetters()
     {
-    	if (GETTERS.get(getClass()) == null)
-    	{
-    		Map<Class<? extends VChild>, Method> getterMap = collectGetterMap(getClass());
-			GETTERS.put(getClass(), getterMap);
-			return getterMap;
-    	}
     	return GETTERS.get(getClass());
     }
+    
+    /** Return the accessors of this parent's class, keyed by child class */
+    protected Map<Class<? extends VChild>, ChildAccessor> getChildAccessors()
+    {
+    	return ChildAccessor.accessors(getClass());
+    }
+    
+    /**
+     * Return the getter and setter for the child parameter, or null if the child isn't allowed.
+     * Subclasses override to map child subclasses to a common accessor.
+     */
+	protected ChildAccessor childAccessor(VChild child)
+	{
+		return getChildAccessors().get(child.getClass());
+	}
 	protected Method getSetter(VChild child)
 	{
-		return getSetters().get(child.getClass());
+		ChildAccessor accessor = childAccessor(child);
+		return (accessor == null) ? null : accessor.setterMethod();
 	}
 	protected Method getGetter(VChild child)
 	{
-		return getGetters().get(child.getClass());
+		ChildAccessor accessor = childAccessor(child);
+		return (accessor == null) ? null : accessor.getterMethod();
 	}
 	
     @Override
@@ -311,6 +347,20 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
         return messages;
     }
 
+    /**
+     * Process the current token of a content line, standard names are found from the token's offsets
+     * without making a String
+     */
+	protected void processInLineChild(
+			List<Message> messages,
+			ContentLineTokenizer tokenizer,
+			Class<? extends VElement> singleLineChildClass)
+	{
+		String childName = tokenizer.isValue() ? ICalendarUtilities.PROPERTY_VALUE_KEY :
+			ElementFactory.name(tokenizer.line(), tokenizer.nameStart(), tokenizer.nameEnd(), true);
+		processInLineChild(messages, (childName == null) ? tokenizer.name() : childName, tokenizer.value(), singleLineChildClass);
+	}
+	
     // For Recurrence Rule Value and Properties
 	protected void processInLineChild(
 			List<Message> messages, 
@@ -321,7 +371,7 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
         VChild newChild = VElementBase.newEmptyVElement(singleLineChildClass, childName);
         if (newChild != null)
         {
-        	List<Message> myMessages = ((VElementBase) newChild).parseContent(childName + "=" + content);
+        	List<Message> myMessages = ((VElementBase) newChild).parseContent(childName, content);
 	        messages.addAll(myMessages);
 			addChildInternal(messages, content, childName, newChild);
         } else
@@ -342,8 +392,8 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 					MessageEffect.MESSAGE_ONLY);
 			messages.add(message);
 		}
-		Method getter = getGetter(newChild);
-		boolean isChildAllowed = getter != null;
+		ChildAccessor accessor = childAccessor(newChild);
+		boolean isChildAllowed = (accessor != null) && (accessor.getterMethod() != null);
 		if (! isChildAllowed)
 		{
 			Message message = new Message(this,
@@ -352,15 +402,10 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 			messages.add(message);
 		}
 		final boolean isChildAlreadyPresent;
-		Object currentParameter = null;
-		try {
-			currentParameter = getter.invoke(this);
-		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			e.printStackTrace();
-		}
+		Object currentParameter = accessor.get(this);
 		if (currentParameter instanceof Collection)
-		{
-			isChildAlreadyPresent = ((Collection<?>) currentParameter).contains(newChild); // TODO contains is expensive - try to find a way to avoid
+		{ // a parsed component is a new instance and may equal an earlier one, only repeated properties are compared
+			isChildAlreadyPresent = ! (newChild instanceof VComponent) && ((Collection<?>) currentParameter).contains(newChild);
 		} else
 		{
 			isChildAlreadyPresent = currentParameter != null;			
@@ -386,6 +431,74 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
 		
     /* Strategy to build iCalendar content lines */
     protected ContentLineStrategy contentLineGenerator;
+    
+    /**
+     * Cache of serialized content for the components in this element's subtree, null (the default)
+     * for no caching.
+     * 
+     * @see ContentCache
+     */
+    public ContentCache getContentCache()
+    {
+        return contentCache;
+    }
+    private volatile ContentCache contentCache;
+    public void setContentCache(ContentCache contentCache)
+    {
+        this.contentCache = contentCache;
+    }
+    public T withContentCache(ContentCache contentCache)
+    {
+        setContentCache(contentCache);
+        return (T) this;
+    }
+    
+    /** Returns true if the content of this element can be kept in a {@link ContentCache}, false by default */
+    protected boolean isContentCacheable()
+    {
+        return false;
+    }
+    
+    /**
+     * Called after an element in the subtree of one of this parent's children changes, see
+     * {@link #elementChanged(VElement)}.  Does nothing by default.
+     * 
+     * @param child  this parent's child that changed or contains the changed element
+     */
+    protected void descendantChanged(VChild child)
+    {
+    }
+    
+    /**
+     * Discards cached content and fingerprints of the element and its ancestors (see {@link ContentCache#invalidate(VElement)}
+     * and {@link VElementBase#fingerprint()}) and tells each ancestor which of its children changed
+     * (see {@link #descendantChanged(VChild)}).  Called when values are set and when children are ordered.
+     * 
+     * @param element  changed calendar element
+     */
+    public static void elementChanged(VElement element)
+    {
+        if ((element instanceof VParentBase) && ((VParentBase<?>) element).isCopying)
+        {
+            return;
+        }
+        ContentCache.invalidate(element);
+        if (element instanceof VElementBase)
+        {
+            ((VElementBase) element).clearFingerprint();
+        }
+        VElement child = element;
+        while (child instanceof VChild)
+        {
+            VParent parent = ((VChild) child).getParent();
+            if (parent instanceof VParentBase)
+            {
+                ((VParentBase<?>) parent).clearFingerprint();
+                ((VParentBase<?>) parent).descendantChanged((VChild) child);
+            }
+            child = parent;
+        }
+    }
         
     @Override
 	public List<VChild> childrenUnmodifiable()
@@ -393,20 +506,35 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
     	return orderer.childrenUnmodifiable();
     }
     
+    /**
+     * Add a copy of each child to destination.  Children are copied with their copy constructors,
+     * see {@link ElementFactory#copy(VChild)}.  The destination is notified once, after all the copies are
+     * added, instead of once for each copy (see {@link #elementChanged(VElement)}).
+     * 
+     * @param destination  parent receiving the copies
+     */
     public void copyChildrenInto(VParent destination)
     {
-        childrenUnmodifiable().forEach((childSource) -> 
+        VParentBase<?> base = (destination instanceof VParentBase) ? (VParentBase<?>) destination : null;
+        boolean wasCopying = (base != null) && base.isCopying;
+        if (base != null)
         {
-        	try {
-        		// use copy constructors to make copy of child
-        		VChild newChild = childSource.getClass()
-        				.getConstructor(childSource.getClass())
-        				.newInstance(childSource);
-        		destination.addChild(newChild);
-			} catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException | SecurityException e) {
-				e.printStackTrace();
-			}
-        });
+            base.isCopying = true;
+        }
+        try
+        {
+            for (VChild childSource : childrenUnmodifiable())
+            {
+                destination.addChild(ElementFactory.copy(childSource));
+            }
+        } finally
+        {
+            if (base != null)
+            {
+                base.isCopying = wasCopying;
+            }
+        }
+        elementChanged(destination);
     }
     
     /*
@@ -414,7 +542,7 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
      */
     public VParentBase()
     {
-    	orderer = new OrdererBase(this, getGetters());
+    	orderer = new OrdererBase(this);
     }
     
     // copy constructor
@@ -440,9 +568,33 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
         {
             throw new RuntimeException("Can't produce content lines because contentLineGenerator isn't set");  // contentLineGenerator MUST be set by subclasses
         }
+        if (isContentCacheable())
+        {
+            ContentCache cache = ContentCache.find(this);
+            if (cache != null)
+            {
+                return cache.content(this, contentLineGenerator::execute);
+            }
+        }
         return contentLineGenerator.execute();
     }
     
+    @Override
+    public void write(Appendable out) throws IOException
+    {
+        if (contentLineGenerator == null)
+        {
+            throw new RuntimeException("Can't produce content lines because contentLineGenerator isn't set");  // contentLineGenerator MUST be set by subclasses
+        }
+        if (isContentCacheable() && (ContentCache.find(this) != null))
+        {
+            out.append(toString());
+        } else
+        {
+            contentLineGenerator.write(out);
+        }
+    }
+    
     // Note: can't check equals or hashCode of parents - causes stack overflow
     @Override
     public boolean equals(Object obj)
@@ -454,33 +606,31 @@ public abstract class VParentBase<T> extends VElementBase implements VParent
         VParent testObj = (VParent) obj;
         
         // getter version is slower, but will be correct.
-        Map<Class<? extends VChild>, Method> getters = getGetters();
-        return getters.entrySet()
-        	.stream()
-        	.map(e -> e.getValue())
-        	.allMatch(m ->
+        for (ChildAccessor accessor : getChildAccessors().values())
+        {
+        	if (accessor.getterMethod() != null)
         	{
-				try {
-					Object v1 = m.invoke(this);
-	        		Object v2 = m.invoke(testObj);
-	        		return Objects.equals(v1, v2);
-				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e1) {
-					e1.printStackTrace();
-				}
-				return false;
-        	});
+        		Object v1 = accessor.get(this);
+        		Object v2 = accessor.get(testObj);
+        		if (! Objects.equals(v1, v2)) return false;
+        	}
+        }
+        return true;
     }
     
     @Override
     public int hashCode()
     {
-        final int prime = 31;
-        int result = 1;
+        return computeHashCode();
+    }
+    
+    @Override
+    protected void addToFingerprint(Fingerprint fingerprint)
+    {
         for (VChild child : childrenUnmodifiable())
         {
-            result = prime * result + child.hashCode();
+            fingerprint.addChild(child);
         }
-        return result;
     }
     
     /*
@@ -80,6 +80,12 @@ public abstract class VComponentBase<T> extends VParentBase<T> implements VCompo
         setParent(source.getParent());
     }
    
+    @Override
+    protected boolean isContentCacheable()
+    {
+        return true;
+    }
+    
     /**
      * Hook to add subcomponent such as {@link #VAlarm}, {@link #StandardTime} and {@link #DaylightSavingTime}
      * 
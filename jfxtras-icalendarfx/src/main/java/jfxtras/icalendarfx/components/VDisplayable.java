@@ -34,10 +34,8 @@ import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -67,10 +65,10 @@ import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRuleCache;
 import jfxtras.icalendarfx.properties.component.relationship.Contact;
 import jfxtras.icalendarfx.properties.component.relationship.RecurrenceId;
 import jfxtras.icalendarfx.properties.component.relationship.RelatedTo;
-import jfxtras.icalendarfx.properties.component.relationship.UniqueIdentifier;
 import jfxtras.icalendarfx.properties.component.time.DateTimeStart;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities.DateTimeType;
+import jfxtras.icalendarfx.utilities.SortedTemporalSet;
 
 /**
  * <p>{@link VComponent} with the following properties
@@ -680,40 +678,16 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
         // get stream with recurrence rule (RRULE) and recurrence date (RDATE)
         Stream<Temporal> inStream = VRepeatable.super.streamRecurrences(start);
 
-        // assign temporal comparator to match start type
-        final Comparator<Temporal> temporalComparator = DateTimeUtilities.getTemporalComparator(start);
-        
-        // Handle Recurrence IDs
-        final Stream<Temporal> stream2;
+        // If present, remove recurrence ID original values
         List<VDisplayable<?>> children = recurrenceChildren();
-        if (children != null)
-        {
-            // If present, remove recurrence ID original values
-            List<Temporal> recurrenceIDTemporals = recurrenceChildren()
-                    .stream()
-                    .map(c -> c.getRecurrenceId().getValue())
-                    .collect(Collectors.toList());
-            stream2 = inStream.filter(t -> ! recurrenceIDTemporals.contains(t));
-        } else
-        {
-            stream2 = inStream;
-        }
+        final Stream<Temporal> stream2 = children.isEmpty() ? inStream : SortedTemporalSet.of(children
+                .stream()
+                .map(c -> c.getRecurrenceId().getValue())
+                .collect(Collectors.toList()))
+                .removeFrom(inStream);
         
         // If present, remove exceptions
-        final Stream<Temporal> stream3;
-        if (getExceptionDates() != null)
-        {
-            List<Temporal> exceptions = getExceptionDates()
-                    .stream()
-                    .flatMap(r -> r.getValue().stream())
-                    .map(v -> v)
-                    .sorted(temporalComparator)
-                    .collect(Collectors.toList());
-            stream3 = stream2.filter(d -> ! exceptions.contains(d));
-        } else
-        {
-            stream3 = stream2;
-        }
+        final Stream<Temporal> stream3 = exceptionDateSet().removeFrom(stream2);
         
         if (getRecurrenceRule() == null)
         {
@@ -728,6 +702,29 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
     	}
     }
 
+    @Override
+    public SortedTemporalSet recurrenceDateSet()
+    {
+        SortedTemporalSet set = SortedTemporalSet.of(getRecurrenceDates(), recurrenceDateSet);
+        recurrenceDateSet = set;
+        return set;
+    }
+    private volatile SortedTemporalSet recurrenceDateSet;
+    
+    /**
+     * Returns the values of the EXCEPTION-DATES (EXDATE) properties sorted into a set that is removed from
+     * the recurrences by {@link #streamRecurrences(Temporal)}.  The set is kept until the values change.
+     * 
+     * @return  sorted EXDATE values
+     */
+    public SortedTemporalSet exceptionDateSet()
+    {
+        SortedTemporalSet set = SortedTemporalSet.of(getExceptionDates(), exceptionDateSet);
+        exceptionDateSet = set;
+        return set;
+    }
+    private volatile SortedTemporalSet exceptionDateSet;
+
     /*
      *  RECURRENCE STREAMER
      *  produces recurrence set
@@ -743,12 +740,9 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
     {
     	if ((getParent() != null) && (getRecurrenceId() == null))
     	{
-    		UniqueIdentifier myUid = getUniqueIdentifier();
-    		return calendarList()
+    		return calendarWithUid()
     			.stream()
-    			.map(c -> (VDisplayable<?>) c)
     			.filter(c -> ! (c == this))
-    			.filter(c -> c.getUniqueIdentifier().equals(myUid))
 				.filter(c -> c.getRecurrenceId() != null)
 				.collect(Collectors.toList());
     	} else
@@ -762,23 +756,21 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
      */
     public VDisplayable<?> recurrenceParent()
     {
-    	if (getParent() != null && (getRecurrenceId() != null))
+    	if (getParent() != null && (getRecurrenceId() != null) && (getUniqueIdentifier() != null))
     	{
-    		UniqueIdentifier myUid = getUniqueIdentifier();
-    		@SuppressWarnings("rawtypes")
-			Optional<VDisplayable> recurrenceParent = calendarList()
-    			.stream()
-    			.map(c -> (VDisplayable) c)
-    			.filter(c -> ! (c == this))
-    			.filter(c -> c.getUniqueIdentifier().equals(myUid))
-				.filter(c -> c.getRecurrenceId() == null)
-				.findAny();
-    		return (recurrenceParent.isPresent()) ? recurrenceParent.get() : null;
+    		return ((VCalendar) getParent()).getVComponent(this, getUniqueIdentifier().getValue(), null);
     	} else
     	{
     		return null;
     	}
     }
+    
+    /* components in calendar with same UID, found with calendar's UID index */
+    private List<VDisplayable<?>> calendarWithUid()
+    {
+        String uid = (getUniqueIdentifier() == null) ? null : getUniqueIdentifier().getValue();
+        return ((VCalendar) getParent()).getVComponents(this, uid);
+    }
 
     /** returns list of orphaned recurrence components due to a change.  These
      * components should be deleted */
@@ -790,11 +782,8 @@ public abstract class VDisplayable<T> extends VPersonal<T> implements VRepeatabl
             VCalendar vCalendar = (VCalendar) getParent();
             if (vCalendar != null)
             {
-                final UniqueIdentifier uid = getUniqueIdentifier();
-                return calendarList()
+                return calendarWithUid()
                         .stream()
-                        .map(v -> (VDisplayable<?>) v)
-                        .filter(v -> v.getUniqueIdentifier().equals(uid))
                         .filter(v -> v.getRecurrenceId() != null)
                         .filter(v -> 
                         {
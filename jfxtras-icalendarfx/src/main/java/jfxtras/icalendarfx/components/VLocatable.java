@@ -32,7 +32,6 @@ import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -359,22 +358,6 @@ public abstract class VLocatable<T> extends VDisplayable<T> implements VDescriba
         return errors;
     }
     
-    @Override // include VAlarms
-    public int hashCode()
-    {
-        int hash = super.hashCode();
-        if (getVAlarms() != null)
-        {
-            Iterator<VAlarm> i = getVAlarms().iterator();
-            while (i.hasNext())
-            {
-                Object property = i.next();
-                hash = (31 * hash) + property.hashCode();
-            }
-        }
-        return hash;
-    }
-    
     /** Stream recurrence dates with adjustment to include recurrences that don't end before start parameter */
     @Override
     public Stream<Temporal> streamRecurrences(Temporal start)
@@ -54,6 +54,7 @@ import jfxtras.icalendarfx.properties.component.time.DateTimeStart;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.ICalendarUtilities;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities.DateTimeType;
+import jfxtras.icalendarfx.utilities.SortedTemporalSet;
 
 /**
  * Contains following properties:
@@ -287,35 +288,65 @@ public interface VRepeatable<T> extends VComponent
             stream1 = Arrays.asList(getDateTimeStart().getValue()).stream();
         } else
         {
-        	if (getRecurrenceRule().getValue().getCount() == null)
-        	{
-	            Temporal cacheStart = recurrenceCache().getClosestStart(start);
-	            stream1 = getRecurrenceRule().getValue().streamRecurrences(cacheStart);
-        	} else
-        	{ // if RRULE has COUNT must start at DTSTART
-        		stream1 = getRecurrenceRule().getValue().streamRecurrences(getDateTimeStart().getValue());
-        	}
+            RecurrenceRuleValue rrule = getRecurrenceRule().getValue();
+            Temporal dateTimeStart = getDateTimeStart().getValue();
+            if (rrule.isSeekable(dateTimeStart))
+            { // go directly to start, no cache needed
+                stream1 = rrule.streamRecurrences(dateTimeStart, start);
+            } else if (rrule.getCount() == null)
+            {
+                Temporal cacheStart = recurrenceCache().getClosestStart(start);
+                stream1 = rrule.streamRecurrences(cacheStart);
+            } else
+            { // if RRULE has COUNT must start at DTSTART
+                stream1 = rrule.streamRecurrences(dateTimeStart);
+            }
         }
         
-        // assign temporal comparator to match start type
-        final Comparator<Temporal> temporalComparator = DateTimeUtilities.getTemporalComparator(start);
-        
         // add recurrences, if present
-        final Stream<Temporal> stream2 = (getRecurrenceDates() == null) ? stream1 : merge(
-                stream1,
-                getRecurrenceDates()
-                        .stream()
-                        .flatMap(r -> r.getValue().stream())
-                        .map(v -> v)
-                        .filter(t -> ! DateTimeUtilities.isBefore(t, start)) // remove too early events;
-                        .sorted(temporalComparator)
-                , temporalComparator);
+        final Stream<Temporal> stream2 = recurrenceDateSet().mergeInto(stream1, start);
         
         return stream2
                 .filter(t -> ! DateTimeUtilities.isBefore(t, start));
 //                .peek(t -> System.out.println("stream:" + t + " " + start + " " + ! DateTimeUtilities.isBefore(t, start)));
     }
     
+    /**
+     * Returns the first start date/time of the recurrence set at or after target.
+     * 
+     * When the RRULE is seekable (see {@link RecurrenceRuleValue#isSeekable(Temporal)}) the recurrences
+     * before target are skipped without being calculated, otherwise they are enumerated from the closest
+     * cached start.
+     * 
+     * @param target - date or date/time to seek, must match DTSTART type
+     * @return - first recurrence not before target, or null if there is none
+     */
+    default Temporal seek(Temporal target)
+    {
+        Iterator<Temporal> i = streamRecurrences(target).iterator();
+        while (i.hasNext())
+        {
+            Temporal t = i.next();
+            if (! DateTimeUtilities.isBefore(t, target))
+            {
+                return t;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the values of the RECURRENCE-DATES (RDATE) properties sorted into a set that is merged into
+     * the recurrences by {@link #streamRecurrences(Temporal)}.  Implementations may keep the set until the
+     * values change.
+     * 
+     * @return  sorted RDATE values
+     */
+    default SortedTemporalSet recurrenceDateSet()
+    {
+        return SortedTemporalSet.of(getRecurrenceDates(), null);
+    }
+    
     /** Stream of recurrences starting at dateTimeStart (DTSTART) 
      * @link {@link #streamRecurrences(Temporal)}*/
     default Stream<Temporal> streamRecurrences()
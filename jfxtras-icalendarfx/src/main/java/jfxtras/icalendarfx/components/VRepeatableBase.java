@@ -46,6 +46,7 @@ import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRuleCache;
 import jfxtras.icalendarfx.properties.component.time.DateTimeStart;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities.DateTimeType;
+import jfxtras.icalendarfx.utilities.SortedTemporalSet;
 /**
  * Contains following properties:
  * @see RecurrenceRule
@@ -117,6 +118,15 @@ public abstract class VRepeatableBase<T> extends VPrimary<T> implements VRepeata
         super(source);
     }
 
+    @Override
+    public SortedTemporalSet recurrenceDateSet()
+    {
+        SortedTemporalSet set = SortedTemporalSet.of(getRecurrenceDates(), recurrenceDateSet);
+        recurrenceDateSet = set;
+        return set;
+    }
+    private volatile SortedTemporalSet recurrenceDateSet;
+
     @Override
     public Stream<Temporal> streamRecurrences(Temporal start)
     {
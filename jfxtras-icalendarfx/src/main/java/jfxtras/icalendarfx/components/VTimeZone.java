@@ -26,8 +26,10 @@
  */
 package jfxtras.icalendarfx.components;
 
-import java.lang.reflect.Method;
 import java.net.URI;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -44,9 +46,11 @@ import jfxtras.icalendarfx.components.VComponent;
 import jfxtras.icalendarfx.components.VComponentElement;
 import jfxtras.icalendarfx.components.VLastModified;
 import jfxtras.icalendarfx.components.VTimeZone;
+import jfxtras.icalendarfx.content.ChildAccessor;
 import jfxtras.icalendarfx.properties.component.change.LastModified;
 import jfxtras.icalendarfx.properties.component.timezone.TimeZoneIdentifier;
 import jfxtras.icalendarfx.properties.component.timezone.TimeZoneURL;
+import jfxtras.icalendarfx.utilities.ZoneRulesResolver;
 
 /**
  * VTIMEZONE
@@ -470,24 +474,14 @@ public class VTimeZone extends VCommon<VTimeZone> implements VLastModified<VTime
     }
     
 	@Override
-	protected Method getSetter(VChild child)
+	protected ChildAccessor childAccessor(VChild child)
 	{
-		Method setter = getSetters().get(child.getClass());
-		if ((setter == null) && (StandardOrDaylight.class.isAssignableFrom(child.getClass())))
+		ChildAccessor accessor = getChildAccessors().get(child.getClass());
+		if ((accessor == null) && (StandardOrDaylight.class.isAssignableFrom(child.getClass())))
 		{
-			setter = getSetters().get(StandardOrDaylight.class);
+			accessor = getChildAccessors().get(StandardOrDaylight.class);
 		}
-		return setter;
-	}
-	@Override
-	protected Method getGetter(VChild child)
-	{
-		Method getter = getGetters().get(child.getClass());
-		if ((getter == null) && (StandardOrDaylight.class.isAssignableFrom(child.getClass())))
-		{
-			getter = getGetters().get(StandardOrDaylight.class);
-		}
-		return getter;
+		return accessor;
 	}
     
     @Override
@@ -530,6 +524,76 @@ public class VTimeZone extends VCommon<VTimeZone> implements VLastModified<VTime
         }
     }
     
+    /**
+     * Returns the {@link ZoneRules} defined by the STANDARD and DAYLIGHT subcomponents.  Historic onsets
+     * become transitions and unbounded yearly RRULEs become transition rules, so offsets are found by a
+     * binary search instead of expanding the RRULEs.  The rules are compiled once and kept until a
+     * subcomponent changes.
+     * 
+     * @return  rules of this time zone
+     * @throws DateTimeException  if there are no subcomponents or a subcomponent lacks a local DTSTART, TZOFFSETFROM or TZOFFSETTO
+     */
+    public ZoneRules toZoneRules()
+    {
+        CompiledZoneRules compiled = compiledZoneRules;
+        List<StandardOrDaylight<?>> observances = getStandardOrDaylight();
+        if ((compiled == null) || ! compiled.isCompiledFrom(observances))
+        {
+            compiled = new CompiledZoneRules(observances, ZoneRulesCompiler.compile(observances));
+            compiledZoneRules = compiled;
+        }
+        return compiled.rules;
+    }
+    private volatile CompiledZoneRules compiledZoneRules;
+    
+    /**
+     * Returns the {@link ZoneId} for the TZID.  A TZID that isn't an IANA time zone identifier, such as one
+     * from Microsoft Outlook, gets a ZoneId from {@link ZoneRulesResolver} with the rules from
+     * {@link #toZoneRules()}.  The rules of that ZoneId don't follow later changes to this VTIMEZONE.
+     * 
+     * @return  time zone of this VTIMEZONE
+     * @throws IllegalArgumentException  if TZID is absent
+     */
+    public ZoneId toZoneId()
+    {
+        return ZoneRulesResolver.zoneIdOf(this);
+    }
+    
+    @Override
+    protected void descendantChanged(VChild child)
+    {
+        compiledZoneRules = null;
+    }
+    
+    /* Rules and the subcomponents they were compiled from */
+    private static class CompiledZoneRules
+    {
+        final List<StandardOrDaylight<?>> observances;
+        final ZoneRules rules;
+        
+        CompiledZoneRules(List<StandardOrDaylight<?>> observances, ZoneRules rules)
+        {
+            this.observances = new ArrayList<>(observances);
+            this.rules = rules;
+        }
+        
+        boolean isCompiledFrom(List<StandardOrDaylight<?>> observances)
+        {
+            if ((observances == null) || (observances.size() != this.observances.size()))
+            {
+                return false;
+            }
+            for (int i=0; i<observances.size(); i++)
+            {
+                if (observances.get(i) != this.observances.get(i))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
 	@Override
 	public List<VTimeZone> calendarList()
 	{
@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.components;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.time.temporal.Temporal;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneOffsetTransitionRule;
+import java.time.zone.ZoneOffsetTransitionRule.TimeDefinition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.FrequencyType;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay.ByDayPair;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonth;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonthDay;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByRule;
+
+/**
+ * Compiles the STANDARD and DAYLIGHT observances of a {@link VTimeZone} into {@link ZoneRules}.
+ * 
+ * <p>Onsets from DTSTART, RDATE and bounded RRULEs become historic {@link ZoneOffsetTransition transitions}.
+ * An unbounded yearly RRULE that picks one day of one month, such as BYMONTH=3;BYDAY=2SU, becomes a
+ * {@link ZoneOffsetTransitionRule} that applies after the last historic transition, so offsets for
+ * any year are found without expanding the RRULE.  Other unbounded RRULEs are expanded up to
+ * {@link #LAST_EXPANDED_YEAR}.</p>
+ */
+class ZoneRulesCompiler
+{
+    /** Last year of onsets from unbounded RRULEs that can't be made into a {@link ZoneOffsetTransitionRule} */
+    static final int LAST_EXPANDED_YEAR = 2100;
+    
+    private ZoneRulesCompiler() { }
+    
+    /**
+     * Compiles observances into rules
+     * 
+     * @param observances  STANDARD and DAYLIGHT subcomponents of a VTIMEZONE
+     * @return  zone rules
+     * @throws DateTimeException  if there are no observances or an observance lacks DTSTART, TZOFFSETFROM or TZOFFSETTO
+     */
+    static ZoneRules compile(List<StandardOrDaylight<?>> observances)
+    {
+        if ((observances == null) || observances.isEmpty())
+        {
+            throw new DateTimeException("Can't compile VTIMEZONE without STANDARD or DAYLIGHT subcomponents");
+        }
+        
+        // Rules for unbounded observances
+        List<ZoneOffsetTransitionRule> lastRules = new ArrayList<>();
+        boolean isRuleBased = true;
+        for (StandardOrDaylight<?> observance : observances)
+        {
+            checkObservance(observance);
+            RecurrenceRuleValue rrule = recurrenceRule(observance);
+            if ((rrule != null) && rrule.isInfinite())
+            {
+                ZoneOffsetTransitionRule rule = transitionRule(observance, rrule);
+                if (rule == null)
+                {
+                    isRuleBased = false;
+                } else
+                {
+                    lastRules.add(rule);
+                }
+            }
+        }
+        
+        // Onsets of bounded observances, then of unbounded ones up to the year the rules take over
+        List<Onset> onsets = new ArrayList<>();
+        int lastYear = Integer.MIN_VALUE;
+        for (StandardOrDaylight<?> observance : observances)
+        {
+            RecurrenceRuleValue rrule = recurrenceRule(observance);
+            LocalDateTime dateTimeStart = (LocalDateTime) observance.getDateTimeStart().getValue();
+            lastYear = Math.max(lastYear, dateTimeStart.getYear());
+            if ((rrule == null) || ! rrule.isInfinite())
+            {
+                lastYear = Math.max(lastYear, addOnsets(onsets, observance, LAST_EXPANDED_YEAR));
+            }
+        }
+        int lastExpandedYear = (isRuleBased) ? lastYear : LAST_EXPANDED_YEAR;
+        for (StandardOrDaylight<?> observance : observances)
+        {
+            RecurrenceRuleValue rrule = recurrenceRule(observance);
+            if ((rrule != null) && rrule.isInfinite())
+            {
+                addOnsets(onsets, observance, lastExpandedYear);
+            }
+        }
+        onsets.sort(Comparator.comparingLong(o -> o.epochSecond));
+        
+        // Historic transitions
+        Onset first = onsets.get(0);
+        ZoneOffset baseOffset = first.offsetFrom;
+        ZoneOffset standardOffset = baseOffset;
+        List<ZoneOffsetTransition> transitions = new ArrayList<>();
+        List<ZoneOffsetTransition> standardTransitions = new ArrayList<>();
+        long previousEpochSecond = Long.MIN_VALUE;
+        for (Onset onset : onsets)
+        {
+            if (! onset.offsetFrom.equals(onset.offsetTo) && (onset.epochSecond != previousEpochSecond))
+            {
+                transitions.add(ZoneOffsetTransition.of(onset.dateTime, onset.offsetFrom, onset.offsetTo));
+                previousEpochSecond = onset.epochSecond;
+            }
+            if (onset.isStandard && ! onset.offsetTo.equals(standardOffset))
+            {
+                LocalDateTime standardDateTime = LocalDateTime.ofEpochSecond(onset.epochSecond, 0, standardOffset);
+                standardTransitions.add(ZoneOffsetTransition.of(standardDateTime, standardOffset, onset.offsetTo));
+                standardOffset = onset.offsetTo;
+            }
+        }
+        
+        if (isRuleBased && ! transitions.isEmpty())
+        {
+            int year = lastExpandedYear + 1;
+            lastRules.sort(Comparator.comparingLong(r -> r.createTransition(year).toEpochSecond()));
+        } else
+        {
+            lastRules.clear();
+        }
+        return ZoneRules.of(baseOffset, baseOffset, standardTransitions, transitions, lastRules);
+    }
+    
+    private static void checkObservance(StandardOrDaylight<?> observance)
+    {
+        boolean isComplete = (observance.getDateTimeStart() != null)
+                && (observance.getDateTimeStart().getValue() instanceof LocalDateTime)
+                && (observance.getTimeZoneOffsetFrom() != null)
+                && (observance.getTimeZoneOffsetTo() != null);
+        if (! isComplete)
+        {
+            throw new DateTimeException("Can't compile " + observance.name() + " without local DTSTART, TZOFFSETFROM and TZOFFSETTO");
+        }
+    }
+    
+    private static RecurrenceRuleValue recurrenceRule(StandardOrDaylight<?> observance)
+    {
+        return (observance.getRecurrenceRule() == null) ? null : observance.getRecurrenceRule().getValue();
+    }
+    
+    /*
+     * Add the onsets of the observance up to and including the last year
+     * Returns the year of the last onset added
+     */
+    private static int addOnsets(List<Onset> onsets, StandardOrDaylight<?> observance, int lastYear)
+    {
+        ZoneOffset offsetFrom = observance.getTimeZoneOffsetFrom().getValue();
+        ZoneOffset offsetTo = observance.getTimeZoneOffsetTo().getValue();
+        boolean isStandard = observance instanceof StandardTime;
+        int year = Integer.MIN_VALUE;
+        Iterator<Temporal> iterator = observance.streamRecurrences().iterator();
+        while (iterator.hasNext())
+        {
+            LocalDateTime dateTime = LocalDateTime.from(iterator.next());
+            if (dateTime.getYear() > lastYear) break;
+            onsets.add(new Onset(dateTime, offsetFrom, offsetTo, isStandard));
+            year = dateTime.getYear();
+        }
+        return year;
+    }
+    
+    /*
+     * Make a rule from an unbounded RRULE that picks one day a year: FREQ=YEARLY with one BYMONTH value and
+     * either one BYDAY value with an ordinal from -4 to 4, seven consecutive BYMONTHDAY values with one BYDAY
+     * value (the form of older VTIMEZONEs), or one positive BYMONTHDAY value.
+     * Returns null for other RRULEs.
+     */
+    private static ZoneOffsetTransitionRule transitionRule(StandardOrDaylight<?> observance, RecurrenceRuleValue rrule)
+    {
+        boolean isYearly = (rrule.getFrequency() != null) && (rrule.getFrequency().getValue() == FrequencyType.YEARLY);
+        boolean isEveryYear = (rrule.getInterval() == null) || (rrule.getInterval().getValue() == 1);
+        if (! isYearly || ! isEveryYear || (rrule.getByRules() == null))
+        {
+            return null;
+        }
+        List<Month> months = null;
+        List<ByDayPair> days = null;
+        List<Integer> daysOfMonth = null;
+        for (ByRule<?> byRule : rrule.getByRules())
+        {
+            if (byRule instanceof ByMonth)
+            {
+                months = ((ByMonth) byRule).getValue();
+            } else if (byRule instanceof ByDay)
+            {
+                days = ((ByDay) byRule).getValue();
+            } else if (byRule instanceof ByMonthDay)
+            {
+                daysOfMonth = ((ByMonthDay) byRule).getValue();
+            } else
+            {
+                return null;
+            }
+        }
+        if ((months == null) || (months.size() != 1) || ((days == null) && (daysOfMonth == null)))
+        {
+            return null;
+        }
+        
+        final int dayOfMonthIndicator;
+        final DayOfWeek dayOfWeek;
+        if (days != null)
+        {
+            if (days.size() != 1)
+            {
+                return null;
+            }
+            int ordinal = days.get(0).getOrdinal();
+            dayOfWeek = days.get(0).getDayOfWeek();
+            if ((ordinal >= 1) && (ordinal <= 4) && (daysOfMonth == null))
+            {
+                dayOfMonthIndicator = 1 + 7*(ordinal-1); // first dayOfWeek on or after
+            } else if ((ordinal <= -1) && (ordinal >= -4) && (daysOfMonth == null))
+            {
+                dayOfMonthIndicator = -1 + 7*(ordinal+1); // last dayOfWeek on or before
+            } else if ((ordinal == 0) && (daysOfMonth != null) && isWeek(daysOfMonth))
+            {
+                dayOfMonthIndicator = daysOfMonth.get(0);
+            } else
+            {
+                return null;
+            }
+        } else
+        {
+            if ((daysOfMonth.size() != 1) || (daysOfMonth.get(0) < 1) || (daysOfMonth.get(0) > 28))
+            {
+                return null;
+            }
+            dayOfMonthIndicator = daysOfMonth.get(0);
+            dayOfWeek = null;
+        }
+        
+        LocalDateTime dateTimeStart = (LocalDateTime) observance.getDateTimeStart().getValue();
+        ZoneOffset offsetFrom = observance.getTimeZoneOffsetFrom().getValue();
+        ZoneOffset offsetTo = observance.getTimeZoneOffsetTo().getValue();
+        ZoneOffset standardOffset = (observance instanceof StandardTime) ? offsetTo : offsetFrom;
+        return ZoneOffsetTransitionRule.of(months.get(0), dayOfMonthIndicator, dayOfWeek, dateTimeStart.toLocalTime(),
+                false, TimeDefinition.WALL, standardOffset, offsetFrom, offsetTo);
+    }
+    
+    // true if the days are seven consecutive days in the first four weeks of a month, such as 8,9,10,11,12,13,14
+    private static boolean isWeek(List<Integer> daysOfMonth)
+    {
+        if ((daysOfMonth.size() != 7) || (daysOfMonth.get(0) < 1) || (daysOfMonth.get(0) > 22))
+        {
+            return false;
+        }
+        for (int i=1; i<7; i++)
+        {
+            if (daysOfMonth.get(i) != daysOfMonth.get(0) + i)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /* Local date-time an observance begins */
+    private static class Onset
+    {
+        final LocalDateTime dateTime;
+        final ZoneOffset offsetFrom;
+        final ZoneOffset offsetTo;
+        final boolean isStandard;
+        final long epochSecond;
+        
+        Onset(LocalDateTime dateTime, ZoneOffset offsetFrom, ZoneOffset offsetTo, boolean isStandard)
+        {
+            this.dateTime = dateTime;
+            this.offsetFrom = offsetFrom;
+            this.offsetTo = offsetTo;
+            this.isStandard = isStandard;
+            this.epochSecond = dateTime.toEpochSecond(offsetFrom);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.content;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import jfxtras.icalendarfx.VChild;
+import jfxtras.icalendarfx.VParent;
+import jfxtras.icalendarfx.VParentBase;
+
+/**
+ * Getter and setter pair for one {@link VChild} type of a {@link VParent} class.
+ * 
+ * The accessors are generated once per {@link VParent} class with {@link LambdaMetafactory},
+ * so getting and setting children doesn't go through {@link Method#invoke(Object, Object...)}.
+ * The tables are cached in a {@link ClassValue} and are safe to use from several threads.
+ * 
+ * @see VParentBase#collectGetterMap(Class)
+ * @see VParentBase#collectSetterMap(Class)
+ */
+public final class ChildAccessor
+{
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final ClassValue<Map<Class<? extends VChild>, ChildAccessor>> ACCESSORS = new ClassValue<Map<Class<? extends VChild>, ChildAccessor>>()
+    {
+        @Override
+        protected Map<Class<? extends VChild>, ChildAccessor> computeValue(Class<?> parentClass)
+        {
+            return makeAccessors(parentClass);
+        }
+    };
+    
+    private final Method getterMethod;
+    private final Method setterMethod;
+    private final Function<Object, Object> getter;
+    private final BiConsumer<Object, Object> setter;
+    private final boolean isCollection;
+    
+    /** Return the getter method, or null if there is no getter */
+    public Method getterMethod() { return getterMethod; }
+    
+    /** Return the setter method, or null if there is no setter */
+    public Method setterMethod() { return setterMethod; }
+    
+    /** Return true if the child is held in a collection, such as a List of Attendee */
+    public boolean isCollection() { return isCollection; }
+    
+    /** Return the value of the getter, either a {@link VChild} or a collection of them */
+    public Object get(VParent parent)
+    {
+        return getter.apply(parent);
+    }
+    
+    /**
+     * Return the collection of children of a collection accessor (see {@link #isCollection()}), null if it isn't set.
+     * The collection holds the accessor's child class, so only add children of that class.
+     */
+    @SuppressWarnings("unchecked") // getter returns a collection of a VChild subclass, read and changed through VChild
+    public Collection<VChild> getCollection(VParent parent)
+    {
+        return (Collection<VChild>) getter.apply(parent);
+    }
+    
+    /** Set the value with the setter, either a {@link VChild} or a collection of them */
+    public void set(VParent parent, Object value)
+    {
+        setter.accept(parent, value);
+    }
+    
+    /** Return a new empty collection matching the getter return type */
+    public Collection<VChild> newCollection()
+    {
+        Class<?> returnType = getterMethod.getReturnType();
+        return (returnType == List.class) ? new ArrayList<>() :
+               (returnType == Set.class) ? new LinkedHashSet<>() : new ArrayList<>();
+    }
+    
+    /*
+     * CONSTRUCTOR
+     */
+    private ChildAccessor(Method getterMethod, Method setterMethod)
+    {
+        this.getterMethod = getterMethod;
+        this.setterMethod = setterMethod;
+        getter = (getterMethod == null) ? null : makeGetter(getterMethod);
+        setter = (setterMethod == null) ? null : makeSetter(setterMethod);
+        Class<?> type = (setterMethod != null) ? setterMethod.getParameterTypes()[0] : getterMethod.getReturnType();
+        isCollection = Collection.class.isAssignableFrom(type);
+    }
+    
+    /**
+     * Return the accessors of a {@link VParent} class, keyed by the {@link VChild} class
+     * 
+     * @param parentClass  class of the {@link VParent}
+     * @return  unmodifiable map of accessors
+     */
+    public static Map<Class<? extends VChild>, ChildAccessor> accessors(Class<?> parentClass)
+    {
+        return ACCESSORS.get(parentClass);
+    }
+    
+    private static Map<Class<? extends VChild>, ChildAccessor> makeAccessors(Class<?> parentClass)
+    {
+        Map<Class<? extends VChild>, Method> getters = VParentBase.collectGetterMap(parentClass);
+        Map<Class<? extends VChild>, Method> setters = VParentBase.collectSetterMap(parentClass);
+        Map<Class<? extends VChild>, ChildAccessor> accessors = new HashMap<>();
+        getters.forEach((c, m) -> accessors.put(c, new ChildAccessor(m, setters.get(c))));
+        setters.forEach((c, m) -> accessors.computeIfAbsent(c, k -> new ChildAccessor(null, m)));
+        return Collections.unmodifiableMap(accessors);
+    }
+    
+    /*
+     * Accessors are generated with LambdaMetafactory.  If that fails, for example when the
+     * parent class isn't visible from this class loader, the method handle is invoked
+     * directly, and if the method can't be unreflected, reflection is the last resort.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> makeGetter(Method method)
+    {
+        final MethodHandle handle;
+        try
+        {
+            handle = LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e)
+        {
+            return p -> invoke(method, p);
+        }
+        try
+        {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    handle.type());
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e)
+        {
+            MethodHandle genericHandle = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return p ->
+            {
+                try
+                {
+                    return genericHandle.invokeExact(p);
+                } catch (RuntimeException | Error e2)
+                {
+                    throw e2;
+                } catch (Throwable e2)
+                {
+                    throw new RuntimeException(e2);
+                }
+            };
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> makeSetter(Method method)
+    {
+        final MethodHandle handle;
+        try
+        {
+            handle = LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e)
+        {
+            return (p, v) -> invoke(method, p, v);
+        }
+        try
+        {
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP,
+                    "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    handle.type().changeReturnType(void.class));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e)
+        {
+            MethodHandle genericHandle = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (p, v) ->
+            {
+                try
+                {
+                    genericHandle.invokeExact(p, v);
+                } catch (RuntimeException | Error e2)
+                {
+                    throw e2;
+                } catch (Throwable e2)
+                {
+                    throw new RuntimeException(e2);
+                }
+            };
+        }
+    }
+    
+    private static Object invoke(Method method, Object parent, Object... arguments)
+    {
+        try
+        {
+            return method.invoke(parent, arguments);
+        } catch (IllegalAccessException e)
+        {
+            throw new RuntimeException(e);
+        } catch (InvocationTargetException e)
+        {
+            Throwable cause = e.getCause();
+            throw (cause instanceof RuntimeException) ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "ChildAccessor [getter=" + getterMethod + ", setter=" + setterMethod + "]";
+    }
+}
@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.content;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import jfxtras.icalendarfx.VChild;
+import jfxtras.icalendarfx.VElement;
+import jfxtras.icalendarfx.VParent;
+import jfxtras.icalendarfx.VParentBase;
+import jfxtras.icalendarfx.components.VComponent;
+
+/**
+ * <p>Memory-budgeted cache of the serialized content of calendar components.</p>
+ * 
+ * <p>A cache is attached to the top of a tree of calendar elements, usually a {@link jfxtras.icalendarfx.VCalendar},
+ * with {@link VParentBase#setContentCache(ContentCache)}.  Components in that tree then keep the text
+ * produced by {@link VElement#toString()} until something in their subtree changes, so re-exporting a large
+ * calendar after a small edit mostly copies cached text.</p>
+ * 
+ * <p>Changes are detected through the {@link Orderer} (adding, replacing and removing children) and through
+ * the value setters of properties, parameters and recurrence rule parts.  Changing a mutable value in place,
+ * such as adding to the list returned by a property's getValue, isn't detected; call
+ * {@link VParentBase#elementChanged(VElement)} afterwards, as the library does after its own in-place edits.</p>
+ * 
+ * <p>Entries of a component removed through the {@link Orderer} are removed with it, so the cache doesn't keep
+ * removed components.</p>
+ * 
+ * <p>Content produced while an element of the cache is invalidated isn't stored, so an export that runs at the same
+ * time as an edit can't leave stale content in the cache.</p>
+ * 
+ * <p>The cache is off by default.  When the estimated size of the cached text exceeds the budget the least
+ * recently used entries are discarded.</p>
+ */
+public final class ContentCache
+{
+    /** Estimated heap bytes of an entry in addition to its characters */
+    private static final int ENTRY_OVERHEAD = 96;
+    
+    private final long budget;
+    private final Map<Key, String> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long generation; // incremented by each invalidation, content produced across one isn't stored
+    
+    /**
+     * Create a cache that holds at most about the given number of heap bytes of content
+     * 
+     * @param budget  maximum estimated size in bytes, must be positive
+     */
+    public ContentCache(long budget)
+    {
+        if (budget <= 0)
+        {
+            throw new IllegalArgumentException("Budget must be positive: " + budget);
+        }
+        this.budget = budget;
+    }
+    
+    /** Maximum estimated size of cached content in bytes */
+    public long budget() { return budget; }
+    /** Estimated size of cached content in bytes */
+    public synchronized long size() { return size; }
+    /** Number of cached components */
+    public synchronized int entryCount() { return entries.size(); }
+    /** Number of requests served from the cache */
+    public synchronized long hitCount() { return hitCount; }
+    /** Number of requests that had to produce the content */
+    public synchronized long missCount() { return missCount; }
+    /** Number of entries discarded to stay within the budget */
+    public synchronized long evictionCount() { return evictionCount; }
+
+    /** Remove all cached content */
+    public synchronized void clear()
+    {
+        generation++;
+        entries.clear();
+        size = 0;
+    }
+    
+    /**
+     * Returns the cached content of the element, or produces, caches and returns it
+     * 
+     * @param element  calendar element
+     * @param contentSupplier  produces content when it isn't cached
+     * @return  the element's content
+     */
+    public String content(VParent element, Supplier<String> contentSupplier)
+    {
+        Key key = new Key(element);
+        long startGeneration;
+        synchronized (this)
+        {
+            String content = entries.get(key);
+            if (content != null)
+            {
+                hitCount++;
+                return content;
+            }
+            missCount++;
+            startGeneration = generation;
+        }
+        String content = contentSupplier.get();
+        long estimate = estimate(content);
+        if (estimate <= budget)
+        {
+            synchronized (this)
+            {
+                if (generation != startGeneration)
+                { // an element may have changed after the supplier read it
+                    return content;
+                }
+                String previous = entries.put(key, content);
+                if (previous != null)
+                {
+                    size -= estimate(previous);
+                }
+                size += estimate;
+                Iterator<String> iterator = entries.values().iterator();
+                while (size > budget)
+                {
+                    size -= estimate(iterator.next());
+                    iterator.remove();
+                    evictionCount++;
+                }
+            }
+        }
+        return content;
+    }
+    
+    /* Remove cached content of one element */
+    private synchronized void remove(VParent element)
+    {
+        generation++;
+        String content = entries.remove(new Key(element));
+        if (content != null)
+        {
+            size -= estimate(content);
+        }
+    }
+    
+    private static long estimate(String content)
+    {
+        return ENTRY_OVERHEAD + 2L * content.length();
+    }
+    
+    /**
+     * Returns the cache attached to the element or to the nearest ancestor that has one, null if there isn't one
+     */
+    public static ContentCache find(VElement element)
+    {
+        VElement e = element;
+        while (e != null)
+        {
+            if (e instanceof VParentBase)
+            {
+                ContentCache cache = ((VParentBase<?>) e).getContentCache();
+                if (cache != null)
+                {
+                    return cache;
+                }
+            }
+            e = (e instanceof VChild) ? ((VChild) e).getParent() : null;
+        }
+        return null;
+    }
+    
+    /**
+     * Discards cached content of the element and all its ancestors.  Called automatically when children
+     * are changed through the {@link Orderer} and when values are set.
+     * 
+     * @param element  changed calendar element
+     */
+    public static void invalidate(VElement element)
+    {
+        ContentCache cache = find(element);
+        if (cache == null)
+        {
+            return;
+        }
+        VElement e = element;
+        while (e != null)
+        {
+            if (e instanceof VParent)
+            {
+                cache.remove((VParent) e);
+            }
+            e = (e instanceof VChild) ? ((VChild) e).getParent() : null;
+        }
+    }
+    
+    /**
+     * Discards cached content of a child removed from its parent, and of the components it contains.  Called
+     * automatically when children are removed or replaced through the {@link Orderer}.
+     * 
+     * @param parent  parent the child was removed from
+     * @param child  removed child
+     */
+    public static void childRemoved(VParent parent, VChild child)
+    {
+        if (! (child instanceof VParent))
+        {
+            return;
+        }
+        ContentCache cache = find(parent);
+        if (cache != null)
+        {
+            cache.removeSubtree((VParent) child);
+        }
+    }
+    
+    /* Remove cached content of the element and the components in its subtree, only components are cached */
+    private void removeSubtree(VParent element)
+    {
+        remove(element);
+        for (VChild child : element.childrenUnmodifiable())
+        {
+            if (child instanceof VComponent)
+            {
+                removeSubtree((VComponent) child);
+            }
+        }
+    }
+    
+    @Override
+    public synchronized String toString()
+    {
+        return "ContentCache [budget=" + budget + ", size=" + size + ", entries=" + entries.size() +
+                ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "]";
+    }
+    
+    /* Identity key, element equals and hashCode compare whole subtrees */
+    private static final class Key
+    {
+        private final VParent element;
+        
+        Key(VParent element)
+        {
+            this.element = element;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(element);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return (obj instanceof Key) && ((Key) obj).element == element;
+        }
+    }
+}
@@ -26,6 +26,8 @@
  */
 package jfxtras.icalendarfx.content;
 
+import java.io.IOException;
+
 import jfxtras.icalendarfx.VElement;
 
 /** Interface for delegated content line generators */
@@ -33,4 +35,10 @@ public interface ContentLineStrategy
 {
     /** Produce output for {@link VElement#toString()} */
     String execute();
+    
+    /** Write output of {@link VElement#toString()} to a sink, see {@link VElement#write(Appendable)} */
+    default void write(Appendable out) throws IOException
+    {
+        out.append(execute());
+    }
 }
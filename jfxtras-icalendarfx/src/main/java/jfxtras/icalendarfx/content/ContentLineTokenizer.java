@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.content;
+
+import java.util.ArrayDeque;
+
+import jfxtras.icalendarfx.utilities.ICalendarUtilities;
+
+/**
+ * Cursor-style tokenizer that splits a content line into its parameters and value without copying.
+ * 
+ * Each call to {@link #next()} moves to the next parameter, or to the property value, and exposes
+ * the name and value as spans (start and end offsets) of the line.  Strings are only made
+ * when {@link #name()} or {@link #value()} is called.  A tokenizer can be reused by calling
+ * {@link #reset(CharSequence)}, or borrowed from the calling thread's tokenizers with {@link #acquire(CharSequence)}
+ * and returned with {@link #release()}.
+ * 
+ * For example, for the content line DTEND;TZID=Etc/GMT:20160306T103000Z the tokens are
+ * TZID=Etc/GMT and the value 20160306T103000Z.  The property name can be omitted, as in
+ * ;TZID=Etc/GMT:20160306T103000Z, and a line without delimiters is a value only.
+ * RRULE values, such as FREQ=DAILY;COUNT=3, are tokenized as parameters.
+ * 
+ * @see ICalendarUtilities#parseInlineElementsToListPair(String)
+ */
+public class ContentLineTokenizer
+{
+    /* Released tokenizers of each thread.  More than one is in use while in-line elements, such as an RRULE value,
+     * are parsed from a token of their property's line. */
+    private static final ThreadLocal<ArrayDeque<ContentLineTokenizer>> RELEASED = ThreadLocal.withInitial(ArrayDeque::new);
+    
+    private CharSequence line;
+    private int length;
+    
+    // start of next token, end of current token
+    private int start;
+    private int end;
+    // delimiter before the next token, ':' for value or ';' for parameter
+    private char delimiter;
+    private boolean quoteOn;
+    private boolean isOnlyNullValue;
+    
+    private int nameStart;
+    private int nameEnd;
+    private int valueStart;
+    private int valueEnd;
+
+    /*
+     * CONSTRUCTORS
+     */
+    public ContentLineTokenizer() { }
+
+    public ContentLineTokenizer(CharSequence line)
+    {
+        reset(line);
+    }
+    
+    /**
+     * Return a tokenizer of the calling thread for the line, made only when all the thread's tokenizers are in use.
+     * Call {@link #release()} when done with it.
+     * 
+     * @param line  unfolded content line
+     * @return  tokenizer reset to the start of the line
+     */
+    public static ContentLineTokenizer acquire(CharSequence line)
+    {
+        ContentLineTokenizer tokenizer = RELEASED.get().poll();
+        return (tokenizer == null) ? new ContentLineTokenizer(line) : tokenizer.reset(line);
+    }
+    
+    /** Return a tokenizer from {@link #acquire(CharSequence)} to the calling thread.  It must not be used afterwards. */
+    public void release()
+    {
+        line = null;
+        RELEASED.get().push(this);
+    }
+    
+    /**
+     * Start tokenizing a new line
+     * 
+     * @param line  unfolded content line
+     * @return  this tokenizer
+     */
+    public ContentLineTokenizer reset(CharSequence line)
+    {
+        this.line = line;
+        length = line.length();
+        quoteOn = false;
+        isOnlyNullValue = false;
+        nameStart = nameEnd = valueStart = valueEnd = -1;
+        
+        // find start of parameters (go past property name)
+        int parameterStart;
+        for (parameterStart = 0; parameterStart < length; parameterStart++)
+        {
+            char c = line.charAt(parameterStart);
+            if ((c == ';') || (c == ':'))
+            {
+                break;
+            } else if (c == '=') // line doesn't contain the property name, start searching for parameters at beginning
+            {
+                parameterStart = -1;
+                break;
+            }
+        }
+        
+        if (parameterStart == length)
+        { // contains no property name, only value
+            start = 0;
+            delimiter = ':';
+        } else if (parameterStart == length-1)
+        { // contains only property name, has no value
+            isOnlyNullValue = true;
+            start = length;
+        } else if (parameterStart < 0)
+        { // doesn't contain the property name, but has parameters
+            start = 0;
+            delimiter = ';';
+        } else
+        { // contains a property name and parameters and/or value, or starts with a ';' or ':'
+            delimiter = line.charAt(parameterStart);
+            start = parameterStart + 1;
+        }
+        end = start;
+        return this;
+    }
+    
+    /**
+     * Move to the next parameter or value
+     * 
+     * @return  true if there is a token, false if the end of the line has been reached
+     * @throws IllegalArgumentException  if the line has an invalid parameter
+     */
+    public boolean next()
+    {
+        if (isOnlyNullValue)
+        { // empty value
+            isOnlyNullValue = false;
+            nameStart = nameEnd = valueStart = valueEnd = -1;
+            delimiter = ':';
+            return true;
+        }
+        if (end >= length)
+        {
+            return false;
+        }
+        if (delimiter == ':')
+        { // found property value.  It continues to end of the line.
+            nameStart = nameEnd = -1;
+            valueStart = start;
+            valueEnd = end = length;
+        } else if (delimiter == ';')
+        { // found parameter/value pair.
+            int equalsPosition = indexOf('=', start);
+            int nextSemicolonPosition = indexOf(';', start);
+            if ((nextSemicolonPosition > 0) && (nextSemicolonPosition < equalsPosition))
+            { // parameter has no value
+                nameStart = start;
+                nameEnd = end = nextSemicolonPosition;
+                valueStart = valueEnd = -1;
+            } else
+            {
+                if (equalsPosition < 0)
+                {
+                    throw new IllegalArgumentException("Invalid property line:" + line);
+                }
+                nameStart = start;
+                nameEnd = equalsPosition;
+                for (end = equalsPosition+1; end < length; end++)
+                {
+                    char c = line.charAt(end);
+                    if (c == '\"')
+                    {
+                        quoteOn = ! quoteOn;
+                    }
+                    if ((! quoteOn) && ((c == ';') || (c == ':'))) // can't end while quote is on
+                    {
+                        break;
+                    }
+                }
+                valueStart = equalsPosition+1;
+                valueEnd = end;
+            }
+        } else
+        {
+            throw new IllegalArgumentException("Invalid property line:" + line);
+        }
+        
+        // set up next token
+        if (end < length)
+        {
+            start = end+1;
+            delimiter = line.charAt(end);
+        }
+        return true;
+    }
+    
+    private int indexOf(char c, int fromIndex)
+    {
+        for (int i = fromIndex; i < length; i++)
+        {
+            if (line.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    /** Return the line being tokenized */
+    public CharSequence line() { return line; }
+    
+    /** Return true if the current token is the property value, false if it's a parameter */
+    public boolean isValue() { return nameStart < 0; }
+    
+    /** Return start offset of the current parameter name, -1 for the property value */
+    public int nameStart() { return nameStart; }
+    
+    /** Return end offset (exclusive) of the current parameter name, -1 for the property value */
+    public int nameEnd() { return nameEnd; }
+    
+    /** Return start offset of the current value, -1 if the token has no value */
+    public int valueStart() { return valueStart; }
+    
+    /** Return end offset (exclusive) of the current value, -1 if the token has no value */
+    public int valueEnd() { return valueEnd; }
+    
+    /** Return true if the current parameter name equals the upper case name, ignoring case */
+    public boolean nameEquals(String upperCaseName)
+    {
+        if (isValue() || (nameEnd - nameStart != upperCaseName.length())) return false;
+        for (int i = 0; i < upperCaseName.length(); i++)
+        {
+            char c = line.charAt(nameStart + i);
+            if (c != upperCaseName.charAt(i) && Character.toUpperCase(c) != upperCaseName.charAt(i)) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Return the upper case name of the current parameter, or {@link ICalendarUtilities#PROPERTY_VALUE_KEY}
+     * for the property value.  Parsers find standard names from the offsets instead, without making a String.
+     */
+    public String name()
+    {
+        if (isValue()) return ICalendarUtilities.PROPERTY_VALUE_KEY;
+        return line.subSequence(nameStart, nameEnd).toString().toUpperCase();
+    }
+
+    /** Return the value of the current token, or null if it has no value */
+    public String value()
+    {
+        return (valueStart < 0) ? null : line.subSequence(valueStart, valueEnd).toString();
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "ContentLineTokenizer [line=" + line + ", name=" + ((nameStart < 0) ? null : line.subSequence(nameStart, nameEnd))
+                + ", value=" + ((valueStart < 0) ? null : line.subSequence(valueStart, valueEnd)) + "]";
+    }
+}
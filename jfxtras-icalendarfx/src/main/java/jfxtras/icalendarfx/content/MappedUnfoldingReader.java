@@ -0,0 +1,328 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.content;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads unfolded content lines from a memory-mapped file.
+ * 
+ * The file is mapped in windows, so files larger than 2GB can be read, and the bytes are decoded in bulk
+ * into a reusable char buffer, so the heap use doesn't grow with the file size.  Lines are unfolded according to RFC 5545 inside the buffer: a line starting
+ * with a space or tab continues the previous line.  Lines end with CRLF, CR or LF, like {@link java.io.BufferedReader#readLine()}.
+ * Each logical line is made into a String once, without a String for each physical line.  A line can also be read
+ * without making a String with {@link #nextSequence()}, and {@link #lineOffset()} returns where it starts.
+ * 
+ * Produces the same lines as {@link UnfoldingStringIterator} wrapping the lines of a {@link java.io.BufferedReader}.
+ * Decoding and read errors are thrown as {@link UncheckedIOException}.
+ * 
+ * @see UnfoldingStringIterator
+ */
+public class MappedUnfoldingReader implements Iterator<String>, Closeable
+{
+    /** Default number of bytes mapped at a time */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+    private static final int CHAR_BUFFER_SIZE = 1 << 16;
+    
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private final CharsetDecoder decoder;
+    private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+    // bytes are copied in bulk from the window so the decoder can use its faster array-based loop
+    private final ByteBuffer bytes = ByteBuffer.allocate(CHAR_BUFFER_SIZE);
+    
+    private MappedByteBuffer window;
+    private long windowStart;
+    private boolean isFlushed;
+    
+    // offset of the first char in the char buffer, counted from the start of the file
+    private long bufferOffset;
+    
+    // logical line being unfolded
+    private char[] line = new char[200];
+    private int lineLength;
+    private long lineOffset;
+    private final CharSequence lineSequence = new LineSequence();
+    
+    /*
+     * CONSTRUCTORS
+     */
+    /**
+     * Open file for reading
+     * 
+     * @param path  file to read
+     * @param charset  charset of file, usually UTF-8
+     * @throws IOException  if the file can't be opened or mapped
+     */
+    public MappedUnfoldingReader(Path path, Charset charset) throws IOException
+    {
+        this(path, charset, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Open file for reading
+     * 
+     * @param path  file to read
+     * @param charset  charset of file, usually UTF-8
+     * @param windowSize  number of bytes mapped at a time
+     * @throws IOException  if the file can't be opened or mapped
+     */
+    public MappedUnfoldingReader(Path path, Charset charset, int windowSize) throws IOException
+    {
+        if (windowSize < 16)
+        {
+            throw new IllegalArgumentException("Window size must be at least 16 bytes:" + windowSize);
+        }
+        this.windowSize = windowSize;
+        decoder = charset.newDecoder();
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try
+        {
+            size = channel.size();
+            map(0);
+        } catch (IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+        chars.flip(); // empty, ready for reading
+        bytes.flip();
+    }
+    
+    private void map(long start) throws IOException
+    {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+    }
+    
+    @Override
+    public boolean hasNext()
+    {
+        return peek() != -1;
+    }
+
+    @Override
+    public String next()
+    {
+        unfoldNext();
+        return new String(line, 0, lineLength);
+    }
+    
+    /**
+     * Return the next unfolded line without making a String.  The sequence is reused, its characters
+     * are only valid until the next line is read.
+     * 
+     * @return  next unfolded line
+     */
+    public CharSequence nextSequence()
+    {
+        unfoldNext();
+        return lineSequence;
+    }
+    
+    /** Return the offset, in chars from the start of the file, of the start of the line read last */
+    public long lineOffset()
+    {
+        return lineOffset;
+    }
+    
+    private void unfoldNext()
+    {
+        if (! hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+        lineOffset = bufferOffset + chars.position();
+        lineLength = 0;
+        readPhysicalLine();
+        while (true)
+        {
+            int c = peek();
+            if ((c == ' ') || (c == '\t'))
+            { // continuation line
+                chars.position(chars.position() + 1);
+                readPhysicalLine();
+            } else if ((c == '\r') || (c == '\n'))
+            { // empty lines between folded lines are skipped
+                readPhysicalLine();
+            } else
+            {
+                break;
+            }
+        }
+    }
+    
+    /* Append characters up to the end of line to the logical line, consume the line terminator */
+    private void readPhysicalLine()
+    {
+        while (chars.hasRemaining() || fill())
+        {
+            char[] array = chars.array();
+            int start = chars.position();
+            int limit = chars.limit();
+            int i = start;
+            while ((i < limit) && (array[i] != '\n') && (array[i] != '\r'))
+            {
+                i++;
+            }
+            append(array, start, i - start);
+            if (i < limit)
+            {
+                chars.position(i + 1);
+                if ((array[i] == '\r') && (peek() == '\n'))
+                {
+                    chars.position(chars.position() + 1);
+                }
+                return;
+            }
+            chars.position(limit);
+        }
+    }
+    
+    private void append(char[] array, int start, int length)
+    {
+        if (lineLength + length > line.length)
+        {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(array, start, line, lineLength, length);
+        lineLength += length;
+    }
+    
+    /* Return next character without consuming it, or -1 at end of file */
+    private int peek()
+    {
+        if (! chars.hasRemaining() && ! fill())
+        {
+            return -1;
+        }
+        return chars.get(chars.position());
+    }
+    
+    /* Decode more bytes into the empty char buffer */
+    private boolean fill()
+    {
+        bufferOffset += chars.limit();
+        chars.clear();
+        try
+        {
+            while ((chars.position() == 0) && ! isFlushed)
+            {
+                boolean isEndOfInput = ! window.hasRemaining() && (windowStart + window.limit() >= size);
+                CoderResult result = decoder.decode(bytes, chars, isEndOfInput);
+                if (result.isError())
+                {
+                    result.throwException();
+                }
+                if (result.isUnderflow())
+                {
+                    if (isEndOfInput)
+                    {
+                        decoder.flush(chars);
+                        isFlushed = true;
+                    } else
+                    {
+                        readBytes();
+                    }
+                }
+            }
+        } catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+    
+    /* Copy bytes from the window, mapping the next window when needed.  Undecoded bytes are kept. */
+    private void readBytes() throws IOException
+    {
+        if (! window.hasRemaining())
+        {
+            map(windowStart + window.limit());
+        }
+        bytes.compact();
+        int length = Math.min(bytes.remaining(), window.remaining());
+        window.get(bytes.array(), bytes.position(), length);
+        bytes.position(bytes.position() + length);
+        bytes.flip();
+    }
+    
+    /* View of the logical line */
+    private class LineSequence implements CharSequence
+    {
+        @Override
+        public int length()
+        {
+            return lineLength;
+        }
+        
+        @Override
+        public char charAt(int index)
+        {
+            if (index >= lineLength)
+            {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + lineLength);
+            }
+            return line[index];
+        }
+        
+        @Override
+        public CharSequence subSequence(int start, int end)
+        {
+            return toString().substring(start, end);
+        }
+        
+        @Override
+        public String toString()
+        {
+            return new String(line, 0, lineLength);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException
+    {
+        window = null;
+        channel.close();
+    }
+}
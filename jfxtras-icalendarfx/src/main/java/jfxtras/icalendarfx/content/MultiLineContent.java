@@ -26,8 +26,11 @@
  */
 package jfxtras.icalendarfx.content;
 
+import java.io.IOException;
 import java.util.stream.Collectors;
 
+import jfxtras.icalendarfx.VChild;
+
 public class MultiLineContent extends ContentLineBase
 {
     final private String firstContentLine;
@@ -61,4 +64,16 @@ public class MultiLineContent extends ContentLineBase
         builder.append(lastContentLine);
         return builder.toString();
     }
+    
+    @Override
+    public void write(Appendable out) throws IOException
+    {
+        out.append(firstContentLine).append(System.lineSeparator());
+        for (VChild child : orderer.childrenUnmodifiable())
+        {
+            child.write(out);
+            out.append(System.lineSeparator());
+        }
+        out.append(lastContentLine);
+    }
 }
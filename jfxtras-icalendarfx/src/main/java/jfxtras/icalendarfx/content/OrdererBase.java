@@ -26,7 +26,6 @@
  */
 package jfxtras.icalendarfx.content;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -39,6 +38,7 @@ import java.util.stream.Collectors;
 import jfxtras.icalendarfx.VCalendar;
 import jfxtras.icalendarfx.VChild;
 import jfxtras.icalendarfx.VParent;
+import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.components.VComponentBase;
 import jfxtras.icalendarfx.properties.VPropertyBase;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
@@ -59,7 +59,7 @@ import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleV
 public class OrdererBase implements Orderer
 {
 	final private VParent parent;
-    final private Map<Class<? extends VChild>, Method> childGetters;
+    final private Map<Class<? extends VChild>, ChildAccessor> childAccessors;
     
     private List<VChild> orderedChildren = new ArrayList<>();
 
@@ -67,10 +67,21 @@ public class OrdererBase implements Orderer
      * CONSTRUCTOR
      */
     /** Create an {@link OrdererBase} for the {@link VParent} parameter */
-    public OrdererBase(VParent aParent, Map<Class<? extends VChild>, Method> map)
+    public OrdererBase(VParent aParent)
     {
         this.parent = aParent;
-        this.childGetters = map;
+        this.childAccessors = ChildAccessor.accessors(aParent.getClass());
+    }
+    
+    /**
+     * Create an {@link OrdererBase} for the {@link VParent} parameter
+     * 
+     * @deprecated  the getters are found from the parent's class, use {@link #OrdererBase(VParent)}
+     */
+    @Deprecated
+    public OrdererBase(VParent aParent, Map<Class<? extends VChild>, Method> map)
+    {
+        this(aParent);
     }
 
 	@Override
@@ -79,20 +90,13 @@ public class OrdererBase implements Orderer
 		return orderedChildren;
 	}
 	
-    private List<VChild> allUnorderedChildren(VParent parent, Map<Class<? extends VChild>, Method> childGetters2)
+    private List<VChild> allUnorderedChildren(VParent parent, Map<Class<? extends VChild>, ChildAccessor> childAccessors2)
     {
-    	return Collections.unmodifiableList(childGetters2
-			.entrySet()
+    	return Collections.unmodifiableList(childAccessors2
+			.values()
     		.stream()
-    		.map(e -> e.getValue())
-    		.map(m -> {
-				try {
-					return m.invoke(parent);
-				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-					e.printStackTrace();
-				}
-				return null;
-			})
+    		.filter(a -> a.getterMethod() != null)
+    		.map(a -> a.get(parent))
     		.filter(p -> p != null)
     		.flatMap(p -> 
     		{
@@ -114,6 +118,7 @@ public class OrdererBase implements Orderer
 		if (newChild == parent) throw new RuntimeException("Can't add you to yourself!");
 		orderedChildren.add(newChild);
 		newChild.setParent(parent);
+		VParentBase.elementChanged(parent);
 	}
 	
 	/* Remove orphans matching newChild's class type
@@ -122,7 +127,7 @@ public class OrdererBase implements Orderer
 	 *  */
 	private void removeOrphans(VChild newChild)
 	{
-		List<VChild> allUnorderedChildren = allUnorderedChildren(parent, childGetters);
+		List<VChild> allUnorderedChildren = allUnorderedChildren(parent, childAccessors);
 		List<VChild> orphans = orderedChildren
 				.stream()
 				.filter(c -> c.getClass().equals(newChild.getClass()))
@@ -136,9 +141,14 @@ public class OrdererBase implements Orderer
 	{
 		if (newChild != null)
 		{
-			orderedChildren.remove(newChild);
+			int oldIndex = indexOf(newChild);
+			if (oldIndex >= 0)
+			{
+				orderedChildren.remove(oldIndex);
+			}
 			orderedChildren.add(index, newChild);
 			newChild.setParent(parent);
+			VParentBase.elementChanged(parent);
 		}
 	}
 	
@@ -149,20 +159,45 @@ public class OrdererBase implements Orderer
 		{
 			if (oldChild != null)
 			{
-				return orderedChildren.remove(oldChild);
+				int index = indexOf(oldChild);
+				boolean isRemoved = index >= 0;
+				if (isRemoved)
+				{
+					orderedChildren.remove(index);
+				}
+				ContentCache.childRemoved(parent, oldChild);
+				VParentBase.elementChanged(parent);
+				return isRemoved;
 			}
+			VParentBase.elementChanged(parent);
 		} else if (oldChild == null)
 		{
 			orderChild(newChild);
 		} else
 		{
-			int index = orderedChildren.indexOf(oldChild);
+			int index = indexOf(oldChild);
 			VChild result = orderedChildren.set(index, newChild);
+			ContentCache.childRemoved(parent, oldChild);
+			newChild.setParent(parent);
+			VParentBase.elementChanged(parent);
 			return result.equals(oldChild);
 		}
 		return false;
 	}
 
+	/* Index of the child itself, otherwise of an equal child, so a child equal to another one isn't mistaken for it */
+	private int indexOf(VChild child)
+	{
+		for (int i=0; i<orderedChildren.size(); i++)
+		{
+			if (orderedChildren.get(i) == child)
+			{
+				return i;
+			}
+		}
+		return orderedChildren.indexOf(child);
+	}
+
     @Override
 	public String toString()
     {
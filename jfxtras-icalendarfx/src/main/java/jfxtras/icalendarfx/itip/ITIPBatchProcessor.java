@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.itip;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.VChild;
+import jfxtras.icalendarfx.components.VDisplayable;
+import jfxtras.icalendarfx.itip.ITIPMessageResult.Status;
+import jfxtras.icalendarfx.properties.calendar.Method.MethodType;
+
+/**
+ * Applies a batch of iTIP messages to a calendar, for gateways that receive many messages for one shared calendar.
+ * 
+ * <ul>
+ * <li>Message text is split into VCALENDAR objects that are parsed in parallel.
+ * <li>Messages are grouped by the UIDs of their components.  A message with components of several UIDs joins
+ * the groups of all of them into one group, so no two groups share a UID.  The groups hold different calendar
+ * components, so the order of the groups doesn't change the result.
+ * <li>A PUBLISH or REQUEST message is skipped when the next message with any of its UIDs has the same method,
+ * UIDs and RECURRENCE-IDs and a higher SEQUENCE, because that message replaces it.  A message is never skipped
+ * when another message for one of its UIDs lies in between, such as a CANCEL or a message for one recurrence.
+ * <li>The remaining messages are applied group by group, in their original order within a group, by the
+ * processes of the calendar's {@link AbstractITIPFactory}.  All groups are applied while holding the calendar's
+ * monitor, so batches of processors for the same calendar don't interleave.  Other code that changes the
+ * calendar at the same time must synchronize on the calendar too.
+ * </ul>
+ * 
+ * The result has one {@link ITIPMessageResult} for each message, in the original order.  A message that
+ * fails doesn't stop the others.
+ */
+public class ITIPBatchProcessor
+{
+    private final VCalendar mainVCalendar;
+    
+    public ITIPBatchProcessor(VCalendar mainVCalendar)
+    {
+        this.mainVCalendar = mainVCalendar;
+    }
+    
+    /**
+     * Process iTIP messages.  The content can contain many VCALENDAR objects.
+     * 
+     * @param iTIPMessages  iCalendar content with iTIP messages
+     * @return  result of each message
+     */
+    public List<ITIPMessageResult> process(String iTIPMessages)
+    {
+        List<String> contents = split(iTIPMessages);
+        List<Message> messages = IntStream.range(0, contents.size())
+                .parallel()
+                .mapToObj(i -> Message.parse(i, contents.get(i)))
+                .collect(Collectors.toList());
+        return apply(messages);
+    }
+    
+    /**
+     * Process parsed iTIP messages
+     * 
+     * @param iTIPMessages  iTIP messages with {@link jfxtras.icalendarfx.properties.calendar.Method METHOD} populated
+     * @return  result of each message
+     */
+    public List<ITIPMessageResult> process(List<VCalendar> iTIPMessages)
+    {
+        List<Message> messages = new ArrayList<>(iTIPMessages.size());
+        for (int i=0; i<iTIPMessages.size(); i++)
+        {
+            messages.add(new Message(i, iTIPMessages.get(i)));
+        }
+        return apply(messages);
+    }
+    
+    /* Split content at BEGIN:VCALENDAR lines */
+    static List<String> split(String iTIPMessages)
+    {
+        List<String> contents = new ArrayList<>();
+        StringBuilder builder = new StringBuilder(1000);
+        for (String line : iTIPMessages.split("\r?\n"))
+        {
+            if (line.equals("BEGIN:VCALENDAR") && (builder.length() > 0))
+            {
+                contents.add(builder.toString());
+                builder = new StringBuilder(1000);
+            }
+            builder.append(line).append(System.lineSeparator());
+        }
+        if (builder.toString().trim().length() > 0)
+        {
+            contents.add(builder.toString());
+        }
+        return contents;
+    }
+    
+    private List<ITIPMessageResult> apply(List<Message> messages)
+    {
+        // group by UID, joining the groups of messages with several UIDs
+        List<Message> validMessages = messages.stream()
+                .filter(m -> m.error == null)
+                .collect(Collectors.toList());
+        int[] roots = new int[validMessages.size()];
+        Map<String, Integer> firstByUID = new HashMap<>();
+        for (int i=0; i<validMessages.size(); i++)
+        {
+            roots[i] = i;
+            for (String uid : validMessages.get(i).uniqueIdentifiers)
+            {
+                Integer first = firstByUID.putIfAbsent(uid, i);
+                if (first != null)
+                {
+                    roots[root(roots, i)] = root(roots, first);
+                }
+            }
+        }
+        Map<Integer, List<Message>> groups = new LinkedHashMap<>();
+        for (int i=0; i<validMessages.size(); i++)
+        {
+            groups.computeIfAbsent(root(roots, i), k -> new ArrayList<>()).add(validMessages.get(i));
+        }
+        
+        groups.values().forEach(g -> collapse(g));
+        synchronized (mainVCalendar)
+        {
+            for (List<Message> group : groups.values())
+            {
+                for (Message message : group)
+                {
+                    if (message.superseding == null)
+                    {
+                        message.apply(mainVCalendar);
+                    }
+                }
+            }
+        }
+        return messages.stream()
+                .map(m -> m.toResult())
+                .collect(Collectors.toList());
+    }
+    
+    /* Root of a union-find tree, compressing the path on the way */
+    private static int root(int[] roots, int i)
+    {
+        while (roots[i] != i)
+        {
+            roots[i] = roots[roots[i]];
+            i = roots[i];
+        }
+        return i;
+    }
+    
+    /* Mark PUBLISH and REQUEST messages replaced by the next message with any of their UIDs,
+     * if it has the same method, UIDs and RECURRENCE-IDs and a higher SEQUENCE */
+    private static void collapse(List<Message> group)
+    {
+        Map<String, Message> nextByUID = new HashMap<>();
+        for (int i=group.size()-1; i>=0; i--)
+        {
+            Message message = group.get(i);
+            Message next = null;
+            for (String uid : message.uniqueIdentifiers)
+            {
+                Message nextForUID = nextByUID.put(uid, message);
+                if ((nextForUID != null) && ((next == null) || (nextForUID.index < next.index)))
+                {
+                    next = nextForUID;
+                }
+            }
+            boolean isReplaceable = (message.method == MethodType.PUBLISH) || (message.method == MethodType.REQUEST);
+            if (isReplaceable && (next != null)
+                    && (next.method == message.method)
+                    && next.uniqueIdentifiers.equals(message.uniqueIdentifiers)
+                    && next.recurrenceIds.equals(message.recurrenceIds)
+                    && (next.minSequence > message.maxSequence))
+            {
+                message.superseding = (next.superseding == null) ? next : next.superseding;
+            }
+        }
+    }
+    
+    /* A message of the batch and its result */
+    private static class Message
+    {
+        final int index;
+        final VCalendar vCalendar;
+        final MethodType method;
+        final String uniqueIdentifier;
+        final Set<String> uniqueIdentifiers = new HashSet<>();
+        final List<Temporal> recurrenceIds = new ArrayList<>();
+        int minSequence = Integer.MAX_VALUE;
+        int maxSequence = Integer.MIN_VALUE;
+        Message superseding;
+        List<String> log;
+        RuntimeException error;
+        Status status;
+        
+        Message(int index, VCalendar vCalendar)
+        {
+            this.index = index;
+            this.vCalendar = vCalendar;
+            method = (vCalendar.getMethod() == null) ? MethodType.PUBLISH : vCalendar.getMethod().getValue();
+            String uid = null;
+            boolean isSingleUID = true;
+            for (VChild child : vCalendar.childrenUnmodifiable())
+            {
+                if (child instanceof VDisplayable)
+                {
+                    VDisplayable<?> component = (VDisplayable<?>) child;
+                    String componentUID = (component.getUniqueIdentifier() == null) ? null : component.getUniqueIdentifier().getValue();
+                    isSingleUID = isSingleUID && (componentUID != null) && ((uid == null) || uid.equals(componentUID));
+                    uid = componentUID;
+                    if (componentUID != null)
+                    {
+                        uniqueIdentifiers.add(componentUID);
+                    }
+                    recurrenceIds.add((component.getRecurrenceId() == null) ? null : component.getRecurrenceId().getValue());
+                    int sequence = (component.getSequence() == null) ? 0 : component.getSequence().getValue();
+                    minSequence = Math.min(minSequence, sequence);
+                    maxSequence = Math.max(maxSequence, sequence);
+                }
+            }
+            uniqueIdentifier = (isSingleUID) ? uid : null;
+        }
+        
+        private Message(int index, RuntimeException error)
+        {
+            this.index = index;
+            vCalendar = null;
+            method = null;
+            uniqueIdentifier = null;
+            this.error = error;
+            status = Status.FAILED;
+        }
+        
+        static Message parse(int index, String content)
+        {
+            try
+            {
+                return new Message(index, VCalendar.parse(content));
+            } catch (RuntimeException e)
+            {
+                return new Message(index, e);
+            }
+        }
+        
+        void apply(VCalendar mainVCalendar)
+        {
+            try
+            {
+                Processable process = mainVCalendar.getITIPFactory().getITIPMessageProcess(method);
+                log = process.process(mainVCalendar, vCalendar);
+                status = Status.PROCESSED;
+            } catch (RuntimeException e)
+            {
+                error = e;
+                status = Status.FAILED;
+            }
+        }
+        
+        ITIPMessageResult toResult()
+        {
+            Status resultStatus = (superseding != null) ? Status.SUPERSEDED : Objects.requireNonNull(status);
+            int supersedingIndex = (superseding == null) ? -1 : superseding.index;
+            return new ITIPMessageResult(index, vCalendar, method, uniqueIdentifier, resultStatus, log, error, supersedingIndex);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.itip;
+
+import java.util.Collections;
+import java.util.List;
+
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.properties.calendar.Method.MethodType;
+
+/**
+ * Result of one iTIP message of a batch processed by {@link ITIPBatchProcessor}
+ */
+public final class ITIPMessageResult
+{
+    /** Outcome of an iTIP message */
+    public enum Status
+    {
+        /** The message was applied to the calendar */
+        PROCESSED,
+        /** The message was skipped because a later message in the batch replaces it, see {@link ITIPMessageResult#getSupersedingIndex()} */
+        SUPERSEDED,
+        /** The message couldn't be parsed or applied, see {@link ITIPMessageResult#getError()} */
+        FAILED
+    }
+    
+    private final int index;
+    private final VCalendar message;
+    private final MethodType method;
+    private final String uniqueIdentifier;
+    private final Status status;
+    private final List<String> log;
+    private final RuntimeException error;
+    private final int supersedingIndex;
+    
+    public ITIPMessageResult(int index, VCalendar message, MethodType method, String uniqueIdentifier, Status status,
+            List<String> log, RuntimeException error, int supersedingIndex)
+    {
+        this.index = index;
+        this.message = message;
+        this.method = method;
+        this.uniqueIdentifier = uniqueIdentifier;
+        this.status = status;
+        this.log = (log == null) ? Collections.emptyList() : Collections.unmodifiableList(log);
+        this.error = error;
+        this.supersedingIndex = supersedingIndex;
+    }
+    
+    /** Position of the message in the batch, starting at 0 */
+    public int getIndex() { return index; }
+    /** Parsed message, null if it couldn't be parsed */
+    public VCalendar getMessage() { return message; }
+    /** iTIP method of the message, PUBLISH if the message has no METHOD, null if it couldn't be parsed */
+    public MethodType getMethod() { return method; }
+    /** UID of the message's components, null if they have none or more than one */
+    public String getUniqueIdentifier() { return uniqueIdentifier; }
+    /** Outcome of the message */
+    public Status getStatus() { return status; }
+    /** Log of the method process, empty unless the message was processed */
+    public List<String> getLog() { return log; }
+    /** Exception thrown by parsing or processing the message, null unless the message failed */
+    public RuntimeException getError() { return error; }
+    /** Index of the message that replaces a superseded message, -1 if the message isn't superseded */
+    public int getSupersedingIndex() { return supersedingIndex; }
+
+    @Override
+    public String toString()
+    {
+        return "ITIPMessageResult [index=" + index + ", method=" + method + ", UID=" + uniqueIdentifier + ", status=" + status
+                + ((error == null) ? "" : ", error=" + error.getMessage())
+                + ((supersedingIndex < 0) ? "" : ", supersededBy=" + supersedingIndex) + "]";
+    }
+}
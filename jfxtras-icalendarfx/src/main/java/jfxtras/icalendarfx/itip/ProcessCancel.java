@@ -32,9 +32,9 @@ import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.components.VComponent;
 import jfxtras.icalendarfx.components.VDisplayable;
 import jfxtras.icalendarfx.parameters.Range.RangeType;
@@ -172,11 +172,7 @@ public class ProcessCancel implements Processable
                 VDisplayable<?> vDisplayable = ((VDisplayable<?>) c);
                 int newSequence = (vDisplayable.getSequence() == null) ? 0 : vDisplayable.getSequence().getValue();
                 UniqueIdentifier uid = vDisplayable.getUniqueIdentifier();
-                List<VDisplayable<?>> relatedVComponents = mainVCalendar.getVComponents(vDisplayable)
-                		.stream()
-                		.map(v -> (VDisplayable<?>) v)
-                		.filter(v -> v.getUniqueIdentifier().equals(uid))
-                		.collect(Collectors.toList());
+                List<VDisplayable<?>> relatedVComponents = mainVCalendar.getVComponents(vDisplayable, (uid == null) ? null : uid.getValue());
                 RecurrenceId recurrenceID = vDisplayable.getRecurrenceId();
 
                 if (! relatedVComponents.isEmpty())
@@ -204,8 +200,7 @@ public class ProcessCancel implements Processable
                             int oldSequence = (matchingVComponent.getSequence() == null) ? 0 : matchingVComponent.getSequence().getValue();
                             if (newSequence >= oldSequence)
                             {
-                                List<? extends VComponent> myVComponents = vDisplayable.calendarList();
-                                myVComponents.remove(matchingVComponent);
+                                mainVCalendar.removeChild(matchingVComponent);
                                 log.add("SUCCESS: canceled " + c.getClass().getSimpleName() + " with UID:" + vDisplayable.getUniqueIdentifier().getValue());
                             } else
                             {
@@ -245,6 +240,7 @@ public class ProcessCancel implements Processable
                                         } else
                                         {
                                             parentVComponent.getExceptionDates().get(0).getValue().add(recurrenceID.getValue());
+                                            VParentBase.elementChanged(parentVComponent.getExceptionDates().get(0));
                                             log.add("SUCCESS: canceled " + recurrenceID.getValue() + " for "+ parentVComponent.getClass().getSimpleName() + " with UID:" + vDisplayable.getUniqueIdentifier().getValue());
 //                                            parentVComponent.getExceptionDates().add(new ExceptionDates(recurrenceID.getValue()));
                                         }
@@ -268,7 +264,7 @@ public class ProcessCancel implements Processable
                                         List<VDisplayable<?>> orphanedChildren = parentVComponent.orphanedRecurrenceChildren();
                                         if (! orphanedChildren.isEmpty())
                                         {
-                                        	mainVCalendar.getVComponents(vDisplayable).removeAll(orphanedChildren);
+                                        	orphanedChildren.forEach(o -> mainVCalendar.removeChild(o));
                                         }                                        
                                     } else
                                     {
@@ -30,7 +30,6 @@ import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import jfxtras.icalendarfx.VCalendar;
 import jfxtras.icalendarfx.components.VComponent;
@@ -158,12 +157,7 @@ public class ProcessPublish implements Processable
                 	relatedVComponents = null;
                 } else
                 {
-	                relatedVComponents = mainVCalendar.getVComponents(vDisplayable)
-	                	.stream()
-	                	.filter(v -> v instanceof VDisplayable)
-	            		.map(v -> (VDisplayable<?>) v)
-	            		.filter(v -> v.getUniqueIdentifier().equals(uid))
-	            		.collect(Collectors.toList());
+	                relatedVComponents = mainVCalendar.getVComponents(vDisplayable, (uid == null) ? null : uid.getValue());
                 }
                 final Temporal recurrenceID = (vDisplayable.getRecurrenceId() != null) ? vDisplayable.getRecurrenceId().getValue() : null;
 
@@ -205,7 +199,7 @@ public class ProcessPublish implements Processable
                 List<VDisplayable<?>> orphanedChildren = vDisplayable.orphanedRecurrenceChildren();
                 if (! orphanedChildren.isEmpty())
                 {
-                    vDisplayable.calendarList().removeAll(orphanedChildren);
+                    orphanedChildren.forEach(o -> mainVCalendar.removeChild(o));
                 }
             } else if (c instanceof VTimeZone)
             {
@@ -82,6 +82,18 @@ public class NonStandardParameter extends VParameterBase<NonStandardParameter, S
     	return Collections.EMPTY_LIST;
     }
     
+    @Override
+    protected List<Message> parseContent(String name, String value)
+    {
+    	if (value == null)
+    	{
+    		return super.parseContent(name, value);
+    	}
+    	this.name = name;
+    	setValue(value);
+    	return Collections.EMPTY_LIST;
+    }
+    
 	@Override
     public List<String> errors()
     {
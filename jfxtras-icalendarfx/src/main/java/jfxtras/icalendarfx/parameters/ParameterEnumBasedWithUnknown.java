@@ -64,12 +64,11 @@ public abstract class ParameterEnumBasedWithUnknown<U,T> extends VParameterBase<
     }
     
     @Override
-    protected List<Message> parseContent(String content)
+    protected List<Message> parseValue(String valueString)
     {
-        super.parseContent(content);
+        super.parseValue(valueString);
         if (getValue().toString().equals("UNKNOWN"))
         {
-            String valueString = VParameterBase.extractValue(content);
             nonStandardValue = valueString;
         }
         return Collections.EMPTY_LIST;
@@ -30,7 +30,9 @@ import java.time.ZoneId;
 
 import jfxtras.icalendarfx.parameters.TimeZoneIdentifierParameter;
 import jfxtras.icalendarfx.parameters.VParameterBase;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.StringConverter;
+import jfxtras.icalendarfx.utilities.ZoneRulesResolver;
 
 /**
  * TZID
@@ -53,13 +55,13 @@ public class TimeZoneIdentifierParameter extends VParameterBase<TimeZoneIdentifi
         @Override
         public String toString(ZoneId object)
         {
-            return object.toString();
+            return ZoneRulesResolver.identifierOf(object);
         }
 
         @Override
         public ZoneId fromString(String string)
         {
-            return ZoneId.of(string);
+            return DateTimeUtilities.zoneIdOf(string);
         }
     };
     
@@ -32,9 +32,11 @@ import java.util.List;
 
 import jfxtras.icalendarfx.VElementBase;
 import jfxtras.icalendarfx.VParent;
+import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.parameters.VParameter;
 import jfxtras.icalendarfx.parameters.VParameterBase;
 import jfxtras.icalendarfx.parameters.VParameterElement;
+import jfxtras.icalendarfx.utilities.InterningPool;
 import jfxtras.icalendarfx.utilities.StringConverter;
 
 /**
@@ -67,6 +69,7 @@ abstract public class VParameterBase<U,T> extends VElementBase implements VParam
     public void setValue(T value)
     {
         this.value = value;
+        VParentBase.elementChanged(this);
     }
     public void setValue(CharSequence value)
     {
@@ -93,8 +96,19 @@ abstract public class VParameterBase<U,T> extends VElementBase implements VParam
     @Override
     protected List<Message> parseContent(String content)
     {
-        String valueString = extractValue(content);
-        T value = getConverter().fromString(valueString);
+        return parseValue(extractValue(content));
+    }
+    
+    @Override
+    protected List<Message> parseContent(String name, String value)
+    {
+        return (value == null) ? super.parseContent(name, value) : parseValue(value);
+    }
+    
+    /** Parse the value of the parameter, without its name */
+    protected List<Message> parseValue(String valueString)
+    {
+        T value = InterningPool.internCurrent(getConverter().fromString(valueString));
         setValue(value);
         return Collections.EMPTY_LIST;
     }
@@ -143,10 +157,13 @@ abstract public class VParameterBase<U,T> extends VElementBase implements VParam
     @Override // Note: can't check hashCode of parents - causes stack overflow
     public int hashCode()
     {
-        int hash = super.hashCode();
-        final int prime = 31;
-        hash = prime * hash + getValue().hashCode();
-        return hash;
+        return computeHashCode();
+    }
+    
+    @Override
+    protected void addToFingerprint(Fingerprint fingerprint)
+    {
+        fingerprint.addValue(getValue());
     }
     
     /*
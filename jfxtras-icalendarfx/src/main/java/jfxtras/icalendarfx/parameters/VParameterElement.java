@@ -64,8 +64,10 @@ import jfxtras.icalendarfx.parameters.Range.RangeType;
 import jfxtras.icalendarfx.parameters.Relationship.RelationshipType;
 import jfxtras.icalendarfx.properties.VProperty;
 import jfxtras.icalendarfx.properties.ValueType;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.StringConverter;
 import jfxtras.icalendarfx.utilities.StringConverters;
+import jfxtras.icalendarfx.utilities.ZoneRulesResolver;
 
 /**
  * For each VComponent property parameter (RFC 5545, 3.2, page 13) contains the following: <br>
@@ -339,13 +341,13 @@ public enum VParameterElement
                 @Override
                 public String toString(T object)
                 {
-                    return ((ZoneId) object).toString();
+                    return ZoneRulesResolver.identifierOf((ZoneId) object);
                 }
 
                 @Override
                 public T fromString(String string)
                 {
-                    return (T) ZoneId.of(string);
+                    return (T) DateTimeUtilities.zoneIdOf(string);
                 }
             };
         }
@@ -26,6 +26,7 @@
  */
 package jfxtras.icalendarfx.properties;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.time.DateTimeException;
 import java.util.ArrayList;
@@ -37,6 +38,7 @@ import java.util.stream.Collectors;
 import jfxtras.icalendarfx.VElement;
 import jfxtras.icalendarfx.VParent;
 import jfxtras.icalendarfx.VParentBase;
+import jfxtras.icalendarfx.content.ContentLineTokenizer;
 import jfxtras.icalendarfx.content.SingleLineContent;
 import jfxtras.icalendarfx.parameters.NonStandardParameter;
 import jfxtras.icalendarfx.parameters.VParameter;
@@ -47,6 +49,7 @@ import jfxtras.icalendarfx.properties.calendar.Version;
 import jfxtras.icalendarfx.properties.component.misc.NonStandardProperty;
 import jfxtras.icalendarfx.properties.component.relationship.UniqueIdentifier;
 import jfxtras.icalendarfx.utilities.ICalendarUtilities;
+import jfxtras.icalendarfx.utilities.InterningPool;
 import jfxtras.icalendarfx.utilities.StringConverter;
 
 /**
@@ -96,6 +99,7 @@ public abstract class VPropertyBase<T,U> extends VParentBase<U> implements VProp
     public void setValue(T value)
     {
         this.value = value;
+        VParentBase.elementChanged(this);
     }
     public U withValue(T value)
     {
@@ -454,10 +458,17 @@ public abstract class VPropertyBase<T,U> extends VParentBase<U> implements VProp
         {
             ((NonStandardProperty) this).setPropertyName(propertyName);
         }
-    	ICalendarUtilities.parseInlineElementsToListPair(unfoldedContent)
-	        .stream()
-//	        .peek(System.out::println)
-	        .forEach(entry -> processInLineChild(messages, entry.getKey(), entry.getValue(), VParameter.class));
+    	ContentLineTokenizer tokenizer = ContentLineTokenizer.acquire(unfoldedContent);
+    	try
+    	{
+	    	while (tokenizer.next())
+	    	{
+	    		processInLineChild(messages, tokenizer, VParameter.class);
+	    	}
+    	} finally
+    	{
+    		tokenizer.release();
+    	}
 
     	return messages;
     }
@@ -474,8 +485,8 @@ public abstract class VPropertyBase<T,U> extends VParentBase<U> implements VProp
     		if (content != null)
     		{
 	            try {
-	            	actualValueContent = content;
-	            	T value = getConverter().fromString(modifiedValue());
+	            	actualValueContent = InterningPool.internCurrent(content);
+	            	T value = InterningPool.internCurrent(getConverter().fromString(modifiedValue()));
 	                if (value == null)
 	                {
 	                    setUnknownValue(content);
@@ -552,6 +563,14 @@ public abstract class VPropertyBase<T,U> extends VParentBase<U> implements VProp
         return ICalendarUtilities.foldLine(builder).toString();
     }
     
+    @Override
+    public void write(Appendable out) throws IOException
+    {
+        StringBuilder builder = new StringBuilder(super.toString());
+        builder.append(':').append(valueContent());
+        ICalendarUtilities.foldLine(builder, out);
+    }
+    
     @Override // Note: can't check equality of parents - causes stack overflow
     public boolean equals(Object obj)
     {
@@ -564,16 +583,11 @@ public abstract class VPropertyBase<T,U> extends VParentBase<U> implements VProp
         return nameEquals;
     }
 
-    @Override // Note: can't check hashCode of parents - causes stack overflow
-    public int hashCode()
-    {
-        int hash = super.hashCode();
-        final int prime = 31;
-        hash = prime * hash + ((converter == null) ? 0 : converter.hashCode());
-        hash = prime * hash + ((propertyName == null) ? 0 : propertyName.hashCode());
-        hash = prime * hash + ((actualValueContent == null) ? 0 : actualValueContent.hashCode());
-        hash = prime * hash + ((unknownValue == null) ? 0 : unknownValue.hashCode());
-        hash = prime * hash + ((value == null) ? 0 : value.hashCode());
-        return hash;
+    @Override // parameters, name and value, like equals
+    protected void addToFingerprint(Fingerprint fingerprint)
+    {
+        super.addToFingerprint(fingerprint);
+        fingerprint.addValue(name());
+        fingerprint.addValue(getValue());
     }
 }
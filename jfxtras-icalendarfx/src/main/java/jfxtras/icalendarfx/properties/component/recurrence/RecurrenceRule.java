@@ -69,6 +69,22 @@ public class RecurrenceRule extends VPropertyBase<RecurrenceRuleValue, Recurrenc
         super(source);
     }
 
+    /**
+     * Sets the value and makes this property the value's parent, so changes to the rule's parts are reported to
+     * the property and its component (see {@link jfxtras.icalendarfx.VParentBase#elementChanged(jfxtras.icalendarfx.VElement)}).
+     * The value's previous parent is replaced; a value shared by two properties reports changes only to the one
+     * it was set on last.
+     */
+    @Override
+    public void setValue(RecurrenceRuleValue value)
+    {
+        super.setValue(value);
+        if (value != null)
+        {
+            value.setParent(this);
+        }
+    }
+
     @Override
     protected RecurrenceRuleValue copyValue(RecurrenceRuleValue source)
     {
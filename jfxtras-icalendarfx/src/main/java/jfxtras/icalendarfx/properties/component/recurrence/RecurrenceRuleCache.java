@@ -27,41 +27,104 @@
 package jfxtras.icalendarfx.properties.component.recurrence;
 
 import java.time.temporal.Temporal;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
+import jfxtras.icalendarfx.VElementBase;
 import jfxtras.icalendarfx.components.VRepeatable;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 
 /**
- * Handles caching an array of Temporal date/time values to speed up producing a stream
+ * Handles caching Temporal date/time values to speed up producing a stream
  * of recurrence instances for a recurrence rule (RRULE).
  * RFC 5545 3.8.5.2, page 121
  * The recurrence set is the complete set of recurrence instances for a calendar component.
  * 
+ * While recurrences are streamed every nth value (see {@link #setDensity(int)}) is saved.  A later stream
+ * can start at the closest saved value instead of DTSTART.  Rules that can go directly to a date/time
+ * (see {@link RecurrenceRuleValue#isSeekable(Temporal)}) don't need, and don't use, the cache.
+ * 
+ * Saved values belong to one version of the component, its {@link VElementBase#modificationCount()}.  When the
+ * component changes they are replaced by new ones, so streams of the old version can't add to them.
+ * 
+ * All caches share a process-wide budget (see {@link #setBudget(long)}).  When the budget is exceeded the values
+ * of the least recently used caches are discarded.  The caches can be used by several threads at once, streaming
+ * only synchronizes on the saved values of its own component.
+ * 
  * @author David Bal
  *
  */
 public class RecurrenceRuleCache
 {
-    // Variables for start date or date/time cache used as starting Temporal for stream
-    private static final int CACHE_RANGE = 51; // number of values in cache
-    private static final int CACHE_SKIP = 21; // store every nth value in the cache
-    private int skipCounter = 0; // counter that increments up to CACHE_SKIP, indicates time to record a value, then resets to 0
-    public Temporal[] temporalCache; // the start date or date/time cache
-    private Temporal dateTimeStartLast; // last dateTimeStart, when changes indicates clearing the cache is necessary
-    private RecurrenceRuleValue rRuleLast; // last rRule, when changes indicates clearing the cache is necessary
-    public int cacheStart = 0; // start index where cache values are stored (starts in middle)
-    public int cacheEnd = 0; // end index where cache values are stored
-    private VRepeatable<?> component; // the VComponent
+    /** Default number of recurrences between saved values */
+    public static final int DEFAULT_DENSITY = 21;
+    /** Estimated heap bytes of one saved date/time value */
+    private static final int VALUE_BYTES = 100;
+    
+    /* Caches with saved values, values only so unused components can be collected */
+    private static final Set<Values> CACHES = ConcurrentHashMap.newKeySet();
+    /* Only one thread evicts at a time, streaming threads don't wait for it */
+    private static final ReentrantLock EVICTION_LOCK = new ReentrantLock();
+    private static final AtomicLong CLOCK = new AtomicLong();
+    private static final AtomicLong SIZE = new AtomicLong();
+    private static final LongAdder HIT_COUNT = new LongAdder();
+    private static final LongAdder MISS_COUNT = new LongAdder();
+    private static final LongAdder EVICTION_COUNT = new LongAdder();
+    private static volatile long budget = 4L * 1024 * 1024;
+
+    private final VRepeatable<?> component; // the VComponent
+    private final AtomicReference<Values> values = new AtomicReference<>(); // saved recurrences, null until first use
+    private volatile int density = DEFAULT_DENSITY;
     
     public RecurrenceRuleCache(VRepeatable<?> component)
     {
         this.component = component;
     }
 
+    /** Number of recurrences between saved values */
+    public int getDensity() { return density; }
+    /**
+     * Sets the number of recurrences between saved values.  Lower values make starting a stream faster but
+     * use more of the budget.  Default is {@link #DEFAULT_DENSITY}.
+     */
+    public void setDensity(int density)
+    {
+        if (density < 1)
+        {
+            throw new IllegalArgumentException("Density must be at least 1: " + density);
+        }
+        this.density = density;
+    }
+    
+    /** Number of saved recurrence values */
+    public int valueCount()
+    {
+        Values v = current();
+        return (v == null) ? 0 : v.count;
+    }
+    
+    /** Discard saved recurrence values */
+    public void clear()
+    {
+        Values v = values.getAndSet(null);
+        if (v != null)
+        {
+            v.discard();
+        }
+    }
+
     /**
      * finds previous value in recurrence set before input parameter value
      * 
@@ -70,25 +133,17 @@ public class RecurrenceRuleCache
      */
     public Temporal previousValue(Temporal value)
     {
-        final Temporal start; 
-        if (cacheEnd == 0)
+        Temporal start = component.getDateTimeStart().getValue();
+        Values v = current();
+        if (v != null)
         {
-            start = component.getDateTimeStart().getValue();
-        } else
-        { // try to get start from cache
-            Temporal m  = null;
-            for (int i=cacheEnd; i>cacheStart; i--)
+            Temporal m = v.set.lower(value);
+            if (m != null)
             {
-                if (DateTimeUtilities.isBefore(temporalCache[i], value))
-                {
-                    m = temporalCache[i];
-                    break;
-                }
+                start = m;
             }
-            start = (m != null) ? m : component.getDateTimeStart().getValue();
         }
         Iterator<Temporal> i = component.streamRecurrences(start).iterator();
-//        Iterator<Temporal> i = streamNoCache(start).iterator();
         Temporal lastT = null;
         while (i.hasNext())
         {
@@ -110,156 +165,232 @@ public class RecurrenceRuleCache
      */
     public Temporal getClosestStart(Temporal targetStart)
     {
-        final Temporal match;
-        final Temporal dateTimeStart;
-        final RecurrenceRuleValue recurrenceRule;
-        
-        dateTimeStart = component.getDateTimeStart().getValue();
-        
-        recurrenceRule = (component.getRecurrenceRule() != null) ? component.getRecurrenceRule().getValue() : null;
-
-        // adjust start to ensure its not before dateTimeStart
-        final Temporal start2 = (DateTimeUtilities.isBefore(targetStart, dateTimeStart)) ? dateTimeStart : targetStart;
-        final Temporal latestCacheValue;
-
-        
-        if (recurrenceRule == null)
+        if (component.getRecurrenceRule() == null)
         { // if individual event
             return null;
         }
-
-        // check if cache needs to be cleared (changes to RRULE or DTSTART)
-        if ((dateTimeStartLast != null) && (rRuleLast != null))
+        Temporal dateTimeStart = component.getDateTimeStart().getValue();
+        if (! DateTimeUtilities.isAfter(targetStart, dateTimeStart))
         {
-            boolean startChanged = ! dateTimeStart.equals(dateTimeStartLast);
-            boolean rRuleChanged = ! recurrenceRule.equals(rRuleLast);
-            if (startChanged || rRuleChanged)
-            {
-                temporalCache = null;
-                cacheStart = 0;
-                cacheEnd = 0;
-                skipCounter = 0;
-                dateTimeStartLast = dateTimeStart;
-                rRuleLast = recurrenceRule;
-            }
-        } else
-        { // save current DTSTART and RRULE for next time
-            dateTimeStartLast = dateTimeStart;
-            rRuleLast = recurrenceRule;
+            return dateTimeStart;
         }
-        
-        // use cache if available to find matching start date or date/time
-        if (temporalCache != null)
+        Values v = current();
+        Temporal match = (v == null) ? null : v.set.floor(targetStart);
+        if (match != null)
+        {
+            HIT_COUNT.increment();
+            v.lastUsed = CLOCK.incrementAndGet();
+            return match;
+        }
+        MISS_COUNT.increment();
+        return dateTimeStart;
+    }
+    
+    /** add to cache while streaming recurrences */
+    public Stream<Temporal> makeCache(Stream<Temporal> inStream)
+    {
+        if ((component.getRecurrenceRule() == null) ||
+                component.getRecurrenceRule().getValue().isSeekable(component.getDateTimeStart().getValue()))
+        {
+            return inStream;
+        }
+        Temporal dateTimeStart = component.getDateTimeStart().getValue();
+        int version = version();
+        int[] counter = { 0 }; // recurrences since the last saved value or the start of the stream
+        return inStream.peek(t ->
         {
-            // Reorder cache to maintain centered and sorted
-            final int len = temporalCache.length;
-            final Temporal[] p1;
-            final Temporal[] p2;
-            if (cacheEnd < cacheStart) // high values have wrapped from end to beginning
+            if (t.equals(dateTimeStart))
             {
-                p1 = Arrays.copyOfRange(temporalCache, cacheStart, len);
-                p2 = Arrays.copyOfRange(temporalCache, 0, Math.min(cacheEnd+1,len));
-            } else if (cacheEnd > cacheStart) // low values have wrapped from beginning to end
+                counter[0] = 0;
+                return;
+            }
+            Values v = values.get();
+            if ((v != null) && v.isFor(version, dateTimeStart) && v.set.contains(t))
             {
-                p2 = Arrays.copyOfRange(temporalCache, cacheStart, len);
-                p1 = Arrays.copyOfRange(temporalCache, 0, Math.min(cacheEnd+1,len));
-            } else
+                counter[0] = 0;
+            } else if (++counter[0] >= density)
             {
-                p1 = null;
-                p2 = null;
+                save(t, version, dateTimeStart);
+                counter[0] = 0;
+            }
+        });
+    }
+    
+    /* Version of the component the saved values must belong to */
+    private int version()
+    {
+        return (component instanceof VElementBase) ? ((VElementBase) component).modificationCount() : 0;
+    }
+    
+    /* Saved values for the current version of the component, null if there are none or they were evicted */
+    private Values current()
+    {
+        Values v = values.get();
+        if ((v == null) || ! v.isFor(version(), component.getDateTimeStart().getValue()))
+        {
+            return null;
+        }
+        return v;
+    }
+    
+    /* Saves a recurrence of the given version of the component unless the component changed since */
+    private void save(Temporal t, int version, Temporal dateTimeStart)
+    {
+        Values v = values.get();
+        while ((v == null) || ! v.isFor(version, dateTimeStart))
+        {
+            if ((version != version()) || ! dateTimeStart.equals(component.getDateTimeStart().getValue()))
+            { // DTSTART or RRULE changed while streaming
+                return;
             }
-            if (p1 != null)
-            { // copy elements to accommodate wrap and restore sort order
-                int p1Index = 0;
-                int p2Index = 0;
-                for (int i=0; i<len; i++)
+            Values newValues = new Values(version, dateTimeStart);
+            CACHES.add(newValues);
+            if (values.compareAndSet(v, newValues))
+            {
+                if (v != null)
                 {
-                    if (p1Index < p1.length)
-                    {
-                        temporalCache[i] = p1[p1Index];
-                        p1Index++;
-                    } else if (p2Index < p2.length)
-                    {
-                        temporalCache[i] = p2[p2Index];
-                        p2Index++;
-                    } else
-                    {
-                        cacheEnd = i;
-                        break;
-                    }
+                    v.discard();
                 }
+                v = newValues;
+            } else
+            {
+                CACHES.remove(newValues);
+                v = values.get();
             }
-
-            // Find match in cache
-            latestCacheValue = temporalCache[cacheEnd];
-            if ((! DateTimeUtilities.isBefore(start2, temporalCache[cacheStart])))
+        }
+        if (v.add(t))
+        {
+            evict(false);
+        }
+    }
+    
+    /* Discard least recently used values until within budget.  Returns at once if another thread is evicting
+     * unless wait is true. */
+    private static void evict(boolean wait)
+    {
+        if (SIZE.get() <= budget)
+        {
+            return;
+        }
+        if (wait)
+        {
+            EVICTION_LOCK.lock();
+        } else if (! EVICTION_LOCK.tryLock())
+        {
+            return;
+        }
+        try
+        {
+            List<Values> leastRecentlyUsed = new ArrayList<>(CACHES);
+            leastRecentlyUsed.sort(Comparator.comparingLong(v -> v.lastUsed));
+            Iterator<Values> iterator = leastRecentlyUsed.iterator();
+            while ((SIZE.get() > budget) && iterator.hasNext())
             {
-                Temporal m = latestCacheValue;
-                for (int i=cacheStart; i<cacheEnd+1; i++)
+                if (iterator.next().discard())
                 {
-                    if (DateTimeUtilities.isAfter(temporalCache[i], start2))
-                    {
-                        m = temporalCache[i-1];
-                        break;
-                    }
+                    EVICTION_COUNT.increment();
                 }
-                match = m;
-            } else
-            { // all cached values too late - start over
-                cacheStart = 0;
-                cacheEnd = 0;
-                temporalCache[cacheStart] = dateTimeStart;
-                match = dateTimeStart;
             }
-        } else
-        { // no previous cache.  initialize new array with dateTimeStart as first value.
-            temporalCache = new Temporal[CACHE_RANGE];
-            temporalCache[cacheStart] = dateTimeStart;
-            match = dateTimeStart;
+        } finally
+        {
+            EVICTION_LOCK.unlock();
         }
-        return match;
     }
     
+    /** Maximum estimated size of all saved recurrence values in bytes */
+    public static long getBudget()
+    {
+        return budget;
+    }
     
-    /** add to cache while streaming recurrences */
-    public Stream<Temporal> makeCache(Stream<Temporal> inStream)
+    /**
+     * Sets the maximum estimated size of all saved recurrence values in bytes.  Default is 4 MB.
+     * Least recently used values are discarded when the new budget is smaller than the current size.
+     */
+    public static void setBudget(long budget)
+    {
+        if (budget < 0)
+        {
+            throw new IllegalArgumentException("Budget must not be negative: " + budget);
+        }
+        RecurrenceRuleCache.budget = budget;
+        evict(true);
+    }
+    
+    /** Estimated size of all saved recurrence values in bytes */
+    public static long size()
     {
-        Temporal earliestCacheValue = temporalCache[cacheStart];
-        Temporal latestCacheValue = temporalCache[cacheEnd];
-//        System.out.println("makeCache:" + earliestCacheValue + " " + latestCacheValue + " " + component.getRecurrences());
-        Stream<Temporal> outStream = inStream
-                .peek(t ->
-                { // save new values in cache
-                    if (component.getRecurrenceRule() != null)
-                    {
-                        if (DateTimeUtilities.isBefore(t, earliestCacheValue))
-                        {
-                            if (skipCounter == CACHE_SKIP)
-                            {
-                                cacheStart--;
-                                if (cacheStart < 0) cacheStart = CACHE_RANGE - 1;
-                                if (cacheStart == cacheEnd) cacheEnd--; // just overwrote oldest value - push cacheEnd down
-                                temporalCache[cacheStart] = t;
-                                skipCounter = 0;
-                            } else skipCounter++;
-                        }
-                        if (DateTimeUtilities.isAfter(t, latestCacheValue))
-                        {
-                            if (skipCounter == CACHE_SKIP)
-                            {
-                                cacheEnd++;
-                                if (cacheEnd == CACHE_RANGE) cacheEnd = 0;
-                                if (cacheStart == cacheEnd) cacheStart++; // just overwrote oldest value - push cacheStart up
-                                temporalCache[cacheEnd] = t;
-                                skipCounter = 0;
-                            } else skipCounter++;
-                        }
-                        // check if start or end needs to wrap
-                        if (cacheEnd < 0) cacheEnd = CACHE_RANGE - 1;
-                        if (cacheStart == CACHE_RANGE) cacheStart = 0;
-                    }
-                });
-        return outStream;
+        return SIZE.get();
+    }
+    
+    /** Number of times a saved value was found as a stream's starting point */
+    public static long hitCount()
+    {
+        return HIT_COUNT.sum();
+    }
+    
+    /** Number of times a stream after DTSTART had to start at DTSTART */
+    public static long missCount()
+    {
+        return MISS_COUNT.sum();
+    }
+    
+    /** Number of caches whose values were discarded to stay within the budget */
+    public static long evictionCount()
+    {
+        return EVICTION_COUNT.sum();
+    }
+
+    /* Saved values of one version of a component, identity equality so it can be a key.  Reading is lock free, adding
+     * and discarding synchronize on the instance so the shared size stays exact. */
+    private static final class Values
+    {
+        private final int version;
+        private final Temporal dateTimeStart;
+        private final NavigableSet<Temporal> set;
+        private volatile int count;
+        private volatile boolean isDiscarded;
+        private volatile long lastUsed = CLOCK.incrementAndGet();
+        
+        Values(int version, Temporal dateTimeStart)
+        {
+            this.version = version;
+            this.dateTimeStart = dateTimeStart;
+            set = new ConcurrentSkipListSet<>(DateTimeUtilities.getTemporalComparator(dateTimeStart));
+        }
+        
+        boolean isFor(int version, Temporal dateTimeStart)
+        {
+            return (this.version == version) && ! isDiscarded && this.dateTimeStart.equals(dateTimeStart);
+        }
+        
+        /* Returns true if the value was added */
+        synchronized boolean add(Temporal t)
+        {
+            if (isDiscarded || ! set.add(t))
+            {
+                return false;
+            }
+            count++;
+            SIZE.addAndGet(VALUE_BYTES);
+            lastUsed = CLOCK.incrementAndGet();
+            return true;
+        }
+        
+        /* Returns true if the values were discarded by this call */
+        synchronized boolean discard()
+        {
+            if (isDiscarded)
+            {
+                return false;
+            }
+            isDiscarded = true;
+            CACHES.remove(this);
+            SIZE.addAndGet(-(long) VALUE_BYTES * count);
+            set.clear();
+            count = 0;
+            return true;
+        }
     }
 
 //    /** Stream of date/times that indicate the start of the event(s).
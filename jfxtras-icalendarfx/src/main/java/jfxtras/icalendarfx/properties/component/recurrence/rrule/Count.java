@@ -73,9 +73,8 @@ public class Count extends RRulePartBase<Integer, Count>
     }
 
     @Override
-    protected List<Message> parseContent(String content)
+    protected List<Message> parseValue(String valueString)
     {
-    	String valueString = extractValue(content);
         setValue(Integer.parseInt(valueString));
         return Collections.EMPTY_LIST;
     }
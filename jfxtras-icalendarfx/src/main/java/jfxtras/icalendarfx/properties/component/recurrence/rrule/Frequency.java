@@ -131,9 +131,8 @@ public class Frequency extends RRulePartBase<FrequencyType, Frequency>
     }
 
     @Override
-    protected List<Message> parseContent(String content)
+    protected List<Message> parseValue(String valueString)
     {
-    	String valueString = extractValue(content);
         setValue(FrequencyType.valueOf(valueString.toUpperCase()));
         return Collections.EMPTY_LIST;
     }
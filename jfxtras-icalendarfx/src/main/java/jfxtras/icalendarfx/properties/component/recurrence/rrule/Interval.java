@@ -67,9 +67,8 @@ public class Interval extends RRulePartBase<Integer, Interval>
     }
 
     @Override
-    protected List<Message> parseContent(String content)
+    protected List<Message> parseValue(String valueString)
     {
-    	String valueString = extractValue(content);
         setValue(Integer.parseInt(valueString));
         return Collections.EMPTY_LIST;
     }
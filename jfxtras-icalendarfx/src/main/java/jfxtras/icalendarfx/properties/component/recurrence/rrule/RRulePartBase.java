@@ -31,6 +31,7 @@ import java.util.List;
 
 import jfxtras.icalendarfx.VElementBase;
 import jfxtras.icalendarfx.VParent;
+import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRuleElement;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRulePart;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRulePartBase;
@@ -50,7 +51,11 @@ abstract public class RRulePartBase<T, U> extends VElementBase implements RRuleP
     public T getValue() { return value; }
     private T value;
     @Override
-    public void setValue(T value) { this.value = value; }
+    public void setValue(T value)
+    {
+        this.value = value;
+        VParentBase.elementChanged(this);
+    }
     public U withValue(T value)
     {
     	setValue(value);
@@ -97,6 +102,12 @@ abstract public class RRulePartBase<T, U> extends VElementBase implements RRuleP
         result = prime * result + ((getValue() == null) ? 0 : getValue().hashCode());
         return result;
     }
+    @Override
+    protected void addToFingerprint(Fingerprint fingerprint)
+    {
+        fingerprint.addValue(getValue());
+    }
+    
     @Override
     public boolean equals(Object obj)
     {
@@ -116,6 +127,21 @@ abstract public class RRulePartBase<T, U> extends VElementBase implements RRuleP
         return true;
     }
     
+    @Override
+    protected List<Message> parseContent(String content)
+    {
+        return parseValue(extractValue(content));
+    }
+    
+    @Override
+    protected List<Message> parseContent(String name, String value)
+    {
+        return (value == null) ? super.parseContent(name, value) : parseValue(value);
+    }
+    
+    /** Parse the value of the part, without its name */
+    protected abstract List<Message> parseValue(String valueString);
+    
 	/*
 	 * Get value from a name-value pair separated by an equal sign
 	 */
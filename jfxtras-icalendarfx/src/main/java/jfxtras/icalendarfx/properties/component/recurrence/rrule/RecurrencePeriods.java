@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.properties.component.recurrence.rrule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
+
+/**
+ * Computes the start of the nth frequency period of a recurrence rule directly, giving the same
+ * date/time as adding the interval n times the way {@link Frequency#streamRecurrences(Temporal, int)} does.
+ * 
+ * Repeated addition and a single addition only agree when no step changes the result in a way the
+ * next step carries forward.  That holds for:
+ * <ul>
+ * <li>time based frequencies, which are exact on the time-line
+ * <li>DAILY and WEEKLY frequencies
+ * <li>MONTHLY and YEARLY frequencies when DTSTART's day of month is 28 or less, so it is never moved
+ * to the end of a shorter month
+ * </ul>
+ * With a time zone, a step landing in a daylight saving gap moves the local time for all later steps,
+ * and a step landing in an overlap keeps the previous step's offset.  Those steps are found from the
+ * zone's transitions, so the cost grows with the number of transitions instead of the number of periods.
+ */
+final class RecurrencePeriods
+{
+    private RecurrencePeriods() { }
+    
+    /**
+     * Returns true if the period starts following dateTimeStart can be computed directly
+     */
+    static boolean isComputable(Temporal dateTimeStart, ChronoUnit unit)
+    {
+        boolean isTimeUnit = unit.isTimeBased();
+        if (dateTimeStart instanceof LocalDate)
+        {
+            if (isTimeUnit) return false;
+        } else if (! (dateTimeStart instanceof LocalDateTime) && ! (dateTimeStart instanceof ZonedDateTime))
+        {
+            return false;
+        }
+        switch (unit)
+        {
+        case MONTHS:
+        case YEARS:
+            return dateTimeStart.get(ChronoField.DAY_OF_MONTH) <= 28;
+        case DAYS:
+        case WEEKS:
+        case HOURS:
+        case MINUTES:
+        case SECONDS:
+            return true;
+        default:
+            return false;
+        }
+    }
+    
+    /**
+     * Returns the start of period index, where period 0 starts at dateTimeStart.
+     * Requires {@link #isComputable(Temporal, ChronoUnit)}.
+     */
+    static Temporal periodStart(Temporal dateTimeStart, ChronoUnit unit, int interval, long index)
+    {
+        if ((index == 0) || unit.isTimeBased() || ! (dateTimeStart instanceof ZonedDateTime))
+        {
+            return dateTimeStart.plus(index * interval, unit);
+        }
+        ZonedDateTime base = (ZonedDateTime) dateTimeStart;
+        long baseIndex = 0;
+        ZoneRules rules = base.getZone().getRules();
+        ZoneOffsetTransition transition = rules.nextTransition(base.toInstant());
+        while (transition != null)
+        {
+            LocalDateTime last = localStart(base, baseIndex, unit, interval, index);
+            LocalDateTime windowStart = transition.isGap() ? transition.getDateTimeBefore() : transition.getDateTimeAfter();
+            LocalDateTime windowEnd = transition.isGap() ? transition.getDateTimeAfter() : transition.getDateTimeBefore();
+            if (windowStart.isAfter(last))
+            {
+                break;
+            }
+            // first step at or after the start of the transition's local time window
+            long stepIndex = firstIndexNotBefore(base, baseIndex, unit, interval, windowStart);
+            LocalDateTime stepStart = localStart(base, baseIndex, unit, interval, stepIndex);
+            if ((stepIndex <= index) && stepStart.isBefore(windowEnd))
+            {
+                ZoneOffset previousOffset = (stepIndex - 1 == baseIndex) ? base.getOffset() :
+                    rules.getOffset(localStart(base, baseIndex, unit, interval, stepIndex - 1));
+                base = ZonedDateTime.ofLocal(stepStart, base.getZone(), previousOffset);
+                baseIndex = stepIndex;
+            }
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        if (baseIndex == index)
+        {
+            return base;
+        }
+        return ZonedDateTime.ofLocal(localStart(base, baseIndex, unit, interval, index), base.getZone(), base.getOffset());
+    }
+    
+    /**
+     * Returns the index of the last period starting at or before target, or 0 if target is before dateTimeStart.
+     * Requires {@link #isComputable(Temporal, ChronoUnit)}.
+     */
+    static long periodIndex(Temporal dateTimeStart, ChronoUnit unit, int interval, Temporal target)
+    {
+        if (! DateTimeUtilities.isAfter(target, dateTimeStart))
+        {
+            return 0;
+        }
+        Temporal convertedTarget = (dateTimeStart instanceof LocalDate) ? LocalDate.from(target) : target;
+        long index = Math.max(0, unit.between(dateTimeStart, convertedTarget) / interval);
+        while ((index > 0) && DateTimeUtilities.isAfter(periodStart(dateTimeStart, unit, interval, index), target))
+        {
+            index--;
+        }
+        while (! DateTimeUtilities.isAfter(periodStart(dateTimeStart, unit, interval, index+1), target))
+        {
+            index++;
+        }
+        return index;
+    }
+    
+    /* local date/time of period index when no transition affects the steps after baseIndex */
+    private static LocalDateTime localStart(ZonedDateTime base, long baseIndex, ChronoUnit unit, int interval, long index)
+    {
+        return base.toLocalDateTime().plus((index - baseIndex) * interval, unit);
+    }
+    
+    /* index of first step after baseIndex with a local date/time not before localDateTime */
+    private static long firstIndexNotBefore(ZonedDateTime base, long baseIndex, ChronoUnit unit, int interval, LocalDateTime localDateTime)
+    {
+        LocalDateTime baseLocal = base.toLocalDateTime();
+        long index = baseIndex + Math.max(1, unit.between(baseLocal, localDateTime) / interval);
+        while ((index > baseIndex + 1) && ! localStart(base, baseIndex, unit, interval, index - 1).isBefore(localDateTime))
+        {
+            index--;
+        }
+        while (localStart(base, baseIndex, unit, interval, index).isBefore(localDateTime))
+        {
+            index++;
+        }
+        return index;
+    }
+}
@@ -26,16 +26,19 @@
  */
 package jfxtras.icalendarfx.properties.component.recurrence.rrule;
 
-import java.lang.reflect.Method;
 import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
+import java.time.zone.ZoneOffsetTransition;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Spliterator;
@@ -49,6 +52,8 @@ import java.util.stream.StreamSupport;
 import jfxtras.icalendarfx.VChild;
 import jfxtras.icalendarfx.VParent;
 import jfxtras.icalendarfx.VParentBase;
+import jfxtras.icalendarfx.content.ChildAccessor;
+import jfxtras.icalendarfx.content.ContentLineTokenizer;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRule;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.Count;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.Frequency;
@@ -65,10 +70,10 @@ import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonth;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonthDay;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByRule;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByRuleAbstract;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByRuleStep;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.BySecond;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByYearDay;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
-import jfxtras.icalendarfx.utilities.ICalendarUtilities;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities.DateTimeType;
 
 /**
@@ -339,31 +344,21 @@ public class RecurrenceRuleValue extends VParentBase<RecurrenceRuleValue> implem
     
 
     /*
-     * Changes to getSetter and getGetter methods to provide mapping for any ByRule class
-     * to the getByRule getter.
+     * Changes to childAccessor method to provide mapping for any ByRule class
+     * to the getByRule getter and setter.
      * 
      * (non-Javadoc)
-     * @see net.balsoftware.icalendar.VParentBase#getSetter(net.balsoftware.icalendar.VChild)
+     * @see jfxtras.icalendarfx.VParentBase#childAccessor(jfxtras.icalendarfx.VChild)
      */
 	@Override
-	protected Method getSetter(VChild child)
+	protected ChildAccessor childAccessor(VChild child)
 	{
-		Method setter = getSetters().get(child.getClass());
-		if ((setter == null) && (ByRule.class.isAssignableFrom(child.getClass())))
+		ChildAccessor accessor = getChildAccessors().get(child.getClass());
+		if ((accessor == null) && (ByRule.class.isAssignableFrom(child.getClass())))
 		{
-			setter = getSetters().get(ByRule.class);
+			accessor = getChildAccessors().get(ByRule.class);
 		}
-		return setter;
-	}
-	@Override
-	protected Method getGetter(VChild child)
-	{
-		Method getter = getGetters().get(child.getClass());
-		if ((getter == null) && (ByRule.class.isAssignableFrom(child.getClass())))
-		{
-			getter = getGetters().get(ByRule.class);
-		}
-		return getter;
+		return accessor;
 	}
     
     /*
@@ -387,9 +382,17 @@ public class RecurrenceRuleValue extends VParentBase<RecurrenceRuleValue> implem
     protected List<Message> parseContent(String contentLine)
     {
     	List<Message> messages = new ArrayList<>();
-    	ICalendarUtilities.parseInlineElementsToListPair(contentLine)
-    		.stream()
-    		.forEach(entry -> processInLineChild(messages, entry.getKey(), entry.getValue(), RRulePart.class));
+    	ContentLineTokenizer tokenizer = ContentLineTokenizer.acquire(contentLine);
+    	try
+    	{
+	    	while (tokenizer.next())
+	    	{
+	    		processInLineChild(messages, tokenizer, RRulePart.class);
+	    	}
+    	} finally
+    	{
+    		tokenizer.release();
+    	}
         return messages;
     }
 
@@ -407,34 +410,140 @@ public class RecurrenceRuleValue extends VParentBase<RecurrenceRuleValue> implem
      */
     public Stream<Temporal> streamRecurrences(Temporal start)
     {
-        int interval = (getInterval() == null) ? Interval.DEFAULT_INTERVAL : getInterval().getValue();
-        Stream<Temporal> frequencyStream = getFrequency().streamRecurrences(start, interval);
-        
-        Stream<Temporal> recurrenceStream = frequencyStream
-                .flatMap(value ->
-                {
-                    // process byRules
-                    chronoUnit = getFrequency().getValue().getChronoUnit(); // initial chronoUnit from Frequency
-                    myStream = Arrays.asList(value).stream();
-                    if (getByRules() != null)
-                    {
-	                    getByRules().stream()
-	                            .sorted()
-	                            .forEach(rule ->
-	                            {
-	                                myStream = rule.streamRecurrences(myStream, chronoUnit, start);
-//	                                chronoUnit = RRuleElement.fromClass(rule.getClass()).getChronoUnit();
-	                                chronoUnit = ((ByRuleAbstract<?, ?>) rule).elementType.getChronoUnit();
-	                            });
-                    }
-                    // must filter out too early recurrences
-                    return myStream.filter(r -> ! DateTimeUtilities.isBefore(r, start));
-                });
-        
+        Stream<Temporal> recurrenceStream = streamPeriods(new RecurrenceIterator(start, start, start));
         if (getCount() != null)
         {
             return recurrenceStream.limit(getCount().getValue());
-        } else if (getUntil() != null)
+        }
+        return applyUntil(recurrenceStream, start);
+    }
+    
+    /**
+     * Returns true if {@link #seek(Temporal, Temporal)} and {@link #streamRecurrences(Temporal, Temporal)} can
+     * go directly to the frequency period containing a target date/time.  That requires the period starts to be
+     * computable without iterating the frequency, which is the case for time based, DAILY and WEEKLY
+     * frequencies and for MONTHLY and YEARLY frequencies when DTSTART's day of month is 28 or less.
+     * A COUNT can only be honored directly when there are no BYxxx rules, so each period has one recurrence.
+     * 
+     * @param dateTimeStart  DTSTART of the recurrence set
+     * @return  true if the recurrences after a date/time can be found without enumerating the earlier ones
+     */
+    public boolean isSeekable(Temporal dateTimeStart)
+    {
+        if ((getFrequency() == null) || ((getCount() != null) && (getByRules() != null) && ! getByRules().isEmpty()))
+        {
+            return false;
+        }
+        return RecurrencePeriods.isComputable(dateTimeStart, getFrequency().getValue().getChronoUnit());
+    }
+    
+    /**
+     * Returns the first recurrence at or after target for the recurrence set starting at dateTimeStart
+     * 
+     * @param dateTimeStart  DTSTART of the recurrence set
+     * @param target  date/time to seek
+     * @return  first recurrence not before target, or null if there is none
+     * @see #isSeekable(Temporal)
+     */
+    public Temporal seek(Temporal dateTimeStart, Temporal target)
+    {
+        return streamRecurrences(dateTimeStart, target).findFirst().orElse(null);
+    }
+    
+    /**
+     * Resulting stream of start date/times, anchored on dateTimeStart, that are not before target.
+     * 
+     * When the rule {@link #isSeekable(Temporal) is seekable} the stream starts with the frequency period
+     * before the one containing target, so the cost doesn't depend on how far target is from dateTimeStart.
+     * Otherwise the recurrences are enumerated from dateTimeStart.
+     * 
+     * @param dateTimeStart  DTSTART of the recurrence set
+     * @param target  earliest date/time in the stream
+     * @return  stream of recurrences not before target
+     */
+    public Stream<Temporal> streamRecurrences(Temporal dateTimeStart, Temporal target)
+    {
+        Temporal lowerBound = DateTimeUtilities.isBefore(target, dateTimeStart) ? dateTimeStart : target;
+        if (! isSeekable(dateTimeStart))
+        {
+            return streamRecurrences(dateTimeStart).filter(r -> ! DateTimeUtilities.isBefore(r, lowerBound));
+        }
+        ChronoUnit unit = getFrequency().getValue().getChronoUnit();
+        int interval = (getInterval() == null) ? Interval.DEFAULT_INTERVAL : getInterval().getValue();
+        long index = RecurrencePeriods.periodIndex(dateTimeStart, unit, interval, lowerBound);
+        if (getCount() != null)
+        { // one recurrence per period
+            Temporal periodStart = RecurrencePeriods.periodStart(dateTimeStart, unit, interval, index);
+            if (DateTimeUtilities.isBefore(periodStart, lowerBound))
+            {
+                index++;
+                periodStart = RecurrencePeriods.periodStart(dateTimeStart, unit, interval, index);
+            }
+            long remaining = Math.max(0, getCount().getValue() - index);
+            return streamPeriods(new RecurrenceIterator(dateTimeStart, periodStart, lowerBound)).limit(remaining);
+        }
+        // start early enough for the BYxxx expansions of earlier periods that can reach lowerBound
+        Temporal anchor = lowerBound.minus(1, expansionSpan(unit, dateTimeStart));
+        long anchorIndex = RecurrencePeriods.periodIndex(dateTimeStart, unit, interval, anchor);
+        Temporal periodStart = RecurrencePeriods.periodStart(dateTimeStart, unit, interval, anchorIndex);
+        return applyUntil(streamPeriods(new RecurrenceIterator(dateTimeStart, periodStart, lowerBound)), dateTimeStart);
+    }
+    
+    /* Largest span, containing a period start, the BYxxx rules can expand the period into */
+    private ChronoUnit expansionSpan(ChronoUnit frequencyUnit, Temporal dateTimeStart)
+    {
+        ChronoUnit span = frequencyUnit;
+        if (getByRules() == null)
+        {
+            return span;
+        }
+        ChronoUnit chronoUnit = frequencyUnit;
+        List<ByRule<?>> sortedByRules = getByRules().stream().sorted().collect(Collectors.toList());
+        for (ByRule<?> rule : sortedByRules)
+        {
+            ChronoUnit elementUnit = ((ByRuleAbstract<?, ?>) rule).elementType.getChronoUnit();
+            // BYSETPOS has no element unit, it only selects from the period's recurrences
+            if ((elementUnit != null) && (rule.compile(chronoUnit, dateTimeStart).filterSpan() == null))
+            { // setting a time field can't leave the next larger field
+                ChronoUnit ruleSpan = chronoUnit;
+                switch (elementUnit)
+                {
+                case SECONDS:
+                    ruleSpan = ChronoUnit.MINUTES;
+                    break;
+                case MINUTES:
+                    ruleSpan = ChronoUnit.HOURS;
+                    break;
+                case HOURS:
+                    ruleSpan = ChronoUnit.DAYS;
+                    break;
+                default:
+                    break;
+                }
+                if (ruleSpan.compareTo(chronoUnit) > 0)
+                {
+                    ruleSpan = chronoUnit;
+                }
+                if (ruleSpan.compareTo(span) > 0)
+                {
+                    span = ruleSpan;
+                }
+            }
+            chronoUnit = elementUnit;
+        }
+        return span;
+    }
+    
+    private static Stream<Temporal> streamPeriods(Iterator<Temporal> iterator)
+    {
+        Spliterator<Temporal> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+    
+    private Stream<Temporal> applyUntil(Stream<Temporal> recurrenceStream, Temporal start)
+    {
+        if (getUntil() != null)
         {
             ZoneId zone = (start instanceof ZonedDateTime) ? ((ZonedDateTime) start).getZone() : null;
             Temporal convertedUntil = DateTimeType.of(start).from(getUntil().getValue(), zone);
@@ -442,8 +551,142 @@ public class RecurrenceRuleValue extends VParentBase<RecurrenceRuleValue> implem
         }
         return recurrenceStream;
     }
-    private ChronoUnit chronoUnit; // must be field instead of local variable due to use in lambda expression
-    private Stream<Temporal> myStream; // must be field instead of local variable due to use in lambda expression
+    
+    /**
+     * Expands the rule one frequency period at a time.  The FREQ, INTERVAL and BYxxx rule parts are compiled
+     * into a plan of {@link ByRuleStep} the first time a recurrence is requested, so the rule is
+     * read once, the date/times of each period pass through two reused buffers, and each iterator has
+     * its own state, allowing several threads to expand the same rule.
+     * 
+     * When the rule parts before a failing filter are also filters, every date/time in the filter's
+     * span fails the same way, so for SECONDLY, MINUTELY and HOURLY rules the frequency skips ahead
+     * to the next span instead of testing each date/time in it.
+     */
+    private class RecurrenceIterator implements Iterator<Temporal>
+    {
+        private final Temporal dateTimeStart;
+        private final Temporal start; // earlier recurrences are dropped
+        private Temporal periodStart;
+        private long pendingPeriods; // periods to advance before the next expansion, done late like Stream.iterate
+        private ChronoUnit frequencyUnit;
+        private int interval;
+        private ByRuleStep[] steps;
+        private List<Temporal> buffer = new ArrayList<>();
+        private List<Temporal> spare = new ArrayList<>();
+        private int bufferIndex;
+        
+        RecurrenceIterator(Temporal dateTimeStart, Temporal periodStart, Temporal start)
+        {
+            this.dateTimeStart = dateTimeStart;
+            this.periodStart = periodStart;
+            this.start = start;
+        }
+        
+        /* compile plan, done lazily so exceptions for invalid rules occur when the recurrences are used */
+        private void compile()
+        {
+            interval = (getInterval() == null) ? Interval.DEFAULT_INTERVAL : getInterval().getValue();
+            frequencyUnit = getFrequency().getValue().getChronoUnit();
+            List<ByRule<?>> sortedByRules = (getByRules() == null) ? Collections.emptyList() :
+                getByRules().stream().sorted().collect(Collectors.toList());
+            steps = new ByRuleStep[sortedByRules.size()];
+            ChronoUnit chronoUnit = frequencyUnit; // initial chronoUnit from Frequency
+            for (int i=0; i<steps.length; i++)
+            {
+                ByRule<?> rule = sortedByRules.get(i);
+                steps[i] = rule.compile(chronoUnit, dateTimeStart);
+                chronoUnit = ((ByRuleAbstract<?, ?>) rule).elementType.getChronoUnit();
+            }
+        }
+        
+        @Override
+        public boolean hasNext()
+        {
+            return true; // always another period, COUNT and UNTIL are applied to the stream
+        }
+
+        @Override
+        public Temporal next()
+        {
+            if (steps == null)
+            {
+                compile();
+            }
+            while (bufferIndex == buffer.size())
+            {
+                expandPeriod();
+            }
+            return buffer.get(bufferIndex++);
+        }
+        
+        /* advance to the next period and fill buffer with its recurrences */
+        private void expandPeriod()
+        {
+            if (pendingPeriods > 0)
+            {
+                periodStart = periodStart.plus(pendingPeriods * interval, frequencyUnit);
+            }
+            buffer.clear();
+            bufferIndex = 0;
+            buffer.add(periodStart);
+            ChronoUnit skipSpan = null;
+            boolean isFilteredOnly = true;
+            for (ByRuleStep step : steps)
+            {
+                boolean wasEmpty = buffer.isEmpty();
+                spare.clear();
+                step.apply(buffer, spare);
+                List<Temporal> swap = buffer;
+                buffer = spare;
+                spare = swap;
+                ChronoUnit filterSpan = step.filterSpan();
+                isFilteredOnly = isFilteredOnly && (filterSpan != null);
+                if (isFilteredOnly && buffer.isEmpty() && ! wasEmpty)
+                {
+                    skipSpan = filterSpan;
+                }
+            }
+            // must filter out too early recurrences
+            buffer.removeIf(r -> DateTimeUtilities.isBefore(r, start));
+            pendingPeriods = (skipSpan == null) ? 1 : periodsToSkip(skipSpan);
+        }
+        
+        /* number of frequency periods until the first one after the span containing the current period start */
+        private long periodsToSkip(ChronoUnit span)
+        {
+            if (frequencyUnit.compareTo(ChronoUnit.HOURS) > 0 || frequencyUnit.compareTo(span) >= 0 ||
+                    ! (periodStart instanceof LocalDateTime || periodStart instanceof ZonedDateTime))
+            {
+                return 1;
+            }
+            LocalDateTime local = LocalDateTime.from(periodStart);
+            final LocalDateTime nextSpan;
+            switch (span)
+            {
+            case MONTHS:
+                nextSpan = local.toLocalDate().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+                break;
+            case DAYS:
+                nextSpan = local.toLocalDate().plusDays(1).atStartOfDay();
+                break;
+            default:
+                nextSpan = local.truncatedTo(span).plus(1, span);
+                break;
+            }
+            long seconds = ChronoUnit.SECONDS.between(local, nextSpan);
+            if (periodStart instanceof ZonedDateTime)
+            { // local time only moves with the instant when there is no offset transition before the next span
+                Instant instant = ((ZonedDateTime) periodStart).toInstant();
+                ZoneOffsetTransition transition = ((ZonedDateTime) periodStart).getZone().getRules().nextTransition(instant);
+                if ((transition != null) && ! transition.getInstant().isAfter(instant.plusSeconds(seconds)))
+                {
+                    return 1;
+                }
+            }
+            long periodSeconds = frequencyUnit.getDuration().getSeconds() * interval;
+            return Math.max(1, (seconds + periodSeconds - 1) / periodSeconds);
+        }
+    }
     
     /**
      * Determines if recurrence set is goes on forever
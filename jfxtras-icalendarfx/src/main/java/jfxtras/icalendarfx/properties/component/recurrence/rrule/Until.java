@@ -104,9 +104,8 @@ public class Until extends RRulePartBase<Temporal, Until>
     }
 
     @Override
-    protected List<Message> parseContent(String content)
+    protected List<Message> parseValue(String valueString)
     {
-    	String valueString = extractValue(content);
         setValue(DateTimeUtilities.temporalFromString(valueString));
         return Collections.EMPTY_LIST;
     }
@@ -79,9 +79,8 @@ public class WeekStart extends RRulePartBase<DayOfWeek, WeekStart>
     }
 
     @Override
-    protected List<Message> parseContent(String content)
+    protected List<Message> parseValue(String valueString)
     {
-    	String valueString = extractValue(content);
         DayOfWeek dayOfWeek = Arrays.stream(DayOfWeek.values())
             .filter(d -> d.toString().substring(0, 2).equals(valueString))
             .findAny()
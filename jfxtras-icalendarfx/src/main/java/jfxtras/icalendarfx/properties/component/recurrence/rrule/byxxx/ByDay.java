@@ -48,6 +48,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RRuleElement;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.WeekStart;
@@ -166,6 +167,7 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
         if (! isPresent)
         {
             getValue().add(new ByDayPair(dayOfWeek, 0));
+            VParentBase.elementChanged(this);
             return true;
         }
         return false;
@@ -185,6 +187,7 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
         if (p != null)
         {
             getValue().remove(p);
+            VParentBase.elementChanged(this);
             return true;
         }
         return false;
@@ -209,6 +212,7 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
             int ordinal = p.getOrdinal();
             getValue().remove(p);
             getValue().add(new ByDayPair(replacemenDayOfWeekt, ordinal));
+            VParentBase.elementChanged(this);
             return true;
         }
         return false;
@@ -239,9 +243,16 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
     
     @Override
     public Stream<Temporal> streamRecurrences(Stream<Temporal> inStream, ChronoUnit chronoUnit, Temporal dateTimeStart)
+    {
+        return compile(chronoUnit, dateTimeStart).stream(inStream);
+    }
+    
+    @Override
+    public ByRuleStep compile(ChronoUnit chronoUnit, Temporal dateTimeStart)
     {
         /* TODO - according to iCalendar standard a ByDay rule doesn't need any specified days - should use day from DTSTART,
          * this is not implemented yet.  When implemented this line should be removed. */
+        ByDayPair[] byDayPairs = getValue().toArray(new ByDayPair[getValue().size()]);
         switch (chronoUnit)
         {
         case HOURS:
@@ -254,15 +265,13 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
             {
                 throw new IllegalArgumentException("Numberic ordinal day values can't be set for FREQ as" + chronoUnit);
             }
-            return inStream.filter(t ->
-            { // filter out all but qualifying days
-                DayOfWeek myDayOfWeek = DayOfWeek.from(t);
-                for (ByDayPair byDayPair : getValue())
-                {
-                    if (byDayPair.dayOfWeek == myDayOfWeek) return true;
-                }
-                return false;
-            });
+            boolean[] isDayOfWeek = new boolean[8];
+            for (ByDayPair byDayPair : byDayPairs)
+            {
+                isDayOfWeek[byDayPair.dayOfWeek.getValue()] = true;
+            }
+            // filter out all but qualifying days
+            return ByRuleStep.filter(t -> isDayOfWeek[t.get(DAY_OF_WEEK)], ChronoUnit.DAYS);
         }
         case WEEKS:
         {
@@ -273,32 +282,30 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
             }
             WeekFields weekFields = WeekFields.of(getWeekStart(), MIN_DAYS_IN_WEEK);
             TemporalField dayOfWeekField = weekFields.dayOfWeek();
-            return inStream.flatMap(t -> 
+            int defaultFirstDayOfWeekValue = DayOfWeek.MONDAY.getValue();
+            int myFirstDayOfWeekValue = weekFields.getFirstDayOfWeek().getValue();
+            int dayOfWeekAdjustment = defaultFirstDayOfWeekValue - myFirstDayOfWeekValue + DayOfWeek.values().length;
+            return ByRuleStep.expand((t, dates) -> 
             { // Expand to be byDayPairs days in current week
-                List<Temporal> dates = new ArrayList<>();
-                for (ByDayPair byDayPair : getValue())
+                int first = dates.size();
+                for (ByDayPair byDayPair : byDayPairs)
                 {
-                    int defaultFirstDayOfWeekValue = DayOfWeek.MONDAY.getValue();
-                    int myFirstDayOfWeekValue = weekFields.getFirstDayOfWeek().getValue();
-                    int dayOfWeekAdjustment = defaultFirstDayOfWeekValue - myFirstDayOfWeekValue + DayOfWeek.values().length;
                     int dayOfWeekValue = byDayPair.dayOfWeek.getValue() + dayOfWeekAdjustment;
                     dayOfWeekValue = (dayOfWeekValue > 7) ? dayOfWeekValue-7 : dayOfWeekValue;
-                    Temporal newTemporal = t.with(dayOfWeekField, dayOfWeekValue);
-                    dates.add(newTemporal);
+                    dates.add(t.with(dayOfWeekField, dayOfWeekValue));
                 }
-                if (getValue().size() > 1) Collections.sort(dates, DateTimeUtilities.TEMPORAL_COMPARATOR);
-                return dates.stream();
+                if (byDayPairs.length > 1) dates.subList(first, dates.size()).sort(DateTimeUtilities.TEMPORAL_COMPARATOR);
             });
         }
         case MONTHS:
-            return inStream.flatMap(date -> 
+            return ByRuleStep.expand((date, dates) -> 
             {
-                List<Temporal> dates = new ArrayList<>();
-                for (ByDayPair byDayPair : getValue())
+                int first = dates.size();
+                Month myMonth = Month.from(date);
+                for (ByDayPair byDayPair : byDayPairs)
                 {
                     if (byDayPair.ordinal == 0)
                     { // add every matching day of week in month
-                        Month myMonth = Month.from(date);
                         for (int weekNum=1; weekNum<=5; weekNum++)
                         {
                             Temporal newTemporal = date.with(TemporalAdjusters.dayOfWeekInMonth(weekNum, byDayPair.dayOfWeek));
@@ -309,23 +316,20 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
                         }
                     } else
                     {
-                        Month myMonth = Month.from(date);
                         Temporal newTemporal = date.with(TemporalAdjusters.dayOfWeekInMonth(byDayPair.ordinal, byDayPair.dayOfWeek));
-
                         if (Month.from(newTemporal) == myMonth)
                         {
                             dates.add(newTemporal);
                         }
                     }
                 }
-                if (getValue().size() > 1) Collections.sort(dates, DateTimeUtilities.TEMPORAL_COMPARATOR);
-                return dates.stream();
+                if (byDayPairs.length > 1) dates.subList(first, dates.size()).sort(DateTimeUtilities.TEMPORAL_COMPARATOR);
             });
         case YEARS:
-            return inStream.flatMap(date -> 
+            return ByRuleStep.expand((date, dates) -> 
             {
-                List<Temporal> dates = new ArrayList<>();
-                for (ByDayPair byDayPair : getValue())
+                int first = dates.size();
+                for (ByDayPair byDayPair : byDayPairs)
                 {
                     if (byDayPair.ordinal == 0)
                     { // add every matching day of week in year
@@ -343,8 +347,7 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
                         dates.add(newDate);
                     }
                 }
-                if (getValue().size() > 1) Collections.sort(dates, DateTimeUtilities.TEMPORAL_COMPARATOR);
-                return dates.stream();
+                if (byDayPairs.length > 1) dates.subList(first, dates.size()).sort(DateTimeUtilities.TEMPORAL_COMPARATOR);
             }); 
         default:
             throw new RuntimeException("Not implemented ChronoUnit: " + chronoUnit);
@@ -422,9 +425,8 @@ public class ByDay extends ByRuleAbstract<ByDayPair, ByDay>
     }
     
     @Override
-    protected List<Message> parseContent(String dayPairs)
+    protected List<Message> parseValue(String valueString)
     {
-    	String valueString = extractValue(dayPairs);
         List<ByDayPair> dayPairsList = new ArrayList<ByDayPair>();
         Pattern p = Pattern.compile("(-?[0-9]+)?([A-Z]{2})");
         Matcher m = p.matcher(valueString);
@@ -29,8 +29,6 @@ package jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx;
 import java.time.temporal.ChronoField;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -79,49 +77,50 @@ public class ByHour extends ByRuleIntegerAbstract<ByHour>
     
     @Override
     public Stream<Temporal> streamRecurrences(Stream<Temporal> inStream, ChronoUnit chronoUnit, Temporal dateTimeStart)
+    {
+        return compile(chronoUnit, dateTimeStart).stream(inStream);
+    }
+    
+    @Override
+    public ByRuleStep compile(ChronoUnit chronoUnit, Temporal dateTimeStart)
     {
         if (dateTimeStart.isSupported(ChronoField.HOUR_OF_DAY))
         {
+            int[] values = getValue().stream().mapToInt(v -> v).toArray();
             switch (chronoUnit)
             {
             case HOURS:
             case MINUTES:
             case SECONDS:
-                return inStream.filter(d ->
-                        { // filter out all but qualifying hours
-                            int myHourOfDay = d.get(ChronoField.HOUR_OF_DAY);
-                            for (int hourOfDay : getValue())
-                            {
-                                if (hourOfDay > 0)
-                                {
-                                    if (hourOfDay == myHourOfDay) return true;
-                                }
-                            }
-                            return false;
-                        });
+            { // filter out all but qualifying hours, zero is never matched
+                long mask = 0;
+                for (int value : values)
+                {
+                    if (value > 0)
+                    {
+                        mask |= 1L << value;
+                    }
+                }
+                final long valueMask = mask;
+                return ByRuleStep.filter(d -> ((valueMask >>> d.get(ChronoField.HOUR_OF_DAY)) & 1) != 0, ChronoUnit.HOURS);
+            }
             case DAYS:
             case WEEKS:
             case MONTHS:
             case YEARS:
-                return inStream.flatMap(d -> 
-                { // Expand to be include all hours of day
-                    List<Temporal> dates = new ArrayList<>();
-                    for (int hourOfDay : getValue())
+                return ByRuleStep.expand((d, dates) ->
+                { // Expand to include all hours
+                    for (int value : values)
                     {
-                        Temporal newTemporal = d.with(ChronoField.HOUR_OF_DAY, hourOfDay);
-//                        if (! DateTimeUtilities.isBefore(newTemporal, dateTimeStart))
-//                        {
-                            dates.add(newTemporal);
-//                        }
+                        dates.add(d.with(ChronoField.HOUR_OF_DAY, value));
                     }
-                    return dates.stream();
                 });
             default:
                 throw new IllegalArgumentException("Not implemented: " + chronoUnit);
             }
         } else
         {
-            return inStream; // ignore rule when not supported (RFC 5545 requirement)
+            return ByRuleStep.IDENTITY; // ignore rule when not supported (RFC 5545 requirement)
         }
     }
     
@@ -29,8 +29,6 @@ package jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx;
 import java.time.temporal.ChronoField;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -79,49 +77,50 @@ public class ByMinute extends ByRuleIntegerAbstract<ByMinute>
     
     @Override
     public Stream<Temporal> streamRecurrences(Stream<Temporal> inStream, ChronoUnit chronoUnit, Temporal dateTimeStart)
+    {
+        return compile(chronoUnit, dateTimeStart).stream(inStream);
+    }
+    
+    @Override
+    public ByRuleStep compile(ChronoUnit chronoUnit, Temporal dateTimeStart)
     {
         if (dateTimeStart.isSupported(ChronoField.MINUTE_OF_HOUR))
         {
+            int[] values = getValue().stream().mapToInt(v -> v).toArray();
             switch (chronoUnit)
             {
             case MINUTES:
             case SECONDS:
-                return inStream.filter(d ->
-                        { // filter out all but qualifying hours
-                            int myMinuteOfHour = d.get(ChronoField.MINUTE_OF_HOUR);
-                            for (int minuteOfHour : getValue())
-                            {
-                                if (minuteOfHour > 0)
-                                {
-                                    if (minuteOfHour == myMinuteOfHour) return true;
-                                }
-                            }
-                            return false;
-                        });
+            { // filter out all but qualifying minutes, zero is never matched
+                long mask = 0;
+                for (int value : values)
+                {
+                    if (value > 0)
+                    {
+                        mask |= 1L << value;
+                    }
+                }
+                final long valueMask = mask;
+                return ByRuleStep.filter(d -> ((valueMask >>> d.get(ChronoField.MINUTE_OF_HOUR)) & 1) != 0, ChronoUnit.MINUTES);
+            }
             case HOURS:
             case DAYS:
             case WEEKS:
             case MONTHS:
             case YEARS:
-                return inStream.flatMap(d -> 
-                { // Expand to be include all hours of day
-                    List<Temporal> dates = new ArrayList<>();
-                    for (int minuteOfHour : getValue())
+                return ByRuleStep.expand((d, dates) ->
+                { // Expand to include all minutes
+                    for (int value : values)
                     {
-                        Temporal newTemporal = d.with(ChronoField.MINUTE_OF_HOUR, minuteOfHour);
-//                        if (! DateTimeUtilities.isBefore(newTemporal, dateTimeStart))
-//                        {
-                            dates.add(newTemporal);
-//                        }
+                        dates.add(d.with(ChronoField.MINUTE_OF_HOUR, value));
                     }
-                    return dates.stream();
                 });
             default:
                 throw new IllegalArgumentException("Not implemented: " + chronoUnit);
             }
         } else
         {
-            return inStream; // ignore rule when not supported (RFC 5545 requirement)
+            return ByRuleStep.IDENTITY; // ignore rule when not supported (RFC 5545 requirement)
         }
     }
 
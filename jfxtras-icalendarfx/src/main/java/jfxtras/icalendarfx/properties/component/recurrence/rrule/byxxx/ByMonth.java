@@ -30,7 +30,6 @@ import static java.time.temporal.ChronoUnit.MONTHS;
 import java.time.Month;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -95,6 +94,13 @@ public class ByMonth extends ByRuleAbstract<Month, ByMonth>
     @Override
     public Stream<Temporal> streamRecurrences(Stream<Temporal> inStream, ChronoUnit chronoUnit, Temporal startTemporal)
     {
+        return compile(chronoUnit, startTemporal).stream(inStream);
+    }
+    
+    @Override
+    public ByRuleStep compile(ChronoUnit chronoUnit, Temporal startTemporal)
+    {
+        Month[] months = getValue().toArray(new Month[getValue().size()]);
         switch (chronoUnit)
         {
         case HOURS:
@@ -103,31 +109,24 @@ public class ByMonth extends ByRuleAbstract<Month, ByMonth>
         case DAYS:
         case WEEKS:
         case MONTHS:
-            return inStream.filter(t ->
-            { // filter out all but qualifying months
-                Month myMonth = Month.from(t);
-                for (Month month : getValue())
-                {
-                    if (month == myMonth) return true;
-                }
-                return false;
-            });
+        { // filter out all but qualifying months
+            boolean[] isMonth = new boolean[13];
+            for (Month month : months)
+            {
+                isMonth[month.getValue()] = true;
+            }
+            return ByRuleStep.filter(t -> isMonth[Month.from(t).getValue()], ChronoUnit.MONTHS);
+        }
         case YEARS:
-            return inStream.flatMap(t -> 
+            return ByRuleStep.expand((t, dates) -> 
             { // Expand to include matching all matching months
-                List<Temporal> dates = new ArrayList<>();
                 int monthNum = Month.from(t).getValue();
-                for (Month month : getValue())
+                for (Month month : months)
                 {
                     int myMonthNum = month.getValue();
                     int monthShift = myMonthNum - monthNum;
-                    Temporal newTemporal = t.plus(monthShift, MONTHS);
-//                    if (! DateTimeUtilities.isBefore(newTemporal, startTemporal))
-//                    {
-                        dates.add(newTemporal);
-//                    }
+                    dates.add(t.plus(monthShift, MONTHS));
                 }
-                return dates.stream();
             });
         default:
             throw new RuntimeException("Not implemented ChronoUnit: " + chronoUnit); // probably same as DAILY
@@ -135,9 +134,8 @@ public class ByMonth extends ByRuleAbstract<Month, ByMonth>
     }
     
     @Override
-    protected List<Message> parseContent(String content)
+    protected List<Message> parseValue(String valueString)
     {
-    	String valueString = extractValue(content);
         Month[] monthArray = Arrays.asList(valueString.split(","))
                 .stream()
                 .map(s -> Month.of(Integer.parseInt(s)))
@@ -32,7 +32,6 @@ import java.time.temporal.ChronoField;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAdjusters;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -93,41 +92,55 @@ public class ByMonthDay extends ByRuleIntegerAbstract<ByMonthDay>
     @Override
     public Stream<Temporal> streamRecurrences(Stream<Temporal> inStream, ChronoUnit chronoUnit, Temporal dateTimeStart)
     {
+        return compile(chronoUnit, dateTimeStart).stream(inStream);
+    }
+    
+    @Override
+    public ByRuleStep compile(ChronoUnit chronoUnit, Temporal dateTimeStart)
+    {
+        int[] values = getValue().stream().mapToInt(v -> v).toArray();
         switch (chronoUnit)
         {
         case HOURS:
         case MINUTES:
         case SECONDS:
         case DAYS:
-            return inStream.filter(d ->
+            return ByRuleStep.filter(d ->
                     { // filter out all but qualifying days
                         int myDay = d.get(ChronoField.DAY_OF_MONTH);
-                        int myDaysInMonth = LocalDate.from(d).lengthOfMonth();
-                        for (int day : getValue())
+                        int myDaysInMonth = 0; // only needed for negative values
+                        for (int day : values)
                         {
                             if (myDay == day) return true;
                             // negative daysOfMonth (-3 = 3rd to last day of month)
-                            if ((day < 0) && (myDay == myDaysInMonth + day + 1)) return true;
+                            if (day < 0)
+                            {
+                                if (myDaysInMonth == 0)
+                                {
+                                    myDaysInMonth = LocalDate.from(d).lengthOfMonth();
+                                }
+                                if (myDay == myDaysInMonth + day + 1) return true;
+                            }
                         }
                         return false;
-                    });
+                    }, ChronoUnit.DAYS);
         case YEARS:
-            return inStream.flatMap(d -> 
+            return ByRuleStep.expand((d, dates) -> 
             { // Expand to be daysOfMonth days in current month
-                List<Temporal> dates = new ArrayList<>();
+                int first = dates.size();
                 for (Month month : Month.values())
                 {
                     Temporal monthAdjustedTemporal = d.with(ChronoField.MONTH_OF_YEAR, month.getValue());
-                    dates.addAll(extracted(monthAdjustedTemporal, dateTimeStart));
+                    extracted(monthAdjustedTemporal, values, dates);
                 }
-                return dates.stream().sorted(DateTimeUtilities.TEMPORAL_COMPARATOR);
+                dates.subList(first, dates.size()).sort(DateTimeUtilities.TEMPORAL_COMPARATOR);
             });
         case MONTHS:
-            return inStream.flatMap(d -> 
+            return ByRuleStep.expand((d, dates) -> 
             { // Expand to be daysOfMonth days in current month
-                List<Temporal> dates = new ArrayList<>();
-                dates.addAll(extracted(d, dateTimeStart));
-                return dates.stream().sorted(DateTimeUtilities.TEMPORAL_COMPARATOR);
+                int first = dates.size();
+                extracted(d, values, dates);
+                dates.subList(first, dates.size()).sort(DateTimeUtilities.TEMPORAL_COMPARATOR);
             });
         case WEEKS:
             throw new IllegalArgumentException(name().toString() + " is not available for " + chronoUnit + " frequency."); // Not available
@@ -137,10 +150,9 @@ public class ByMonthDay extends ByRuleIntegerAbstract<ByMonthDay>
     }
 
     /* process dayOfMonth for YEARS and MONTHS */
-    private List<Temporal> extracted(Temporal initialTemporal, Temporal dateTimeStart)
+    private void extracted(Temporal initialTemporal, int[] values, List<Temporal> dates)
     {
-        List<Temporal> dates = new ArrayList<>();
-        for (int dayOfMonth : getValue())
+        for (int dayOfMonth : values)
         {           
             final Temporal correctMonthTemporal = (dayOfMonth > 0) ? initialTemporal : initialTemporal.minus(1, ChronoUnit.MONTHS);
             int daysInMonth = (int) ChronoUnit.DAYS.between(correctMonthTemporal.with(TemporalAdjusters.firstDayOfMonth()),
@@ -171,7 +183,6 @@ public class ByMonthDay extends ByRuleIntegerAbstract<ByMonthDay>
                 dates.add(newTemporal);
             }
         }
-        return dates;
     }
     
     public static ByMonthDay parse(String content)
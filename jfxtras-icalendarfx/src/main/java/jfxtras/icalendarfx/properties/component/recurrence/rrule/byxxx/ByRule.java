@@ -71,4 +71,18 @@ public interface ByRule<T> extends Comparable<ByRule<T>>, RRulePart<T>
      * @return
      */
     Stream<Temporal> streamRecurrences(Stream<Temporal> inStream, ChronoUnit chronoUnit, Temporal dateTimeStart);
+    
+    /**
+     * Compiles the rule into a reusable step for expanding a recurrence rule.  The default implementation
+     * delegates to {@link #streamRecurrences(Stream, ChronoUnit, Temporal)}.
+     * 
+     * @param chronoUnit - ChronoUnit of last modification to the date/times
+     * @param dateTimeStart - start Temporal (date or date/time)
+     * @return - step applying the rule
+     * @throws IllegalArgumentException - if rule can't be used with chronoUnit
+     */
+    default ByRuleStep compile(ChronoUnit chronoUnit, Temporal dateTimeStart)
+    {
+        return (in, out) -> streamRecurrences(in.stream(), chronoUnit, dateTimeStart).forEachOrdered(out::add);
+    }
 }
@@ -99,9 +99,8 @@ public abstract class ByRuleIntegerAbstract<U> extends ByRuleAbstract<Integer, U
     }
     
     @Override
-    protected List<Message> parseContent(String content)
+    protected List<Message> parseValue(String valueString)
     {
-    	String valueString = extractValue(content);
         Integer[] monthDayArray = Arrays.asList(valueString.split(","))
                 .stream()
                 .map(s -> Integer.parseInt(s))
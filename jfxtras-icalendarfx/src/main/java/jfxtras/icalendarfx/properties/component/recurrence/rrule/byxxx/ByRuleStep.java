@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx;
+
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
+
+/**
+ * A {@link ByRule} compiled for the ChronoUnit of the preceding rule part.  A step is applied to the
+ * date/times of one frequency period at a time, appending its result to an output list.  Steps are
+ * immutable, so a compiled recurrence rule can be expanded by several threads at once.
+ * 
+ * @see ByRule#compile(ChronoUnit, Temporal)
+ * @see RecurrenceRuleValue#streamRecurrences(Temporal)
+ */
+@FunctionalInterface
+public interface ByRuleStep
+{
+    /** Step that passes date/times through unchanged, used for rules that don't apply to DTSTART's type */
+    static final ByRuleStep IDENTITY = (in, out) -> out.addAll(in);
+    
+    /**
+     * Applies the rule to the date/times of one frequency period
+     * 
+     * @param in - date/times produced by the previous step, in order
+     * @param out - list to append the resulting date/times to
+     */
+    void apply(List<Temporal> in, List<Temporal> out);
+    
+    /**
+     * For steps that only filter, the span of time in which all date/times are kept or removed
+     * together.  For example, a BYHOUR filter removes all date/times in the hour of a date/time it
+     * removes, so the expansion can skip ahead to the next hour.
+     * 
+     * @return - the span of a filter, null for steps that expand
+     */
+    default ChronoUnit filterSpan()
+    {
+        return null;
+    }
+    
+    /**
+     * Applies the step to a stream one date/time at a time, for {@link ByRule#streamRecurrences(Stream, ChronoUnit, Temporal)}
+     */
+    default Stream<Temporal> stream(Stream<Temporal> inStream)
+    {
+        return inStream.flatMap(t ->
+        {
+            List<Temporal> dates = new ArrayList<>();
+            apply(Collections.singletonList(t), dates);
+            return dates.stream();
+        });
+    }
+    
+    /**
+     * Creates a step that keeps the date/times matching a predicate
+     * 
+     * @param predicate - test for date/times to keep
+     * @param span - time span in which the predicate gives the same result, see {@link #filterSpan()}
+     */
+    static ByRuleStep filter(Predicate<Temporal> predicate, ChronoUnit span)
+    {
+        return new ByRuleStep()
+        {
+            @Override
+            public void apply(List<Temporal> in, List<Temporal> out)
+            {
+                for (int i=0; i<in.size(); i++)
+                {
+                    Temporal t = in.get(i);
+                    if (predicate.test(t))
+                    {
+                        out.add(t);
+                    }
+                }
+            }
+            
+            @Override
+            public ChronoUnit filterSpan()
+            {
+                return span;
+            }
+        };
+    }
+    
+    /**
+     * Creates a step that replaces each date/time with the date/times added by an expander
+     * 
+     * @param expander - appends the expansion of a date/time to a list
+     */
+    static ByRuleStep expand(BiConsumer<Temporal, List<Temporal>> expander)
+    {
+        return (in, out) ->
+        {
+            for (int i=0; i<in.size(); i++)
+            {
+                expander.accept(in.get(i), out);
+            }
+        };
+    }
+}
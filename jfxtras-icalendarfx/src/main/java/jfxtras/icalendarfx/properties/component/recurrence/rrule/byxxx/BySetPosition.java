@@ -65,17 +65,27 @@ public class BySetPosition extends ByRuleIntegerAbstract<BySetPosition>
     {
         List<Temporal> inList = inStream.collect(Collectors.toList()); // can't be an infinite stream or will hang
         List<Temporal> outList = new ArrayList<>();
-        for (int setPosition : getValue())
-        {
-            if (setPosition > 0)
-            {
-                outList.add(inList.get(setPosition-1));                
-            } else if (setPosition < 0)
+        compile(chronoUnit, startTemporal).apply(inList, outList);
+        return outList.stream();
+    }
+    
+    @Override
+    public ByRuleStep compile(ChronoUnit chronoUnit, Temporal startTemporal)
+    {
+        int[] values = getValue().stream().mapToInt(v -> v).toArray();
+        return (inList, outList) ->
+        { // applies to whole set of date/times in a frequency period
+            for (int setPosition : values)
             {
-                outList.add(inList.get(inList.size() + setPosition));                
+                if (setPosition > 0)
+                {
+                    outList.add(inList.get(setPosition-1));                
+                } else if (setPosition < 0)
+                {
+                    outList.add(inList.get(inList.size() + setPosition));                
+                }
             }
-        }
-        return outList.stream();
+        };
     }
 
     public static BySetPosition parse(String content)
@@ -32,10 +32,7 @@ import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAdjusters;
 import java.time.temporal.WeekFields;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Predicate;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
@@ -110,15 +107,21 @@ public class ByWeekNumber extends ByRuleIntegerAbstract<ByWeekNumber>
     @Override
     public Stream<Temporal> streamRecurrences(Stream<Temporal> inStream, ChronoUnit chronoUnit, Temporal dateTimeStart )
     {
-
+        return compile(chronoUnit, dateTimeStart).stream(inStream);
+    }
+    
+    @Override
+    public ByRuleStep compile(ChronoUnit chronoUnit, Temporal dateTimeStart)
+    {
         switch (chronoUnit)
         {
         case YEARS:
             WeekFields weekFields = WeekFields.of(getWeekStart(), MIN_DAYS_IN_WEEK);
-            Stream<Temporal> outStream = inStream.flatMap(date -> 
+            int[] values = getValue().stream().mapToInt(v -> v).toArray();
+            return ByRuleStep.expand((date, dates) -> 
             { // Expand to include all days matching week numbers
-                List<Temporal> dates = new ArrayList<>();
-                for (int weekNumber : getValue())
+                int first = dates.size();
+                for (int weekNumber : values)
                 {
                     Temporal correctYearTemporal = (weekNumber > 0) ? date : date.minus(1, ChronoUnit.YEARS);
                     correctYearTemporal = correctYearTemporal
@@ -157,7 +160,7 @@ public class ByWeekNumber extends ByRuleIntegerAbstract<ByWeekNumber>
                     }
                     if (startDate != null)
                     {
-                        IntStream.range(0,7).forEach(days -> 
+                        for (int days=0; days<7; days++)
                         {
                             Temporal newTemporal = startDate.plus(days, ChronoUnit.DAYS);
                             Year myYear = Year.from(newTemporal);
@@ -165,12 +168,11 @@ public class ByWeekNumber extends ByRuleIntegerAbstract<ByWeekNumber>
                             {
                                 dates.add(newTemporal);
                             }
-                        });
+                        }
                     }
                 }
-                return dates.stream().sorted(DateTimeUtilities.TEMPORAL_COMPARATOR);
+                dates.subList(first, dates.size()).sort(DateTimeUtilities.TEMPORAL_COMPARATOR);
             });
-            return outStream;
         case DAYS:
         case WEEKS:
         case MONTHS:
@@ -179,9 +181,8 @@ public class ByWeekNumber extends ByRuleIntegerAbstract<ByWeekNumber>
         case SECONDS:
             throw new IllegalArgumentException("BYWEEKNO is not available for " + chronoUnit + " frequency."); // Not available
         default:
-            break;
+            throw new IllegalArgumentException("Not implemented: " + chronoUnit);
         }
-        return null;    
     }
 
     public static ByWeekNumber parse(String content)
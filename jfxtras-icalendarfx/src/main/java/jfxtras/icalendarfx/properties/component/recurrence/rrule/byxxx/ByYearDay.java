@@ -32,8 +32,6 @@ import java.time.temporal.ChronoField;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAdjusters;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -81,15 +79,22 @@ public class ByYearDay extends ByRuleIntegerAbstract<ByYearDay>
     @Override
     public Stream<Temporal> streamRecurrences(Stream<Temporal> inStream, ChronoUnit chronoUnit, Temporal dateTimeStart)
     {
+        return compile(chronoUnit, dateTimeStart).stream(inStream);
+    }
+    
+    @Override
+    public ByRuleStep compile(ChronoUnit chronoUnit, Temporal dateTimeStart)
+    {
+        int[] values = getValue().stream().mapToInt(v -> v).toArray();
         switch (chronoUnit)
         {
         case HOURS:
         case MINUTES:
         case SECONDS:
-            return inStream.filter(d ->
+            return ByRuleStep.filter(d ->
                     { // filter out all but qualifying days
                         int myDayOfYear = d.get(ChronoField.DAY_OF_YEAR);
-                        for (int dayOfYear : getValue())
+                        for (int dayOfYear : values)
                         {
                             if (dayOfYear > 0)
                             {
@@ -102,12 +107,11 @@ public class ByYearDay extends ByRuleIntegerAbstract<ByYearDay>
                             }
                         }
                         return false;
-                    });
+                    }, ChronoUnit.DAYS);
         case YEARS:
-            return inStream.flatMap(d -> 
+            return ByRuleStep.expand((d, dates) -> 
             { // Expand to be include all days of year
-                List<Temporal> dates = new ArrayList<>();
-                for (int dayOfYear : getValue())
+                for (int dayOfYear : values)
                 {
                     final Temporal correctYearTemporal = (dayOfYear > 0) ? d : d.minus(1, ChronoUnit.YEARS);
                     int daysInYear = (int) ChronoUnit.DAYS.between(correctYearTemporal.with(TemporalAdjusters.firstDayOfYear()),
@@ -137,7 +141,6 @@ public class ByYearDay extends ByRuleIntegerAbstract<ByYearDay>
                         dates.add(newTemporal);
                     }
                 }
-                return dates.stream();
             });       
         case DAYS:
         case WEEKS:
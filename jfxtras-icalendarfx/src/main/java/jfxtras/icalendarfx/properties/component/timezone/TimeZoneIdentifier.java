@@ -31,7 +31,9 @@ import java.time.ZoneId;
 
 import jfxtras.icalendarfx.components.VTimeZone;
 import jfxtras.icalendarfx.properties.VPropertyBase;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.StringConverter;
+import jfxtras.icalendarfx.utilities.ZoneRulesResolver;
 
 /**
  * TZID
@@ -59,7 +61,7 @@ public class TimeZoneIdentifier extends VPropertyBase<ZoneId, TimeZoneIdentifier
         public String toString(ZoneId object)
         {
             // null means value is unknown and non-converted string in PropertyBase unknownValue should be used instead
-            return (object == null) ? null: object.toString();
+            return (object == null) ? null: ZoneRulesResolver.identifierOf(object);
         }
 
         @Override
@@ -67,7 +69,7 @@ public class TimeZoneIdentifier extends VPropertyBase<ZoneId, TimeZoneIdentifier
         {
             try
             {
-            return ZoneId.of(string);
+            return DateTimeUtilities.zoneIdOf(string);
             } catch (DateTimeException e)
             {
                 // null means value is unknown and should be stored as non-converted string by PropertyBase
@@ -93,6 +95,17 @@ public class TimeZoneIdentifier extends VPropertyBase<ZoneId, TimeZoneIdentifier
         setConverter(CONVERTER);
     }
     
+    /**
+     * Returns the time zone identifier text.  Unlike {@link #getValue()}, this includes globally unique
+     * identifiers and other identifiers that aren't known time zones.
+     * 
+     * @return  TZID value, null if there is no value
+     */
+    public String getIdentifier()
+    {
+        return (getValue() == null) ? getUnknownValue() : ZoneRulesResolver.identifierOf(getValue());
+    }
+    
     @Override
     public boolean isValid()
     {
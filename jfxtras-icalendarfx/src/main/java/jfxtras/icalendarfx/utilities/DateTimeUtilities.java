@@ -38,7 +38,9 @@ import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Month;
 import java.time.Period;
+import java.time.Year;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -54,14 +56,17 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import jfxtras.icalendarfx.ScheduleConflict;
+import jfxtras.icalendarfx.ScheduleConflictDetector;
 import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.content.ContentLineTokenizer;
 import jfxtras.icalendarfx.parameters.VParameterElement;
 import jfxtras.icalendarfx.properties.component.time.TimeTransparency.TimeTransparencyType;
 import jfxtras.icalendarfx.utilities.DateTimeUtilities;
-import jfxtras.icalendarfx.utilities.ICalendarUtilities;
-import jfxtras.icalendarfx.utilities.Pair;
 
 
 /**
@@ -223,17 +228,18 @@ public final class DateTimeUtilities
         } throw new DateTimeException("For comparision, Temporal classes must be equal (" + t1.getClass().getSimpleName() + ", " + t2.getClass().getSimpleName() + ")");
     }
     
-    private final static int CONFLICT_CHECK_QUANTITY = 400;
     /** Check if schedule conflict exists for {@link TimeTransparencyType.OPAQUE OPAQUE} events 
-     * using default check quantity
+     * in the {@link ScheduleConflictDetector#DEFAULT_WINDOW default time window}
      * 
      * @param vEvent  event to test
      * @param vEvents  existing events
      * @return  UID and start of recurrence of conflicting event, null otherwise
+     * @see ScheduleConflictDetector
      */
     public static String checkScheduleConflict(VEvent vEvent, List<VEvent> vEvents)
     {
-        return checkScheduleConflict(vEvent, vEvents, CONFLICT_CHECK_QUANTITY);
+        List<ScheduleConflict> conflicts = ScheduleConflictDetector.find(vEvent, vEvents, true);
+        return conflicts.isEmpty() ? null : conflicts.get(0).toString();
     }
     
     /** Check if schedule conflict exists for {@link TimeTransparencyType.OPAQUE OPAQUE} events.
@@ -242,86 +248,22 @@ public final class DateTimeUtilities
      * @param vEvents  existing events
      * @param checkQuantity  amount of recurrences to be tested
      * @return  UID and start of recurrence of conflicting event, null otherwise
+     * @see ScheduleConflictDetector
      */
-    // TODO - Should this method compare FreeBusy times too?
     public static String checkScheduleConflict(VEvent vEvent, List<VEvent> vEvents, int checkQuantity)
     {
-        // must be opaque to cause conflict, opaque is default
-        TimeTransparencyType newTransparency = (vEvent.getTimeTransparency() == null) ? TimeTransparencyType.OPAQUE : vEvent.getTimeTransparency().getValue();
-        if (newTransparency == TimeTransparencyType.TRANSPARENT)
+        Temporal lastStart = vEvent.streamRecurrences()
+                .limit(checkQuantity)
+                .reduce((t1, t2) -> t2)
+                .orElse(null);
+        if (lastStart == null)
         {
             return null;
         }
-        
-        /*
-         * Make list of recurrence start date/times for VEvent to be tested
-         */
-        LocalDate dtstart = LocalDate.from(vEvent.getDateTimeStart().getValue());
-        TemporalAmount duration = vEvent.getActualDuration();
-        List<Temporal> newStarts = vEvent.streamRecurrences().limit(checkQuantity).collect(Collectors.toList());
-        Temporal lastStart = newStarts.get(newStarts.size()-1);
-
-        /*
-         * Make sorted list of events before lastStart from all VEvents
-         */
-        List<Triple> eventTimes = vEvents.stream()
-            .filter(v -> 
-            { // only keep OPAQUE events
-                TimeTransparencyType myTransparency = (v.getTimeTransparency() == null) ? TimeTransparencyType.OPAQUE : v.getTimeTransparency().getValue();
-                return myTransparency == TimeTransparencyType.OPAQUE;
-            })
-            .flatMap(v ->
-            {
-                TemporalAmount actualDuration = v.getActualDuration();
-                Temporal myDTStart = v.getDateTimeStart().getValue().with(dtstart);
-                return v.streamRecurrences(myDTStart)
-                    .limit(checkQuantity)
-                    .filter(t -> ! DateTimeUtilities.isAfter(t, lastStart))
-                    .map(t -> 
-                    {
-                        String uid = (v.getUniqueIdentifier() != null) ? v.getUniqueIdentifier().getValue() : null;
-                        return new Triple(t, t.plus(actualDuration), uid);
-                    });
-            })
-            .sorted((t1, t2) -> DateTimeUtilities.TEMPORAL_COMPARATOR2.compare(t1.start, t2.start))
-            .collect(Collectors.toList());
-
-        /*
-         *  Search for a conflict
-         *  1.  New start before existing end, new end after existing start
-         */
-        for (Temporal newStart : newStarts)
-        {
-            Temporal newEnd = newStart.plus(duration);
-            Triple firstConflict = eventTimes.stream()
-                .filter(triple ->
-                {
-                    boolean newStartBeforeEnd = DateTimeUtilities.isBefore(newStart, triple.end);
-                    boolean newEndAfterStart = DateTimeUtilities.isAfter(newEnd, triple.start);
-                    return (newStartBeforeEnd && newEndAfterStart);
-                })
-                .findAny()
-                .orElseGet(() -> null);
-            if (firstConflict != null)
-            {
-                String uid = (firstConflict.uid != null) ? firstConflict.uid + ", " : "";
-                return (firstConflict == null) ? null : uid + DateTimeUtilities.temporalToString(firstConflict.start);
-            }
-        }
-        return null; // no conflicts found
-    }
-    // Triple class for checkScheduleConflict
-    private static class Triple
-    {
-        public Triple(Temporal start, Temporal end, String uid)
-        {
-            this.start = start;
-            this.end = end;
-            this.uid = uid;
-        }
-        Temporal start;
-        Temporal end;
-        String uid;
+        // window ends at the start of the last tested recurrence, inclusive
+        Temporal windowEnd = (lastStart instanceof LocalDate) ? lastStart.plus(1, ChronoUnit.DAYS) : lastStart.plus(1, ChronoUnit.SECONDS);
+        List<ScheduleConflict> conflicts = ScheduleConflictDetector.find(vEvent, vEvents, windowEnd, true);
+        return conflicts.isEmpty() ? null : conflicts.get(0).toString();
     }
     
 //    /** Check if schedule conflict exists for {@link TimeTransparencyType.OPAQUE OPAQUE} events.
@@ -478,42 +420,100 @@ public final class DateTimeUtilities
         return null;
     }
     
+    /*
+     * Forms of date and date-time strings, for example 20160306, 20160306T103000, 20160306T103000Z
+     * and [America/New_York]20160306T103000
+     */
+    private static final Pattern DATE_PATTERN = Pattern.compile("^[0-9]{8}");
+    private static final Pattern DATE_TIME_PATTERN = Pattern.compile("^[0-9]{8}T([0-9]{6})");
+    private static final Pattern DATE_TIME_UTC_PATTERN = Pattern.compile("^[0-9]{8}T([0-9]{6})Z");
+    private static final Pattern DATE_TIME_ZONE_PATTERN = Pattern.compile("^(\\[.*/.*\\])[0-9]{8}T([0-9]{6}Z?)");
+    
+    // Cache of time zone identifiers, only valid identifiers are cached
+    private static final Map<String, ZoneId> ZONE_IDS = new ConcurrentHashMap<>();
+    
+    /**
+     * Return the {@link ZoneId} for a time zone identifier, such as America/New_York.
+     * A TZID defined by a VTIMEZONE of the calendar being parsed is resolved by the
+     * {@link ZoneRulesResolver#current() current ZoneRulesResolver}.  Other identifiers are cached,
+     * so repeated TZID values don't look up the zone rules again.
+     * 
+     * @param zoneId  time zone identifier
+     * @return  ZoneId, same as {@link ZoneId#of(String)}
+     * @throws DateTimeException  if the identifier is invalid, same as {@link ZoneId#of(String)}
+     */
+    public static ZoneId zoneIdOf(String zoneId)
+    {
+        ZoneId zone = resolveDefinedZone(zoneId);
+        if (zone != null)
+        {
+            return zone;
+        }
+        zone = ZONE_IDS.get(zoneId);
+        if (zone == null)
+        {
+            zone = ZoneId.of(zoneId);
+            ZONE_IDS.putIfAbsent(zoneId, zone);
+        }
+        return zone;
+    }
+    
+    /* ZoneId of a TZID defined by a VTIMEZONE of the calendar being parsed, or null */
+    private static ZoneId resolveDefinedZone(String zoneId)
+    {
+        ZoneRulesResolver resolver = ZoneRulesResolver.current();
+        return (resolver == null) ? null : resolver.resolve(zoneId);
+    }
+    
     /**
      * Parse ISO.8601 string into LocalDate, LocalDateTime or ZonedDateTime Temporal object.
      */ 
     public static Temporal temporalFromString(String string)
     {
-        List<Pair<String, String>> list = ICalendarUtilities.parseInlineElementsToListPair(string);
-        Map<String, String> map = list.stream().collect(Collectors.toMap(p -> p.getKey(), p -> p.getValue()));
-//        Map<String, String> map = ICalendarUtilities.propertyLineToParameterMap(string);
+        ContentLineTokenizer tokenizer = new ContentLineTokenizer(string);
+        String value = null;
+        String zoneId = null;
+        while (tokenizer.next())
+        {
+            if (tokenizer.isValue())
+            {
+                value = tokenizer.value();
+            } else if (tokenizer.nameEquals(VParameterElement.TIME_ZONE_IDENTIFIER.toString()))
+            {
+                zoneId = tokenizer.value();
+            }
+        }
+        
+        Temporal temporal = parseFixedWidthTemporal(value, zoneId);
+        if (temporal != null)
+        {
+            return temporal;
+        }
+        
+        // unusual values, such as February 30th or unknown time zones, are handled by the formatters
         StringBuilder builder = new StringBuilder(50);
-        String value = map.get(ICalendarUtilities.PROPERTY_VALUE_KEY);
-        if (map.get(VParameterElement.TIME_ZONE_IDENTIFIER.toString()) != null)
+        if (zoneId != null)
         {
             if (value.charAt(value.length()-1) != 'Z')
             {
                 builder.append("[");
-                builder.append(map.get(VParameterElement.TIME_ZONE_IDENTIFIER.toString()));
+                builder.append(zoneId);
                 builder.append("]");
             }
         }
         builder.append(value);
         String string2 = builder.toString();
 
-        final String form0 = "^[0-9]{8}";
-        final String form1 = "^[0-9]{8}T([0-9]{6})";
-        final String form2 = "^[0-9]{8}T([0-9]{6})Z";
-        final String form3 = "^(\\[.*/.*\\])[0-9]{8}T([0-9]{6}Z?)";
-        if (string2.matches(form0))
+        if (DATE_PATTERN.matcher(string2).matches())
         {
             return LocalDate.parse(string2, DateTimeUtilities.LOCAL_DATE_FORMATTER);                                                
-        } else if (string2.matches(form1))
+        } else if (DATE_TIME_PATTERN.matcher(string2).matches())
         {
             return LocalDateTime.parse(string2, DateTimeUtilities.LOCAL_DATE_TIME_FORMATTER);                                                
-        } else if (string2.matches(form2))
+        } else if (DATE_TIME_UTC_PATTERN.matcher(string2).matches())
         {
             return ZonedDateTime.parse(string2, DateTimeUtilities.ZONED_DATE_TIME_UTC_FORMATTER);                                                
-        } else if (string2.matches(form3))
+        } else if (DATE_TIME_ZONE_PATTERN.matcher(string2).matches())
         {
             return ZonedDateTime.parse(string2, DateTimeUtilities.ZONED_DATE_TIME_FORMATTER);                                                
         } else
@@ -522,6 +522,95 @@ public final class DateTimeUtilities
         }
     }
     
+    /*
+     * Parse yyyyMMdd, yyyyMMdd'T'HHmmss and yyyyMMdd'T'HHmmss'Z' values by reading the digits at
+     * their fixed positions.  Returns null if the value isn't one of those forms or has a field
+     * out of its normal range, so it can be parsed, or rejected, by the formatters.
+     */
+    private static Temporal parseFixedWidthTemporal(String value, String zoneId)
+    {
+        if ((value == null) || value.isEmpty())
+        {
+            return null;
+        }
+        int length = value.length();
+        boolean isUTC = value.charAt(length-1) == 'Z';
+        boolean hasZone = (zoneId != null) && ! isUTC;
+        if (length == 8)
+        {
+            return (hasZone) ? null : parseFixedWidthDate(value);
+        }
+        if ((length != 15) && ! ((length == 16) && isUTC))
+        {
+            return null;
+        }
+        if (value.charAt(8) != 'T')
+        {
+            return null;
+        }
+        LocalDate date = parseFixedWidthDate(value);
+        int hour = parseDigits(value, 9, 2);
+        int minute = parseDigits(value, 11, 2);
+        int second = parseDigits(value, 13, 2);
+        if ((date == null) || (hour < 0) || (hour > 23) || (minute < 0) || (minute > 59) || (second < 0) || (second > 59))
+        {
+            return null;
+        }
+        LocalDateTime dateTime = date.atTime(hour, minute, second);
+        if (isUTC)
+        {
+            return ZonedDateTime.of(dateTime, ZoneOffset.UTC);
+        } else if (hasZone)
+        {
+            ZoneId zone = resolveDefinedZone(zoneId);
+            if (zone != null)
+            {
+                return ZonedDateTime.of(dateTime, zone);
+            }
+            if ((zoneId.indexOf('/') < 0) || (zoneId.indexOf('[') >= 0) || (zoneId.indexOf(']') >= 0)
+                    || (zoneId.indexOf('\n') >= 0) || (zoneId.indexOf('\r') >= 0))
+            {
+                return null;
+            }
+            try
+            {
+                return ZonedDateTime.of(dateTime, zoneIdOf(zoneId));
+            } catch (DateTimeException e)
+            {
+                return null;
+            }
+        }
+        return dateTime;
+    }
+    
+    private static LocalDate parseFixedWidthDate(String value)
+    {
+        int year = parseDigits(value, 0, 4);
+        int month = parseDigits(value, 4, 2);
+        int day = parseDigits(value, 6, 2);
+        if ((year < 0) || (month < 1) || (month > 12) || (day < 1) || ((day > 28) && (day > Month.of(month).length(Year.isLeap(year)))))
+        {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+    
+    // returns -1 if any character isn't a digit
+    private static int parseDigits(String value, int start, int count)
+    {
+        int result = 0;
+        for (int i = start; i < start + count; i++)
+        {
+            char c = value.charAt(i);
+            if ((c < '0') || (c > '9'))
+            {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+    
     
     /**
      * Convert 2-character string to DayOfWeek following below convention:
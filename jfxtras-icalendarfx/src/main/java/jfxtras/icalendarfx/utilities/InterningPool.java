@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.utilities;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool that deduplicates repeated property and parameter values during parsing.
+ * 
+ * Large calendars repeat the same values many times, such as TZID, ORGANIZER and ATTENDEE addresses,
+ * CATEGORIES and LOCATION.  When a pool is set for a parse, equal values share one instance, which
+ * reduces the retained heap of the parsed calendar.  Only immutable values are shared: Strings, URIs,
+ * time zones and java.time values.  The elements of a List value, such as CATEGORIES, are shared,
+ * but not the List itself.  Strings longer than the maximum length are not pooled because they
+ * rarely repeat.
+ * 
+ * The pool holds at most the maximum number of values, so a pool kept by a long-running service doesn't
+ * grow without limit.  When it's full the pooled values are discarded and pooling starts over with the
+ * values that follow.  Values already shared by parsed calendars stay shared.
+ * 
+ * The pool is opt-in.  It is used by parsing on the current thread while it's set with
+ * {@link #setCurrent(InterningPool)}, for example by {@link jfxtras.icalendarfx.VCalendar#parse(java.io.Reader, InterningPool)}
+ * and {@link jfxtras.icalendarfx.VCalendar#parse(java.nio.file.Path, java.nio.charset.Charset, boolean, InterningPool)}.
+ * The pool is thread-safe, so one pool can be shared by the threads of a parallel parse.
+ * 
+ * @see jfxtras.icalendarfx.VCalendar#parse(java.io.Reader, InterningPool)
+ */
+public class InterningPool
+{
+    /** Default maximum length of pooled Strings */
+    public static final int DEFAULT_MAX_LENGTH = 256;
+    /** Default maximum number of pooled values */
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+    
+    private static final ThreadLocal<InterningPool> CURRENT = new ThreadLocal<>();
+    
+    private final int maxLength;
+    private final int maxSize;
+    private final Map<Object, Object> values = new ConcurrentHashMap<>();
+    // URIs are keyed by their string because URI equals ignores the case of the scheme and host
+    private final Map<String, URI> uris = new ConcurrentHashMap<>();
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder resetCount = new LongAdder();
+    
+    /*
+     * CONSTRUCTORS
+     */
+    public InterningPool()
+    {
+        this(DEFAULT_MAX_LENGTH);
+    }
+    
+    /**
+     * @param maxLength  maximum length of pooled Strings
+     */
+    public InterningPool(int maxLength)
+    {
+        this(maxLength, DEFAULT_MAX_SIZE);
+    }
+    
+    /**
+     * @param maxLength  maximum length of pooled Strings
+     * @param maxSize  maximum number of pooled values
+     */
+    public InterningPool(int maxLength, int maxSize)
+    {
+        if (maxSize < 1)
+        {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxLength = maxLength;
+        this.maxSize = maxSize;
+    }
+    
+    /** Return the pool used by parsing on the current thread, or null if there is none */
+    public static InterningPool current()
+    {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Set the pool used by parsing on the current thread
+     * 
+     * @param pool  the pool, or null to stop pooling
+     * @return  the previous pool, to be restored when parsing is done
+     */
+    public static InterningPool setCurrent(InterningPool pool)
+    {
+        InterningPool previous = CURRENT.get();
+        if (pool == null)
+        {
+            CURRENT.remove();
+        } else
+        {
+            CURRENT.set(pool);
+        }
+        return previous;
+    }
+    
+    /**
+     * Return the value from the current thread's pool, or the value itself if there is no current pool.
+     * 
+     * @see #intern(Object)
+     */
+    public static <T> T internCurrent(T value)
+    {
+        InterningPool pool = CURRENT.get();
+        return (pool == null) ? value : pool.intern(value);
+    }
+    
+    /**
+     * Return a pooled instance equal to the value.  The first instance of each value is added to the pool.
+     * For a List a new List of pooled instances of its elements is returned, the List itself is not changed.
+     * Mutable values are returned unchanged.
+     * 
+     * @param value  value to pool, may be null
+     * @return  pooled instance, or value if it can't be pooled
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T intern(T value)
+    {
+        if (value == null)
+        {
+            return null;
+        } else if (value instanceof String)
+        {
+            if (((String) value).length() > maxLength) return value;
+        } else if (value instanceof URI)
+        {
+            String key = value.toString();
+            if (key.length() > maxLength) return value;
+            requestCount.increment();
+            URI pooled = uris.putIfAbsent(key, (URI) value);
+            if (pooled == null)
+            {
+                added();
+                return value;
+            }
+            hitCount.increment();
+            return (T) pooled;
+        } else if (value instanceof List)
+        {
+            List<Object> pooledList = new ArrayList<>((List<Object>) value);
+            pooledList.replaceAll(this::intern);
+            return (T) pooledList;
+        } else if (! isImmutable(value))
+        {
+            return value;
+        }
+        requestCount.increment();
+        Object pooled = values.putIfAbsent(value, value);
+        if (pooled == null)
+        {
+            added();
+            return value;
+        }
+        hitCount.increment();
+        return (T) pooled;
+    }
+    
+    /* Start over when the pool is full, the size is only checked when a value is added */
+    private void added()
+    {
+        if (size() > maxSize)
+        {
+            synchronized (this)
+            {
+                if (size() > maxSize)
+                {
+                    values.clear();
+                    uris.clear();
+                    resetCount.increment();
+                }
+            }
+        }
+    }
+    
+    private static boolean isImmutable(Object value)
+    {
+        return (value instanceof ZoneId) ||
+                (value instanceof LocalDate) ||
+                (value instanceof LocalDateTime) ||
+                (value instanceof ZonedDateTime) ||
+                (value instanceof OffsetDateTime) ||
+                (value instanceof Instant) ||
+                (value instanceof Duration) ||
+                (value instanceof Period) ||
+                (value instanceof Integer) ||
+                (value instanceof Boolean);
+    }
+    
+    /*
+     * STATISTICS
+     */
+    /** Return number of distinct values in the pool */
+    public int size()
+    {
+        return values.size() + uris.size();
+    }
+    
+    /** Return the maximum number of pooled values */
+    public int maxSize()
+    {
+        return maxSize;
+    }
+    
+    /** Return number of times the pooled values were discarded because the pool was full */
+    public long resetCount()
+    {
+        return resetCount.sum();
+    }
+    
+    /** Return number of values offered to the pool */
+    public long requestCount()
+    {
+        return requestCount.sum();
+    }
+    
+    /** Return number of values replaced by a pooled instance */
+    public long hitCount()
+    {
+        return hitCount.sum();
+    }
+    
+    /** Return the fraction of values replaced by a pooled instance, 0 if there were no requests */
+    public double hitRate()
+    {
+        long requests = requestCount();
+        return (requests == 0) ? 0 : (double) hitCount() / requests;
+    }
+    
+    /** Remove all pooled values and reset the statistics */
+    public void clear()
+    {
+        values.clear();
+        uris.clear();
+        requestCount.reset();
+        hitCount.reset();
+        resetCount.reset();
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "InterningPool [size=" + size() + ", requests=" + requestCount() + ", hits=" + hitCount() + ", resets=" + resetCount() + "]";
+    }
+}
@@ -0,0 +1,365 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.utilities;
+
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import jfxtras.icalendarfx.properties.component.recurrence.PropertyBaseRecurrence;
+
+/**
+ * Immutable sorted set of date or date/time values, such as the values of RDATE or EXDATE properties,
+ * applied to a sorted stream of recurrences in one pass.
+ * 
+ * The values are sorted once into arrays keyed by epoch second and nano of second.  LocalDate values are keyed
+ * at the start of their day and LocalDateTime values as if they were UTC.  Values with equal keys are only
+ * considered the same when they are equal, so a ZonedDateTime EXDATE only removes a recurrence in the same time zone.
+ * 
+ * {@link #of(List, SortedTemporalSet)} reuses the previous set when the property values haven't changed,
+ * which is checked by comparing them with a copy of the values the previous set was made from.  That keeps the
+ * set valid when the values are changed in place, such as by adding to the value of an EXDATE property.
+ */
+public final class SortedTemporalSet
+{
+    /** Set without values */
+    public static final SortedTemporalSet EMPTY = new SortedTemporalSet(new Temporal[0], null);
+    
+    private final Temporal[] values;
+    private final long[] seconds;
+    private final int[] nanos;
+    // copy of the value of each property the set was made from, null if not made from properties
+    private final List<Set<Temporal>> sourceValues;
+    
+    private SortedTemporalSet(Temporal[] sortedValues, List<Set<Temporal>> sourceValues)
+    {
+        this.values = sortedValues;
+        this.sourceValues = sourceValues;
+        seconds = new long[values.length];
+        nanos = new int[values.length];
+        for (int i=0; i<values.length; i++)
+        {
+            seconds[i] = epochSecond(values[i]);
+            nanos[i] = nano(values[i]);
+        }
+    }
+    
+    /**
+     * Returns set of the values of the properties.  If the values are the same as the values previous was
+     * made from, previous is returned.
+     * 
+     * @param properties  RDATE or EXDATE properties, can be null
+     * @param previous  set made from earlier values of the properties, can be null
+     * @return  set of the values
+     */
+    public static SortedTemporalSet of(List<? extends PropertyBaseRecurrence<?>> properties, SortedTemporalSet previous)
+    {
+        if ((properties == null) || properties.isEmpty())
+        {
+            return EMPTY;
+        }
+        if ((previous != null) && previous.isMadeFrom(properties))
+        {
+            return previous;
+        }
+        List<Temporal> allValues = new ArrayList<>();
+        List<Set<Temporal>> sourceValues = new ArrayList<>(properties.size());
+        for (PropertyBaseRecurrence<?> property : properties)
+        {
+            Set<Temporal> propertyValues = property.getValue();
+            if (propertyValues != null)
+            {
+                allValues.addAll(propertyValues);
+            }
+            sourceValues.add((propertyValues == null) ? null : new HashSet<>(propertyValues));
+        }
+        return new SortedTemporalSet(sort(allValues), sourceValues);
+    }
+    
+    /* True if the values of the properties are equal to the values this set was made from */
+    private boolean isMadeFrom(List<? extends PropertyBaseRecurrence<?>> properties)
+    {
+        if ((sourceValues == null) || (sourceValues.size() != properties.size()))
+        {
+            return false;
+        }
+        for (int i=0; i<properties.size(); i++)
+        {
+            if (! Objects.equals(sourceValues.get(i), properties.get(i).getValue()))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns set of the temporals
+     * 
+     * @param temporals  date or date/time values
+     * @return  set of the temporals
+     */
+    public static SortedTemporalSet of(Collection<? extends Temporal> temporals)
+    {
+        return temporals.isEmpty() ? EMPTY : new SortedTemporalSet(sort(temporals), null);
+    }
+    
+    /* Sort by key, keeping one of equal values */
+    private static Temporal[] sort(Collection<? extends Temporal> temporals)
+    {
+        Temporal[] sorted = temporals.toArray(new Temporal[temporals.size()]);
+        Arrays.sort(sorted, (t1, t2) -> 
+        {
+            int result = Long.compare(epochSecond(t1), epochSecond(t2));
+            return (result != 0) ? result : Integer.compare(nano(t1), nano(t2));
+        });
+        int size = 0;
+        for (Temporal t : sorted)
+        {
+            boolean isDuplicate = false;
+            for (int i=size-1; (i >= 0) && (compare(sorted[i], t) == 0); i--)
+            {
+                if (sorted[i].equals(t))
+                {
+                    isDuplicate = true;
+                    break;
+                }
+            }
+            if (! isDuplicate)
+            {
+                sorted[size++] = t;
+            }
+        }
+        return (size == sorted.length) ? sorted : Arrays.copyOf(sorted, size);
+    }
+    
+    /** Number of values */
+    public int size()
+    {
+        return values.length;
+    }
+    
+    /** Returns true if the set has no values */
+    public boolean isEmpty()
+    {
+        return values.length == 0;
+    }
+    
+    /**
+     * Returns true if the set contains the temporal
+     * 
+     * @param temporal  value to find
+     * @return  true if an equal value is in the set
+     */
+    public boolean contains(Temporal temporal)
+    {
+        for (int i = lowerBound(epochSecond(temporal), nano(temporal)); (i < values.length) && (compareAt(i, temporal) == 0); i++)
+        {
+            if (values[i].equals(temporal))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns stream without the values in this set.  The stream is expected to be sorted, so a cursor moves
+     * forward through the set as the stream is consumed.
+     * 
+     * @param stream  sorted stream of recurrences
+     * @return  stream without values in this set
+     */
+    public Stream<Temporal> removeFrom(Stream<Temporal> stream)
+    {
+        if (isEmpty())
+        {
+            return stream;
+        }
+        Cursor cursor = new Cursor();
+        return stream.filter(t -> ! cursor.contains(t));
+    }
+    
+    /**
+     * Returns stream with the values in this set that are not before start merged in, in order.
+     * The stream is expected to be sorted.  A value equal to an element of the stream is returned once.
+     * 
+     * @param stream  sorted stream of recurrences
+     * @param start  values before start are skipped
+     * @return  merged stream
+     */
+    public Stream<Temporal> mergeInto(Stream<Temporal> stream, Temporal start)
+    {
+        int first = lowerBound(epochSecond(start), nano(start));
+        if (first == values.length)
+        {
+            return stream;
+        }
+        Iterator<Temporal> iterator = new MergedIterator(stream.iterator(), first);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+    
+    /* First index with key not less than the key */
+    private int lowerBound(long second, int nano)
+    {
+        int low = 0;
+        int high = values.length;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if ((seconds[middle] < second) || ((seconds[middle] == second) && (nanos[middle] < nano)))
+            {
+                low = middle + 1;
+            } else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    private int compareAt(int i, Temporal temporal)
+    {
+        int result = Long.compare(seconds[i], epochSecond(temporal));
+        return (result != 0) ? result : Integer.compare(nanos[i], nano(temporal));
+    }
+    
+    private static int compare(Temporal t1, Temporal t2)
+    {
+        int result = Long.compare(epochSecond(t1), epochSecond(t2));
+        return (result != 0) ? result : Integer.compare(nano(t1), nano(t2));
+    }
+    
+    private static long epochSecond(Temporal temporal)
+    {
+        if (temporal.isSupported(ChronoField.INSTANT_SECONDS))
+        {
+            return temporal.getLong(ChronoField.INSTANT_SECONDS);
+        }
+        long second = temporal.getLong(ChronoField.EPOCH_DAY) * 86400;
+        return temporal.isSupported(ChronoField.SECOND_OF_DAY) ? second + temporal.getLong(ChronoField.SECOND_OF_DAY) : second;
+    }
+    
+    private static int nano(Temporal temporal)
+    {
+        return temporal.isSupported(ChronoField.NANO_OF_SECOND) ? temporal.get(ChronoField.NANO_OF_SECOND) : 0;
+    }
+    
+    /* Forward cursor for a sorted sequence of lookups, falls back to a search if the sequence goes backwards */
+    private final class Cursor
+    {
+        private int index;
+        private long lastSecond = Long.MIN_VALUE;
+        private int lastNano;
+        
+        private boolean contains(Temporal temporal)
+        {
+            long second = epochSecond(temporal);
+            int nano = nano(temporal);
+            if ((second < lastSecond) || ((second == lastSecond) && (nano < lastNano)))
+            {
+                index = lowerBound(second, nano);
+            } else
+            {
+                while ((index < values.length) && ((seconds[index] < second) || ((seconds[index] == second) && (nanos[index] < nano))))
+                {
+                    index++;
+                }
+            }
+            lastSecond = second;
+            lastNano = nano;
+            for (int i=index; (i < values.length) && (seconds[i] == second) && (nanos[i] == nano); i++)
+            {
+                if (values[i].equals(temporal))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    /* Merge sorted iterator with the values from index on */
+    private final class MergedIterator implements Iterator<Temporal>
+    {
+        private final Iterator<Temporal> iterator;
+        private int index;
+        private Temporal next;
+        
+        private MergedIterator(Iterator<Temporal> iterator, int index)
+        {
+            this.iterator = iterator;
+            this.index = index;
+        }
+        
+        @Override
+        public boolean hasNext()
+        {
+            return (next != null) || (index < values.length) || iterator.hasNext();
+        }
+        
+        @Override
+        public Temporal next()
+        {
+            if ((next == null) && iterator.hasNext())
+            {
+                next = iterator.next();
+            }
+            if (index < values.length)
+            {
+                int result = (next == null) ? -1 : compareAt(index, next);
+                if ((result < 0) || ((result == 0) && ! values[index].equals(next)))
+                { // value comes first, or same key and different value
+                    return values[index++];
+                }
+                if (result == 0)
+                { // same value, return once
+                    index++;
+                }
+            }
+            if (next == null)
+            {
+                throw new NoSuchElementException();
+            }
+            Temporal theNext = next;
+            next = null;
+            return theNext;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.utilities;
+
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.time.zone.ZoneRulesProvider;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jfxtras.icalendarfx.components.VTimeZone;
+import jfxtras.icalendarfx.properties.component.timezone.TimeZoneIdentifier;
+
+/**
+ * Resolves time zone identifiers that are defined by a {@link VTimeZone} instead of the IANA time zone database,
+ * such as the TZID values written by Microsoft Outlook (e.g. "W. Europe Standard Time").
+ * 
+ * <p>A VTIMEZONE definition gets a region-based {@link ZoneId} whose {@link ZoneId#getId() id} is an alias
+ * starting with {@value #ALIAS_PREFIX}, so date-time values carrying its TZID can be parsed into ordinary
+ * {@link java.time.ZonedDateTime ZonedDateTime} objects.  Each distinct set of rules gets its own ZoneId, and the rules
+ * of a ZoneId never change: two calendars that define the same TZID differently get two ZoneIds, and a VTIMEZONE
+ * that is edited gets a new ZoneId while values made before keep the rules they were made with.
+ * {@link #identifierOf(ZoneId)} maps the alias back to the original TZID when content is written.</p>
+ * 
+ * <p>Which definition a TZID means depends on the calendar.  A resolver instance maps the TZIDs of one calendar to
+ * ZoneIds, and {@link jfxtras.icalendarfx.VCalendar VCalendar} owns one that it keeps up to date with its VTIMEZONE
+ * components.  Parsing on the current thread uses the resolver set by {@link #setCurrent(ZoneRulesResolver)}, which
+ * VCalendar does while it parses its content.</p>
+ * 
+ * <p>The ZoneIds are made by a {@link ZoneRulesProvider}, and providers can't be removed, so each distinct definition
+ * stays registered as long as the JVM.  Definitions with equal rules share one ZoneId, so the registrations grow only
+ * with the number of different definitions, not with the number of calendars parsed.</p>
+ */
+public final class ZoneRulesResolver
+{
+    /** Start of the {@link ZoneId#getId() id} of every ZoneId made for a VTIMEZONE */
+    public static final String ALIAS_PREFIX = "VTIMEZONE/";
+    
+    private static final ThreadLocal<ZoneRulesResolver> CURRENT = new ThreadLocal<>();
+    
+    // TZID -> registrations of its distinct definitions
+    private static final Map<String, List<Registration>> REGISTRATIONS = new HashMap<>();
+    // ZoneId id -> TZID
+    private static final Map<String, String> IDENTIFIERS = new ConcurrentHashMap<>();
+    
+    // TZID -> ZoneId of this resolver's definitions
+    private final Map<String, ZoneId> zones = new ConcurrentHashMap<>();
+    
+    /**
+     * Return the resolver used by parsing on the current thread
+     * 
+     * @return  the current resolver, or null if none is set
+     */
+    public static ZoneRulesResolver current()
+    {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Set the resolver used by parsing on the current thread
+     * 
+     * @param resolver  the resolver, or null to resolve only IANA time zone identifiers
+     * @return  the previous resolver, to be restored when parsing is done
+     */
+    public static ZoneRulesResolver setCurrent(ZoneRulesResolver resolver)
+    {
+        ZoneRulesResolver previous = CURRENT.get();
+        if (resolver == null)
+        {
+            CURRENT.remove();
+        } else
+        {
+            CURRENT.set(resolver);
+        }
+        return previous;
+    }
+    
+    /**
+     * Makes the TZID of a {@link VTimeZone} resolve to the ZoneId of its rules, replacing an earlier
+     * definition of the same TZID in this resolver.
+     * 
+     * @param vTimeZone  time zone definition, must have a TZID
+     * @return  ZoneId for the rules of vTimeZone, see {@link #zoneIdOf(VTimeZone)}
+     * @throws IllegalArgumentException  if vTimeZone has no TZID
+     */
+    public ZoneId register(VTimeZone vTimeZone)
+    {
+        ZoneId zone = zoneIdOf(vTimeZone);
+        zones.put(vTimeZone.getTimeZoneIdentifier().getIdentifier(), zone);
+        return zone;
+    }
+    
+    /**
+     * Removes a TZID from this resolver
+     * 
+     * @param identifier  TZID value
+     */
+    public void unregister(String identifier)
+    {
+        zones.remove(identifier);
+    }
+    
+    /**
+     * Returns the ZoneId of a TZID registered with this resolver, or null if no VTIMEZONE with
+     * that TZID has been registered.
+     * 
+     * @param identifier  TZID value
+     * @return  ZoneId of registered TZID or null
+     */
+    public ZoneId resolve(String identifier)
+    {
+        return zones.get(identifier);
+    }
+    
+    /**
+     * Returns the ZoneId for the rules of a {@link VTimeZone}.  If the TZID is an IANA time zone identifier,
+     * such as America/New_York, the IANA ZoneId is returned, as it is when the TZID is parsed.  Otherwise the
+     * ZoneId of an earlier definition with equal rules is returned, or a new ZoneId is made for the rules.
+     * 
+     * @param vTimeZone  time zone definition, must have a TZID
+     * @return  ZoneId for the rules of vTimeZone
+     * @throws IllegalArgumentException  if vTimeZone has no TZID
+     */
+    public static ZoneId zoneIdOf(VTimeZone vTimeZone)
+    {
+        TimeZoneIdentifier timeZoneIdentifier = vTimeZone.getTimeZoneIdentifier();
+        String identifier = (timeZoneIdentifier == null) ? null : timeZoneIdentifier.getIdentifier();
+        if (identifier == null)
+        {
+            throw new IllegalArgumentException("Can't register VTIMEZONE without TZID");
+        }
+        ZoneId value = timeZoneIdentifier.getValue();
+        if ((value != null) && ! IDENTIFIERS.containsKey(value.getId()))
+        {
+            return value; // IANA time zone, rules come from the time zone database
+        }
+        ZoneRules rules = vTimeZone.toZoneRules();
+        synchronized (REGISTRATIONS)
+        {
+            List<Registration> registrations = REGISTRATIONS.computeIfAbsent(identifier, i -> new ArrayList<>(1));
+            for (Registration registration : registrations)
+            {
+                if (registration.rules.equals(rules))
+                {
+                    return registration.zone;
+                }
+            }
+            Registration registration = new Registration(alias(identifier), rules);
+            ZoneRulesProvider.registerProvider(registration);
+            registration.zone = ZoneId.of(registration.alias);
+            IDENTIFIERS.put(registration.alias, identifier);
+            registrations.add(registration);
+            return registration.zone;
+        }
+    }
+    
+    /**
+     * Returns the TZID value for a ZoneId.  That is the original TZID for a ZoneId made by
+     * {@link #zoneIdOf(VTimeZone)} and the {@link ZoneId#getId() id} for other ZoneIds.
+     * 
+     * @param zone  time zone
+     * @return  TZID value
+     */
+    public static String identifierOf(ZoneId zone)
+    {
+        String id = zone.getId();
+        String identifier = IDENTIFIERS.get(id);
+        return (identifier == null) ? id : identifier;
+    }
+    
+    /*
+     * Make a ZoneId id from a TZID.  Characters a region id can't contain are replaced by '_'
+     * and a suffix is appended if the result is already taken by another definition.
+     */
+    private static String alias(String identifier)
+    {
+        StringBuilder builder = new StringBuilder(ALIAS_PREFIX.length() + identifier.length() + 2);
+        builder.append(ALIAS_PREFIX);
+        for (int i=0; i<identifier.length(); i++)
+        {
+            char c = identifier.charAt(i);
+            boolean isAllowed = ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || ((c >= '0') && (c <= '9'))
+                    || (c == '/') || (c == '.') || (c == '_') || (c == '-') || (c == '+');
+            builder.append(isAllowed ? c : '_');
+        }
+        String alias = builder.toString();
+        Set<String> availableZoneIds = ZoneRulesProvider.getAvailableZoneIds();
+        for (int suffix = 2; availableZoneIds.contains(alias); suffix++)
+        {
+            alias = builder.toString() + "~" + suffix;
+        }
+        return alias;
+    }
+    
+    /* Provides the rules of one definition, which never change */
+    private static class Registration extends ZoneRulesProvider
+    {
+        private final String alias;
+        private final ZoneRules rules;
+        private ZoneId zone;
+        
+        Registration(String alias, ZoneRules rules)
+        {
+            this.alias = alias;
+            this.rules = rules;
+        }
+
+        @Override
+        protected Set<String> provideZoneIds()
+        {
+            return Collections.singleton(alias);
+        }
+
+        @Override
+        protected ZoneRules provideRules(String zoneId, boolean forCaching)
+        {
+            return rules;
+        }
+
+        @Override
+        protected NavigableMap<String, ZoneRules> provideVersions(String zoneId)
+        {
+            TreeMap<String, ZoneRules> versions = new TreeMap<>();
+            versions.put(alias, rules);
+            return versions;
+        }
+    }
+}
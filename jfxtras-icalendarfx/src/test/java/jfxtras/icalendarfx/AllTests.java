@@ -36,7 +36,17 @@ import jfxtras.icalendarfx.calendar.GeneralCalendarTest;
 import jfxtras.icalendarfx.calendar.ParseCalendarTest;
 import jfxtras.icalendarfx.calendar.ReadICSFileTest;
 import jfxtras.icalendarfx.calendar.RecurrenceIDParentValidTest;
+import jfxtras.icalendarfx.calendar.ParallelParseCalendarTest;
+import jfxtras.icalendarfx.calendar.StreamParseCalendarTest;
+import jfxtras.icalendarfx.calendar.InterningPoolTest;
+import jfxtras.icalendarfx.calendar.WriteCalendarTest;
+import jfxtras.icalendarfx.calendar.ContentCacheTest;
 import jfxtras.icalendarfx.calendar.VCalendarRecurrenceIDTest;
+import jfxtras.icalendarfx.calendar.OccurrenceIndexTest;
+import jfxtras.icalendarfx.calendar.FreeBusyTest;
+import jfxtras.icalendarfx.calendar.AlarmSchedulerTest;
+import jfxtras.icalendarfx.calendar.VCalendarDiffTest;
+import jfxtras.icalendarfx.calendar.VCalendarImporterTest;
 import jfxtras.icalendarfx.component.BaseTest;
 import jfxtras.icalendarfx.component.ComponentStatusTest;
 import jfxtras.icalendarfx.component.CopyComponentTest;
@@ -60,6 +70,7 @@ import jfxtras.icalendarfx.component.VFreeBusyTest;
 import jfxtras.icalendarfx.component.VJournalTest;
 import jfxtras.icalendarfx.component.VTimeZoneTest;
 import jfxtras.icalendarfx.component.VTodoTest;
+import jfxtras.icalendarfx.itip.BatchProcessTest;
 import jfxtras.icalendarfx.itip.CancelRecurrenceTest;
 import jfxtras.icalendarfx.itip.ComboMessageTest;
 import jfxtras.icalendarfx.itip.HandleRecurrencesTest;
@@ -68,6 +79,7 @@ import jfxtras.icalendarfx.itip.SimpleCancelTest;
 import jfxtras.icalendarfx.itip.SimplePublishTest;
 import jfxtras.icalendarfx.itip.WholeDayTest;
 import jfxtras.icalendarfx.misc.AddAndRemoveChildrenTests;
+import jfxtras.icalendarfx.misc.ChildAccessorTest;
 import jfxtras.icalendarfx.misc.CreateElementsTests;
 import jfxtras.icalendarfx.misc.ErrorDetectingTest;
 import jfxtras.icalendarfx.misc.FoldingAndUnfoldingTest;
@@ -146,6 +158,7 @@ import jfxtras.icalendarfx.property.component.UniqueIdentifierTest;
         
         // misc tests
 		AddAndRemoveChildrenTests.class,
+		ChildAccessorTest.class,
         CreateElementsTests.class,
 		ErrorDetectingTest.class,
         FoldingAndUnfoldingTest.class,
@@ -153,6 +166,7 @@ import jfxtras.icalendarfx.property.component.UniqueIdentifierTest;
         OrdererTest.class,
         
         // iTIP tests
+        BatchProcessTest.class,
         CancelRecurrenceTest.class,
         ComboMessageTest.class,
         HandleRecurrencesTest.class,
@@ -169,7 +183,17 @@ import jfxtras.icalendarfx.property.component.UniqueIdentifierTest;
         ParseCalendarTest.class,
         ReadICSFileTest.class,
         RecurrenceIDParentValidTest.class,
+        StreamParseCalendarTest.class,
+        ParallelParseCalendarTest.class,
+        InterningPoolTest.class,
+        WriteCalendarTest.class,
+        ContentCacheTest.class,
         VCalendarRecurrenceIDTest.class,
+        OccurrenceIndexTest.class,
+        FreeBusyTest.class,
+        AlarmSchedulerTest.class,
+        VCalendarDiffTest.class,
+        VCalendarImporterTest.class,
                 
         //component tests
         BaseTest.class,
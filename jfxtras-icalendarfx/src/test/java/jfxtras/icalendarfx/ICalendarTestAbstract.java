@@ -37,8 +37,11 @@ import java.time.ZonedDateTime;
 
 import jfxtras.icalendarfx.components.DaylightSavingTime;
 import jfxtras.icalendarfx.components.StandardTime;
+import jfxtras.icalendarfx.components.VAlarm;
 import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.components.VFreeBusy;
 import jfxtras.icalendarfx.components.VTimeZone;
+import jfxtras.icalendarfx.properties.component.alarm.Action.ActionType;
 import jfxtras.icalendarfx.properties.component.descriptive.Status.StatusType;
 import jfxtras.icalendarfx.properties.component.recurrence.ExceptionDates;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceDates;
@@ -839,4 +842,252 @@ public abstract class ICalendarTestAbstract
                         .withTimeZoneOffsetTo("-0500")
                         .withTimeZoneNames("EST"));
     }
+    
+    /** Calendar on 2016-03-07 UTC with overlapping, tentative, transparent and cancelled VEVENTs and a busy-unavailable VFREEBUSY */
+    protected static VCalendar getFreeBusyCalendar()
+    {
+        return new VCalendar()
+                .withVEvents(new VEvent() // daily 9:00-10:00
+                        .withDateTimeStart(ZonedDateTime.of(2016, 3, 7, 9, 0, 0, 0, ZoneOffset.UTC))
+                        .withDuration(Duration.ofHours(1))
+                        .withUniqueIdentifier("daily@jfxtras.org")
+                        .withRecurrenceRule(new RecurrenceRuleValue()
+                                .withFrequency(FrequencyType.DAILY)))
+                .withVEvents(new VEvent() // overlaps daily
+                        .withDateTimeStart(ZonedDateTime.of(2016, 3, 7, 9, 30, 0, 0, ZoneOffset.UTC))
+                        .withDuration(Duration.ofHours(1))
+                        .withUniqueIdentifier("overlap@jfxtras.org"))
+                .withVEvents(new VEvent() // tentative
+                        .withDateTimeStart(ZonedDateTime.of(2016, 3, 7, 13, 0, 0, 0, ZoneOffset.UTC))
+                        .withDuration(Duration.ofHours(2))
+                        .withStatus(StatusType.TENTATIVE)
+                        .withUniqueIdentifier("tentative@jfxtras.org"))
+                .withVEvents(new VEvent() // ignored
+                        .withDateTimeStart(ZonedDateTime.of(2016, 3, 7, 16, 0, 0, 0, ZoneOffset.UTC))
+                        .withDuration(Duration.ofHours(1))
+                        .withTimeTransparency(TimeTransparencyType.TRANSPARENT)
+                        .withUniqueIdentifier("transparent@jfxtras.org"))
+                .withVEvents(new VEvent() // ignored
+                        .withDateTimeStart(ZonedDateTime.of(2016, 3, 7, 17, 0, 0, 0, ZoneOffset.UTC))
+                        .withDuration(Duration.ofHours(1))
+                        .withStatus(StatusType.CANCELLED)
+                        .withUniqueIdentifier("cancelled@jfxtras.org"))
+                .withVFreeBusies(new VFreeBusy()
+                        .withUniqueIdentifier("unavailable@jfxtras.org")
+                        .withFreeBusyTime("FREEBUSY;FBTYPE=BUSY-UNAVAILABLE:20160307T140000Z/PT2H"));
+    }
+    
+    /** Calendar with 20 VEVENTs made from getDaily1, each with its own UID and LOCATION */
+    protected static VCalendar getDailyCalendar()
+    {
+        VCalendar vCalendar = new VCalendar();
+        for (int i=0; i<20; i++)
+        {
+            vCalendar.addChild(getDaily1()
+                    .withUniqueIdentifier(i + "@jfxtras.org")
+                    .withLocation("Room " + i));
+        }
+        return vCalendar;
+    }
+    
+    /** FREQ=DAILY, one-hour VEVENT with a VALARM 15 minutes before start, repeated twice 5 minutes apart */
+    protected static VEvent getDailyWithAlarm(String uid, ZonedDateTime start)
+    {
+        return new VEvent()
+                .withDateTimeStart(start)
+                .withDuration(Duration.ofHours(1))
+                .withUniqueIdentifier(uid)
+                .withRecurrenceRule(new RecurrenceRuleValue()
+                        .withFrequency(FrequencyType.DAILY))
+                .withVAlarms(new VAlarm()
+                        .withAction(ActionType.DISPLAY)
+                        .withDescription("Reminder")
+                        .withTrigger(Duration.ofMinutes(-15))
+                        .withRepeatCount(2)
+                        .withDuration(Duration.ofMinutes(5)));
+    }
+    
+    /** One-hour VEVENT with the given UID, SEQUENCE and SUMMARY */
+    protected static VEvent getSequencedEvent(String uid, int sequence, String summary)
+    {
+        return new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2016, 3, 7, 10, 0))
+                .withDateTimeEnd(LocalDateTime.of(2016, 3, 7, 11, 0))
+                .withDateTimeStamp("20160306T080000Z")
+                .withUniqueIdentifier(uid)
+                .withSequence(sequence)
+                .withSummary(summary);
+    }
+    
+    /** Local calendar to be synced with getServerCalendar */
+    protected static VCalendar getLocalCalendar()
+    {
+        return new VCalendar()
+                .withVEvents(getSequencedEvent("same@jfxtras.org", 0, "Same"))
+                .withVEvents(getSequencedEvent("revised@jfxtras.org", 1, "Revised"))
+                .withVEvents(getSequencedEvent("edited@jfxtras.org", 1, "Edited")
+                        .withRecurrenceRule(new RecurrenceRuleValue()
+                                .withFrequency(FrequencyType.DAILY)))
+                .withVEvents(getSequencedEvent("edited@jfxtras.org", 1, "Moved")
+                        .withRecurrenceId(LocalDateTime.of(2016, 3, 9, 10, 0))
+                        .withDateTimeStart(LocalDateTime.of(2016, 3, 9, 13, 0))
+                        .withDateTimeEnd(LocalDateTime.of(2016, 3, 9, 14, 0)))
+                .withVEvents(getSequencedEvent("removed@jfxtras.org", 0, "Removed"));
+    }
+    
+    /** Server calendar with one VEVENT added, one removed, one revised and one edited without a new SEQUENCE */
+    protected static VCalendar getServerCalendar()
+    {
+        return new VCalendar()
+                .withVEvents(getSequencedEvent("same@jfxtras.org", 0, "Same"))
+                .withVEvents(getSequencedEvent("revised@jfxtras.org", 2, "Revised again"))
+                .withVEvents(getSequencedEvent("edited@jfxtras.org", 1, "Edited without new SEQUENCE")
+                        .withRecurrenceRule(new RecurrenceRuleValue()
+                                .withFrequency(FrequencyType.DAILY)))
+                .withVEvents(getSequencedEvent("edited@jfxtras.org", 1, "Moved")
+                        .withRecurrenceId(LocalDateTime.of(2016, 3, 9, 10, 0))
+                        .withDateTimeStart(LocalDateTime.of(2016, 3, 9, 13, 0))
+                        .withDateTimeEnd(LocalDateTime.of(2016, 3, 9, 14, 0)))
+                .withVEvents(getSequencedEvent("added@jfxtras.org", 0, "Added"));
+    }
+    
+    /** Calendar content with a VTIMEZONE, eventCount similar VEVENTs, a calendar property between them and a VTODO */
+    protected static String getManyEventsContent(int eventCount)
+    {
+        StringBuilder builder = new StringBuilder(
+                "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "VERSION:2.0" + System.lineSeparator() +
+                "BEGIN:VTIMEZONE" + System.lineSeparator() +
+                "TZID:America/New_York" + System.lineSeparator() +
+                "BEGIN:STANDARD" + System.lineSeparator() +
+                "DTSTART:20071104T020000" + System.lineSeparator() +
+                "TZOFFSETFROM:-0400" + System.lineSeparator() +
+                "TZOFFSETTO:-0500" + System.lineSeparator() +
+                "END:STANDARD" + System.lineSeparator() +
+                "END:VTIMEZONE" + System.lineSeparator());
+        for (int i=0; i<eventCount; i++)
+        {
+            builder.append("BEGIN:VEVENT" + System.lineSeparator() +
+                    "UID:" + i + "@example.com" + System.lineSeparator() +
+                    "DTSTAMP:19970610T172345Z" + System.lineSeparator() +
+                    "DTSTART;TZID=America/New_York:20160306T080000" + System.lineSeparator() +
+                    "DTEND;TZID=America/New_York:20160306T090000" + System.lineSeparator() +
+                    "ORGANIZER;CN=Papa Smurf:mailto:papa@smurf.org" + System.lineSeparator() +
+                    "ATTENDEE;ROLE=REQ-PARTICIPANT;CN=Smurfette:mailto:smurfette@smurf.org" + System.lineSeparator() +
+                    "CATEGORIES:MEETING,PROJECT" + System.lineSeparator() +
+                    "LOCATION:Smurf Village" + System.lineSeparator() +
+                    "SUMMARY:Event number " + i + " with a summary long enough that it has to be fo" + System.lineSeparator() +
+                    " lded" + System.lineSeparator());
+            if (i % 10 == 0)
+            {
+                builder.append("BEGIN:VALARM" + System.lineSeparator() +
+                        "ACTION:DISPLAY" + System.lineSeparator() +
+                        "DESCRIPTION:Reminder" + System.lineSeparator() +
+                        "TRIGGER;RELATED=START:-PT30M" + System.lineSeparator() +
+                        "END:VALARM" + System.lineSeparator());
+            }
+            builder.append("END:VEVENT" + System.lineSeparator());
+            if (i == eventCount/2)
+            { // calendar property between components
+                builder.append("PRODID:-//hacksw/handcal//NONSGML v1.0//EN" + System.lineSeparator());
+            }
+        }
+        builder.append("BEGIN:VTODO" + System.lineSeparator() +
+                "UID:20070313T123432Z-456553@example.com" + System.lineSeparator() +
+                "DTSTAMP:20070313T123432Z" + System.lineSeparator() +
+                "DUE;VALUE=DATE:20070501" + System.lineSeparator() +
+                "END:VTODO" + System.lineSeparator());
+        return builder.append("END:VCALENDAR").toString();
+    }
+    
+    /** FREQ=DAILY VEVENT content in Europe/Berlin with the given UID and SUMMARY, see getBerlinCalendarContent */
+    protected static String getBerlinDailyContent(String uid, String summary)
+    {
+        return "BEGIN:VEVENT" + System.lineSeparator() +
+                "DTSTART;TZID=Europe/Berlin:20160307T100000" + System.lineSeparator() +
+                "DTEND;TZID=Europe/Berlin:20160307T110000" + System.lineSeparator() +
+                "DTSTAMP:20160306T080000Z" + System.lineSeparator() +
+                "UID:" + uid + System.lineSeparator() +
+                "SUMMARY:" + summary + System.lineSeparator() +
+                "RRULE:FREQ=DAILY" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator();
+    }
+    
+    /** Calendar content with the Europe/Berlin VTIMEZONE followed by the component contents */
+    protected static String getBerlinCalendarContent(String... componentContents)
+    {
+        StringBuilder builder = new StringBuilder(
+                "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "VERSION:2.0" + System.lineSeparator() +
+                "PRODID:-//Example/ExampleCalendarClient//EN" + System.lineSeparator() +
+                "BEGIN:VTIMEZONE" + System.lineSeparator() +
+                "TZID:Europe/Berlin" + System.lineSeparator() +
+                "BEGIN:STANDARD" + System.lineSeparator() +
+                "DTSTART:19701025T030000" + System.lineSeparator() +
+                "TZOFFSETFROM:+0200" + System.lineSeparator() +
+                "TZOFFSETTO:+0100" + System.lineSeparator() +
+                "RRULE:FREQ=YEARLY;BYMONTH=10;BYDAY=-1SU" + System.lineSeparator() +
+                "END:STANDARD" + System.lineSeparator() +
+                "END:VTIMEZONE" + System.lineSeparator());
+        for (String componentContent : componentContents)
+        {
+            builder.append(componentContent);
+        }
+        return builder.append("END:VCALENDAR").toString();
+    }
+    
+    /** iTIP PUBLISH message with one VEVENT with the given UID, SEQUENCE and SUMMARY */
+    protected static String getPublishMessage(String uid, int sequence, String summary)
+    {
+        return "BEGIN:VCALENDAR" + System.lineSeparator() + 
+                "METHOD:PUBLISH" + System.lineSeparator() + 
+                "PRODID:-//Example/ExampleCalendarClient//EN" + System.lineSeparator() + 
+                "VERSION:2.0" + System.lineSeparator() + 
+                "BEGIN:VEVENT" + System.lineSeparator() + 
+                "ORGANIZER:mailto:a@example.com" + System.lineSeparator() + 
+                "DTSTART:19970701T200000Z" + System.lineSeparator() + 
+                "DTSTAMP:19970611T190000Z" + System.lineSeparator() + 
+                "SEQUENCE:" + sequence + System.lineSeparator() + 
+                "SUMMARY:" + summary + System.lineSeparator() + 
+                "UID:" + uid + System.lineSeparator() + 
+                "END:VEVENT" + System.lineSeparator() + 
+                "END:VCALENDAR" + System.lineSeparator();
+    }
+    
+    /** iTIP CANCEL message for the VEVENT with the given UID and SEQUENCE */
+    protected static String getCancelMessage(String uid, int sequence)
+    {
+        return "BEGIN:VCALENDAR" + System.lineSeparator() + 
+                "METHOD:CANCEL" + System.lineSeparator() + 
+                "PRODID:-//Example/ExampleCalendarClient//EN" + System.lineSeparator() + 
+                "VERSION:2.0" + System.lineSeparator() + 
+                "BEGIN:VEVENT" + System.lineSeparator() + 
+                "ORGANIZER:mailto:a@example.com" + System.lineSeparator() + 
+                "SEQUENCE:" + sequence + System.lineSeparator() + 
+                "UID:" + uid + System.lineSeparator() + 
+                "DTSTAMP:19970611T190000Z" + System.lineSeparator() + 
+                "END:VEVENT" + System.lineSeparator() + 
+                "END:VCALENDAR" + System.lineSeparator();
+    }
+    
+    /** iTIP PUBLISH message with one VEVENT for each UID, summarized by its UID */
+    protected static String getPublishMessage(int sequence, String... uids)
+    {
+        StringBuilder builder = new StringBuilder("BEGIN:VCALENDAR" + System.lineSeparator() + 
+                "METHOD:PUBLISH" + System.lineSeparator() + 
+                "PRODID:-//Example/ExampleCalendarClient//EN" + System.lineSeparator() + 
+                "VERSION:2.0" + System.lineSeparator());
+        for (String uid : uids)
+        {
+            builder.append("BEGIN:VEVENT" + System.lineSeparator() + 
+                    "ORGANIZER:mailto:a@example.com" + System.lineSeparator() + 
+                    "DTSTART:19970701T200000Z" + System.lineSeparator() + 
+                    "DTSTAMP:19970611T190000Z" + System.lineSeparator() + 
+                    "SEQUENCE:" + sequence + System.lineSeparator() + 
+                    "SUMMARY:" + uid + System.lineSeparator() + 
+                    "UID:" + uid + System.lineSeparator() + 
+                    "END:VEVENT" + System.lineSeparator());
+        }
+        return builder.append("END:VCALENDAR" + System.lineSeparator()).toString();
+    }
 }
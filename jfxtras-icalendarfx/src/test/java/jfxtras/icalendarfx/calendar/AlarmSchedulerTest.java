@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.AlarmScheduler;
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.ScheduledAlarm;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VAlarm;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.properties.component.alarm.Action.ActionType;
+
+public class AlarmSchedulerTest extends ICalendarTestAbstract
+{
+    private static List<ZonedDateTime> triggerTimes(List<ScheduledAlarm> alarms)
+    {
+        return alarms.stream().map(a -> a.getTriggerTime()).collect(Collectors.toList());
+    }
+    
+    @Test
+    public void canScheduleRecurringAlarms()
+    {
+        ZonedDateTime start = ZonedDateTime.of(2016, 3, 7, 10, 0, 0, 0, ZoneOffset.UTC);
+        VCalendar vCalendar = new VCalendar()
+                .withVEvents(getDailyWithAlarm("daily@jfxtras.org", start))
+                .withVEvents(new VEvent()
+                        .withDateTimeStart(start.plusHours(2))
+                        .withDuration(Duration.ofHours(1))
+                        .withUniqueIdentifier("end@jfxtras.org")
+                        .withVAlarms(new VAlarm()
+                                .withAction(ActionType.DISPLAY)
+                                .withDescription("Ending")
+                                .withTrigger("TRIGGER;RELATED=END:-PT10M"),
+                                new VAlarm()
+                                .withAction(ActionType.DISPLAY)
+                                .withDescription("Absolute")
+                                .withTrigger(start.plusMinutes(30))));
+        AlarmScheduler scheduler = new AlarmScheduler(vCalendar, start.minusHours(1));
+        assertEquals(start.minusMinutes(15), scheduler.peek().getTriggerTime());
+        
+        List<ScheduledAlarm> alarms = scheduler.poll(start.plusHours(6));
+        List<ZonedDateTime> expectedTimes = Arrays.asList(
+                start.minusMinutes(15), start.minusMinutes(10), start.minusMinutes(5),
+                start.plusMinutes(30),
+                start.plusHours(3).minusMinutes(10));
+        assertEquals(expectedTimes, triggerTimes(alarms));
+        assertEquals(start, alarms.get(0).getRecurrence());
+        assertEquals(2, alarms.get(2).getRepeat());
+        assertNull(alarms.get(3).getRecurrence());
+        
+        // next day, lazily refilled
+        assertEquals(start.plusDays(1).minusMinutes(15), scheduler.peek().getTriggerTime());
+        alarms = scheduler.poll(start.plusDays(1).minusMinutes(7));
+        assertEquals(Arrays.asList(start.plusDays(1).minusMinutes(15), start.plusDays(1).minusMinutes(10)), triggerTimes(alarms));
+        assertEquals(start.plusDays(1), alarms.get(1).getRecurrence());
+        scheduler.close();
+    }
+    
+    @Test
+    public void canStartWithinRecurrenceSet()
+    {
+        ZonedDateTime start = ZonedDateTime.of(2016, 3, 7, 10, 0, 0, 0, ZoneOffset.UTC);
+        VCalendar vCalendar = new VCalendar()
+                .withVEvents(getDailyWithAlarm("daily@jfxtras.org", start));
+        // starts between the trigger and its first repetition
+        AlarmScheduler scheduler = new AlarmScheduler(vCalendar, start.plusDays(400).minusMinutes(12));
+        List<ScheduledAlarm> alarms = scheduler.poll(start.plusDays(400));
+        assertEquals(Arrays.asList(start.plusDays(400).minusMinutes(10), start.plusDays(400).minusMinutes(5)), triggerTimes(alarms));
+        assertEquals(start.plusDays(401).minusMinutes(15), scheduler.peek().getTriggerTime());
+    }
+    
+    @Test
+    public void canFollowComponentChanges()
+    {
+        ZonedDateTime start = ZonedDateTime.of(2016, 3, 7, 10, 0, 0, 0, ZoneOffset.UTC);
+        VEvent vEvent = getDailyWithAlarm("daily@jfxtras.org", start);
+        VCalendar vCalendar = new VCalendar()
+                .withVEvents(vEvent);
+        AlarmScheduler scheduler = new AlarmScheduler(vCalendar, start);
+        assertEquals(start.plusDays(1).minusMinutes(15), scheduler.peek().getTriggerTime());
+        
+        vEvent.setDateTimeStart(start.plusHours(2));
+        assertEquals(start.plusHours(2).minusMinutes(15), scheduler.peek().getTriggerTime());
+        
+        vEvent.getVAlarms().get(0).setTrigger(Duration.ofMinutes(-30));
+        assertEquals(start.plusHours(2).minusMinutes(30), scheduler.peek().getTriggerTime());
+        
+        VEvent vEvent2 = getDailyWithAlarm("other@jfxtras.org", start.plusMinutes(30));
+        vCalendar.addChild(vEvent2);
+        List<ScheduledAlarm> alarms = scheduler.poll(start.plusHours(1));
+        assertEquals(3, alarms.size());
+        assertTrue(alarms.stream().allMatch(a -> a.getComponent() == vEvent2));
+        
+        vCalendar.removeChild(vEvent2);
+        vCalendar.removeChild(vEvent);
+        assertNull(scheduler.peek());
+        
+        // direct list edit
+        vCalendar.getVEvents().add(getDailyWithAlarm("list@jfxtras.org", start.plusHours(4)));
+        assertEquals(start.plusHours(4).minusMinutes(15), scheduler.peek().getTriggerTime());
+    }
+    
+    @Test // replacing a component in the list directly keeps the size, it's seen by the list's change count
+    public void canFollowDirectListChanges()
+    {
+        ZonedDateTime start = ZonedDateTime.of(2016, 3, 7, 10, 0, 0, 0, ZoneOffset.UTC);
+        VEvent vEvent = getDailyWithAlarm("daily@jfxtras.org", start);
+        VEvent other = getDailyWithAlarm("other@jfxtras.org", start.plusHours(4));
+        VCalendar vCalendar = new VCalendar()
+                .withVEvents(vEvent);
+        AlarmScheduler scheduler = new AlarmScheduler(vCalendar, start);
+        assertSame(vEvent, scheduler.peek().getComponent());
+        
+        vCalendar.getVEvents().set(0, other);
+        assertSame(other, scheduler.peek().getComponent());
+        assertEquals(start.plusHours(4).minusMinutes(15), scheduler.peek().getTriggerTime());
+        
+        // changes through the calendar keep following the list
+        VEvent vEvent2 = getDailyWithAlarm("daily2@jfxtras.org", start.plusHours(2));
+        vCalendar.addChild(vEvent2);
+        assertSame(vEvent2, scheduler.peek().getComponent());
+        vCalendar.getVEvents().set(1, vEvent);
+        assertSame(other, scheduler.peek().getComponent());
+        vCalendar.removeChild(other);
+        assertSame(vEvent, scheduler.peek().getComponent());
+        assertEquals(start.plusDays(1).minusMinutes(15), scheduler.peek().getTriggerTime());
+        vCalendar.getVEvents().clear();
+        assertNull(scheduler.peek());
+        scheduler.close();
+    }
+}
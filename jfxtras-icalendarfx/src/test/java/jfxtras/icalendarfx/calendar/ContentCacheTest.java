@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VAlarm;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.content.ContentCache;
+import jfxtras.icalendarfx.properties.calendar.Version;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay;
+
+public class ContentCacheTest extends ICalendarTestAbstract
+{
+    /* compare cached output with output produced without the cache */
+    private static void assertContent(VCalendar vCalendar)
+    {
+        String cachedContent = vCalendar.toString();
+        ContentCache cache = vCalendar.getContentCache();
+        vCalendar.setContentCache(null);
+        assertEquals(vCalendar.toString(), cachedContent);
+        vCalendar.setContentCache(cache);
+    }
+    
+    @Test
+    public void canCacheUnchangedComponents()
+    {
+        VCalendar vCalendar = getDailyCalendar();
+        String expectedContent = vCalendar.toString();
+        ContentCache cache = new ContentCache(1_000_000);
+        vCalendar.setContentCache(cache);
+        assertEquals(expectedContent, vCalendar.toString());
+        assertEquals(20, cache.missCount());
+        assertEquals(expectedContent, vCalendar.toString());
+        assertEquals(20, cache.hitCount());
+        assertEquals(20, cache.entryCount());
+        
+        vCalendar.getVEvents().get(3).setSummary("Changed Summary");
+        assertContent(vCalendar);
+        assertEquals(21, cache.missCount());
+        assertEquals(39, cache.hitCount());
+    }
+    
+    @Test
+    public void canInvalidateOnChanges()
+    {
+        VCalendar vCalendar = getDailyCalendar();
+        vCalendar.setContentCache(new ContentCache(1_000_000));
+        vCalendar.toString();
+        
+        VEvent vEvent = vCalendar.getVEvents().get(5);
+        vEvent.getSummary().setValue("New Summary");
+        assertContent(vCalendar);
+        vEvent.getDateTimeStart().setValue(LocalDateTime.of(2016, 1, 1, 9, 0));
+        assertContent(vCalendar);
+        vEvent.getLocation().setLanguage("en");
+        assertContent(vCalendar);
+        vEvent.getLocation().getLanguage().setValue("fr");
+        assertContent(vCalendar);
+        vEvent.getRecurrenceRule().getValue().setCount(10);
+        assertContent(vCalendar);
+        vEvent.getRecurrenceRule().getValue().getCount().setValue(5);
+        assertContent(vCalendar);
+        vEvent.removeChild(vEvent.getLocation());
+        assertContent(vCalendar);
+        vEvent.setLocation("Parking lot");
+        assertContent(vCalendar);
+        vCalendar.removeChild(vCalendar.getVEvents().get(0));
+        assertContent(vCalendar);
+    }
+    
+    @Test
+    public void canInvalidateSubcomponent()
+    {
+        VCalendar vCalendar = getDailyCalendar();
+        VAlarm vAlarm = new VAlarm()
+                .withDescription("Alarm")
+                .withAction("DISPLAY");
+        vCalendar.getVEvents().get(0).addChild(vAlarm);
+        vCalendar.setContentCache(new ContentCache(1_000_000));
+        vCalendar.toString();
+        vAlarm.getDescription().setValue("Alarm changed");
+        assertContent(vCalendar);
+    }
+    
+    @Test // the cache doesn't keep removed components
+    public void canRemoveEntriesOfRemovedComponents()
+    {
+        VCalendar vCalendar = getDailyCalendar();
+        VEvent vEvent = vCalendar.getVEvents().get(0);
+        vEvent.addChild(new VAlarm()
+                .withDescription("Alarm")
+                .withAction("DISPLAY"));
+        ContentCache cache = new ContentCache(1_000_000);
+        vCalendar.setContentCache(cache);
+        vCalendar.toString();
+        assertEquals(21, cache.entryCount());
+        
+        vCalendar.removeChild(vEvent);
+        assertEquals(19, cache.entryCount());
+        assertContent(vCalendar);
+        
+        vCalendar.setVEvents(new ArrayList<>(vCalendar.getVEvents().subList(1, vCalendar.getVEvents().size())));
+        vCalendar.toString();
+        assertEquals(18, cache.entryCount());
+    }
+    
+    @Test
+    public void canStayWithinBudget() throws IOException
+    {
+        VCalendar vCalendar = getDailyCalendar();
+        String expectedContent = vCalendar.toString();
+        int eventLength = vCalendar.getVEvents().get(0).toString().length();
+        ContentCache cache = new ContentCache(5 * (2 * eventLength + 200));
+        vCalendar.setContentCache(cache);
+        assertEquals(expectedContent, vCalendar.toString());
+        assertEquals(expectedContent, vCalendar.toString());
+        assertTrue(cache.size() <= cache.budget());
+        assertTrue(cache.entryCount() < 20);
+        assertTrue(cache.evictionCount() > 0);
+        
+        StringBuilder builder = new StringBuilder();
+        vCalendar.write(builder);
+        assertEquals(expectedContent, builder.toString());
+    }
+    
+    @Test
+    public void canInvalidateInPlaceEdits()
+    {
+        VCalendar vCalendar = new VCalendar();
+        vCalendar.addChild(getDaily1().withExceptionDates(LocalDateTime.of(2016, 5, 16, 10, 0)));
+        vCalendar.setContentCache(new ContentCache(1_000_000));
+        vCalendar.toString();
+        
+        vCalendar.processITIPMessage(
+                "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "METHOD:CANCEL" + System.lineSeparator() +
+                "PRODID:-//Example/ExampleCalendarClient//EN" + System.lineSeparator() + 
+                "VERSION:" + Version.DEFAULT_ICALENDAR_SPECIFICATION_VERSION + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "DTSTAMP:20150110T080000Z" + System.lineSeparator() +
+                "UID:20150110T080000-0@jfxtras.org" + System.lineSeparator() +
+                "RECURRENCE-ID:20160517T100000" + System.lineSeparator() +
+                "STATUS:CANCELLED" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "END:VCALENDAR");
+        assertTrue(vCalendar.toString().contains("EXDATE:20160516T100000,20160517T100000"));
+        assertContent(vCalendar);
+        
+        vCalendar.getVEvents().get(0).withRecurrenceRule("RRULE:FREQ=WEEKLY;BYDAY=MO");
+        vCalendar.toString();
+        ByDay byDay = (ByDay) vCalendar.getVEvents().get(0).getRecurrenceRule().getValue().lookupByRule(ByDay.class);
+        byDay.addDayOfWeek(DayOfWeek.FRIDAY);
+        assertContent(vCalendar);
+    }
+    
+    /* content produced while the element changes isn't cached */
+    @Test
+    public void canSkipContentProducedDuringChange()
+    {
+        VCalendar vCalendar = getDailyCalendar();
+        ContentCache cache = new ContentCache(1_000_000);
+        vCalendar.setContentCache(cache);
+        VEvent vEvent = vCalendar.getVEvents().get(0);
+        String content = cache.content(vEvent, () ->
+        {
+            String stale = vEvent.toString();
+            vEvent.setSummary("Changed Summary");
+            return stale;
+        });
+        assertTrue(content.contains("SUMMARY:Daily1 Summary"));
+        assertEquals(0, cache.entryCount());
+        assertTrue(vCalendar.toString().contains("SUMMARY:Changed Summary"));
+    }
+}
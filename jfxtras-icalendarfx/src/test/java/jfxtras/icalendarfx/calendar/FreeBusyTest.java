@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.FreeBusyIntervals;
+import jfxtras.icalendarfx.FreeBusyOptions;
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VFreeBusy;
+import jfxtras.icalendarfx.parameters.FreeBusyType.FreeBusyTypeEnum;
+
+public class FreeBusyTest extends ICalendarTestAbstract
+{
+    /* Epoch second of the time on 2016-03-07 UTC plus day days, the day of getFreeBusyCalendar */
+    private static long epochSecond(int day, int hour, int minute)
+    {
+        return ZonedDateTime.of(2016, 3, 7 + day, hour, minute, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    }
+    
+    @Test
+    public void canComputeFreeBusyIntervals()
+    {
+        ZonedDateTime start = ZonedDateTime.of(2016, 3, 7, 0, 0, 0, 0, ZoneOffset.UTC);
+        VCalendar vCalendar = getFreeBusyCalendar();
+        FreeBusyIntervals intervals = vCalendar.computeFreeBusyIntervals(start, start.plusDays(2), null);
+        long[] expectedBusy = { epochSecond(0, 9, 0), epochSecond(0, 10, 30), epochSecond(1, 9, 0), epochSecond(1, 10, 0) };
+        assertArrayEquals(expectedBusy, intervals.toArray(FreeBusyTypeEnum.BUSY));
+        long[] expectedTentative = { epochSecond(0, 13, 0), epochSecond(0, 14, 0) };
+        assertArrayEquals(expectedTentative, intervals.toArray(FreeBusyTypeEnum.BUSY_TENTATIVE));
+        long[] expectedUnavailable = { epochSecond(0, 14, 0), epochSecond(0, 16, 0) };
+        assertArrayEquals(expectedUnavailable, intervals.toArray(FreeBusyTypeEnum.BUSY_UNAVAILABLE));
+        long[] expectedAll = { epochSecond(0, 9, 0), epochSecond(0, 10, 30), epochSecond(0, 13, 0), epochSecond(0, 16, 0),
+                epochSecond(1, 9, 0), epochSecond(1, 10, 0) };
+        assertArrayEquals(expectedAll, intervals.toArray(null));
+        
+        // clipped to range, same result sequentially
+        FreeBusyIntervals clipped = vCalendar.computeFreeBusyIntervals(start.withHour(9).withMinute(15), start.withHour(13).withMinute(30),
+                new FreeBusyOptions().withParallel(false));
+        assertEquals(2, clipped.size());
+        assertEquals(epochSecond(0, 9, 15), clipped.getStart(0));
+        assertEquals(FreeBusyTypeEnum.BUSY_TENTATIVE, clipped.getType(1));
+        assertEquals(epochSecond(0, 13, 30), clipped.getEnd(1));
+    }
+    
+    @Test
+    public void canComputeVFreeBusy()
+    {
+        ZonedDateTime start = ZonedDateTime.of(2016, 3, 7, 0, 0, 0, 0, ZoneOffset.UTC);
+        VCalendar vCalendar = getFreeBusyCalendar();
+        VFreeBusy vFreeBusy = vCalendar.computeFreeBusy(start, start.plusDays(1), null);
+        assertEquals(start, vFreeBusy.getDateTimeStart().getValue());
+        assertEquals(start.plusDays(1), vFreeBusy.getDateTimeEnd().getValue());
+        assertEquals("FREEBUSY;FBTYPE=BUSY:20160307T090000Z/PT1H30M,20160307T130000Z/PT3H", vFreeBusy.getFreeBusyTime().toString());
+        
+        vFreeBusy = vCalendar.computeFreeBusy(start, start.plusDays(1), new FreeBusyOptions()
+                .withFreeBusyType(FreeBusyTypeEnum.BUSY_UNAVAILABLE));
+        assertEquals("FREEBUSY;FBTYPE=BUSY-UNAVAILABLE:20160307T140000Z/PT2H", vFreeBusy.getFreeBusyTime().toString());
+        
+        vFreeBusy = vCalendar.computeFreeBusy(start.plusDays(1).withHour(12), start.plusDays(2), null);
+        assertNull(vFreeBusy.getFreeBusyTime());
+    }
+    
+    @Test
+    public void canMergeIntervals()
+    {
+        FreeBusyIntervals intervals = FreeBusyIntervals.of(new long[] { 0, 10, 20 }, new long[] { 15, 20, 30 },
+                new FreeBusyTypeEnum[] { FreeBusyTypeEnum.BUSY, FreeBusyTypeEnum.BUSY_UNAVAILABLE, FreeBusyTypeEnum.BUSY });
+        assertArrayEquals(new long[] { 0, 10, 20, 30 }, intervals.toArray(FreeBusyTypeEnum.BUSY));
+        assertArrayEquals(new long[] { 10, 20 }, intervals.toArray(FreeBusyTypeEnum.BUSY_UNAVAILABLE));
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void canRejectArraysOfDifferentLength()
+    {
+        FreeBusyIntervals.of(new long[] { 0, 10 }, new long[] { 5 }, new FreeBusyTypeEnum[] { FreeBusyTypeEnum.BUSY, FreeBusyTypeEnum.BUSY });
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.utilities.InterningPool;
+
+public class InterningPoolTest extends ICalendarTestAbstract
+{
+    @Test
+    public void canInternRepeatedValues() throws IOException
+    {
+        String content = getManyEventsContent(10);
+        InterningPool pool = new InterningPool();
+        VCalendar vCalendar = VCalendar.parse(new StringReader(content), pool);
+        assertEquals(VCalendar.parse(new StringReader(content)).toString(), vCalendar.toString());
+        
+        VEvent v0 = vCalendar.getVEvents().get(0);
+        VEvent v1 = vCalendar.getVEvents().get(1);
+        assertSame(v0.getOrganizer().getValue(), v1.getOrganizer().getValue());
+        assertSame(v0.getOrganizer().getCommonName().getValue(), v1.getOrganizer().getCommonName().getValue());
+        assertSame(v0.getLocation().getValue(), v1.getLocation().getValue());
+        assertSame(v0.getCategories().get(0).getValue().get(1), v1.getCategories().get(0).getValue().get(1));
+        assertSame(v0.getDateTimeStart().getValue(), v1.getDateTimeStart().getValue());
+        assertNotSame(v0.getUniqueIdentifier().getValue(), v1.getUniqueIdentifier().getValue());
+        assertTrue(pool.hitCount() > 0);
+        assertTrue(pool.hitRate() > 0.5);
+        assertTrue(pool.size() < pool.requestCount());
+        assertNull(InterningPool.current());
+    }
+    
+    @Test
+    public void canInternParallel() throws IOException
+    {
+        String content = getManyEventsContent(300);
+        InterningPool pool = new InterningPool();
+        VCalendar vCalendar = VCalendar.parseParallel(new StringReader(content), ForkJoinPool.commonPool(), pool);
+        assertEquals(VCalendar.parse(new StringReader(content)).toString(), vCalendar.toString());
+        URI organizer = vCalendar.getVEvents().get(0).getOrganizer().getValue();
+        assertTrue(vCalendar.getVEvents().stream().allMatch(v -> v.getOrganizer().getValue() == organizer));
+    }
+    
+    @Test
+    public void canKeepUriCase()
+    {
+        InterningPool pool = new InterningPool();
+        URI uri1 = URI.create("mailto:papa@smurf.org");
+        URI uri2 = URI.create("MAILTO:papa@smurf.org");
+        assertSame(uri1, pool.intern(uri1));
+        assertSame(uri2, pool.intern(uri2));
+        assertSame(uri1, pool.intern(URI.create("mailto:papa@smurf.org")));
+    }
+    
+    @Test
+    public void canInternMemoryMapped() throws IOException
+    {
+        String content = getManyEventsContent(10);
+        Path file = Files.createTempFile("interning", ".ics");
+        try
+        {
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            InterningPool pool = new InterningPool();
+            VCalendar vCalendar = VCalendar.parse(file, StandardCharsets.UTF_8, true, pool);
+            assertEquals(VCalendar.parse(new StringReader(content)).toString(), vCalendar.toString());
+            VEvent v0 = vCalendar.getVEvents().get(0);
+            VEvent v1 = vCalendar.getVEvents().get(1);
+            assertSame(v0.getOrganizer().getValue(), v1.getOrganizer().getValue());
+            assertTrue(pool.hitCount() > 0);
+            assertNull(InterningPool.current());
+        } finally
+        {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void canLimitSize()
+    {
+        InterningPool pool = new InterningPool(InterningPool.DEFAULT_MAX_LENGTH, 10);
+        for (int i=0; i<100; i++)
+        {
+            pool.intern("value" + i);
+            assertTrue(pool.size() <= 10);
+        }
+        assertTrue(pool.resetCount() > 0);
+        String value = pool.intern("repeated");
+        assertSame(value, pool.intern(new String("repeated")));
+    }
+    
+    @Test
+    public void canKeepListUnchanged()
+    {
+        InterningPool pool = new InterningPool();
+        String meeting = pool.intern("MEETING");
+        List<String> categories = new ArrayList<>(Arrays.asList(new String("MEETING"), "PROJECT"));
+        String original = categories.get(0);
+        List<String> pooledCategories = pool.intern(categories);
+        assertSame(original, categories.get(0));
+        assertSame(meeting, pooledCategories.get(0));
+        assertEquals(categories, pooledCategories);
+        assertNotSame(categories, pooledCategories);
+        
+        List<String> unmodifiable = Collections.unmodifiableList(Arrays.asList(new String("MEETING")));
+        assertSame(meeting, pool.intern(unmodifiable).get(0));
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.Occurrence;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.FrequencyType;
+import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
+
+public class OccurrenceIndexTest extends ICalendarTestAbstract
+{
+    private static List<Temporal> starts(List<Occurrence> occurrences)
+    {
+        return occurrences.stream()
+                .map(o -> o.getStart())
+                .collect(Collectors.toList());
+    }
+    
+    @Test
+    public void canFindOccurrencesInRange()
+    {
+        VCalendar vCalendar = new VCalendar();
+        VEvent daily = getDaily1(); // infinite series
+        VEvent weekly = getDaily1()
+                .withUniqueIdentifier("weekly@jfxtras.org")
+                .withDateTimeStart(LocalDateTime.of(2015, 11, 10, 12, 0))
+                .withDateTimeEnd(LocalDateTime.of(2015, 11, 10, 13, 0))
+                .withRecurrenceRule(new RecurrenceRuleValue()
+                        .withFrequency(FrequencyType.WEEKLY)
+                        .withCount(3));
+        VEvent individual = new VEvent()
+                .withUniqueIdentifier("individual@jfxtras.org")
+                .withDateTimeStart(LocalDateTime.of(2015, 11, 20, 8, 0))
+                .withDateTimeEnd(LocalDateTime.of(2015, 11, 20, 9, 0));
+        vCalendar.addChild(daily);
+        vCalendar.addChild(weekly);
+        vCalendar.addChild(individual);
+        
+        List<Occurrence> occurrences = vCalendar.occurrences(LocalDateTime.of(2015, 11, 17, 10, 30), LocalDateTime.of(2015, 11, 20, 9, 0));
+        List<Temporal> expectedStarts = new ArrayList<>();
+        expectedStarts.add(LocalDateTime.of(2015, 11, 17, 10, 0)); // overlaps start of range
+        expectedStarts.add(LocalDateTime.of(2015, 11, 17, 12, 0));
+        expectedStarts.add(LocalDateTime.of(2015, 11, 18, 10, 0));
+        expectedStarts.add(LocalDateTime.of(2015, 11, 19, 10, 0));
+        expectedStarts.add(LocalDateTime.of(2015, 11, 20, 8, 0));
+        assertEquals(expectedStarts, starts(occurrences));
+        assertTrue(occurrences.get(1).getComponent() == weekly);
+        assertEquals(LocalDateTime.of(2015, 11, 17, 13, 0), occurrences.get(1).getEnd());
+        
+        // far from DTSTART only the infinite series remains
+        occurrences = vCalendar.occurrences(LocalDateTime.of(2030, 1, 1, 0, 0), LocalDateTime.of(2030, 1, 3, 0, 0));
+        expectedStarts.clear();
+        expectedStarts.add(LocalDateTime.of(2030, 1, 1, 10, 0));
+        expectedStarts.add(LocalDateTime.of(2030, 1, 2, 10, 0));
+        assertEquals(expectedStarts, starts(occurrences));
+    }
+    
+    @Test
+    public void canMatchEnumeratedOccurrences()
+    {
+        VCalendar vCalendar = new VCalendar();
+        for (int i=0; i<30; i++)
+        {
+            vCalendar.addChild(getDaily1()
+                    .withUniqueIdentifier(i + "@jfxtras.org")
+                    .withDateTimeStart(LocalDateTime.of(2015, 11, 9, 10, 0).plusDays(i * 5))
+                    .withDateTimeEnd(LocalDateTime.of(2015, 11, 9, 11, 0).plusDays(i * 5))
+                    .withRecurrenceRule(new RecurrenceRuleValue()
+                            .withFrequency(FrequencyType.DAILY)
+                            .withInterval(i % 3 + 1)
+                            .withCount(10 + i)));
+        }
+        LocalDateTime start = LocalDateTime.of(2016, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2016, 2, 1, 0, 0);
+        long expectedCount = vCalendar.getVEvents().stream()
+                .flatMap(v -> v.streamRecurrences())
+                .map(t -> (LocalDateTime) t)
+                .filter(t -> ! t.plusHours(1).isBefore(start) && ! t.plusHours(1).equals(start) && t.isBefore(end))
+                .count();
+        List<Occurrence> occurrences = vCalendar.occurrences(start, end);
+        assertEquals(expectedCount, occurrences.size());
+    }
+    
+    /* Infinite series are found through the summaries of their rules */
+    @Test
+    public void canMatchRecurringSeries()
+    {
+        String[] rules = { "FREQ=YEARLY", "FREQ=YEARLY;BYMONTH=3,9;BYDAY=2SU", "FREQ=YEARLY;BYWEEKNO=20;BYDAY=MO",
+                "FREQ=MONTHLY;BYMONTHDAY=-1", "FREQ=MONTHLY;INTERVAL=2", "FREQ=MONTHLY;BYDAY=1TU",
+                "FREQ=WEEKLY;INTERVAL=3;BYDAY=MO,FR", "FREQ=DAILY;INTERVAL=10", "FREQ=HOURLY;INTERVAL=50" };
+        Temporal[] starts = { LocalDateTime.of(2015, 3, 31, 23, 0), ZonedDateTime.of(LocalDateTime.of(2015, 1, 31, 22, 30), ZoneId.of("Pacific/Auckland")),
+                ZonedDateTime.of(LocalDateTime.of(2015, 6, 1, 20, 0), ZoneId.of("America/New_York")), LocalDate.of(2015, 2, 28) };
+        VCalendar vCalendar = new VCalendar();
+        for (int i=0; i<rules.length; i++)
+        {
+            for (int j=0; j<starts.length; j++)
+            {
+                if (rules[i].contains("HOURLY") && (starts[j] instanceof LocalDate))
+                {
+                    continue; // whole days can't recur by hour
+                }
+                vCalendar.addChild(new VEvent()
+                        .withUniqueIdentifier(i + "-" + j + "@jfxtras.org")
+                        .withDateTimeStart(starts[j])
+                        .withDuration((starts[j] instanceof LocalDate) ? Period.ofDays(3) : Duration.ofHours(3))
+                        .withRecurrenceRule(rules[i]));
+            }
+        }
+        LocalDateTime last = LocalDateTime.of(2019, 1, 1, 0, 0);
+        Map<VEvent, List<Temporal>> recurrences = new HashMap<>();
+        for (VEvent v : vCalendar.getVEvents())
+        {
+            List<Temporal> vRecurrences = new ArrayList<>();
+            Iterator<Temporal> iterator = v.streamRecurrences().iterator();
+            for (Temporal t = iterator.next(); epochSecond(t) < epochSecond(last); t = iterator.next())
+            {
+                vRecurrences.add(t);
+            }
+            recurrences.put(v, vRecurrences);
+        }
+        for (LocalDateTime start = LocalDateTime.of(2017, 1, 1, 0, 0); start.isBefore(LocalDateTime.of(2018, 12, 1, 0, 0)); start = start.plusDays(5).plusHours(7))
+        {
+            long rangeStart = epochSecond(start);
+            long rangeEnd = epochSecond(start.plusDays(6));
+            Set<String> expected = new HashSet<>();
+            for (VEvent v : vCalendar.getVEvents())
+            {
+                for (Temporal t : recurrences.get(v))
+                {
+                    long occurrenceStart = epochSecond(t);
+                    long occurrenceEnd = epochSecond(t.plus(v.getDuration().getValue()));
+                    if ((occurrenceStart < rangeEnd) && (occurrenceEnd > rangeStart))
+                    {
+                        expected.add(v.getUniqueIdentifier().getValue() + " " + t);
+                    }
+                }
+            }
+            Set<String> actual = vCalendar.occurrences(start, start.plusDays(6)).stream()
+                    .map(o -> o.getComponent().getUniqueIdentifier().getValue() + " " + o.getStart())
+                    .collect(Collectors.toSet());
+            assertEquals(start.toString(), expected, actual);
+        }
+    }
+    
+    private static long epochSecond(Temporal temporal)
+    {
+        if (temporal instanceof LocalDate)
+        {
+            return ((LocalDate) temporal).atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+        } else if (temporal instanceof LocalDateTime)
+        {
+            return ((LocalDateTime) temporal).atZone(ZoneId.systemDefault()).toEpochSecond();
+        }
+        return ((ZonedDateTime) temporal).toEpochSecond();
+    }
+    
+    @Test
+    public void canFollowChanges()
+    {
+        VCalendar vCalendar = new VCalendar();
+        VEvent vEvent = new VEvent()
+                .withUniqueIdentifier("individual@jfxtras.org")
+                .withDateTimeStart(LocalDateTime.of(2015, 11, 20, 8, 0))
+                .withDateTimeEnd(LocalDateTime.of(2015, 11, 20, 9, 0));
+        vCalendar.addChild(vEvent);
+        LocalDateTime start = LocalDateTime.of(2015, 12, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2015, 12, 2, 0, 0);
+        assertEquals(0, vCalendar.occurrences(start, end).size());
+        
+        // edit after the index is built
+        vEvent.setDateTimeStart(LocalDateTime.of(2015, 12, 1, 8, 0));
+        vEvent.setDateTimeEnd(LocalDateTime.of(2015, 12, 1, 9, 0));
+        assertEquals(1, vCalendar.occurrences(start, end).size());
+        
+        // add and remove after the index is built
+        VEvent vEvent2 = getWholeDayDaily1(); // all-day event covering Nov 9 to Nov 12
+        vCalendar.addChild(vEvent2);
+        List<Occurrence> occurrences = vCalendar.occurrences(LocalDateTime.of(2015, 11, 11, 23, 0), LocalDateTime.of(2015, 11, 12, 0, 0));
+        assertEquals(1, occurrences.size());
+        assertEquals(LocalDate.of(2015, 11, 9), occurrences.get(0).getStart());
+        assertEquals(0, vCalendar.occurrences(LocalDate.of(2015, 11, 12), LocalDate.of(2015, 11, 13)).size());
+
+        vCalendar.removeChild(vEvent);
+        assertEquals(0, vCalendar.occurrences(start, end).size());
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
+
+public class ParallelParseCalendarTest extends ICalendarTestAbstract
+{
+    @Test
+    public void canParseParallel() throws IOException
+    {
+        String content = getManyEventsContent(500);
+        VCalendar expectedVCalendar = VCalendar.parse(new StringReader(content));
+        VCalendar vCalendar = VCalendar.parseParallel(new StringReader(content));
+        assertEquals(expectedVCalendar, vCalendar);
+        assertEquals(expectedVCalendar.childrenUnmodifiable(), vCalendar.childrenUnmodifiable());
+        assertEquals(expectedVCalendar.toString(), vCalendar.toString());
+        assertEquals(500, vCalendar.getVEvents().size());
+    }
+    
+    @Test // children are reassembled in linear time, without comparing them to the ones already added
+    public void canParseManyEventsParallel() throws IOException
+    {
+        String content = getManyEventsContent(20000);
+        VCalendar expectedVCalendar = VCalendar.parse(new StringReader(content));
+        VCalendar vCalendar = VCalendar.parseParallel(new StringReader(content));
+        assertEquals(20000, vCalendar.getVEvents().size());
+        assertEquals(expectedVCalendar.childrenUnmodifiable(), vCalendar.childrenUnmodifiable());
+    }
+    
+    @Test
+    public void canParseParallelWithPool() throws IOException
+    {
+        String content = getManyEventsContent(10);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            VCalendar expectedVCalendar = VCalendar.parse(new StringReader(content));
+            VCalendar vCalendar = VCalendar.parseParallel(new StringReader(content), pool);
+            assertEquals(expectedVCalendar.toString(), vCalendar.toString());
+        } finally
+        {
+            pool.shutdown();
+        }
+    }
+}
@@ -31,6 +31,7 @@ import static org.junit.Assert.assertEquals;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -44,6 +45,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.content.MappedUnfoldingReader;
 import jfxtras.icalendarfx.content.UnfoldingStringIterator;
 
 public class ReadICSFileTest
@@ -106,4 +108,97 @@ public class ReadICSFileTest
         assertEquals(expectedUnfoldedContent, unfoldedContent);
         assertEquals(13217, expectedLines.size());
     }
+    
+    @Test
+    public void canReadMappedICSFile() throws IOException
+    {
+        for (String fileName : Arrays.asList("Yahoo_Sample_Calendar.ics", "mathBirthdays.ics"))
+        {
+            URL url = getClass().getResource(fileName);
+            Path icsFilePath = Paths.get(url.getFile());
+            List<String> expectedLines = new ArrayList<>();
+            try (BufferedReader br = Files.newBufferedReader(icsFilePath))
+            {
+                new UnfoldingStringIterator(br.lines().iterator()).forEachRemaining(line -> expectedLines.add(line));
+            }
+            
+            // small window to read across several mapped windows
+            List<String> lines = new ArrayList<>();
+            try (MappedUnfoldingReader reader = new MappedUnfoldingReader(icsFilePath, StandardCharsets.UTF_8, 4099))
+            {
+                reader.forEachRemaining(line -> lines.add(line));
+            }
+            assertEquals(expectedLines, lines);
+        }
+    }
+    
+    @Test
+    public void canParseMappedICSFile() throws IOException
+    {
+        URL url = getClass().getResource("Yahoo_Sample_Calendar.ics");
+        Path icsFilePath = Paths.get(url.getFile());
+        VCalendar expectedVCalendar = VCalendar.parse(icsFilePath);
+        VCalendar vCalendar = VCalendar.parse(icsFilePath, true);
+        assertEquals(expectedVCalendar.toString(), vCalendar.toString());
+    }
+    
+    @Test
+    public void canReadMappedFoldedLines() throws IOException
+    {
+        Path icsFilePath = Files.createTempFile("folded", ".ics");
+        try
+        {
+            String content = "\u00E9t\u00E9\r\n" + // multi-byte characters
+                    "LINE1\r\n" +
+                    " FOLDED\r\n" +
+                    "\tTAB\n" +
+                    "LINE2\r" +
+                    "LINE3\r\n" +
+                    "\r\n" +
+                    " AFTER EMPTY\r\n";
+            Files.write(icsFilePath, content.getBytes(StandardCharsets.UTF_8));
+            List<String> lines = new ArrayList<>();
+            try (MappedUnfoldingReader reader = new MappedUnfoldingReader(icsFilePath, StandardCharsets.UTF_8, 16))
+            {
+                reader.forEachRemaining(line -> lines.add(line));
+            }
+            assertEquals(Arrays.asList("\u00E9t\u00E9", "LINE1FOLDEDTAB", "LINE2", "LINE3AFTER EMPTY"), lines);
+        } finally
+        {
+            Files.delete(icsFilePath);
+        }
+    }
+    
+    @Test
+    public void canReadMappedLineOffsets() throws IOException
+    {
+        Path icsFilePath = Files.createTempFile("offsets", ".ics");
+        try
+        {
+            String content = "\u00E9t\u00E9\r\n" + // multi-byte characters
+                    "LINE1\r\n" +
+                    " FOLDED\r\n" +
+                    "\tTAB\n" +
+                    "LINE2\r" +
+                    "LINE3\r\n" +
+                    "\r\n" +
+                    " AFTER EMPTY\r\n";
+            Files.write(icsFilePath, content.getBytes(StandardCharsets.UTF_8));
+            List<String> lines = new ArrayList<>();
+            List<Long> offsets = new ArrayList<>();
+            try (MappedUnfoldingReader reader = new MappedUnfoldingReader(icsFilePath, StandardCharsets.UTF_8, 16))
+            {
+                while (reader.hasNext())
+                {
+                    lines.add(reader.nextSequence().toString());
+                    offsets.add(reader.lineOffset());
+                }
+            }
+            assertEquals(Arrays.asList("\u00E9t\u00E9", "LINE1FOLDEDTAB", "LINE2", "LINE3AFTER EMPTY"), lines);
+            assertEquals(Arrays.asList(0L, 5L, 26L, 32L), offsets);
+        } finally
+        {
+            Files.delete(icsFilePath);
+        }
+    }
 }
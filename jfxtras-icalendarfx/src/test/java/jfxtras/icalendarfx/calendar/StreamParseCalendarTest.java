@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.VCalendarStreamParser;
+import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.components.VTimeZone;
+import jfxtras.icalendarfx.components.VTodo;
+
+public class StreamParseCalendarTest extends ICalendarTestAbstract
+{
+    private static final String CONTENT = 
+        "BEGIN:VCALENDAR" + System.lineSeparator() +
+        "VERSION:2.0" + System.lineSeparator() +
+        "PRODID:-//hacksw/handcal//NONSGML v1.0//EN" + System.lineSeparator() +
+        "BEGIN:VTIMEZONE" + System.lineSeparator() +
+        "TZID:America/New_York" + System.lineSeparator() +
+        "BEGIN:STANDARD" + System.lineSeparator() +
+        "DTSTART:20071104T020000" + System.lineSeparator() +
+        "TZOFFSETFROM:-0400" + System.lineSeparator() +
+        "TZOFFSETTO:-0500" + System.lineSeparator() +
+        "END:STANDARD" + System.lineSeparator() +
+        "END:VTIMEZONE" + System.lineSeparator() +
+        "BEGIN:VEVENT" + System.lineSeparator() +
+        "UID:19970610T172345Z-AF23B2@example.com" + System.lineSeparator() +
+        "DTSTAMP:19970610T172345Z" + System.lineSeparator() +
+        "DTSTART:19970714T170000Z" + System.lineSeparator() +
+        "DTEND:19970715T040000Z" + System.lineSeparator() +
+        "SUMMARY:Bastille Day Party with a summary long enough that it has to be fol" + System.lineSeparator() +
+        " ded" + System.lineSeparator() +
+        "BEGIN:VALARM" + System.lineSeparator() +
+        "ACTION:DISPLAY" + System.lineSeparator() +
+        "DESCRIPTION:Reminder" + System.lineSeparator() +
+        "TRIGGER;RELATED=START:-PT30M" + System.lineSeparator() +
+        "END:VALARM" + System.lineSeparator() +
+        "END:VEVENT" + System.lineSeparator() +
+        "BEGIN:VTODO" + System.lineSeparator() +
+        "UID:20070313T123432Z-456553@example.com" + System.lineSeparator() +
+        "DTSTAMP:20070313T123432Z" + System.lineSeparator() +
+        "DUE;VALUE=DATE:20070501" + System.lineSeparator() +
+        "SUMMARY:Submit Quebec Income Tax Return for 2006" + System.lineSeparator() +
+        "END:VTODO" + System.lineSeparator() +
+        "END:VCALENDAR";
+
+    @Test
+    public void canStreamComponents() throws IOException
+    {
+        List<VComponent> components = new ArrayList<>();
+        VCalendarStreamParser parser = new VCalendarStreamParser(c -> components.add(c));
+        VCalendar header = parser.parse(new StringReader(CONTENT));
+        
+        VCalendar expectedCalendar = VCalendar.parse(CONTENT);
+        assertEquals(expectedCalendar.getVTimeZones(), components.subList(0, 1));
+        assertEquals(expectedCalendar.getVEvents(), components.subList(1, 2));
+        assertEquals(expectedCalendar.getVTodos(), components.subList(2, 3));
+        assertEquals(VTimeZone.class, components.get(0).getClass());
+        assertEquals(VEvent.class, components.get(1).getClass());
+        assertEquals(VTodo.class, components.get(2).getClass());
+        assertEquals(1, ((VEvent) components.get(1)).getVAlarms().size());
+        
+        // components are handed off, not kept
+        assertNull(header.getVEvents());
+        assertNull(header.getVTimeZones());
+        assertNull(components.get(1).getParent());
+        String expectedHeader = 
+            "BEGIN:VCALENDAR" + System.lineSeparator() +
+            "VERSION:2.0" + System.lineSeparator() +
+            "PRODID:-//hacksw/handcal//NONSGML v1.0//EN" + System.lineSeparator() +
+            "END:VCALENDAR";
+        assertEquals(expectedHeader, header.toString());
+    }
+    
+    @Test
+    public void canStreamInContentOrder() throws IOException
+    {
+        StringBuilder builder = new StringBuilder("BEGIN:VCALENDAR" + System.lineSeparator());
+        for (int i=0; i<50; i++)
+        {
+            builder.append("BEGIN:VEVENT" + System.lineSeparator());
+            builder.append("UID:" + i + "@example.com" + System.lineSeparator());
+            builder.append("DTSTART:20160101T100000" + System.lineSeparator());
+            builder.append("END:VEVENT" + System.lineSeparator());
+        }
+        builder.append("END:VCALENDAR");
+        List<String> uids = new ArrayList<>();
+        new VCalendarStreamParser(c -> uids.add(((VEvent) c).getUniqueIdentifier().getValue()))
+                .parse(new StringReader(builder.toString()));
+        assertEquals(50, uids.size());
+        for (int i=0; i<50; i++)
+        {
+            assertEquals(i + "@example.com", uids.get(i));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.VCalendarDiff;
+import jfxtras.icalendarfx.VParentBase;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.properties.calendar.Method.MethodType;
+
+public class VCalendarDiffTest extends ICalendarTestAbstract
+{
+    @Test
+    public void canComputeDiff()
+    {
+        VCalendarDiff diff = VCalendarDiff.compute(getLocalCalendar(), getServerCalendar());
+        
+        assertEquals(1, diff.getAdded().size());
+        assertEquals("added@jfxtras.org", diff.getAdded().get(0).getUniqueIdentifier().getValue());
+        List<String> changed = diff.getChanged().stream()
+                .map(c -> c.getNewComponent().getUniqueIdentifier().getValue())
+                .collect(Collectors.toList());
+        assertEquals(2, changed.size());
+        assertTrue(changed.contains("revised@jfxtras.org"));
+        assertTrue(changed.contains("edited@jfxtras.org"));
+        assertEquals(1, diff.getRemoved().size());
+        assertEquals("removed@jfxtras.org", diff.getRemoved().get(0).getUniqueIdentifier().getValue());
+        
+        assertTrue(VCalendarDiff.compute(getLocalCalendar(), getLocalCalendar()).isEmpty());
+    }
+    
+    @Test
+    public void canApplyDiffAsITIPMessages()
+    {
+        VCalendar oldVCalendar = getLocalCalendar();
+        VCalendar newVCalendar = getServerCalendar();
+        List<VCalendar> messages = VCalendarDiff.compute(oldVCalendar, newVCalendar).toITIPMessages();
+        assertEquals(2, messages.size());
+        assertEquals(MethodType.CANCEL, messages.get(0).getMethod().getValue());
+        assertEquals(MethodType.PUBLISH, messages.get(1).getMethod().getValue());
+        
+        oldVCalendar.processITIPMessage(messages);
+        assertEquals(5, oldVCalendar.getVEvents().size());
+        assertTrue(VCalendarDiff.compute(oldVCalendar, newVCalendar).isEmpty());
+    }
+    
+    @Test // components are compared by fingerprint, an in-place change is seen once it's notified
+    public void canDiffByFingerprint()
+    {
+        VCalendar oldVCalendar = getLocalCalendar();
+        VCalendar newVCalendar = getLocalCalendar();
+        VEvent vEvent = newVCalendar.getVEvents().get(0).withCategories("MEETING");
+        assertEquals(1, VCalendarDiff.compute(oldVCalendar, newVCalendar).getChanged().size());
+        oldVCalendar.getVEvents().get(0).withCategories("MEETING");
+        assertTrue(VCalendarDiff.compute(oldVCalendar, newVCalendar).isEmpty());
+        
+        vEvent.getCategories().get(0).getValue().add("PROJECT");
+        assertTrue(VCalendarDiff.compute(oldVCalendar, newVCalendar).isEmpty());
+        VParentBase.elementChanged(vEvent.getCategories().get(0));
+        assertEquals(1, VCalendarDiff.compute(oldVCalendar, newVCalendar).getChanged().size());
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.VCalendarDiff;
+import jfxtras.icalendarfx.VCalendarImporter;
+import jfxtras.icalendarfx.VChild;
+import jfxtras.icalendarfx.components.VEvent;
+
+public class VCalendarImporterTest extends ICalendarTestAbstract
+{
+    @Test
+    public void canReimportChangedComponents() throws IOException
+    {
+        Path icsFilePath = Files.createTempFile("importer", ".ics");
+        try
+        {
+            Files.write(icsFilePath, getBerlinCalendarContent(
+                    getBerlinDailyContent("same@jfxtras.org", "Same"),
+                    getBerlinDailyContent("edited@jfxtras.org", "Edited"),
+                    getBerlinDailyContent("removed@jfxtras.org", "Removed")).getBytes(StandardCharsets.UTF_8));
+            VCalendarImporter importer = new VCalendarImporter(new VCalendar());
+            assertTrue(importer.update(icsFilePath));
+            assertEquals(4, importer.getParsedCount());
+            VCalendar vCalendar = importer.getVCalendar();
+            assertEquals(3, vCalendar.getVEvents().size());
+            VEvent same = vCalendar.getVEvents().get(0);
+            
+            Files.write(icsFilePath, getBerlinCalendarContent(
+                    getBerlinDailyContent("same@jfxtras.org", "Same"),
+                    getBerlinDailyContent("edited@jfxtras.org", "Edited again"),
+                    getBerlinDailyContent("added@jfxtras.org", "Added")).getBytes(StandardCharsets.UTF_8));
+            assertTrue(importer.update(icsFilePath));
+            assertEquals(2, importer.getUnchangedCount());
+            assertEquals(2, importer.getParsedCount());
+            assertEquals(1, importer.getRemovedCount());
+            assertSame(same, vCalendar.getVEvents().get(0));
+            assertEquals("Edited again", vCalendar.getVEvents().get(1).getSummary().getValue());
+            assertTrue(VCalendarDiff.compute(vCalendar, VCalendar.parse(icsFilePath)).isEmpty());
+            
+            assertFalse(importer.update(icsFilePath));
+            assertEquals(4, importer.getUnchangedCount());
+        } finally
+        {
+            Files.delete(icsFilePath);
+        }
+    }
+    
+    @Test
+    public void canReportMessages()
+    {
+        String invalidEvent = "BEGIN:VEVENT" + System.lineSeparator() +
+                "DTSTART:20160307T100000" + System.lineSeparator() +
+                "UID:invalid@jfxtras.org" + System.lineSeparator() +
+                "DTEND:20160307T110000" + System.lineSeparator() +
+                "DURATION:PT1H" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator();
+        String content = getBerlinCalendarContent(getBerlinDailyContent("valid@jfxtras.org", "Valid"), invalidEvent);
+        VCalendarImporter importer = new VCalendarImporter(new VCalendar());
+        assertTrue(importer.update(lines(content)));
+        assertEquals(2, importer.getVCalendar().getVEvents().size());
+        List<String> messages = importer.getMessages();
+        assertFalse(messages.isEmpty());
+        assertTrue(messages.stream().allMatch(m -> m.startsWith("VEVENT:")));
+        assertEquals(VCalendar.parse(content).getVEvents().get(1).errors().size(), messages.size());
+        
+        // nothing parsed, nothing reported
+        assertFalse(importer.update(lines(content)));
+        assertTrue(importer.getMessages().isEmpty());
+    }
+    
+    @Test
+    public void canUpdateFromThreads() throws InterruptedException, ExecutionException
+    {
+        String content1 = getBerlinCalendarContent(getBerlinDailyContent("same@jfxtras.org", "Same"),
+                getBerlinDailyContent("edited@jfxtras.org", "Edited"));
+        String content2 = getBerlinCalendarContent(getBerlinDailyContent("same@jfxtras.org", "Same"),
+                getBerlinDailyContent("edited@jfxtras.org", "Edited again"),
+                getBerlinDailyContent("added@jfxtras.org", "Added"));
+        VCalendarImporter importer = new VCalendarImporter(new VCalendar());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<Boolean>> updates = new ArrayList<>();
+            for (int i=0; i<40; i++)
+            {
+                String content = (i % 2 == 0) ? content1 : content2;
+                updates.add(executor.submit(() -> importer.update(lines(content))));
+            }
+            for (Future<Boolean> update : updates)
+            {
+                update.get();
+            }
+        } finally
+        {
+            executor.shutdown();
+        }
+        importer.update(lines(content2));
+        VCalendar vCalendar = importer.getVCalendar();
+        assertEquals(3, vCalendar.getVEvents().size());
+        assertTrue(VCalendarDiff.compute(vCalendar, VCalendar.parse(content2)).isEmpty());
+    }
+    
+    @Test
+    public void canKeepComponentsAfterFailedUpdate()
+    {
+        String content = getBerlinCalendarContent(getBerlinDailyContent("same@jfxtras.org", "Same"),
+                getBerlinDailyContent("other@jfxtras.org", "Other"));
+        VCalendarImporter importer = new VCalendarImporter(new VCalendar());
+        importer.update(lines(content));
+        List<VEvent> vEvents = new ArrayList<>(importer.getVCalendar().getVEvents());
+        
+        // fail at END:VCALENDAR, after the unchanged blocks are read
+        Iterator<String> lines = lines(content);
+        Iterator<String> failingLines = new Iterator<String>()
+        {
+            @Override public boolean hasNext() { return lines.hasNext(); }
+            @Override public String next()
+            {
+                String line = lines.next();
+                if (lines.hasNext()) return line;
+                throw new IllegalStateException("read failed");
+            }
+        };
+        try
+        {
+            importer.update(failingLines);
+            fail("update should fail");
+        } catch (IllegalStateException e)
+        {
+            // expected
+        }
+        assertEquals(vEvents, importer.getVCalendar().getVEvents());
+        
+        // the components of the failed update are still known as imported
+        assertFalse(importer.update(lines(content)));
+        assertEquals(3, importer.getUnchangedCount());
+        assertSame(vEvents.get(0), importer.getVCalendar().getVEvents().get(0));
+    }
+    
+    @Test
+    public void canLeaveEqualUserComponents()
+    {
+        String content = getBerlinCalendarContent(getBerlinDailyContent("edited@jfxtras.org", "Edited"),
+                getBerlinDailyContent("removed@jfxtras.org", "Removed"));
+        
+        // components added by the user ahead of the equal imported ones
+        List<VEvent> userVEvents = VCalendar.parse(content).getVEvents();
+        VEvent userEdited = new VEvent(userVEvents.get(0));
+        VEvent userRemoved = new VEvent(userVEvents.get(1));
+        VCalendar vCalendar = new VCalendar()
+                .withVEvents(userEdited)
+                .withVEvents(userRemoved);
+        VCalendarImporter importer = new VCalendarImporter(vCalendar);
+        importer.update(lines(content));
+        VEvent edited = vCalendar.getVEvents().get(2);
+        VEvent removed = vCalendar.getVEvents().get(3);
+        assertEquals(userEdited, edited);
+        assertEquals(userRemoved, removed);
+        
+        assertTrue(importer.update(lines(getBerlinCalendarContent(
+                getBerlinDailyContent("edited@jfxtras.org", "Edited again")))));
+        assertEquals(1, importer.getParsedCount());
+        assertEquals(1, importer.getRemovedCount());
+        List<VEvent> vEvents = vCalendar.getVEvents();
+        assertEquals(3, vEvents.size());
+        assertSame(userEdited, vEvents.get(0));
+        assertSame(userRemoved, vEvents.get(1));
+        assertEquals("Edited again", vEvents.get(2).getSummary().getValue());
+        List<VChild> children = vCalendar.childrenUnmodifiable();
+        assertTrue(children.stream().anyMatch(c -> c == userEdited));
+        assertTrue(children.stream().anyMatch(c -> c == userRemoved));
+        assertFalse(children.stream().anyMatch(c -> (c == edited) || (c == removed)));
+    }
+    
+    private static Iterator<String> lines(String content)
+    {
+        return Arrays.asList(content.split(System.lineSeparator())).iterator();
+    }
+}
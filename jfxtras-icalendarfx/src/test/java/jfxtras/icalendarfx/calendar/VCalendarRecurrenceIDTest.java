@@ -27,6 +27,8 @@
 package jfxtras.icalendarfx.calendar;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.time.LocalDateTime;
 import java.time.temporal.Temporal;
@@ -135,5 +137,69 @@ public class VCalendarRecurrenceIDTest extends ICalendarTestAbstract
             assertEquals(expectedRecurrences, madeRecurrences);
         }
     }
-
+    
+    @Test
+    public void canFollowUidChanges()
+    {
+        VEvent parent = getYearly1();
+        VEvent child = getRecurrenceForYearly1();
+        VEvent child2 = getRecurrenceForYearly2();
+        VCalendar cal = new VCalendar()
+                .withVEvents(parent, child, child2);
+        String uid = parent.getUniqueIdentifier().getValue();
+        assertEquals(3, cal.getVComponents(parent, uid).size());
+        assertSame(parent, cal.getVComponent(parent, uid, null));
+        assertSame(child, cal.getVComponent(parent, uid, LocalDateTime.of(2016, 11, 9, 10, 0)));
+        assertSame(parent, child2.recurrenceParent());
+        
+        // change UID and RECURRENCE-ID after lookups
+        child2.setUniqueIdentifier("other@jfxtras.org");
+        assertEquals(1, parent.recurrenceChildren().size());
+        assertNull(child2.recurrenceParent());
+        child.setRecurrenceId(LocalDateTime.of(2017, 11, 9, 10, 0));
+        assertNull(cal.getVComponent(parent, uid, LocalDateTime.of(2016, 11, 9, 10, 0)));
+        assertSame(child, cal.getVComponent(parent, uid, LocalDateTime.of(2017, 11, 9, 10, 0)));
+        
+        cal.removeChild(parent);
+        assertNull(child.recurrenceParent());
+        assertEquals(1, cal.getVComponents(child, uid).size());
+    }
+    
+    @Test // lists changed directly, without changing their size
+    public void canFollowDirectListChanges()
+    {
+        VEvent parent = getYearly1();
+        VEvent child = getRecurrenceForYearly1();
+        VEvent other = new VEvent()
+                .withUniqueIdentifier("other@jfxtras.org");
+        VCalendar cal = new VCalendar()
+                .withVEvents(parent, child);
+        String uid = parent.getUniqueIdentifier().getValue();
+        assertSame(parent, cal.getVComponent(parent, uid, null));
+        
+        cal.getVEvents().set(0, other);
+        assertNull(cal.getVComponent(parent, uid, null));
+        assertSame(other, cal.getVComponent(other, "other@jfxtras.org", null));
+        
+        cal.getVEvents().remove(other);
+        cal.getVEvents().add(parent);
+        assertSame(parent, cal.getVComponent(parent, uid, null));
+        assertNull(cal.getVComponent(other, "other@jfxtras.org", null));
+        
+        // changes through the calendar keep the index
+        VEvent child2 = getRecurrenceForYearly2();
+        cal.addChild(child2);
+        assertEquals(3, cal.getVComponents(parent, uid).size());
+        cal.removeChild(child);
+        assertEquals(Arrays.asList(parent, child2), cal.getVComponents(parent, uid));
+        
+        // list set by the caller
+        List<VEvent> vEvents = new ArrayList<>(Arrays.asList(parent, child));
+        VCalendar cal2 = new VCalendar();
+        cal2.setVEvents(vEvents);
+        assertSame(parent, cal2.getVComponent(parent, uid, null));
+        vEvents.set(0, other);
+        assertNull(cal2.getVComponent(parent, uid, null));
+        assertSame(other, cal2.getVComponent(other, "other@jfxtras.org", null));
+    }
 }
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.calendar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.properties.component.descriptive.Description;
+import jfxtras.icalendarfx.utilities.ICalendarUtilities;
+
+public class WriteCalendarTest extends ICalendarTestAbstract
+{
+    private static String write(VCalendar vCalendar) throws IOException
+    {
+        StringBuilder builder = new StringBuilder();
+        vCalendar.write(builder);
+        return builder.toString();
+    }
+    
+    @Test
+    public void canWriteICSFile() throws IOException
+    {
+        for (String fileName : new String[] { "Yahoo_Sample_Calendar.ics", "mathBirthdays.ics" })
+        {
+            URL url = getClass().getResource(fileName);
+            Path icsFilePath = Paths.get(url.getFile());
+            VCalendar vCalendar = VCalendar.parse(icsFilePath);
+            String expectedContent = vCalendar.toString();
+            assertEquals(expectedContent, write(vCalendar));
+            
+            StringWriter writer = new StringWriter();
+            vCalendar.write(writer);
+            assertEquals(expectedContent, writer.toString());
+            
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            vCalendar.write(Channels.newChannel(bytes));
+            assertEquals(expectedContent, new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+    
+    @Test
+    public void canWriteFoldedLines() throws IOException
+    {
+        VEvent vEvent = getYearly1()
+                .withDescription("A very long description with an escaped\\, comma placed so it would be split by folding if " +
+                        "the fold did not move back one character; the line keeps going to need a third and a fourth " +
+                        "continuation line with non-ASCII text: événement, 日本語")
+                .withSummary("");
+        VCalendar vCalendar = new VCalendar()
+                .withVEvents(vEvent)
+                .withVEvents(getDaily1());
+        assertEquals(vCalendar.toString(), write(vCalendar));
+        
+        Description description = vEvent.getDescription();
+        StringBuilder builder = new StringBuilder();
+        description.write(builder);
+        assertEquals(description.toString(), builder.toString());
+        
+        StringBuilder folded = new StringBuilder();
+        ICalendarUtilities.foldLine(description.toString().replace(System.lineSeparator() + " ", ""), folded);
+        assertEquals(description.toString(), folded.toString());
+    }
+    
+    @Test
+    public void canWriteEmptyCalendar() throws IOException
+    {
+        VCalendar vCalendar = new VCalendar();
+        assertEquals(vCalendar.toString(), write(vCalendar));
+    }
+}
@@ -152,6 +152,38 @@ public class CopyComponentTest extends ICalendarTestAbstract
         assertEquals(component1.toString(), component2.toString());
     }
     
+    @Test
+    public void canCopyVEventWithManyAttendees()
+    {
+        VEvent component1 = getWeekly3();
+        for (int i=0; i<300; i++)
+        {
+            component1.withAttendees("ATTENDEE;CN=Attendee " + i + ";RSVP=TRUE:mailto:attendee" + i + "@example.com");
+        }
+        VEvent component2 = new VEvent(component1);
+        assertEquals(component1, component2);
+        assertEquals(component1.toString(), component2.toString());
+        assertEquals(300, component2.getAttendees().size());
+        assertFalse(component1.getAttendees().get(0) == component2.getAttendees().get(0));
+        
+        component2.getAttendees().get(0).setCommonName("Changed");
+        assertEquals("Attendee 0", component1.getAttendees().get(0).getCommonName().getValue());
+    }
+    
+    @Test // copies added to an existing component are noticed once the copying is done
+    public void canNotifyAfterCopyingChildren()
+    {
+        VEvent component1 = getWeekly3();
+        VEvent component2 = new VEvent()
+                .withSummary("Existing");
+        long fingerprint = component2.fingerprint();
+        int modificationCount = component2.modificationCount();
+        component1.copyChildrenInto(component2);
+        assertFalse(fingerprint == component2.fingerprint());
+        assertFalse(modificationCount == component2.modificationCount());
+        assertEquals(component1.getDescription(), component2.getDescription());
+    }
+    
     /*
      * BEGIN:VEVENT
 DTSTART:20151107T100000
@@ -32,7 +32,9 @@ import static org.junit.Assert.assertFalse;
 import org.junit.Test;
 
 import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VParentBase;
 import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.properties.component.descriptive.Categories;
 
 public class EqualsTest extends ICalendarTestAbstract
 {
@@ -51,5 +53,74 @@ public class EqualsTest extends ICalendarTestAbstract
         VEvent component2 = getWeekly1();
         assertFalse(component1.equals(component2));
     }
-
+    
+    @Test
+    public void canUpdateFingerprint()
+    {
+        VEvent component1 = getWeekly3()
+                .withAttendees("ATTENDEE;CN=Papa Smurf:mailto:papa@smurf.org");
+        VEvent component2 = new VEvent(component1);
+        assertEquals(component1.fingerprint(), component2.fingerprint());
+        assertEquals(component1.hashCode(), component2.hashCode());
+        
+        component2.getAttendees().get(0).setCommonName("Smurfette");
+        assertFalse(component1.fingerprint() == component2.fingerprint());
+        assertFalse(component1.equals(component2));
+        
+        component2.getAttendees().get(0).setCommonName("Papa Smurf");
+        assertEquals(component1.fingerprint(), component2.fingerprint());
+        assertEquals(component1, component2);
+    }
+    
+    @Test
+    public void canFingerprintMutableValue()
+    {
+        VEvent component1 = getWeekly3().withCategories("group03");
+        VEvent component2 = new VEvent(component1);
+        assertEquals(component1.fingerprint(), component2.fingerprint());
+        
+        component2.getCategories().get(0).getValue().add("group04");
+        assertFalse(component1.equals(component2));
+        VParentBase.elementChanged(component2.getCategories().get(0));
+        assertFalse(component1.fingerprint() == component2.fingerprint());
+        
+        // a child added directly to the list is compared by equals before it's ordered
+        component1.getCategories().get(0).getValue().add("group04");
+        VParentBase.elementChanged(component1.getCategories().get(0));
+        assertEquals(component1, component2);
+        component2.getCategories().add(new Categories("group05"));
+        assertFalse(component1.equals(component2));
+    }
+    
+    @Test // hashCode reads the current values, like equals, so no notification is needed
+    public void canHashMutableValue()
+    {
+        VEvent component1 = getWeekly3().withCategories("group03");
+        VEvent component2 = new VEvent(component1);
+        long fingerprint = component1.fingerprint();
+        
+        component1.getCategories().get(0).getValue().add("group04");
+        component2.getCategories().get(0).getValue().add("group04");
+        assertEquals(component1, component2);
+        assertEquals(component1.hashCode(), component2.hashCode());
+        assertEquals(component1.getCategories().get(0).hashCode(), component2.getCategories().get(0).hashCode());
+        assertEquals(fingerprint, component1.fingerprint()); // not notified
+        
+        component2.getCategories().get(0).getValue().set(1, "group05");
+        assertFalse(component1.equals(component2));
+        assertFalse(component1.hashCode() == component2.hashCode());
+    }
+    
+    @Test
+    public void canFingerprintChildrenInAnyOrder()
+    {
+        VEvent component1 = new VEvent()
+                .withSummary("Summary")
+                .withDescription("Description");
+        VEvent component2 = new VEvent()
+                .withDescription("Description")
+                .withSummary("Summary");
+        assertEquals(component1.fingerprint(), component2.fingerprint());
+        assertEquals(component1, component2);
+    }
 }
@@ -45,6 +45,11 @@ import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -61,6 +66,7 @@ import jfxtras.icalendarfx.components.VRepeatable;
 import jfxtras.icalendarfx.components.VTodo;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceDates;
 import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRule;
+import jfxtras.icalendarfx.properties.component.recurrence.RecurrenceRuleCache;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.FrequencyType;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay;
@@ -1406,6 +1412,96 @@ public class RepeatableTest //extends Application
         assertEquals(LocalDateTime.of(2016, 5, 15, 10, 0), previous);
     }
 
+    /* cache saves every nth recurrence, shares a budget, and is used by several threads */
+    @Test
+    public void canCacheRecurrences() throws InterruptedException, ExecutionException
+    {
+        VEvent e = new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2015, 1, 30, 10, 0))
+                .withRecurrenceRule("RRULE:FREQ=MONTHLY;BYDAY=MO,FR"); // not seekable, day after 28
+        e.recurrenceCache().setDensity(10);
+        List<Temporal> expectedRecurrences = e.streamRecurrences().limit(500).collect(Collectors.toList());
+        assertEquals(49, e.recurrenceCache().valueCount());
+        assertEquals(expectedRecurrences, e.streamRecurrences().limit(500).collect(Collectors.toList()));
+        assertEquals(49, e.recurrenceCache().valueCount()); // already saved values are reused
+        
+        long hits = RecurrenceRuleCache.hitCount();
+        Temporal target = expectedRecurrences.get(455);
+        assertEquals(expectedRecurrences.get(450), e.recurrenceCache().getClosestStart(target));
+        assertEquals(hits + 1, RecurrenceRuleCache.hitCount());
+        
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Callable<List<Temporal>>> tasks = new ArrayList<>();
+            for (int i=0; i<8; i++)
+            {
+                Temporal start = expectedRecurrences.get(i * 50);
+                tasks.add(() -> e.streamRecurrences(start).limit(50).collect(Collectors.toList()));
+            }
+            List<Future<List<Temporal>>> results = executor.invokeAll(tasks);
+            for (int i=0; i<8; i++)
+            {
+                assertEquals(expectedRecurrences.subList(i * 50, i * 50 + 50), results.get(i).get());
+            }
+        } finally
+        {
+            executor.shutdown();
+        }
+
+        long budget = RecurrenceRuleCache.getBudget();
+        long evictions = RecurrenceRuleCache.evictionCount();
+        try
+        {
+            RecurrenceRuleCache.setBudget(0);
+            assertEquals(0, e.recurrenceCache().valueCount());
+            assertTrue(RecurrenceRuleCache.evictionCount() > evictions);
+            assertEquals(expectedRecurrences.subList(455, 460), e.streamRecurrences(target).limit(5).collect(Collectors.toList()));
+        } finally
+        {
+            RecurrenceRuleCache.setBudget(budget);
+        }
+    }
+
+    /* saved values of an old version of the rule aren't used */
+    @Test
+    public void canDiscardCacheWhenRuleChanges()
+    {
+        VEvent e = new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2015, 1, 30, 10, 0))
+                .withRecurrenceRule("RRULE:FREQ=MONTHLY;BYDAY=MO,FR");
+        e.recurrenceCache().setDensity(10);
+        e.streamRecurrences().limit(100).forEach(t -> {});
+        assertEquals(9, e.recurrenceCache().valueCount());
+
+        e.getRecurrenceRule().getValue().setInterval(2);
+        assertEquals(0, e.recurrenceCache().valueCount());
+        VEvent expected = new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2015, 1, 30, 10, 0))
+                .withRecurrenceRule("RRULE:FREQ=MONTHLY;INTERVAL=2;BYDAY=MO,FR");
+        assertEquals(expected.streamRecurrences().limit(100).collect(Collectors.toList()),
+                e.streamRecurrences().limit(100).collect(Collectors.toList()));
+        Temporal target = LocalDateTime.of(2018, 1, 1, 0, 0);
+        assertEquals(expected.streamRecurrences(target).limit(5).collect(Collectors.toList()),
+                e.streamRecurrences(target).limit(5).collect(Collectors.toList()));
+    }
+
+    /* seek skips to target, honoring EXDATE and RDATE */
+    @Test
+    public void canSeekRecurrence()
+    {
+        VEvent vComponent = ICalendarStaticComponents.getDaily1()
+                .withExceptionDates("EXDATE:20400101T100000")
+                .withRecurrenceDates("RDATE:20400101T120000");
+        assertEquals(LocalDateTime.of(2040, 1, 1, 12, 0), vComponent.seek(LocalDateTime.of(2040, 1, 1, 0, 0)));
+        assertEquals(LocalDateTime.of(2040, 1, 2, 10, 0), vComponent.seek(LocalDateTime.of(2040, 1, 1, 12, 1)));
+        assertEquals(LocalDateTime.of(2015, 11, 9, 10, 0), vComponent.seek(LocalDateTime.of(2015, 1, 1, 0, 0)));
+        
+        vComponent.setRecurrenceRule("RRULE:FREQ=DAILY;UNTIL=20151231T100000Z");
+        assertEquals(LocalDateTime.of(2040, 1, 1, 12, 0), vComponent.seek(LocalDateTime.of(2016, 1, 1, 0, 0)));
+        assertEquals(null, vComponent.seek(LocalDateTime.of(2040, 1, 2, 0, 0)));
+    }
+
 //    @Test
 //    public void canCheckIfIsRecurrence()
 //    {
@@ -1427,5 +1523,75 @@ public class RepeatableTest //extends Application
 //        
 //        assertTrue(vComponentRecurrence.isRecurrence(LocalDateTime.of(2016, 5, 17, 8, 30)));
 //    }
-
+    
+    @Test
+    public void canApplyManyExceptionsAndRecurrences()
+    {
+        LocalDateTime dtStart = LocalDateTime.of(2015, 1, 1, 10, 0);
+        Temporal[] exceptions = new Temporal[300];
+        for (int i=0; i<exceptions.length; i++)
+        {
+            exceptions[i] = dtStart.plusDays(i * 3 + 1);
+        }
+        Temporal[] recurrences = new Temporal[100];
+        for (int i=0; i<recurrences.length; i++)
+        {
+            recurrences[i] = dtStart.plusDays(i * 7).withHour(15);
+        }
+        VEvent component = new VEvent()
+                .withDateTimeStart(dtStart)
+                .withRecurrenceRule(new RecurrenceRuleValue()
+                        .withFrequency(FrequencyType.DAILY))
+                .withExceptionDates(exceptions)
+                .withRecurrenceDates(recurrences);
+        
+        // compare with membership test on unsorted lists
+        List<Temporal> exceptionList = Arrays.asList(exceptions);
+        List<Temporal> expectedRecurrences = Stream.concat(
+                    Stream.iterate(dtStart, t -> t.plusDays(1)).limit(1200),
+                    Arrays.stream(recurrences).map(t -> (LocalDateTime) t))
+                .filter(t -> ! exceptionList.contains(t))
+                .sorted()
+                .filter(t -> t.isBefore(LocalDateTime.of(2018, 1, 1, 0, 0)))
+                .collect(Collectors.toList());
+        List<Temporal> madeRecurrences = component.streamRecurrences()
+                .limit(expectedRecurrences.size())
+                .collect(Collectors.toList());
+        assertEquals(expectedRecurrences, madeRecurrences);
+        
+        // later start skips earlier RDATEs
+        LocalDateTime start = LocalDateTime.of(2016, 6, 1, 10, 0);
+        assertEquals(expectedRecurrences.stream().filter(t -> ! ((LocalDateTime) t).isBefore(start)).limit(50).collect(Collectors.toList()),
+                component.streamRecurrences(start).limit(50).collect(Collectors.toList()));
+        
+        // sorted sets are kept until values change, also in place
+        assertTrue(component.exceptionDateSet() == component.exceptionDateSet());
+        assertEquals(300, component.exceptionDateSet().size());
+        component.getExceptionDates().get(0).getValue().add(dtStart);
+        assertEquals(301, component.exceptionDateSet().size());
+        assertEquals(dtStart.withHour(15), component.streamRecurrences().findFirst().get());
+    }
+    
+    /* In place change of the values that keeps their size and sum of hash codes */
+    @Test
+    public void canStreamAfterInPlaceExceptionDateSwap()
+    {
+        VEvent component = new VEvent()
+                .withDateTimeStart(LocalDate.of(2015, 1, 1))
+                .withRecurrenceRule(new RecurrenceRuleValue()
+                        .withFrequency(FrequencyType.DAILY)
+                        .withCount(10))
+                .withExceptionDates("EXDATE;VALUE=DATE:20150105,20150110");
+        assertEquals(8, component.streamRecurrences().count());
+        Set<Temporal> values = component.getExceptionDates().get(0).getValue();
+        values.remove(LocalDate.of(2015, 1, 5));
+        values.remove(LocalDate.of(2015, 1, 10));
+        values.add(LocalDate.of(2015, 1, 6));
+        values.add(LocalDate.of(2015, 1, 9));
+        List<Temporal> recurrences = component.streamRecurrences().collect(Collectors.toList());
+        assertTrue(recurrences.contains(LocalDate.of(2015, 1, 5)));
+        assertTrue(recurrences.contains(LocalDate.of(2015, 1, 10)));
+        assertFalse(recurrences.contains(LocalDate.of(2015, 1, 6)));
+        assertFalse(recurrences.contains(LocalDate.of(2015, 1, 9)));
+    }
 }
@@ -34,11 +34,15 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 
 import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.ScheduleConflict;
+import jfxtras.icalendarfx.ScheduleConflictDetector;
 import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.properties.component.descriptive.Status.StatusType;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.FrequencyType;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.RecurrenceRuleValue;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay;
@@ -248,8 +252,61 @@ public class ScheduleConflictTest extends ICalendarTestAbstract
         String conflict = DateTimeUtilities.checkScheduleConflict(newVEvent, list);
         assertNull(conflict);
     }
-
     
+    @Test // conflict later than the previous 400 recurrence limit
+    public void canDetectDistantScheduleConflict()
+    {
+        VEvent existingVEvent = new VEvent()
+            .withDateTimeStart(LocalDateTime.of(2017, 3, 1, 10, 0))
+            .withDuration(Duration.ofHours(1))
+            .withUniqueIdentifier("existing@jfxtras.org");
+        List<VEvent> list = Arrays.asList(existingVEvent);
+        VEvent newVEvent = new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2015, 11, 10, 10, 30))
+                .withRecurrenceRule(new RecurrenceRuleValue()
+                        .withFrequency(FrequencyType.DAILY));
+        assertNull(DateTimeUtilities.checkScheduleConflict(newVEvent, list, 400));
+        assertEquals("existing@jfxtras.org, 20170301T100000", DateTimeUtilities.checkScheduleConflict(newVEvent, list));
+    }
+    
+    @Test // all conflicts in window, ignoring cancelled events
+    public void canFindAllScheduleConflicts()
+    {
+        VEvent existingVEvent1 = new VEvent()
+            .withDateTimeStart(LocalDateTime.of(2015, 11, 9, 10, 0))
+            .withDuration(Duration.ofHours(1))
+            .withUniqueIdentifier("daily@jfxtras.org")
+            .withRecurrenceRule(new RecurrenceRuleValue()
+                    .withFrequency(FrequencyType.DAILY));
+        VEvent existingVEvent2 = new VEvent()
+            .withDateTimeStart(LocalDateTime.of(2015, 11, 11, 9, 0))
+            .withDuration(Duration.ofHours(3))
+            .withUniqueIdentifier("individual@jfxtras.org");
+        VEvent existingVEvent3 = new VEvent()
+            .withDateTimeStart(LocalDateTime.of(2015, 11, 12, 10, 0))
+            .withDuration(Duration.ofHours(1))
+            .withStatus(StatusType.CANCELLED)
+            .withUniqueIdentifier("cancelled@jfxtras.org");
+        List<VEvent> list = Arrays.asList(existingVEvent1, existingVEvent2, existingVEvent3);
+        VEvent newVEvent = new VEvent()
+                .withDateTimeStart(LocalDateTime.of(2015, 11, 10, 10, 30))
+                .withDuration(Duration.ofMinutes(15))
+                .withRecurrenceRule(new RecurrenceRuleValue()
+                        .withFrequency(FrequencyType.DAILY));
+        List<ScheduleConflict> conflicts = ScheduleConflictDetector.find(newVEvent, list, LocalDateTime.of(2015, 11, 13, 0, 0), false);
+        List<String> expectedConflicts = Arrays.asList(
+                "daily@jfxtras.org, 20151110T100000",
+                "individual@jfxtras.org, 20151111T090000",
+                "daily@jfxtras.org, 20151111T100000",
+                "daily@jfxtras.org, 20151112T100000");
+        assertEquals(expectedConflicts, conflicts.stream().map(c -> c.toString()).collect(Collectors.toList()));
+        assertEquals(LocalDateTime.of(2015, 11, 11, 10, 30), conflicts.get(1).getCandidate().getStart());
+        
+        assertEquals(1, ScheduleConflictDetector.find(newVEvent, list, true).size());
+        newVEvent.setStatus(StatusType.CANCELLED);
+        assertEquals(0, ScheduleConflictDetector.find(newVEvent, list, false).size());
+    }
+
 //    @Test
 //    public void canDetectScheduleConflictDuringImport()
 //    {
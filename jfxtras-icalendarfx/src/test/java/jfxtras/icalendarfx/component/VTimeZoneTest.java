@@ -27,12 +27,27 @@
 package jfxtras.icalendarfx.component;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneRules;
 
 import org.junit.Test;
 
 import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
 import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VEvent;
 import jfxtras.icalendarfx.components.VTimeZone;
+import jfxtras.icalendarfx.utilities.ZoneRulesResolver;
 
 public class VTimeZoneTest
 {
@@ -124,4 +139,115 @@ public class VTimeZoneTest
         assertEquals(expectedContent, component.toString());
         assertEquals(builtComponent.toString(), component.toString());
     }
+    
+    @Test
+    public void canCompileZoneRules()
+    {
+        VTimeZone vTimeZone = ICalendarTestAbstract.getTimeZone1();
+        ZoneRules rules = vTimeZone.toZoneRules();
+        ZoneRules expectedRules = ZoneId.of("America/New_York").getRules();
+        for (Instant instant = Instant.parse("1968-01-01T12:00:00Z");
+                instant.isBefore(Instant.parse("2040-01-01T00:00:00Z"));
+                instant = instant.plus(1, ChronoUnit.DAYS))
+        {
+            assertEquals(instant.toString(), expectedRules.getOffset(instant), rules.getOffset(instant));
+        }
+        Instant instant = Instant.parse("2035-06-01T00:00:00Z");
+        assertEquals(expectedRules.nextTransition(instant), rules.nextTransition(instant));
+        assertEquals(2, rules.getTransitionRules().size());
+        assertSame(rules, vTimeZone.toZoneRules());
+    }
+    
+    @Test
+    public void canResolveOutlookTimeZone() throws IOException
+    {
+        String content = "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "BEGIN:VTIMEZONE" + System.lineSeparator() +
+                "TZID:W. Europe Standard Time" + System.lineSeparator() +
+                "BEGIN:STANDARD" + System.lineSeparator() +
+                "DTSTART:16010101T030000" + System.lineSeparator() +
+                "TZOFFSETFROM:+0200" + System.lineSeparator() +
+                "TZOFFSETTO:+0100" + System.lineSeparator() +
+                "RRULE:FREQ=YEARLY;INTERVAL=1;BYDAY=-1SU;BYMONTH=10" + System.lineSeparator() +
+                "END:STANDARD" + System.lineSeparator() +
+                "BEGIN:DAYLIGHT" + System.lineSeparator() +
+                "DTSTART:16010101T020000" + System.lineSeparator() +
+                "TZOFFSETFROM:+0100" + System.lineSeparator() +
+                "TZOFFSETTO:+0200" + System.lineSeparator() +
+                "RRULE:FREQ=YEARLY;INTERVAL=1;BYDAY=-1SU;BYMONTH=3" + System.lineSeparator() +
+                "END:DAYLIGHT" + System.lineSeparator() +
+                "END:VTIMEZONE" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "DTSTART;TZID=W. Europe Standard Time:20160715T100000" + System.lineSeparator() +
+                "DTEND;TZID=W. Europe Standard Time:20161215T110000" + System.lineSeparator() +
+                "UID:outlook@jfxtras.org" + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "END:VCALENDAR";
+        VCalendar vCalendar = VCalendar.parse(content);
+        VEvent vEvent = vCalendar.getVEvents().get(0);
+        ZonedDateTime start = (ZonedDateTime) vEvent.getDateTimeStart().getValue();
+        ZonedDateTime end = (ZonedDateTime) vEvent.getDateTimeEnd().getValue();
+        ZoneId berlin = ZoneId.of("Europe/Berlin");
+        assertEquals(LocalDateTime.of(2016, 7, 15, 10, 0).atZone(berlin).toInstant(), start.toInstant());
+        assertEquals(LocalDateTime.of(2016, 12, 15, 11, 0).atZone(berlin).toInstant(), end.toInstant());
+        assertEquals(ZoneRulesResolver.ALIAS_PREFIX + "W._Europe_Standard_Time", start.getZone().getId());
+        assertEquals(start.getZone(), vCalendar.getVTimeZones().get(0).toZoneId());
+        assertEquals("DTSTART;TZID=W. Europe Standard Time:20160715T100000", vEvent.getDateTimeStart().toString());
+        assertEquals(content, vCalendar.toString());
+        
+        // a changed VTIMEZONE gets a new ZoneId, values parsed before keep their rules
+        VTimeZone vTimeZone = vCalendar.getVTimeZones().get(0);
+        vTimeZone.getStandardOrDaylight().get(0).setTimeZoneOffsetFrom(ZoneOffset.ofHours(3));
+        vTimeZone.getStandardOrDaylight().get(1).setTimeZoneOffsetTo(ZoneOffset.ofHours(3));
+        assertEquals(ZoneOffset.ofHours(2), start.getZone().getRules().getOffset(start.toInstant()));
+        assertEquals(ZoneOffset.ofHours(3), vTimeZone.toZoneId().getRules().getOffset(start.toInstant()));
+        vCalendar.addChild("BEGIN:VEVENT" + System.lineSeparator() +
+                "DTSTART;TZID=W. Europe Standard Time:20160715T100000" + System.lineSeparator() +
+                "UID:changed@jfxtras.org" + System.lineSeparator() +
+                "END:VEVENT");
+        ZonedDateTime changedStart = (ZonedDateTime) vCalendar.getVEvents().get(1).getDateTimeStart().getValue();
+        assertEquals(ZoneOffset.ofHours(3), changedStart.getOffset());
+        assertEquals("DTSTART;TZID=W. Europe Standard Time:20160715T100000", vCalendar.getVEvents().get(1).getDateTimeStart().toString());
+        
+        VCalendar parallelVCalendar = VCalendar.parseParallel(new StringReader(content));
+        assertEquals(content, parallelVCalendar.toString());
+        start = (ZonedDateTime) parallelVCalendar.getVEvents().get(0).getDateTimeStart().getValue();
+        assertEquals(ZoneOffset.ofHours(2), start.getOffset());
+    }
+    
+    @Test
+    public void canResolveSameTimeZoneIdentifierPerCalendar() throws IOException
+    {
+        VCalendar vCalendar1 = VCalendar.parse(customTimeZoneContent("+0200", "calendar1@jfxtras.org"));
+        VCalendar vCalendar2 = VCalendar.parse(customTimeZoneContent("-0500", "calendar2@jfxtras.org"));
+        ZonedDateTime start1 = (ZonedDateTime) vCalendar1.getVEvents().get(0).getDateTimeStart().getValue();
+        ZonedDateTime start2 = (ZonedDateTime) vCalendar2.getVEvents().get(0).getDateTimeStart().getValue();
+        assertEquals(Instant.parse("2015-06-02T08:00:00Z"), start1.plusDays(1).toInstant());
+        assertEquals(Instant.parse("2015-06-02T15:00:00Z"), start2.plusDays(1).toInstant());
+        assertFalse(start1.getZone().equals(start2.getZone()));
+        assertEquals("DTSTART;TZID=Custom Standard Time:20150601T100000", vCalendar2.getVEvents().get(0).getDateTimeStart().toString());
+        
+        // equal definitions share one ZoneId
+        VCalendar vCalendar3 = VCalendar.parseParallel(new StringReader(customTimeZoneContent("+0200", "calendar3@jfxtras.org")));
+        ZonedDateTime start3 = (ZonedDateTime) vCalendar3.getVEvents().get(0).getDateTimeStart().getValue();
+        assertEquals(start1.getZone(), start3.getZone());
+    }
+    
+    private static String customTimeZoneContent(String offset, String uid)
+    {
+        return "BEGIN:VCALENDAR" + System.lineSeparator() +
+                "BEGIN:VTIMEZONE" + System.lineSeparator() +
+                "TZID:Custom Standard Time" + System.lineSeparator() +
+                "BEGIN:STANDARD" + System.lineSeparator() +
+                "DTSTART:16010101T000000" + System.lineSeparator() +
+                "TZOFFSETFROM:" + offset + System.lineSeparator() +
+                "TZOFFSETTO:" + offset + System.lineSeparator() +
+                "END:STANDARD" + System.lineSeparator() +
+                "END:VTIMEZONE" + System.lineSeparator() +
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "DTSTART;TZID=Custom Standard Time:20150601T100000" + System.lineSeparator() +
+                "UID:" + uid + System.lineSeparator() +
+                "END:VEVENT" + System.lineSeparator() +
+                "END:VCALENDAR";
+    }
 }
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.itip;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.ICalendarTestAbstract;
+import jfxtras.icalendarfx.VCalendar;
+import jfxtras.icalendarfx.itip.ITIPMessageResult.Status;
+import jfxtras.icalendarfx.properties.calendar.Method.MethodType;
+
+/**
+ * Tests processing many iTIP messages with {@link ITIPBatchProcessor}
+ */
+public class BatchProcessTest extends ICalendarTestAbstract
+{
+    @Test
+    public void canKeepOrderOfMessagesWithSeveralUIDs()
+    {
+        VCalendar main = new VCalendar();
+        String messages = getPublishMessage(0, "a@example.com") +
+                getPublishMessage(1, "a@example.com", "b@example.com") +
+                getCancelMessage("a@example.com", 2);
+        List<ITIPMessageResult> results = main.processITIPMessageBatch(messages);
+        
+        assertEquals(Status.PROCESSED, results.get(0).getStatus());
+        assertEquals(Status.PROCESSED, results.get(1).getStatus());
+        assertNull(results.get(1).getUniqueIdentifier());
+        assertEquals(Status.PROCESSED, results.get(2).getStatus());
+        assertEquals(1, main.getVEvents().size());
+        assertEquals("b@example.com", main.getVEvents().get(0).getUniqueIdentifier().getValue());
+    }
+    
+    @Test
+    public void canKeepMessageFollowedByOtherMethod()
+    {
+        VCalendar main = new VCalendar();
+        String messages = getPublishMessage("a@example.com", 0, "first") +
+                getCancelMessage("a@example.com", 1) +
+                getPublishMessage("a@example.com", 2, "second");
+        List<ITIPMessageResult> results = main.processITIPMessageBatch(messages);
+        
+        assertEquals(Status.PROCESSED, results.get(0).getStatus());
+        assertEquals(-1, results.get(0).getSupersedingIndex());
+        assertEquals(Status.PROCESSED, results.get(1).getStatus());
+        assertEquals(Status.PROCESSED, results.get(2).getStatus());
+        assertEquals(1, main.getVEvents().size());
+        assertEquals("second", main.getVEvents().get(0).getSummary().getValue());
+    }
+    
+    @Test
+    public void canCollapseSupersededMessages()
+    {
+        VCalendar main = new VCalendar();
+        String messages = getPublishMessage("a@example.com", 0, "first") +
+                getPublishMessage("b@example.com", 0, "other") +
+                getPublishMessage("a@example.com", 1, "second") +
+                getPublishMessage("a@example.com", 2, "third");
+        List<ITIPMessageResult> results = main.processITIPMessageBatch(messages);
+        
+        assertEquals(4, results.size());
+        for (int i=0; i<4; i++)
+        {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(MethodType.PUBLISH, results.get(i).getMethod());
+        }
+        assertEquals(Status.SUPERSEDED, results.get(0).getStatus());
+        assertEquals(3, results.get(0).getSupersedingIndex());
+        assertEquals(Status.PROCESSED, results.get(1).getStatus());
+        assertEquals(Status.SUPERSEDED, results.get(2).getStatus());
+        assertEquals(3, results.get(2).getSupersedingIndex());
+        assertEquals(Status.PROCESSED, results.get(3).getStatus());
+        assertEquals("a@example.com", results.get(3).getUniqueIdentifier());
+        assertEquals(1, results.get(3).getLog().size());
+        
+        assertEquals(2, main.getVEvents().size());
+        assertEquals("third", main.getVEvents().get(0).getSummary().getValue());
+        assertEquals(2, (int) main.getVEvents().get(0).getSequence().getValue());
+        assertEquals("other", main.getVEvents().get(1).getSummary().getValue());
+    }
+    
+    @Test
+    public void canContinueAfterFailedMessage()
+    {
+        VCalendar main = new VCalendar();
+        main.processITIPMessage(getPublishMessage("a@example.com", 2, "current"));
+        List<VCalendar> messages = Arrays.asList(
+                VCalendar.parse(getPublishMessage("a@example.com", 1, "older")),
+                VCalendar.parse(getPublishMessage("b@example.com", 0, "other")));
+        List<ITIPMessageResult> results = new ITIPBatchProcessor(main).process(messages);
+        
+        assertEquals(Status.FAILED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getError());
+        assertEquals(-1, results.get(0).getSupersedingIndex());
+        assertEquals(Status.PROCESSED, results.get(1).getStatus());
+        assertNull(results.get(1).getError());
+        
+        assertEquals(2, main.getVEvents().size());
+        assertEquals("current", main.getVEvents().get(0).getSummary().getValue());
+    }
+}
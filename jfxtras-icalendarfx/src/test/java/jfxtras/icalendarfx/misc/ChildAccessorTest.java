@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2011-2020, JFXtras
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *    Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    Neither the name of the organization nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jfxtras.icalendarfx.misc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import jfxtras.icalendarfx.VChild;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.content.ChildAccessor;
+import jfxtras.icalendarfx.properties.component.descriptive.Comment;
+import jfxtras.icalendarfx.properties.component.descriptive.Summary;
+
+public class ChildAccessorTest
+{
+    @Test
+    public void canGetAndSetSingleChild()
+    {
+        Map<Class<? extends VChild>, ChildAccessor> accessors = ChildAccessor.accessors(VEvent.class);
+        ChildAccessor accessor = accessors.get(Summary.class);
+        assertFalse(accessor.isCollection());
+        
+        VEvent v = new VEvent();
+        Summary summary = Summary.parse("test summary");
+        accessor.set(v, summary);
+        assertSame(summary, v.getSummary());
+        assertSame(summary, accessor.get(v));
+        assertEquals(Arrays.asList(summary), v.childrenUnmodifiable());
+    }
+    
+    @Test
+    public void canGetAndSetListChildren()
+    {
+        ChildAccessor accessor = ChildAccessor.accessors(VEvent.class).get(Comment.class);
+        assertTrue(accessor.isCollection());
+        
+        VEvent v = new VEvent();
+        List<Comment> comments = Arrays.asList(Comment.parse("comment1"), Comment.parse("comment2"));
+        accessor.set(v, comments);
+        assertEquals(comments, accessor.get(v));
+        assertEquals(comments, v.childrenUnmodifiable());
+    }
+    
+    @Test
+    public void canUseAccessorsOnSeveralThreads()
+    {
+        String content = 
+                "BEGIN:VEVENT" + System.lineSeparator() +
+                "SUMMARY:test summary" + System.lineSeparator() +
+                "COMMENT:comment1" + System.lineSeparator() +
+                "COMMENT:comment2" + System.lineSeparator() +
+                "END:VEVENT";
+        List<VEvent> vEvents = IntStream.range(0, 200)
+                .parallel()
+                .mapToObj(i -> VEvent.parse(content))
+                .collect(Collectors.toList());
+        vEvents.forEach(v -> assertEquals(content, v.toString()));
+        assertTrue(vEvents.stream().allMatch(v -> v.equals(vEvents.get(0))));
+    }
+}
@@ -27,13 +27,24 @@
 package jfxtras.icalendarfx.misc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 import org.junit.Test;
 
+import jfxtras.icalendarfx.VElementBase;
+import jfxtras.icalendarfx.components.VComponent;
+import jfxtras.icalendarfx.components.VEvent;
+import jfxtras.icalendarfx.parameters.NonStandardParameter;
+import jfxtras.icalendarfx.parameters.TimeZoneIdentifierParameter;
+import jfxtras.icalendarfx.parameters.VParameter;
+import jfxtras.icalendarfx.properties.VProperty;
 import jfxtras.icalendarfx.properties.component.descriptive.Summary;
+import jfxtras.icalendarfx.properties.component.misc.NonStandardProperty;
+import jfxtras.icalendarfx.properties.component.timezone.TimeZoneIdentifier;
 
 public class CreateElementsTests
 {   
@@ -54,4 +65,27 @@ public class CreateElementsTests
     	Summary s2 = new Summary();
 		assertEquals(s, s2);
     }
+    
+    @Test
+    public void canMakeEmptyElements()
+    {
+        assertTrue(VElementBase.newEmptyVElement(VComponent.class, "VEVENT") instanceof VEvent);
+        assertTrue(VElementBase.newEmptyVElement(VProperty.class, "SUMMARY") instanceof Summary);
+        assertTrue(VElementBase.newEmptyVElement(VProperty.class, "TZID") instanceof TimeZoneIdentifier);
+        assertTrue(VElementBase.newEmptyVElement(VParameter.class, "TZID") instanceof TimeZoneIdentifierParameter);
+        assertTrue(VElementBase.newEmptyVElement(VProperty.class, "X-MY-PROPERTY") instanceof NonStandardProperty);
+        assertTrue(VElementBase.newEmptyVElement(VParameter.class, "X-MY-PARAMETER") instanceof NonStandardParameter);
+        assertNull(VElementBase.newEmptyVElement(VComponent.class, "SUMMARY"));
+        assertNull(VElementBase.newEmptyVElement(VProperty.class, "UNKNOWN"));
+        assertNull(VElementBase.newEmptyVElement(VProperty.class, null));
+    }
+    
+    @Test
+    public void canParseLowercaseNames()
+    {
+        VEvent v = VEvent.parse("BEGIN:VEVENT" + System.lineSeparator() +
+                "summary;language=en-US:test summary" + System.lineSeparator() +
+                "END:VEVENT");
+        assertEquals("SUMMARY;LANGUAGE=en-US:test summary", v.getSummary().toString());
+    }
 }
@@ -27,7 +27,9 @@
 package jfxtras.icalendarfx.parameter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -72,9 +74,56 @@ public class ParseDateTest
         String value = "DTSTART;VALUE=DATE:20160307";
         Temporal t = DateTimeUtilities.temporalFromString(value);
         assertEquals(LocalDate.of(2016, 3, 7), t);
-    }    
-   
-
+    }
+    
+    @Test
+    public void canParseLikeFormatters()
+    {
+        for (String value : new String[] { "20160101", "00010101", "20161231", "20160229", "20170228" })
+        {
+            assertEquals(LocalDate.parse(value, DateTimeUtilities.LOCAL_DATE_FORMATTER), DateTimeUtilities.temporalFromString(value));
+        }
+        for (String value : new String[] { "20160101T000000", "20161231T235959", "20160313T023000" })
+        {
+            assertEquals(LocalDateTime.parse(value, DateTimeUtilities.LOCAL_DATE_TIME_FORMATTER), DateTimeUtilities.temporalFromString(value));
+            assertEquals(ZonedDateTime.parse(value + "Z", DateTimeUtilities.ZONED_DATE_TIME_UTC_FORMATTER), DateTimeUtilities.temporalFromString(value + "Z"));
+            // includes daylight saving time gap and overlap
+            for (String zone : new String[] { "America/New_York", "Europe/London" })
+            {
+                assertEquals(ZonedDateTime.parse("[" + zone + "]" + value, DateTimeUtilities.ZONED_DATE_TIME_FORMATTER),
+                        DateTimeUtilities.temporalFromString("TZID=" + zone + ":" + value));
+            }
+        }
+        assertEquals(ZonedDateTime.parse("[Europe/London]20161030T013000", DateTimeUtilities.ZONED_DATE_TIME_FORMATTER),
+                DateTimeUtilities.temporalFromString("TZID=Europe/London:20161030T013000"));
+    }
+    
+    @Test
+    public void canParseUnusualDates()
+    {
+        // day beyond end of month is adjusted by the formatter
+        assertEquals(LocalDate.of(2016, 2, 29), DateTimeUtilities.temporalFromString("20160231"));
+        // time zone identifier isn't case-sensitive
+        assertEquals(ZonedDateTime.of(LocalDateTime.of(2016, 2, 28, 7, 0), ZoneId.of("America/Los_Angeles")),
+                DateTimeUtilities.temporalFromString("DTSTART;TZID=america/los_angeles:20160228T070000"));
+    }
+    
+    @Test (expected = DateTimeException.class)
+    public void canCatchInvalidMonth()
+    {
+        DateTimeUtilities.temporalFromString("20161301");
+    }
+    
+    @Test (expected = DateTimeException.class)
+    public void canCatchInvalidTime()
+    {
+        DateTimeUtilities.temporalFromString("20160101T250000");
+    }
+    
+    @Test
+    public void canCacheZoneId()
+    {
+        assertSame(DateTimeUtilities.zoneIdOf("America/New_York"), DateTimeUtilities.zoneIdOf("America/New_York"));
+        assertEquals(ZoneId.of("America/New_York"), DateTimeUtilities.zoneIdOf("America/New_York"));
+    }
 }
-
-
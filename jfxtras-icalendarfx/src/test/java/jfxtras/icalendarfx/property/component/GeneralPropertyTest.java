@@ -27,12 +27,16 @@
 package jfxtras.icalendarfx.property.component;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
 
+import jfxtras.icalendarfx.content.ContentLineTokenizer;
 import jfxtras.icalendarfx.parameters.ValueParameter;
 import jfxtras.icalendarfx.properties.ValueType;
 import jfxtras.icalendarfx.properties.component.descriptive.Summary;
@@ -116,6 +120,49 @@ public class GeneralPropertyTest
         assertEquals(expectedList, valueList);
     }
     
+    @Test
+    public void canTokenizeContentLine()
+    {
+        String contentLine = "DTSTART;tzid=America/New_York;VALUE=DATE-TIME:20160306T103000";
+        ContentLineTokenizer tokenizer = new ContentLineTokenizer(contentLine);
+        assertTrue(tokenizer.next());
+        assertTrue(tokenizer.nameEquals("TZID"));
+        assertEquals("TZID", tokenizer.name());
+        assertEquals(13, tokenizer.valueStart());
+        assertEquals(29, tokenizer.valueEnd());
+        assertEquals("America/New_York", tokenizer.value());
+        assertTrue(tokenizer.next());
+        assertEquals("VALUE", tokenizer.name());
+        assertEquals("DATE-TIME", tokenizer.value());
+        assertTrue(tokenizer.next());
+        assertTrue(tokenizer.isValue());
+        assertSame(ICalendarUtilities.PROPERTY_VALUE_KEY, tokenizer.name());
+        assertEquals("20160306T103000", tokenizer.value());
+        assertFalse(tokenizer.next());
+        
+        // reuse
+        tokenizer.reset("FREQ=DAILY;COUNT=3");
+        assertTrue(tokenizer.next());
+        assertEquals("FREQ", tokenizer.name());
+        assertEquals("DAILY", tokenizer.value());
+        assertTrue(tokenizer.next());
+        assertEquals("COUNT", tokenizer.name());
+        assertEquals("3", tokenizer.value());
+        assertFalse(tokenizer.next());
+
+        // borrowed from the thread, nested lines get their own tokenizer
+        ContentLineTokenizer outer = ContentLineTokenizer.acquire(contentLine);
+        ContentLineTokenizer inner = ContentLineTokenizer.acquire("FREQ=DAILY");
+        assertFalse(outer == inner);
+        assertTrue(inner.next());
+        assertEquals("DAILY", inner.value());
+        inner.release();
+        assertTrue(outer.next());
+        assertEquals("America/New_York", outer.value());
+        outer.release();
+        assertSame(outer, ContentLineTokenizer.acquire("RRULE:FREQ=DAILY"));
+    }
+    
     @Test
     public void canChangeValueType()
     {
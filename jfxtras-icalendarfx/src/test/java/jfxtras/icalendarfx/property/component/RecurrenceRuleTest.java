@@ -35,10 +35,17 @@ import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import org.junit.Test;
 
@@ -51,6 +58,7 @@ import jfxtras.icalendarfx.properties.component.recurrence.rrule.Until;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.WeekStart;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByDay;
 import jfxtras.icalendarfx.properties.component.recurrence.rrule.byxxx.ByMonth;
+import jfxtras.icalendarfx.utilities.DateTimeUtilities;
 import jfxtras.icalendarfx.utilities.ICalendarUtilities;
 import jfxtras.icalendarfx.utilities.Pair;
 
@@ -257,4 +265,86 @@ public class RecurrenceRuleTest
     	RecurrenceRule r2 = new RecurrenceRule(r1);
     	assertEquals(r1, r2);
     }
+    
+    /* same rule expanded by several threads at once */
+    @Test
+    public void canStreamRecurrencesConcurrently() throws InterruptedException, ExecutionException
+    {
+        RecurrenceRuleValue rrule = RecurrenceRuleValue.parse("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1,1;COUNT=500");
+        List<Temporal> expectedRecurrences = rrule
+                .streamRecurrences(LocalDateTime.of(2016, 1, 1, 10, 0))
+                .collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Callable<List<Temporal>>> tasks = new ArrayList<>();
+            for (int i=0; i<8; i++)
+            {
+                tasks.add(() -> rrule.streamRecurrences(LocalDateTime.of(2016, 1, 1, 10, 0)).collect(Collectors.toList()));
+            }
+            for (Future<List<Temporal>> result : executor.invokeAll(tasks))
+            {
+                assertEquals(expectedRecurrences, result.get());
+            }
+        } finally
+        {
+            executor.shutdown();
+        }
+    }
+    
+    /* filtered periods are skipped, including across daylight saving time transitions */
+    @Test
+    public void canSkipFilteredPeriods()
+    {
+        ZonedDateTime start = ZonedDateTime.of(LocalDateTime.of(2016, 3, 11, 0, 3), ZoneId.of("America/New_York"));
+        List<Temporal> expectedRecurrences = new ArrayList<>();
+        for (int minutes=0; expectedRecurrences.size() < 2000; minutes += 7)
+        {
+            ZonedDateTime t = start.plusMinutes(minutes);
+            if ((t.getHour() >= 1) && (t.getHour() <= 3))
+            {
+                expectedRecurrences.add(t);
+            }
+        }
+        RecurrenceRuleValue rrule = RecurrenceRuleValue.parse("FREQ=MINUTELY;INTERVAL=7;BYHOUR=1,2,3");
+        List<Temporal> recurrences = rrule
+                .streamRecurrences(start)
+                .limit(2000)
+                .collect(Collectors.toList());
+        assertEquals(expectedRecurrences, recurrences);
+    }
+    
+    /* seeking matches enumerating from DTSTART, including across daylight saving time transitions */
+    @Test
+    public void canSeekRecurrences()
+    {
+        ZonedDateTime start = ZonedDateTime.of(LocalDateTime.of(2015, 3, 7, 2, 30), ZoneId.of("America/New_York"));
+        List<String> rules = Arrays.asList("FREQ=DAILY", "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,SA", "FREQ=MONTHLY;BYMONTHDAY=-1",
+                "FREQ=DAILY;COUNT=4000", "FREQ=HOURLY;INTERVAL=5;BYDAY=SU");
+        for (String rule : rules)
+        {
+            RecurrenceRuleValue rrule = RecurrenceRuleValue.parse(rule);
+            assertTrue(rrule.isSeekable(start));
+            for (int year=2016; year<2030; year+=3)
+            {
+                ZonedDateTime target = start.withYear(year).withHour(2);
+                List<Temporal> expectedRecurrences = rrule
+                        .streamRecurrences(start)
+                        .filter(t -> ! DateTimeUtilities.isBefore(t, target))
+                        .limit(10)
+                        .collect(Collectors.toList());
+                List<Temporal> recurrences = rrule
+                        .streamRecurrences(start, target)
+                        .limit(10)
+                        .collect(Collectors.toList());
+                assertEquals(expectedRecurrences, recurrences);
+            }
+        }
+        RecurrenceRuleValue rrule = RecurrenceRuleValue.parse("FREQ=DAILY;COUNT=10");
+        Temporal lastRecurrence = rrule.streamRecurrences(start).skip(9).findFirst().get();
+        assertEquals(lastRecurrence, rrule.seek(start, lastRecurrence.minus(1, ChronoUnit.HOURS)));
+        assertEquals(null, rrule.seek(start, lastRecurrence.plus(1, ChronoUnit.HOURS)));
+        assertEquals(false, RecurrenceRuleValue.parse("FREQ=MONTHLY;BYDAY=FR;COUNT=10").isSeekable(start));
+        assertEquals(false, RecurrenceRuleValue.parse("FREQ=MONTHLY").isSeekable(start.withDayOfMonth(31)));
+    }
 }